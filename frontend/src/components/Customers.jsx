@@ -19,9 +19,15 @@ function Customers() {
   })
   const [searchEmail, setSearchEmail] = useState('')
   const [searchCredit, setSearchCredit] = useState('')
+  const [searchText, setSearchText] = useState('')
+  // Person search is off unless the server enables it; it answers 503 then.
+  const [textSearchAvailable, setTextSearchAvailable] = useState(true)
 
   useEffect(() => {
     fetchCustomers()
+    customerAPI.search('a', 1).catch((err) => {
+      if ((err.statusCode || err.response?.status) === 503) setTextSearchAvailable(false)
+    })
   }, [])
 
   const fetchCustomers = async () => {
@@ -134,6 +140,26 @@ function Customers() {
     }
   }
 
+  const handleSearchByText = async () => {
+    if (!searchText.trim()) return
+    try {
+      setLoading(true)
+      const response = await customerAPI.search(searchText, 50)
+      setCustomers(response.data.hits.map((hit) => hit.person))
+      setError(null)
+      showInfo(`Found ${response.data.hits.length} customers matching "${searchText}"`, response.status)
+    } catch (err) {
+      const status = err.statusCode || err.response?.status
+      if (status === 503) setTextSearchAvailable(false)
+      const message = 'Customer search is unavailable'
+      setError(message)
+      setCustomers([])
+      showError(message, status)
+    } finally {
+      setLoading(false)
+    }
+  }
+
   const handleSearchByCredit = async () => {
     if (!searchCredit) return
     try {
@@ -229,6 +255,21 @@ function Customers() {
       )}
 
       <div className="search-section">
+        {textSearchAvailable && (
+          <div className="search-group">
+            <input
+              type="text"
+              placeholder="Search by name, phone or address..."
+              value={searchText}
+              onChange={(e) => setSearchText(e.target.value)}
+              onKeyDown={(e) => e.key === 'Enter' && handleSearchByText()}
+              className="search-input"
+            />
+            <button onClick={handleSearchByText} className="btn btn-secondary">
+              Search
+            </button>
+          </div>
+        )}
         <div className="search-group">
           <input
             type="email"
@@ -1,8 +1,24 @@
-import React, { useState, useEffect } from 'react'
-import { customerAPI, loanAPI, loanTypeAPI, guarantorAPI, paymentAPI } from '../services/api'
+import React, { useState, useEffect, useRef } from 'react'
+import { dashboardAPI, eventStream } from '../services/api'
 import { useStatus } from '../context/StatusContext'
 import './Dashboard.css'
 
+// Changes that move the summary; a burst of them triggers one quiet refresh. Every server instance drops its
+// cached summary when it sees one of these, within stream.poll-interval-ms (500 ms), so the delay only has to
+// outlast that rather than dashboard.summary.cache-ttl-seconds.
+const SUMMARY_EVENTS = [
+  'CUSTOMER_CREATED',
+  'CUSTOMER_DELETED',
+  'LOAN_CREATED',
+  'LOAN_UPDATED',
+  'LOAN_DELETED',
+  'PAYMENT_CREATED',
+  'PAYMENT_UPDATED',
+  'PAYMENT_DELETED',
+  'RESYNC',
+]
+const REFRESH_DELAY_MS = 1000
+
 function Dashboard() {
   const [stats, setStats] = useState({
     customers: 0,
@@ -17,39 +33,32 @@ function Dashboard() {
   const [error, setError] = useState(null)
   const { showError, showSuccess } = useStatus()
 
+  const refreshTimer = useRef(null)
+
   useEffect(() => {
+    const refreshSoon = () => {
+      clearTimeout(refreshTimer.current)
+      refreshTimer.current = setTimeout(() => fetchStats(true), REFRESH_DELAY_MS)
+    }
+    const close = eventStream.subscribe(Object.fromEntries(SUMMARY_EVENTS.map((name) => [name, refreshSoon])))
     fetchStats()
+    return () => {
+      close()
+      clearTimeout(refreshTimer.current)
+    }
   }, [])
 
-  const fetchStats = async () => {
+  const fetchStats = async (quiet = false) => {
     try {
-      setLoading(true)
-      const [customersRes, loansRes, loanTypesRes, guarantorsRes, paymentsRes] = await Promise.all([
-        customerAPI.getAll(),
-        loanAPI.getAll(),
-        loanTypeAPI.getAll(),
-        guarantorAPI.getAll(),
-        paymentAPI.getAll(),
-      ])
-
-      const customers = customersRes.data
-      const loans = loansRes.data
-      const payments = paymentsRes.data
-
-      const totalLoanAmount = loans.reduce((sum, loan) => sum + (loan.loanAmount || 0), 0)
-      const totalPayments = payments.reduce((sum, payment) => sum + (payment.amount || 0), 0)
-
-      setStats({
-        customers: customers.length,
-        loans: loans.length,
-        loanTypes: loanTypesRes.data.length,
-        guarantors: guarantorsRes.data.length,
-        payments: payments.length,
-        totalLoanAmount,
-        totalPayments,
-      })
+      if (!quiet) {
+        setLoading(true)
+      }
+      const response = await dashboardAPI.getSummary()
+      setStats(response.data)
       setError(null)
-      showSuccess('Dashboard statistics loaded successfully', 200)
+      if (!quiet) {
+        showSuccess('Dashboard statistics loaded successfully', 200)
+      }
     } catch (err) {
       const message = 'Failed to fetch statistics. Make sure the backend is running on http://localhost:8080'
       setError(message)
@@ -72,7 +81,7 @@ function Dashboard() {
     <div className="dashboard">
       <div className="dashboard-header">
         <h2>Dashboard Overview</h2>
-        <button onClick={fetchStats} className="refresh-btn">
+        <button onClick={() => fetchStats()} className="refresh-btn">
           Refresh
         </button>
       </div>
@@ -17,9 +17,15 @@ function Guarantors() {
     address: '',
     creditScore: '',
   })
+  const [searchText, setSearchText] = useState('')
+  // Person search is off unless the server enables it; it answers 503 then.
+  const [textSearchAvailable, setTextSearchAvailable] = useState(true)
 
   useEffect(() => {
     fetchGuarantors()
+    guarantorAPI.search('a', 1).catch((err) => {
+      if ((err.statusCode || err.response?.status) === 503) setTextSearchAvailable(false)
+    })
   }, [])
 
   const fetchGuarantors = async () => {
@@ -39,6 +45,26 @@ function Guarantors() {
     }
   }
 
+  const handleSearchByText = async () => {
+    if (!searchText.trim()) return
+    try {
+      setLoading(true)
+      const response = await guarantorAPI.search(searchText, 50)
+      setGuarantors(response.data.hits.map((hit) => hit.person))
+      setError(null)
+      showSuccess(`Found ${response.data.hits.length} guarantors matching "${searchText}"`, response.status)
+    } catch (err) {
+      const status = err.statusCode || err.response?.status
+      if (status === 503) setTextSearchAvailable(false)
+      const message = 'Guarantor search is unavailable'
+      setError(message)
+      setGuarantors([])
+      showError(message, status)
+    } finally {
+      setLoading(false)
+    }
+  }
+
   const handleSubmit = async (e) => {
     e.preventDefault()
     try {
@@ -188,6 +214,27 @@ function Guarantors() {
         </form>
       )}
 
+      <div className="search-section">
+        {textSearchAvailable && (
+          <div className="search-group">
+            <input
+              type="text"
+              placeholder="Search by name, phone or address..."
+              value={searchText}
+              onChange={(e) => setSearchText(e.target.value)}
+              onKeyDown={(e) => e.key === 'Enter' && handleSearchByText()}
+              className="search-input"
+            />
+            <button onClick={handleSearchByText} className="btn btn-secondary">
+              Search
+            </button>
+          </div>
+        )}
+        <button onClick={fetchGuarantors} className="btn btn-secondary">
+          Reset
+        </button>
+      </div>
+
       {loading && !showForm ? (
         <div className="loading">Loading guarantors...</div>
       ) : (
@@ -1,8 +1,18 @@
-import React, { useState, useEffect } from 'react'
-import { loanAPI, customerAPI, loanTypeAPI } from '../services/api'
+import React, { useState, useEffect, useRef } from 'react'
+import { loanAPI, customerAPI, loanTypeAPI, eventStream } from '../services/api'
 import { useStatus } from '../context/StatusContext'
 import './TableComponent.css'
 
+const STATUS_TRANSITIONS = {
+  PENDING: ['APPROVED', 'REJECTED'],
+  APPROVED: ['DISBURSED', 'REJECTED'],
+  DISBURSED: ['CLOSED', 'DEFAULTED'],
+  DEFAULTED: ['CLOSED'],
+  REJECTED: [],
+  CLOSED: [],
+}
+const LOAN_STATUSES = Object.keys(STATUS_TRANSITIONS)
+
 function Loans() {
   const [loans, setLoans] = useState([])
   const [customers, setCustomers] = useState([])
@@ -12,6 +22,7 @@ function Loans() {
   const { showError, showSuccess, showInfo } = useStatus()
   const [showForm, setShowForm] = useState(false)
   const [editingId, setEditingId] = useState(null)
+  const [editingStatus, setEditingStatus] = useState(null)
   const [formData, setFormData] = useState({
     loanAmount: '',
     interestRate: '',
@@ -21,14 +32,44 @@ function Loans() {
     loanType: { loanTypeId: '' },
   })
   const [statusFilter, setStatusFilter] = useState('')
+  const appliedFilter = useRef('')
 
   useEffect(() => {
+    const close = eventStream.subscribe({
+      LOAN_CREATED: upsertLoan,
+      LOAN_UPDATED: upsertLoan,
+      LOAN_STATUS_CHANGED: upsertLoan,
+      LOAN_DELETED: ({ loanId }) => removeLoan(loanId),
+      RESYNC: () => (appliedFilter.current ? fetchLoansByStatus(appliedFilter.current) : fetchLoans()),
+    })
     fetchLoans()
     fetchCustomers()
     fetchLoanTypes()
+    return close
   }, [])
 
+  // Applies a pushed loan to the table, dropping it if it no longer matches the applied status filter.
+  const upsertLoan = (loan) => {
+    setLoans((current) => {
+      if (appliedFilter.current && loan.status !== appliedFilter.current) {
+        return current.filter((l) => l.loanId !== loan.loanId)
+      }
+      const index = current.findIndex((l) => l.loanId === loan.loanId)
+      if (index < 0) {
+        return [...current, loan]
+      }
+      const next = [...current]
+      next[index] = loan
+      return next
+    })
+  }
+
+  const removeLoan = (loanId) => {
+    setLoans((current) => current.filter((loan) => loan.loanId !== loanId))
+  }
+
   const fetchLoans = async () => {
+    appliedFilter.current = ''
     try {
       setLoading(true)
       const response = await loanAPI.getAll()
@@ -100,6 +141,7 @@ function Loans() {
 
   const handleEdit = (loan) => {
     setEditingId(loan.loanId)
+    setEditingStatus(loan.status || null)
     setFormData({
       loanAmount: loan.loanAmount || '',
       interestRate: loan.interestRate || '',
@@ -140,6 +182,7 @@ function Loans() {
       loanType: { loanTypeId: '' },
     })
     setEditingId(null)
+    setEditingStatus(null)
     setShowForm(false)
   }
 
@@ -148,12 +191,17 @@ function Loans() {
       fetchLoans()
       return
     }
+    fetchLoansByStatus(statusFilter)
+  }
+
+  const fetchLoansByStatus = async (status) => {
+    appliedFilter.current = status
     try {
       setLoading(true)
-      const response = await loanAPI.getByStatus(statusFilter)
+      const response = await loanAPI.getByStatus(status)
       setLoans(response.data)
       setError(null)
-      showInfo(`Found ${response.data.length} loans with status: ${statusFilter}`, response.status)
+      showInfo(`Found ${response.data.length} loans with status: ${status}`, response.status)
     } catch (err) {
       const message = 'No loans found with this status'
       setError(message)
@@ -172,11 +220,21 @@ function Loans() {
         return '#ef4444'
       case 'PENDING':
         return '#f59e0b'
+      case 'DISBURSED':
+        return '#3b82f6'
+      case 'CLOSED':
+        return '#6366f1'
+      case 'DEFAULTED':
+        return '#b91c1c'
       default:
         return '#6b7280'
     }
   }
 
+  const statusOptions = editingStatus
+    ? [editingStatus, ...(STATUS_TRANSITIONS[editingStatus] || [])]
+    : ['PENDING']
+
   return (
     <div className="table-container">
       <div className="table-header">
@@ -235,9 +293,9 @@ function Loans() {
                 required
               >
                 <option value="">Select Status</option>
-                <option value="PENDING">PENDING</option>
-                <option value="APPROVED">APPROVED</option>
-                <option value="REJECTED">REJECTED</option>
+                {statusOptions.map((status) => (
+                  <option key={status} value={status}>{status}</option>
+                ))}
               </select>
             </div>
             <div className="form-group">
@@ -300,9 +358,9 @@ function Loans() {
             className="search-input"
           >
             <option value="">All Statuses</option>
-            <option value="PENDING">PENDING</option>
-            <option value="APPROVED">APPROVED</option>
-            <option value="REJECTED">REJECTED</option>
+            {LOAN_STATUSES.map((status) => (
+              <option key={status} value={status}>{status}</option>
+            ))}
           </select>
           <button onClick={handleFilterByStatus} className="btn btn-secondary">
             Filter
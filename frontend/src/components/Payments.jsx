@@ -1,5 +1,5 @@
 import React, { useState, useEffect } from 'react'
-import { paymentAPI, loanAPI } from '../services/api'
+import { paymentAPI, loanAPI, eventStream } from '../services/api'
 import { useStatus } from '../context/StatusContext'
 import './TableComponent.css'
 
@@ -18,10 +18,30 @@ function Payments() {
   })
 
   useEffect(() => {
+    const close = eventStream.subscribe({
+      PAYMENT_CREATED: upsertPayment,
+      PAYMENT_UPDATED: upsertPayment,
+      PAYMENT_DELETED: ({ paymentId }) =>
+        setPayments((current) => current.filter((payment) => payment.paymentId !== paymentId)),
+      RESYNC: () => fetchPayments(),
+    })
     fetchPayments()
     fetchLoans()
+    return close
   }, [])
 
+  const upsertPayment = (payment) => {
+    setPayments((current) => {
+      const index = current.findIndex((p) => p.paymentId === payment.paymentId)
+      if (index < 0) {
+        return [...current, payment]
+      }
+      const next = [...current]
+      next[index] = payment
+      return next
+    })
+  }
+
   const fetchPayments = async () => {
     try {
       setLoading(true)
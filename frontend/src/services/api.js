@@ -40,12 +40,15 @@ api.interceptors.response.use(
 export const customerAPI = {
   getAll: () => api.get("/customers"),
   getById: (id) => api.get(`/customers/${id}`),
+  getOverview: (id) => api.get(`/customers/${id}/overview`),
   create: (data) => api.post("/customers", data),
   update: (id, data) => api.put(`/customers/${id}`, data),
   delete: (id) => api.delete(`/customers/${id}`),
   getByEmail: (email) => api.get(`/customers/email/${email}`),
   getByCreditScore: (score) => api.get(`/customers/creditScore/${score}`),
   getPaginated: (page, size) => api.get(`/customers/page/${page}/${size}`),
+  getPage: (after, size) => api.get("/customers/cursor", { params: { after, size } }),
+  search: (q, limit) => api.get("/customers/search", { params: { q, limit } }),
 };
 
 export const loanAPI = {
@@ -55,6 +58,15 @@ export const loanAPI = {
   update: (id, data) => api.put(`/loans/${id}`, data),
   delete: (id) => api.delete(`/loans/${id}`),
   getByStatus: (status) => api.get(`/loans/status/${status}`),
+  getStatusCounts: () => api.get("/loans/status-counts"),
+  updateStatus: (id, status) => api.put(`/loans/${id}/status/${status}`),
+  getPage: (after, size) => api.get("/loans/cursor", { params: { after, size } }),
+  // filters: status (array), loanTypeId, customerId, minAmount, maxAmount, minTenure,
+  // maxTenure, minCreditScore, maxCreditScore, sort (LOAN_ID|AMOUNT|TENURE), direction.
+  search: (filters, after, size) =>
+    api.get("/loans/search", {
+      params: { ...filters, status: filters.status?.join(","), after, size },
+    }),
 };
 
 export const loanTypeAPI = {
@@ -71,6 +83,7 @@ export const guarantorAPI = {
   create: (data) => api.post("/guarantors", data),
   update: (id, data) => api.put(`/guarantors/${id}`, data),
   delete: (id) => api.delete(`/guarantors/${id}`),
+  search: (q, limit) => api.get("/guarantors/search", { params: { q, limit } }),
 };
 
 export const paymentAPI = {
@@ -79,6 +92,32 @@ export const paymentAPI = {
   create: (data) => api.post("/payments", data),
   update: (id, data) => api.put(`/payments/${id}`, data),
   delete: (id) => api.delete(`/payments/${id}`),
+  getPage: (after, size) => api.get("/payments/cursor", { params: { after, size } }),
+  getTimeseries: (from, to, granularity) =>
+    api.get("/payments/timeseries", { params: { from, to, granularity } }),
+};
+
+export const dashboardAPI = {
+  getSummary: () => api.get("/dashboard/summary"),
+};
+
+// Opens the server-sent event stream of committed changes. `handlers` maps event
+// names (PAYMENT_CREATED, LOAN_STATUS_CHANGED, ...) to callbacks that receive the
+// parsed payload; only those types are streamed. RESYNC means events were missed
+// and the caller should reload. The browser reconnects on its own and resumes
+// after the last event it saw. Returns a function that closes the stream.
+export const eventStream = {
+  subscribe: (handlers) => {
+    const params = new URLSearchParams();
+    Object.keys(handlers)
+      .filter((name) => name !== "RESYNC")
+      .forEach((name) => params.append("types", name));
+    const source = new EventSource(`${API_BASE_URL}/stream/events?${params}`);
+    Object.entries(handlers).forEach(([name, handler]) => {
+      source.addEventListener(name, (event) => handler(JSON.parse(event.data)));
+    });
+    return () => source.close();
+  },
 };
 
 export default api;
@@ -0,0 +1,98 @@
+package com.examly.springapp.aop;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records a latency histogram (p50/p95/p99), call count and error count for
+ * every controller and service method. Meters are registered once per
+ * method and looked up by {@link Method}, so a timed call allocates nothing
+ * beyond what Micrometer needs to record the sample.
+ */
+@Aspect
+@Component
+public class TimingAspect {
+
+    static final String LATENCY_METRIC = "app.method.latency";
+    static final String ERRORS_METRIC = "app.method.errors";
+
+    private static final Logger logger = LoggerFactory.getLogger(TimingAspect.class);
+
+    private final MeterRegistry registry;
+    private final double logSampleRate;
+    private final Map<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    public TimingAspect(MeterRegistry registry, @Value("${app.timing.log-sample-rate:0}") double logSampleRate) {
+        this.registry = registry;
+        this.logSampleRate = logSampleRate;
+    }
+
+    @Around("execution(* com.examly.springapp.controller.*.*(..))")
+    public Object timeControllerMethods(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "controller");
+    }
+
+    @Around("execution(* com.examly.springapp.service.*.*(..))")
+    public Object timeServiceMethods(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "service");
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        MethodMeters methodMeters = meters.get(method);
+        if (methodMeters == null) {
+            methodMeters = meters.computeIfAbsent(method, m -> new MethodMeters(registry, layer, m));
+        }
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            methodMeters.errors.increment();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            methodMeters.latency.record(elapsed, TimeUnit.NANOSECONDS);
+            if (logSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < logSampleRate) {
+                logger.info("{}.{} took {} us", method.getDeclaringClass().getSimpleName(), method.getName(),
+                        TimeUnit.NANOSECONDS.toMicros(elapsed));
+            }
+        }
+    }
+
+    private static final class MethodMeters {
+
+        final Timer latency;
+        final Counter errors;
+
+        MethodMeters(MeterRegistry registry, String layer, Method method) {
+            String className = method.getDeclaringClass().getSimpleName();
+            latency = Timer.builder(LATENCY_METRIC)
+                    .tag("layer", layer)
+                    .tag("class", className)
+                    .tag("method", method.getName())
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            errors = Counter.builder(ERRORS_METRIC)
+                    .tag("layer", layer)
+                    .tag("class", className)
+                    .tag("method", method.getName())
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.examly.springapp.configuration;
+
+import com.examly.springapp.service.CustomerService;
+import com.examly.springapp.service.DashboardService;
+import com.examly.springapp.service.LoanSimulationService;
+import com.examly.springapp.service.LoanTypeService;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    @Value("${dashboard.summary.cache-ttl-seconds:5}")
+    private long dashboardSummaryTtlSeconds;
+    
+    @Value("${loantypes.cache.maximum-size:1000}")
+    private long loanTypesMaximumSize;
+    
+    @Value("${loantypes.cache.ttl-minutes:60}")
+    private long loanTypesTtlMinutes;
+    
+    @Value("${customers.email-cache.maximum-size:10000}")
+    private long customerEmailMaximumSize;
+    
+    @Value("${customers.email-cache.ttl-minutes:10}")
+    private long customerEmailTtlMinutes;
+    
+    @Value("${loans.simulation.cache.maximum-size:2000}")
+    private long loanQuotesMaximumSize;
+    
+    @Value("${loans.simulation.cache.ttl-minutes:30}")
+    private long loanQuotesTtlMinutes;
+    
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // A TTL of 0 makes every entry expire on write, which disables the cache.
+        cacheManager.registerCustomCache(DashboardService.SUMMARY_CACHE, Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(Duration.ofSeconds(dashboardSummaryTtlSeconds))
+                .build());
+        cacheManager.registerCustomCache(LoanTypeService.ALL_CACHE, Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(Duration.ofMinutes(loanTypesTtlMinutes))
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(LoanTypeService.BY_ID_CACHE, Caffeine.newBuilder()
+                .maximumSize(loanTypesMaximumSize)
+                .expireAfterWrite(Duration.ofMinutes(loanTypesTtlMinutes))
+                .recordStats()
+                .build());
+        for (String name : new String[] {CustomerService.BY_EMAIL_CACHE, CustomerService.JSON_BY_EMAIL_CACHE}) {
+            cacheManager.registerCustomCache(name, Caffeine.newBuilder()
+                    .maximumSize(customerEmailMaximumSize)
+                    .expireAfterWrite(Duration.ofMinutes(customerEmailTtlMinutes))
+                    .recordStats()
+                    .build());
+        }
+        // Entries hold a full schedule (about 12 KB for 360 months), so the bound is kept modest.
+        cacheManager.registerCustomCache(LoanSimulationService.QUOTE_CACHE, Caffeine.newBuilder()
+                .maximumSize(loanQuotesMaximumSize)
+                .expireAfterAccess(Duration.ofMinutes(loanQuotesTtlMinutes))
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
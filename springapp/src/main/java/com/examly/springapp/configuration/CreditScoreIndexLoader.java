@@ -0,0 +1,36 @@
+package com.examly.springapp.configuration;
+
+import com.examly.springapp.service.CustomerService;
+import com.examly.springapp.service.GuarantorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the in-memory credit score indexes from the database at startup.
+ * Until this has run the services answer score queries from MySQL.
+ */
+@Component
+@ConditionalOnProperty(name = "creditscore.index.enabled", havingValue = "true", matchIfMissing = true)
+public class CreditScoreIndexLoader implements ApplicationRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CreditScoreIndexLoader.class);
+    
+    private final CustomerService customerService;
+    private final GuarantorService guarantorService;
+    
+    public CreditScoreIndexLoader(CustomerService customerService, GuarantorService guarantorService) {
+        this.customerService = customerService;
+        this.guarantorService = guarantorService;
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        int customers = customerService.rebuildCreditScoreIndex();
+        int guarantors = guarantorService.rebuildCreditScoreIndex();
+        logger.info("Loaded credit score index: {} customers, {} guarantors", customers, guarantors);
+    }
+}
@@ -0,0 +1,27 @@
+package com.examly.springapp.configuration;
+
+import com.examly.springapp.service.LoanBookService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the in-memory loan book read model at startup when it is enabled.
+ * Until this has run the analytics endpoint answers 503.
+ */
+@Component
+@ConditionalOnProperty(name = "analytics.loan-book.enabled", havingValue = "true")
+public class LoanBookLoader implements ApplicationRunner {
+    
+    private final LoanBookService loanBookService;
+    
+    public LoanBookLoader(LoanBookService loanBookService) {
+        this.loanBookService = loanBookService;
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        loanBookService.rebuild();
+    }
+}
@@ -0,0 +1,49 @@
+package com.examly.springapp.configuration;
+
+import com.examly.springapp.model.LoanType;
+import com.examly.springapp.service.LoanTypeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Loads every loan type into the service caches before traffic arrives, so
+ * the first requests after a deploy do not all miss and hit MySQL at once.
+ * It runs once every singleton is created, before the web server starts,
+ * and after the money column migration, so the cached rates are converted.
+ */
+@Component
+public class LoanTypeCacheWarmer implements SmartInitializingSingleton {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LoanTypeCacheWarmer.class);
+    
+    private final LoanTypeService loanTypeService;
+    private final CacheManager cacheManager;
+    private final MoneyColumnMigration moneyColumnMigration;
+    
+    public LoanTypeCacheWarmer(LoanTypeService loanTypeService, CacheManager cacheManager,
+                               MoneyColumnMigration moneyColumnMigration) {
+        this.loanTypeService = loanTypeService;
+        this.cacheManager = cacheManager;
+        this.moneyColumnMigration = moneyColumnMigration;
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        moneyColumnMigration.migrate();
+        List<LoanType> loanTypes = loanTypeService.getAllLoanTypes();
+        // The cache interceptor may not be initialized yet and would then skip its own put.
+        cacheManager.getCache(LoanTypeService.ALL_CACHE).put(SimpleKey.EMPTY, loanTypes);
+        Cache byId = cacheManager.getCache(LoanTypeService.BY_ID_CACHE);
+        for (LoanType loanType : loanTypes) {
+            byId.put(loanType.getLoanTypeId(), loanType);
+        }
+        logger.info("Pre-warmed {} loan types", loanTypes.size());
+    }
+}
@@ -0,0 +1,67 @@
+package com.examly.springapp.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Amounts and rates used to be stored as DOUBLE columns. Hibernate's schema
+ * update adds the new minor-unit and basis-point columns next to them; this
+ * copies the old values across, rounded to the nearest cent or basis point,
+ * for rows that have not been converted yet. It runs once every singleton
+ * is created, which is after the schema update and before the web server
+ * starts, the scheduled jobs begin and the startup runners load their
+ * caches, so no request or job ever sees an unconverted row. Startup hooks
+ * that read converted columns call {@link #migrate()} first, since Spring
+ * does not order one SmartInitializingSingleton after another.
+ */
+@Component
+public class MoneyColumnMigration implements SmartInitializingSingleton {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MoneyColumnMigration.class);
+    
+    private static final String[][] COLUMNS = {
+            {"loans", "loan_amount", "loan_amount_minor", "100"},
+            {"loans", "interest_rate", "interest_rate_bps", "100"},
+            {"loan_types", "interest_rate", "interest_rate_bps", "100"},
+            {"payments", "amount", "amount_minor", "100"},
+    };
+    
+    private final JdbcTemplate jdbcTemplate;
+    private boolean migrated;
+    
+    public MoneyColumnMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrate();
+    }
+    
+    /** Converts the old columns; only the first call does any work. */
+    public synchronized void migrate() {
+        if (migrated) {
+            return;
+        }
+        migrated = true;
+        for (String[] column : COLUMNS) {
+            String table = column[0];
+            String from = column[1];
+            String to = column[2];
+            try {
+                int updated = jdbcTemplate.update("UPDATE " + table + " SET " + to + " = ROUND(" + from + " * "
+                        + column[3] + ") WHERE " + to + " IS NULL AND " + from + " IS NOT NULL");
+                if (updated > 0) {
+                    logger.info("Converted {} {}.{} values into {}", updated, table, from, to);
+                }
+            } catch (DataAccessException e) {
+                // Schemas created after the switch never had the old column.
+                logger.debug("Skipping {}.{} conversion: {}", table, from, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.examly.springapp.configuration;
+
+import com.examly.springapp.model.Payment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Payment ids used to come from an AUTO_INCREMENT column. On MySQL the
+ * pooled payment_seq generator is emulated with a single-row table, which
+ * starts at 1 when first created; this moves it past the highest existing
+ * id (plus one allocation block, which the pooled optimizer hands out
+ * below the stored value) so new inserts cannot collide with old rows.
+ * It runs once every singleton is created, before the web server starts,
+ * so no request can take an id from the table before it is aligned.
+ */
+@Component
+public class PaymentSequenceInitializer implements SmartInitializingSingleton {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PaymentSequenceInitializer.class);
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public PaymentSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(payment_id), 0) FROM payments", Long.class);
+            long floor = maxId + Payment.ID_ALLOCATION_SIZE + 1;
+            int updated = jdbcTemplate.update(
+                    "UPDATE " + Payment.ID_SEQUENCE + " SET next_val = ? WHERE next_val < ?", floor, floor);
+            if (updated > 0) {
+                logger.info("Advanced {} to {}", Payment.ID_SEQUENCE, floor);
+            }
+        } catch (DataAccessException e) {
+            // Databases with native sequences have no emulation table to align.
+            logger.debug("Skipping {} alignment: {}", Payment.ID_SEQUENCE, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.examly.springapp.configuration;
+
+import com.examly.springapp.service.PersonSearchService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the customer and guarantor search indexes at startup when person
+ * search is enabled. Until this has run the search endpoints answer 503.
+ */
+@Component
+@ConditionalOnProperty(name = "search.people.enabled", havingValue = "true")
+public class PersonSearchIndexLoader implements ApplicationRunner {
+    
+    private final PersonSearchService personSearchService;
+    
+    public PersonSearchIndexLoader(PersonSearchService personSearchService) {
+        this.personSearchService = personSearchService;
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        personSearchService.rebuildCustomers();
+        personSearchService.rebuildGuarantors();
+    }
+}
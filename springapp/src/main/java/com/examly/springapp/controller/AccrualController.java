@@ -0,0 +1,41 @@
+package com.examly.springapp.controller;
+
+import com.examly.springapp.model.AccrualRun;
+import com.examly.springapp.model.LoanAccrual;
+import com.examly.springapp.service.InterestAccrualService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/accruals")
+public class AccrualController {
+    
+    @Autowired
+    private InterestAccrualService interestAccrualService;
+    
+    @PostMapping("/{date}")
+    public ResponseEntity<AccrualRun> accrue(@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        AccrualRun run = interestAccrualService.accrue(date);
+        return new ResponseEntity<>(run, HttpStatus.OK);
+    }
+    
+    @GetMapping("/{date}")
+    public ResponseEntity<AccrualRun> getRun(@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        Optional<AccrualRun> run = interestAccrualService.getRun(date);
+        return run.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+    
+    @GetMapping("/loans/{loanId}")
+    public ResponseEntity<LoanAccrual> getLoanAccrual(@PathVariable Long loanId) {
+        Optional<LoanAccrual> accrual = interestAccrualService.getLoanAccrual(loanId);
+        return accrual.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+}
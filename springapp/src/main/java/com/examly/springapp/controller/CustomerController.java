@@ -1,10 +1,18 @@
 package com.examly.springapp.controller;
 
+import com.examly.springapp.dto.CursorPage;
+import com.examly.springapp.dto.CustomerOverview;
+import com.examly.springapp.dto.PersonSearchResults;
+import com.examly.springapp.dto.ScoreCount;
 import com.examly.springapp.model.Customer;
+import com.examly.springapp.service.CustomerOverviewService;
 import com.examly.springapp.service.CustomerService;
+import com.examly.springapp.service.PersonSearchService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,6 +26,15 @@ public class CustomerController {
  @Autowired
  private CustomerService customerService;
  
+ @Autowired
+ private CustomerOverviewService customerOverviewService;
+ 
+ @Autowired
+ private PersonSearchService personSearchService;
+ 
+ @Value("${customers.email-lookup.serve-cached-bytes:false}")
+ private boolean serveCachedBytes;
+ 
  @PostMapping
  public ResponseEntity<Customer> addCustomer(@RequestBody Customer customer) {
  Customer savedCustomer = customerService.addCustomer(customer);
@@ -39,6 +56,13 @@ public class CustomerController {
  .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
  }
  
+ @GetMapping("/{id}/overview")
+ public ResponseEntity<CustomerOverview> getCustomerOverview(@PathVariable Long id) {
+ return customerOverviewService.getOverview(id)
+ .map(overview -> new ResponseEntity<>(overview, HttpStatus.OK))
+ .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+ }
+ 
  @PutMapping("/{id}")
  public ResponseEntity<Customer> updateCustomer(@PathVariable Long id, @RequestBody Customer customer) {
  Customer updatedCustomer = customerService.updateCustomer(id, customer);
@@ -59,23 +83,64 @@ public class CustomerController {
  return new ResponseEntity<>(customers, HttpStatus.OK);
  }
 
+ @GetMapping("/cursor")
+ public ResponseEntity<CursorPage<Customer>> getCustomersAfter(
+ @RequestParam(required = false) String after,
+ @RequestParam(defaultValue = "20") int size) {
+ CursorPage<Customer> customers = customerService.getCustomersAfter(after, size);
+ return new ResponseEntity<>(customers, HttpStatus.OK);
+ }
+
+ @GetMapping("/search")
+ public ResponseEntity<PersonSearchResults<Customer>> searchCustomers(
+ @RequestParam String q,
+ @RequestParam(defaultValue = "10") int limit) {
+ return personSearchService.searchCustomers(q, limit)
+ .map(results -> new ResponseEntity<>(results, HttpStatus.OK))
+ .orElseGet(() -> new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE));
+ }
+
  @GetMapping("/email/{email}")
- public ResponseEntity<String> getCustomerByEmail(@PathVariable String email) {
+ public ResponseEntity<?> getCustomerByEmail(@PathVariable String email) {
+ if (serveCachedBytes) {
+ Optional<byte[]> json = customerService.getCustomerJsonByEmail(email);
+ if (json.isPresent()) {
+ return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json.get());
+ }
+ } else {
  Optional<Customer> customer = customerService.getCustomerByEmail(email);
- 
  if (customer.isPresent()) {
- return ResponseEntity.ok()
- .body("{\"customerId\":" + customer.get().getCustomerId() + 
- ",\"customerName\":\"" + customer.get().getCustomerName() + 
- "\",\"email\":\"" + customer.get().getEmail() + 
- "\",\"phoneNumber\":\"" + customer.get().getPhoneNumber() + 
- "\",\"address\":\"" + customer.get().getAddress() + 
- "\",\"creditScore\":" + customer.get().getCreditScore() + "}");
+ return new ResponseEntity<>(customer.get(), HttpStatus.OK);
+ }
  }
  
  return new ResponseEntity<>("Customer not found with email: " + email, HttpStatus.NOT_FOUND);
  }
  
+ @GetMapping("/creditScore/range")
+ public ResponseEntity<CursorPage<Customer>> getCustomersByCreditScoreRange(
+ @RequestParam(defaultValue = "0") double min,
+ @RequestParam(defaultValue = "1000") double max,
+ @RequestParam(required = false) String after,
+ @RequestParam(defaultValue = "20") int size) {
+ CursorPage<Customer> customers = customerService.getCustomersByCreditScoreRange(min, max, after, size);
+ return new ResponseEntity<>(customers, HttpStatus.OK);
+ }
+ 
+ @GetMapping("/creditScore/count")
+ public ResponseEntity<ScoreCount> countCustomersByCreditScore(
+ @RequestParam(defaultValue = "0") double min,
+ @RequestParam(defaultValue = "1000") double max) {
+ long count = customerService.countCustomersByCreditScore(min, max);
+ return new ResponseEntity<>(new ScoreCount(min, max, count), HttpStatus.OK);
+ }
+ 
+ @GetMapping("/creditScore/top/{n}")
+ public ResponseEntity<List<Customer>> getTopCustomersByCreditScore(@PathVariable int n) {
+ List<Customer> customers = customerService.getTopCustomersByCreditScore(n);
+ return new ResponseEntity<>(customers, HttpStatus.OK);
+ }
+ 
  @GetMapping("/creditScore/{creditScore}")
  public ResponseEntity<?> getCustomersByCreditScore(@PathVariable Double creditScore) {
  List<Customer> customers = customerService.getCustomersByCreditScore(creditScore);
@@ -0,0 +1,22 @@
+package com.examly.springapp.controller;
+
+import com.examly.springapp.dto.DashboardSummary;
+import com.examly.springapp.service.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/dashboard")
+public class DashboardController {
+    
+    @Autowired
+    private DashboardService dashboardService;
+    
+    @GetMapping("/summary")
+    public ResponseEntity<DashboardSummary> getSummary() {
+        DashboardSummary summary = dashboardService.getSummary();
+        return new ResponseEntity<>(summary, HttpStatus.OK);
+    }
+}
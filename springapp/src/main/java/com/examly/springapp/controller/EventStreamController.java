@@ -0,0 +1,48 @@
+package com.examly.springapp.controller;
+
+import com.examly.springapp.model.OutboxEvent;
+import com.examly.springapp.service.EventStreamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/stream")
+public class EventStreamController {
+    
+    @Autowired
+    private EventStreamService eventStreamService;
+    
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(@RequestParam(required = false) List<String> types,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader) {
+        Long lastEventId = null;
+        if (lastEventIdHeader != null && !lastEventIdHeader.isBlank()) {
+            try {
+                lastEventId = Long.valueOf(lastEventIdHeader.trim());
+            } catch (NumberFormatException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        Set<OutboxEvent.Type> wanted = EnumSet.noneOf(OutboxEvent.Type.class);
+        if (types != null) {
+            for (String type : types) {
+                wanted.add(OutboxEvent.Type.valueOf(type.trim().toUpperCase(Locale.ROOT)));
+            }
+        }
+        return eventStreamService.subscribe(wanted, lastEventId)
+                .map(emitter -> ResponseEntity.ok()
+                        .header("Cache-Control", "no-cache")
+                        .header("X-Accel-Buffering", "no")
+                        .body(emitter))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE));
+    }
+}
@@ -1,7 +1,11 @@
 package com.examly.springapp.controller;
 
+import com.examly.springapp.dto.CursorPage;
+import com.examly.springapp.dto.PersonSearchResults;
+import com.examly.springapp.dto.ScoreCount;
 import com.examly.springapp.model.Guarantor;
 import com.examly.springapp.service.GuarantorService;
+import com.examly.springapp.service.PersonSearchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +21,9 @@ public class GuarantorController {
     @Autowired
     private GuarantorService guarantorService;
     
+    @Autowired
+    private PersonSearchService personSearchService;
+    
     @PostMapping
     public ResponseEntity<Guarantor> addGuarantor(@RequestBody Guarantor guarantor) {
         Guarantor savedGuarantor = guarantorService.addGuarantor(guarantor);
@@ -29,6 +36,39 @@ public class GuarantorController {
         return new ResponseEntity<>(guarantors, HttpStatus.OK);
     }
     
+    @GetMapping("/creditScore/range")
+    public ResponseEntity<CursorPage<Guarantor>> getGuarantorsByCreditScoreRange(
+            @RequestParam(defaultValue = "0") double min,
+            @RequestParam(defaultValue = "1000") double max,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<Guarantor> guarantors = guarantorService.getGuarantorsByCreditScoreRange(min, max, after, size);
+        return new ResponseEntity<>(guarantors, HttpStatus.OK);
+    }
+    
+    @GetMapping("/creditScore/count")
+    public ResponseEntity<ScoreCount> countGuarantorsByCreditScore(
+            @RequestParam(defaultValue = "0") double min,
+            @RequestParam(defaultValue = "1000") double max) {
+        long count = guarantorService.countGuarantorsByCreditScore(min, max);
+        return new ResponseEntity<>(new ScoreCount(min, max, count), HttpStatus.OK);
+    }
+    
+    @GetMapping("/creditScore/top/{n}")
+    public ResponseEntity<List<Guarantor>> getTopGuarantorsByCreditScore(@PathVariable int n) {
+        List<Guarantor> guarantors = guarantorService.getTopGuarantorsByCreditScore(n);
+        return new ResponseEntity<>(guarantors, HttpStatus.OK);
+    }
+    
+    @GetMapping("/search")
+    public ResponseEntity<PersonSearchResults<Guarantor>> searchGuarantors(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return personSearchService.searchGuarantors(q, limit)
+                .map(results -> new ResponseEntity<>(results, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Guarantor> getGuarantorById(@PathVariable Long id) {
         Optional<Guarantor> guarantor = guarantorService.getGuarantorById(id);
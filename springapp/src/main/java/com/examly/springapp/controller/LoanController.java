@@ -1,13 +1,29 @@
 package com.examly.springapp.controller;
 
+import com.examly.springapp.dto.CursorPage;
+import com.examly.springapp.dto.LoanBookSummary;
+import com.examly.springapp.dto.LoanSearchCriteria;
+import com.examly.springapp.dto.SimulationRequest;
+import com.examly.springapp.dto.SimulationResponse;
+import com.examly.springapp.finance.AmortizationSchedule;
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.index.LoanBook;
 import com.examly.springapp.model.Loan;
+import com.examly.springapp.model.LoanStatus;
+import com.examly.springapp.service.IdempotencyService;
+import com.examly.springapp.service.LoanBookService;
+import com.examly.springapp.service.LoanSearchService;
 import com.examly.springapp.service.LoanService;
+import com.examly.springapp.service.LoanSimulationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -17,8 +33,25 @@ public class LoanController {
  @Autowired
  private LoanService loanService;
  
+ @Autowired
+ private IdempotencyService idempotencyService;
+ 
+ @Autowired
+ private LoanSimulationService loanSimulationService;
+ 
+ @Autowired
+ private LoanBookService loanBookService;
+ 
+ @Autowired
+ private LoanSearchService loanSearchService;
+ 
  @PostMapping
- public ResponseEntity<Loan> addLoan(@RequestBody Loan loan) {
+ public ResponseEntity<?> addLoan(@RequestBody Loan loan,
+ @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+ if (idempotencyKey != null) {
+ return idempotencyService.execute("POST /api/loans", idempotencyKey, loan, HttpStatus.CREATED,
+ () -> loanService.addLoan(loan));
+ }
  Loan savedLoan = loanService.addLoan(loan);
  return new ResponseEntity<>(savedLoan, HttpStatus.CREATED);
  }
@@ -29,6 +62,47 @@ public class LoanController {
  return new ResponseEntity<>(loans, HttpStatus.OK);
  }
  
+ @GetMapping(value = {"", "/export"}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+ public ResponseEntity<StreamingResponseBody> exportLoans() {
+ StreamingResponseBody body = loanService::exportLoans;
+ return new ResponseEntity<>(body, HttpStatus.OK);
+ }
+ 
+ @GetMapping("/cursor")
+ public ResponseEntity<CursorPage<Loan>> getLoansAfter(
+ @RequestParam(required = false) String after,
+ @RequestParam(defaultValue = "20") int size) {
+ CursorPage<Loan> loans = loanService.getLoansAfter(after, size);
+ return new ResponseEntity<>(loans, HttpStatus.OK);
+ }
+ 
+ @GetMapping("/search")
+ public ResponseEntity<CursorPage<Loan>> searchLoans(
+ @RequestParam(required = false) List<String> status,
+ @RequestParam(required = false) Long loanTypeId,
+ @RequestParam(required = false) Long customerId,
+ @RequestParam(required = false) String minAmount,
+ @RequestParam(required = false) String maxAmount,
+ @RequestParam(required = false) Integer minTenure,
+ @RequestParam(required = false) Integer maxTenure,
+ @RequestParam(required = false) Double minCreditScore,
+ @RequestParam(required = false) Double maxCreditScore,
+ @RequestParam(defaultValue = "LOAN_ID") LoanSearchCriteria.Sort sort,
+ @RequestParam(defaultValue = "asc") String direction,
+ @RequestParam(required = false) String after,
+ @RequestParam(defaultValue = "20") int size) {
+ if (!direction.equalsIgnoreCase("asc") && !direction.equalsIgnoreCase("desc")) {
+ throw new IllegalArgumentException("direction must be asc or desc");
+ }
+ LoanSearchCriteria criteria = new LoanSearchCriteria(
+ status == null ? List.of() : status.stream().map(LoanStatus::fromJson).toList(),
+ loanTypeId, customerId,
+ minAmount == null ? null : Money.parse(minAmount), maxAmount == null ? null : Money.parse(maxAmount),
+ minTenure, maxTenure, minCreditScore, maxCreditScore, sort, direction.equalsIgnoreCase("desc"));
+ CursorPage<Loan> loans = loanSearchService.search(criteria, after, size);
+ return new ResponseEntity<>(loans, HttpStatus.OK);
+ }
+ 
  @GetMapping("/{id}")
  public ResponseEntity<Loan> getLoanById(@PathVariable Long id) {
  Optional<Loan> loan = loanService.getLoanById(id);
@@ -38,8 +112,16 @@ public class LoanController {
  
  @PutMapping("/{id}")
  public ResponseEntity<Loan> updateLoan(@PathVariable Long id, @RequestBody Loan loan) {
- Loan updatedLoan = loanService.updateLoan(id, loan);
- return new ResponseEntity<>(updatedLoan, HttpStatus.OK);
+ Optional<Loan> updatedLoan = loanService.updateLoan(id, loan);
+ return updatedLoan.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
+ .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+ }
+ 
+ @PutMapping("/{id}/status/{status}")
+ public ResponseEntity<Loan> updateStatus(@PathVariable Long id, @PathVariable String status) {
+ Optional<Loan> loan = loanService.updateStatus(id, LoanStatus.fromJson(status));
+ return loan.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
+ .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
  }
  
  @DeleteMapping("/{id}")
@@ -50,7 +132,9 @@ public class LoanController {
  
  @GetMapping("/status/{status}")
  public ResponseEntity<?> getLoansByStatus(@PathVariable String status) {
- List<Loan> loans = loanService.getLoansByStatus(status);
+ List<Loan> loans = LoanStatus.parse(status)
+ .map(loanService::getLoansByStatus)
+ .orElse(List.of());
  
  if (loans.isEmpty()) {
  return new ResponseEntity<>("No loans found with status: " + status, HttpStatus.NO_CONTENT);
@@ -58,4 +142,47 @@ public class LoanController {
  
  return new ResponseEntity<>(loans, HttpStatus.OK);
  }
+ 
+ @GetMapping("/status/{status}/cursor")
+ public ResponseEntity<CursorPage<Loan>> getLoansByStatusAfter(
+ @PathVariable String status,
+ @RequestParam(required = false) String after,
+ @RequestParam(defaultValue = "20") int size) {
+ CursorPage<Loan> loans = loanService.getLoansByStatusAfter(LoanStatus.fromJson(status), after, size);
+ return new ResponseEntity<>(loans, HttpStatus.OK);
+ }
+ 
+ @GetMapping("/status-counts")
+ public ResponseEntity<Map<LoanStatus, Long>> getStatusCounts() {
+ Map<LoanStatus, Long> counts = loanService.getStatusCounts();
+ return new ResponseEntity<>(counts, HttpStatus.OK);
+ }
+ 
+ @GetMapping("/analytics")
+ public ResponseEntity<LoanBookSummary> getAnalytics(
+ @RequestParam(defaultValue = "STATUS") LoanBook.Dimension groupBy,
+ @RequestParam(defaultValue = "50") double bandWidth,
+ @RequestParam(required = false) String status,
+ @RequestParam(required = false) Long loanTypeId,
+ @RequestParam(required = false) List<Double> percentiles) {
+ Optional<LoanBookSummary> summary = loanBookService.summarize(groupBy, bandWidth,
+ status == null ? null : LoanStatus.fromJson(status), loanTypeId,
+ percentiles == null ? List.of() : percentiles);
+ return summary.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
+ .orElseGet(() -> new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE));
+ }
+ 
+ @PostMapping("/{id}/simulate")
+ public ResponseEntity<SimulationResponse> simulate(@PathVariable Long id, @RequestBody SimulationRequest request) {
+ Optional<SimulationResponse> simulation = loanSimulationService.simulate(id, request);
+ return simulation.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
+ .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+ }
+ 
+ @GetMapping("/{id}/schedule")
+ public ResponseEntity<AmortizationSchedule> getSchedule(@PathVariable Long id) {
+ Optional<AmortizationSchedule> schedule = loanService.getSchedule(id);
+ return schedule.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
+ .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+ }
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.examly.springapp.controller;
 
+import com.examly.springapp.dto.RepricingStatus;
 import com.examly.springapp.model.LoanType;
+import com.examly.springapp.service.LoanRepricingService;
 import com.examly.springapp.service.LoanTypeService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -17,6 +19,9 @@ public class LoanTypeController {
     @Autowired
     private LoanTypeService loanTypeService;
     
+    @Autowired
+    private LoanRepricingService loanRepricingService;
+    
     @PostMapping
     public ResponseEntity<LoanType> addLoanType(@RequestBody LoanType loanType) {
         LoanType savedLoanType = loanTypeService.addLoanType(loanType);
@@ -42,6 +47,20 @@ public class LoanTypeController {
         return new ResponseEntity<>(updatedLoanType, HttpStatus.OK);
     }
     
+    @PostMapping("/{id}/repricing")
+    public ResponseEntity<RepricingStatus> repriceLoans(@PathVariable Long id) {
+        Optional<RepricingStatus> status = loanRepricingService.start(id);
+        return status.map(value -> new ResponseEntity<>(value, HttpStatus.ACCEPTED))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+    
+    @GetMapping("/{id}/repricing")
+    public ResponseEntity<RepricingStatus> getRepricingStatus(@PathVariable Long id) {
+        Optional<RepricingStatus> status = loanRepricingService.getStatus(id);
+        return status.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<String> deleteLoanType(@PathVariable Long id) {
         loanTypeService.deleteLoanType(id);
@@ -1,13 +1,34 @@
 package com.examly.springapp.controller;
 
+import com.examly.springapp.dto.BulkPaymentResult;
+import com.examly.springapp.dto.CursorPage;
+import com.examly.springapp.dto.PaymentTimeseries;
+import com.examly.springapp.dto.ReconciliationReport;
+import com.examly.springapp.ingest.StatementFormat;
 import com.examly.springapp.model.Payment;
+import com.examly.springapp.service.BulkPaymentService;
+import com.examly.springapp.service.IdempotencyService;
+import com.examly.springapp.service.PaymentRollupService;
 import com.examly.springapp.service.PaymentService;
+import com.examly.springapp.service.StatementReconciliationService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -17,18 +38,93 @@ public class PaymentController {
     @Autowired
     private PaymentService paymentService;
     
+    @Autowired
+    private BulkPaymentService bulkPaymentService;
+    
+    @Autowired
+    private StatementReconciliationService statementReconciliationService;
+    
+    @Autowired
+    private PaymentRollupService paymentRollupService;
+    
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     @PostMapping
-    public ResponseEntity<Payment> addPayment(@RequestBody Payment payment) {
+    public ResponseEntity<?> addPayment(@RequestBody Payment payment,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey != null) {
+            return idempotencyService.execute("POST /api/payments", idempotencyKey, payment, HttpStatus.CREATED,
+                    () -> paymentService.addPayment(payment));
+        }
         Payment savedPayment = paymentService.addPayment(payment);
         return new ResponseEntity<>(savedPayment, HttpStatus.CREATED);
     }
     
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkPaymentResult> addPayments(InputStream body) throws IOException {
+        try (MappingIterator<Payment> payments = objectMapper.readerFor(Payment.class).readValues(body)) {
+            BulkPaymentResult result = bulkPaymentService.addPayments(payments);
+            return new ResponseEntity<>(result, result.stoppedBy() == null ? HttpStatus.OK : HttpStatus.BAD_REQUEST);
+        }
+    }
+    
+    /** Spools the statement to a temporary file so it can be memory-mapped, then reconciles it. */
+    @PostMapping(value = "/reconcile", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE,
+            MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ReconciliationReport> reconcile(InputStream body,
+            @RequestParam(defaultValue = "CSV") StatementFormat format) throws IOException {
+        Path file = Files.createTempFile("statement-", ".dat");
+        try {
+            Files.copy(body, file, StandardCopyOption.REPLACE_EXISTING);
+            ReconciliationReport report = statementReconciliationService.reconcile(file, format);
+            return new ResponseEntity<>(report, HttpStatus.OK);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
     @GetMapping
     public ResponseEntity<List<Payment>> getAllPayments() {
         List<Payment> payments = paymentService.getAllPayments();
         return new ResponseEntity<>(payments, HttpStatus.OK);
     }
     
+    @GetMapping(value = {"", "/export"}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPayments() {
+        StreamingResponseBody body = paymentService::exportPayments;
+        return new ResponseEntity<>(body, HttpStatus.OK);
+    }
+    
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<Payment>> getPaymentsAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<Payment> payments = paymentService.getPaymentsAfter(after, size);
+        return new ResponseEntity<>(payments, HttpStatus.OK);
+    }
+    
+    /** Collections per bucket and loan type; defaults to the last 30 days by day. */
+    @GetMapping("/timeseries")
+    public ResponseEntity<PaymentTimeseries> getTimeseries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") PaymentTimeseries.Granularity granularity) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        PaymentTimeseries series = paymentRollupService.getTimeseries(start, end, granularity);
+        return new ResponseEntity<>(series, HttpStatus.OK);
+    }
+    
+    @PostMapping("/timeseries/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildTimeseries() {
+        int rows = paymentRollupService.rebuild();
+        return new ResponseEntity<>(Map.of("rows", rows), HttpStatus.OK);
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Payment> getPaymentById(@PathVariable Long id) {
         Optional<Payment> payment = paymentService.getPaymentById(id);
@@ -38,8 +134,9 @@ public class PaymentController {
     
     @PutMapping("/{id}")
     public ResponseEntity<Payment> updatePayment(@PathVariable Long id, @RequestBody Payment payment) {
-        Payment updatedPayment = paymentService.updatePayment(id, payment);
-        return new ResponseEntity<>(updatedPayment, HttpStatus.OK);
+        Optional<Payment> updatedPayment = paymentService.updatePayment(id, payment);
+        return updatedPayment.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
     
     @DeleteMapping("/{id}")
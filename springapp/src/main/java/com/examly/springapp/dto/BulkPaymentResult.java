@@ -0,0 +1,31 @@
+package com.examly.springapp.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk upload, one row per payment read. {@code stoppedBy} is
+ * null when the whole body was read; otherwise it says why reading stopped,
+ * and nothing after the last row listed was applied.
+ */
+public record BulkPaymentResult(int received, int created, int rejected, List<Row> rows, String stoppedBy) {
+    
+    public enum Status {
+        CREATED, REJECTED, FAILED
+    }
+    
+    /** Outcome of one input row, identified by its zero-based position in the request body. */
+    public record Row(int index, Status status, Long paymentId, String error) {
+        
+        public static Row created(int index, Long paymentId) {
+            return new Row(index, Status.CREATED, paymentId, null);
+        }
+        
+        public static Row rejected(int index, String error) {
+            return new Row(index, Status.REJECTED, null, error);
+        }
+        
+        public static Row failed(int index, String error) {
+            return new Row(index, Status.FAILED, null, error);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.examly.springapp.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * One page of a keyset (seek) listing. {@code nextCursor} is an opaque token
+ * carrying the sort key of the last row returned; it is null on the last page.
+ */
+public record CursorPage<T>(List<T> content, int size, String nextCursor) {
+    
+    public static final int MAX_SIZE = 500;
+    
+    private static final String ID_PREFIX = "id:";
+    private static final String SCORE_PREFIX = "score:";
+    private static final String SEEK_PREFIX = "seek:";
+    
+    /** Position after a row ordered by (score, id). */
+    public record ScoreKey(double score, long id) {
+    }
+    
+    /** Position after a row ordered by (value, id), a null value sorting lowest. */
+    public record SeekKey(Long value, long id) {
+    }
+    
+    /**
+     * Builds a page from a query that fetched {@code size + 1} rows: the
+     * extra row only signals that another page exists and is dropped.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, ToLongFunction<T> idOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, size, null);
+        }
+        List<T> content = rows.subList(0, size);
+        return new CursorPage<>(content, size, encode(idOf.applyAsLong(content.get(size - 1))));
+    }
+    
+    public static <T> CursorPage<T> of(List<T> rows, int size, ToDoubleFunction<T> scoreOf, ToLongFunction<T> idOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, size, null);
+        }
+        List<T> content = rows.subList(0, size);
+        T last = content.get(size - 1);
+        return new CursorPage<>(content, size, encode(scoreOf.applyAsDouble(last), idOf.applyAsLong(last)));
+    }
+    
+    public static int checkSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_SIZE);
+        }
+        return size;
+    }
+    
+    public static String encode(long lastId) {
+        return token(ID_PREFIX + lastId);
+    }
+    
+    public static String encode(double lastScore, long lastId) {
+        return token(SCORE_PREFIX + lastScore + ":" + lastId);
+    }
+    
+    /** Cursor for rows ordered by (value, id); it names {@code ordering} so it cannot be replayed against another. */
+    public static String encode(String ordering, Long lastValue, long lastId) {
+        return token(SEEK_PREFIX + ordering + ":" + (lastValue == null ? "" : lastValue) + ":" + lastId);
+    }
+    
+    /** Returns the id to seek after; a missing cursor starts from the beginning. */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        String key = untoken(cursor, ID_PREFIX);
+        try {
+            return Long.parseLong(key);
+        } catch (NumberFormatException e) {
+            throw invalid(cursor);
+        }
+    }
+    
+    /** Returns the (score, id) to seek after; a missing cursor starts at {@code firstScore}. */
+    public static ScoreKey decodeScoreKey(String cursor, double firstScore) {
+        if (cursor == null || cursor.isEmpty()) {
+            return new ScoreKey(firstScore, 0L);
+        }
+        String key = untoken(cursor, SCORE_PREFIX);
+        int separator = key.lastIndexOf(':');
+        try {
+            return new ScoreKey(Double.parseDouble(key.substring(0, separator)),
+                    Long.parseLong(key.substring(separator + 1)));
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw invalid(cursor);
+        }
+    }
+    
+    /** Returns the (value, id) to seek after under {@code ordering}, or null for a missing cursor. */
+    public static SeekKey decodeSeekKey(String cursor, String ordering) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String key = untoken(cursor, SEEK_PREFIX + ordering + ":");
+        int separator = key.lastIndexOf(':');
+        try {
+            String value = key.substring(0, separator);
+            return new SeekKey(value.isEmpty() ? null : Long.valueOf(value), Long.parseLong(key.substring(separator + 1)));
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw invalid(cursor);
+        }
+    }
+    
+    private static String token(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.US_ASCII));
+    }
+    
+    private static String untoken(String cursor, String prefix) {
+        String key;
+        try {
+            key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+        } catch (IllegalArgumentException e) {
+            throw invalid(cursor);
+        }
+        if (!key.startsWith(prefix)) {
+            throw invalid(cursor);
+        }
+        return key.substring(prefix.length());
+    }
+    
+    private static IllegalArgumentException invalid(String cursor) {
+        return new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+}
@@ -0,0 +1,25 @@
+package com.examly.springapp.dto;
+
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.model.Customer;
+import com.examly.springapp.model.Loan;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.sql.Date;
+import java.util.List;
+
+/**
+ * One customer with their loans, oldest first, and each loan's payments and
+ * outstanding balance. Loans leave out the customer, which is given once at
+ * the top.
+ */
+public record CustomerOverview(Customer customer, Money totalBorrowed, Money totalPaid, Money totalOutstanding,
+                               List<LoanLine> loans) {
+    
+    public record LoanLine(@JsonIgnoreProperties({"customer"}) Loan loan, Money paid, Money outstanding,
+                           List<PaymentLine> payments) {
+    }
+    
+    public record PaymentLine(Long paymentId, Money amount, Date paymentDate, String bankReference) {
+    }
+}
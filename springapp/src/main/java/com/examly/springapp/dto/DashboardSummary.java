@@ -0,0 +1,13 @@
+package com.examly.springapp.dto;
+
+import com.examly.springapp.finance.Money;
+
+public record DashboardSummary(
+        long customers,
+        long loans,
+        long loanTypes,
+        long guarantors,
+        long payments,
+        Money totalLoanAmount,
+        Money totalPayments) {
+}
@@ -0,0 +1,24 @@
+package com.examly.springapp.dto;
+
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.index.LoanBook;
+import com.examly.springapp.model.LoanStatus;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loan book totals by status, loan type or credit score band, answered from
+ * the in-memory read model. Each group sets only the key of its dimension,
+ * which is null for loans without a value for it; score bands cover
+ * {@code [scoreFrom, scoreTo)}. Rates are weighted by amount and amount
+ * percentiles are accurate to about 3%.
+ */
+public record LoanBookSummary(LoanBook.Dimension groupBy, long loans, Money amount, long tookMicros,
+                              List<Group> groups) {
+    
+    public record Group(LoanStatus status, Long loanTypeId, Double scoreFrom, Double scoreTo, long loans,
+                        Money amount, Double weightedRatePercent, Double averageTenureMonths,
+                        Map<String, Money> amountPercentiles) {
+    }
+}
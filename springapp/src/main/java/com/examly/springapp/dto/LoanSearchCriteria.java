@@ -0,0 +1,45 @@
+package com.examly.springapp.dto;
+
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.model.LoanStatus;
+
+import java.util.List;
+
+/**
+ * Filters for a loan search; null or empty fields do not filter and ranges
+ * are inclusive. The credit score range applies to the loan's customer, so
+ * it leaves out loans without one. Results are ordered by {@code sort} and
+ * then by loan id, both {@code descending} or both ascending, with loans
+ * missing the sort value first when ascending.
+ */
+public record LoanSearchCriteria(List<LoanStatus> statuses, Long loanTypeId, Long customerId,
+                                 Money minAmount, Money maxAmount,
+                                 Integer minTenureMonths, Integer maxTenureMonths,
+                                 Double minCreditScore, Double maxCreditScore,
+                                 Sort sort, boolean descending) {
+    
+    public enum Sort {
+        LOAN_ID,
+        AMOUNT,
+        TENURE
+    }
+    
+    public LoanSearchCriteria {
+        statuses = statuses == null ? List.of() : List.copyOf(statuses);
+        sort = sort == null ? Sort.LOAN_ID : sort;
+        checkRange("amount", minAmount, maxAmount);
+        checkRange("tenure", minTenureMonths, maxTenureMonths);
+        checkRange("credit score", minCreditScore, maxCreditScore);
+    }
+    
+    /** Names the ordering in cursors, so a cursor only continues the search order it came from. */
+    public String ordering() {
+        return sort + (descending ? "_DESC" : "_ASC");
+    }
+    
+    private static <T extends Comparable<? super T>> void checkRange(String name, T min, T max) {
+        if (min != null && max != null && min.compareTo(max) > 0) {
+            throw new IllegalArgumentException("Minimum " + name + " must not be above the maximum");
+        }
+    }
+}
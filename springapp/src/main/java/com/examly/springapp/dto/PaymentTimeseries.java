@@ -0,0 +1,35 @@
+package com.examly.springapp.dto;
+
+import com.examly.springapp.finance.Money;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+/**
+ * Collections per bucket and loan type between two dates, inclusive. Only
+ * buckets with payments are listed; {@code loanTypeId} is null for loans
+ * without a type. Payments without a date are not on the timeline.
+ */
+public record PaymentTimeseries(LocalDate from, LocalDate to, Granularity granularity, List<Point> points) {
+    
+    public enum Granularity {
+        DAY,
+        /** ISO weeks, labelled by their Monday. */
+        WEEK,
+        /** Calendar months, labelled by their first day. */
+        MONTH;
+        
+        public LocalDate bucketOf(LocalDate day) {
+            return switch (this) {
+                case DAY -> day;
+                case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> day.withDayOfMonth(1);
+            };
+        }
+    }
+    
+    public record Point(LocalDate bucket, Long loanTypeId, Money amount, long payments) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.examly.springapp.dto;
+
+import java.util.List;
+
+/**
+ * Ranked matches for a customer or guarantor search. {@code field} is the
+ * property that matched best and {@code similarity} is the trigram
+ * similarity of the search text to it, from 0 to 1.
+ */
+public record PersonSearchResults<T>(String query, long tookMicros, List<Hit<T>> hits) {
+    
+    public record Hit<T>(T person, String field, double similarity) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.examly.springapp.dto;
+
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.ingest.StatementFormat;
+
+import java.util.List;
+
+/**
+ * Outcome of reconciling one settlement file. The counts cover every row;
+ * {@code exceptions} lists the rows that were not posted, up to a cap, with
+ * {@code truncated} set when there were more.
+ */
+public record ReconciliationReport(StatementFormat format, long lines, long rows, long posted, long unmatched,
+                                   long duplicates, long rejected, long invalid, long failed,
+                                   List<Row> exceptions, boolean truncated, long elapsedMillis) {
+    
+    public enum Kind {
+        /** No loan with that id or reference exists. */
+        UNMATCHED,
+        /** The bank reference was already posted, earlier in this file or by a previous file. */
+        DUPLICATE,
+        /** The row could not be parsed. */
+        INVALID,
+        /** The row names a loan but fails payment rules, e.g. it would overpay the loan. */
+        REJECTED,
+        /** The database refused the chunk the row was in. */
+        FAILED
+    }
+    
+    /** A row that was not posted, identified by its one-based line number in the file. */
+    public record Row(long line, Kind kind, String reference, Long loanId, Money amount, String detail) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.examly.springapp.dto;
+
+import com.examly.springapp.finance.Rate;
+
+import java.time.Instant;
+
+/** Progress of repricing the loans of one loan type onto {@code interestRate}. */
+public record RepricingStatus(
+        Long loanTypeId,
+        Rate interestRate,
+        State state,
+        long total,
+        long repriced,
+        Instant startedAt,
+        Instant finishedAt,
+        String error) {
+    
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, SUPERSEDED, FAILED
+    }
+}
@@ -0,0 +1,4 @@
+package com.examly.springapp.dto;
+
+public record ScoreCount(double min, double max, long count) {
+}
@@ -0,0 +1,33 @@
+package com.examly.springapp.dto;
+
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.finance.Rate;
+
+import java.util.List;
+
+/** What-if scenarios to evaluate against a loan's current terms. */
+public record SimulationRequest(List<Scenario> scenarios, Boolean includeSchedules) {
+    
+    public enum Mode {
+        /** Keep the instalment and close the loan early. */
+        REDUCE_TENURE,
+        /** Keep the end date and lower the instalment. */
+        REDUCE_INSTALMENT
+    }
+    
+    /**
+     * One scenario. Any of the fields may be left out: a missing rate or
+     * tenure keeps the loan's own, and no prepayment means none is made.
+     */
+    public record Scenario(Money prepayment, Integer prepaymentMonth, Integer tenureMonths, Rate interestRate, Mode mode) {
+        
+        /** The same scenario with defaults filled in, so equal scenarios compare equal. */
+        public Scenario normalized() {
+            if (prepayment == null || !prepayment.isPositive()) {
+                return new Scenario(null, null, tenureMonths, interestRate, null);
+            }
+            return new Scenario(prepayment, prepaymentMonth, tenureMonths, interestRate,
+                    mode == null ? Mode.REDUCE_TENURE : mode);
+        }
+    }
+}
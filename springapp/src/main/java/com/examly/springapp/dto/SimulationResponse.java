@@ -0,0 +1,24 @@
+package com.examly.springapp.dto;
+
+import com.examly.springapp.finance.AmortizationSchedule;
+import com.examly.springapp.finance.Money;
+
+import java.util.List;
+
+/** The loan's current schedule and the outcome of each scenario, in request order. */
+public record SimulationResponse(Long loanId, Result baseline, List<Result> scenarios) {
+    
+    /** {@code interestSaved} is against the baseline; it is negative when a scenario costs more. */
+    public record Result(
+            SimulationRequest.Scenario scenario,
+            int months,
+            Money instalment,
+            Money totalInterest,
+            Money interestSaved,
+            AmortizationSchedule schedule) {
+        
+        public Result withoutSchedule() {
+            return schedule == null ? this : new Result(scenario, months, instalment, totalInterest, interestSaved, null);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.examly.springapp.exception;
+
+/**
+ * A request that conflicts with the current state of what it changes: a
+ * rejected status transition, a stale version, a payment beyond the
+ * outstanding balance, or work of the same kind already in progress.
+ * Answered with 409 Conflict; other {@link IllegalStateException}s are
+ * internal failures and answered with 500.
+ */
+public class ConflictException extends IllegalStateException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
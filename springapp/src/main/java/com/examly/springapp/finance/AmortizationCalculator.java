@@ -0,0 +1,108 @@
+package com.examly.springapp.finance;
+
+/**
+ * Equated monthly instalment (EMI) maths for a fixed-rate, fully amortizing
+ * loan. Only the instalment itself comes from the floating-point closed
+ * form; every row is then computed in whole minor units, so interest and
+ * principal add up exactly and the last instalment absorbs the rounding
+ * residue that closes the balance at zero.
+ */
+public final class AmortizationCalculator {
+    
+    private AmortizationCalculator() {
+    }
+    
+    /** Monthly instalment in minor units, rounded to the nearest minor unit. */
+    public static long instalment(long principalMinor, Rate annualRate, int tenureMonths) {
+        if (tenureMonths <= 0) {
+            throw new IllegalArgumentException("Tenure must be at least one month");
+        }
+        double rate = annualRate.monthlyFraction();
+        if (rate == 0) {
+            return Math.round((double) principalMinor / tenureMonths);
+        }
+        double growth = Math.pow(1 + rate, tenureMonths);
+        return Math.round(principalMinor * rate * growth / (growth - 1));
+    }
+    
+    public static long instalment(Money principal, Rate annualRate, int tenureMonths) {
+        return instalment(principal.minorUnits(), annualRate, tenureMonths);
+    }
+
+    /**
+     * Instalment for what is left of a loan after {@code paidMinor} has been
+     * paid: the outstanding balance spread over the months the payments have
+     * not yet covered at {@code currentInstalmentMinor}, never fewer than
+     * one. With nothing paid, or no instalment in force yet, that is the
+     * full tenure. Zero once nothing is outstanding.
+     */
+    public static long remainingInstalment(long principalMinor, long paidMinor, Rate annualRate, int tenureMonths,
+            long currentInstalmentMinor) {
+        long outstanding = principalMinor - paidMinor;
+        if (outstanding <= 0) {
+            return 0;
+        }
+        long covered = currentInstalmentMinor > 0 ? paidMinor / currentInstalmentMinor : 0;
+        return instalment(outstanding, annualRate, (int) Math.max(1, tenureMonths - covered));
+    }
+
+    public static AmortizationSchedule fill(long principalMinor, Rate annualRate, int tenureMonths,
+            AmortizationSchedule target) {
+        long instalment = instalment(principalMinor, annualRate, tenureMonths);
+        target.reset(tenureMonths, instalment);
+        
+        long balance = principalMinor;
+        long totalInterest = 0;
+        int last = tenureMonths - 1;
+        for (int month = 0; month < tenureMonths; month++) {
+            long interest = annualRate.monthlyInterest(balance);
+            long principalPart = month == last ? balance : Math.min(instalment - interest, balance);
+            balance -= principalPart;
+            target.set(month, interest + principalPart, principalPart, interest, balance);
+            totalInterest += interest;
+        }
+        target.setTotalInterest(totalInterest);
+        return target;
+    }
+    
+    /**
+     * Fills {@code target} with the schedule when {@code prepaymentMinor} is
+     * paid on top of the instalment due in {@code prepaymentMonth} (1-based).
+     * With {@code keepTenure} the instalment is recomputed over the months
+     * left; otherwise it stays the same and the loan closes early. The
+     * reported instalment is the one in force after the prepayment.
+     */
+    public static AmortizationSchedule prepay(long principalMinor, Rate annualRate, int tenureMonths,
+            long prepaymentMinor, int prepaymentMonth, boolean keepTenure, AmortizationSchedule target) {
+        if (prepaymentMinor < 0 || prepaymentMonth < 1 || prepaymentMonth > tenureMonths) {
+            throw new IllegalArgumentException("Prepayment month must be between 1 and " + tenureMonths);
+        }
+        long instalment = instalment(principalMinor, annualRate, tenureMonths);
+        target.reset(tenureMonths, instalment);
+        
+        long balance = principalMinor;
+        long totalInterest = 0;
+        int last = tenureMonths - 1;
+        int prepaid = prepaymentMonth - 1;
+        int month = 0;
+        for (; month < tenureMonths && balance > 0; month++) {
+            long interest = annualRate.monthlyInterest(balance);
+            long principalPart = month == last ? balance : Math.min(instalment - interest, balance);
+            if (month == prepaid) {
+                principalPart = Math.min(principalPart + prepaymentMinor, balance);
+            }
+            balance -= principalPart;
+            target.set(month, interest + principalPart, principalPart, interest, balance);
+            totalInterest += interest;
+            if (month == prepaid && keepTenure && balance > 0 && month < last) {
+                instalment = instalment(balance, annualRate, last - month);
+            }
+        }
+        target.finish(month, instalment, totalInterest);
+        return target;
+    }
+    
+    public static AmortizationSchedule schedule(Money principal, Rate annualRate, int tenureMonths) {
+        return fill(principal.minorUnits(), annualRate, tenureMonths, new AmortizationSchedule(tenureMonths));
+    }
+}
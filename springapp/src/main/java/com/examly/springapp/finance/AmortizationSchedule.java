@@ -0,0 +1,92 @@
+package com.examly.springapp.finance;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Repayment schedule held in parallel primitive arrays of minor units, one
+ * slot per month. Instances are reusable: {@link AmortizationCalculator#fill}
+ * grows the arrays only when a longer tenure is written, so recomputing many
+ * loans into the same instance allocates nothing per row.
+ */
+@JsonSerialize(using = AmortizationScheduleSerializer.class)
+public final class AmortizationSchedule {
+    
+    private long[] payment;
+    private long[] principal;
+    private long[] interest;
+    private long[] balance;
+    private int months;
+    private long instalment;
+    private long totalInterest;
+    
+    public AmortizationSchedule() {
+        this(0);
+    }
+    
+    public AmortizationSchedule(int capacity) {
+        payment = new long[capacity];
+        principal = new long[capacity];
+        interest = new long[capacity];
+        balance = new long[capacity];
+    }
+    
+    void reset(int months, long instalment) {
+        if (payment.length < months) {
+            payment = new long[months];
+            principal = new long[months];
+            interest = new long[months];
+            balance = new long[months];
+        }
+        this.months = months;
+        this.instalment = instalment;
+        this.totalInterest = 0;
+    }
+    
+    void set(int month, long payment, long principal, long interest, long balance) {
+        this.payment[month] = payment;
+        this.principal[month] = principal;
+        this.interest[month] = interest;
+        this.balance[month] = balance;
+    }
+    
+    void setTotalInterest(long totalInterest) {
+        this.totalInterest = totalInterest;
+    }
+    
+    /** Closes a schedule that ended early or changed its instalment part way through. */
+    void finish(int months, long instalment, long totalInterest) {
+        this.months = months;
+        this.instalment = instalment;
+        this.totalInterest = totalInterest;
+    }
+    
+    public int getMonths() {
+        return months;
+    }
+    
+    public long getInstalment() {
+        return instalment;
+    }
+    
+    public long getTotalInterest() {
+        return totalInterest;
+    }
+    
+    /** Payment due in the given zero-based month. */
+    public long paymentAt(int month) {
+        return payment[month];
+    }
+    
+    public long principalAt(int month) {
+        return principal[month];
+    }
+    
+    public long interestAt(int month) {
+        return interest[month];
+    }
+    
+    /** Outstanding balance after the given zero-based month's payment. */
+    public long balanceAt(int month) {
+        return balance[month];
+    }
+}
@@ -0,0 +1,45 @@
+package com.examly.springapp.finance;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes schedule rows straight from the primitive arrays so serializing a
+ * 360-month schedule does not materialize 360 row objects. Amounts are
+ * written as decimal numbers from their minor units.
+ */
+public class AmortizationScheduleSerializer extends StdSerializer<AmortizationSchedule> {
+    
+    public AmortizationScheduleSerializer() {
+        super(AmortizationSchedule.class);
+    }
+    
+    @Override
+    public void serialize(AmortizationSchedule schedule, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("months", schedule.getMonths());
+        writeAmount(gen, "instalment", schedule.getInstalment());
+        writeAmount(gen, "totalInterest", schedule.getTotalInterest());
+        gen.writeArrayFieldStart("rows");
+        for (int month = 0; month < schedule.getMonths(); month++) {
+            gen.writeStartObject();
+            gen.writeNumberField("month", month + 1);
+            writeAmount(gen, "payment", schedule.paymentAt(month));
+            writeAmount(gen, "principal", schedule.principalAt(month));
+            writeAmount(gen, "interest", schedule.interestAt(month));
+            writeAmount(gen, "balance", schedule.balanceAt(month));
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+    
+    private static void writeAmount(JsonGenerator gen, String name, long minorUnits) throws IOException {
+        gen.writeFieldName(name);
+        gen.writeNumber(Money.format(minorUnits));
+    }
+}
@@ -0,0 +1,33 @@
+package com.examly.springapp.finance;
+
+/**
+ * Interest accrual over a chunk of loans held in parallel primitive arrays.
+ * Each day's interest is rounded to a whole minor unit on its own, so
+ * accruing three missed days at once gives the same result as three daily
+ * runs. Nothing here allocates, so a worker can push millions of loans
+ * through the same buffers.
+ */
+public final class DailyAccrual {
+    
+    private DailyAccrual() {
+    }
+    
+    /**
+     * Adds {@code days[i]} days of interest on {@code balances[i]} at
+     * {@code rates[i]} basis points to {@code accrued[i]} for the first
+     * {@code count} loans, and returns the interest added in total.
+     * Non-positive balances and day counts accrue nothing.
+     */
+    public static long accrue(long[] balances, int[] rates, int[] days, long[] accrued, int count) {
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            if (balances[i] <= 0 || days[i] <= 0) {
+                continue;
+            }
+            long interest = Rate.dailyInterest(rates[i], balances[i]) * days[i];
+            accrued[i] += interest;
+            total += interest;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,83 @@
+package com.examly.springapp.finance;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.BigDecimal;
+
+/**
+ * An amount of money held as a whole number of minor units (cents). Sums
+ * and comparisons are exact long arithmetic; JSON carries the amount as a
+ * plain decimal number with two places, and the database column holds the
+ * minor units (see {@link MoneyConverter}).
+ */
+@JsonSerialize(using = MoneySerializer.class)
+@JsonDeserialize(using = MoneyDeserializer.class)
+public record Money(long minorUnits) implements Comparable<Money> {
+    
+    public static final int SCALE = 2;
+    public static final long MINOR_PER_UNIT = 100;
+    public static final Money ZERO = new Money(0);
+    
+    public static Money ofMinor(long minorUnits) {
+        return new Money(minorUnits);
+    }
+    
+    /** Converts {@code amount} exactly; more than two decimal places is rejected. */
+    public static Money of(BigDecimal amount) {
+        try {
+            return new Money(amount.setScale(SCALE).unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Not a whole number of cents: " + amount.toPlainString());
+        }
+    }
+    
+    public static Money parse(String amount) {
+        try {
+            return of(new BigDecimal(amount.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not an amount: " + amount);
+        }
+    }
+    
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minorUnits, other.minorUnits));
+    }
+    
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+    
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+    
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+    
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+    
+    @Override
+    public String toString() {
+        return format(minorUnits);
+    }
+    
+    /** Formats minor units as a plain decimal such as {@code -12.05}, without going through BigDecimal. */
+    public static String format(long minorUnits) {
+        long units = minorUnits / MINOR_PER_UNIT;
+        int cents = (int) Math.abs(minorUnits % MINOR_PER_UNIT);
+        StringBuilder text = new StringBuilder(24);
+        if (minorUnits < 0 && units == 0) {
+            text.append('-');
+        }
+        text.append(units).append('.');
+        if (cents < 10) {
+            text.append('0');
+        }
+        return text.append(cents).toString();
+    }
+}
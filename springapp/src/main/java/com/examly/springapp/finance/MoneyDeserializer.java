@@ -0,0 +1,38 @@
+package com.examly.springapp.finance;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads {@link Money} from a JSON number or numeric string. Decimals are
+ * taken from the token text, never through a double, so 0.1 stays 10 cents.
+ */
+public class MoneyDeserializer extends StdDeserializer<Money> {
+    
+    public MoneyDeserializer() {
+        super(Money.class);
+    }
+    
+    @Override
+    public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        try {
+            if (token == JsonToken.VALUE_NUMBER_INT) {
+                return Money.ofMinor(Math.multiplyExact(parser.getLongValue(), Money.MINOR_PER_UNIT));
+            }
+            if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+                return Money.of(parser.getDecimalValue());
+            }
+            if (token == JsonToken.VALUE_STRING) {
+                return Money.parse(parser.getText());
+            }
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            return (Money) context.handleWeirdStringValue(Money.class, parser.getText(), e.getMessage());
+        }
+        return (Money) context.handleUnexpectedToken(Money.class, parser);
+    }
+}
@@ -0,0 +1,20 @@
+package com.examly.springapp.finance;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/** Writes {@link Money} as a JSON number with two decimal places. */
+public class MoneySerializer extends StdSerializer<Money> {
+    
+    public MoneySerializer() {
+        super(Money.class);
+    }
+    
+    @Override
+    public void serialize(Money money, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeNumber(Money.format(money.minorUnits()));
+    }
+}
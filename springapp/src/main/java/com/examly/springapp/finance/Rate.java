@@ -0,0 +1,64 @@
+package com.examly.springapp.finance;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+
+/**
+ * An annual interest rate in basis points (1/100 of a percent), so 7.25%
+ * is 725. JSON carries the rate as a percentage; the database column holds
+ * the basis points (see {@link RateConverter}).
+ */
+public record Rate(int basisPoints) {
+    
+    /** Basis points per year divided by twelve months, as a denominator for monthly interest. */
+    private static final long MONTHLY_DIVISOR = 10_000L * 12;
+    
+    /** Basis points per year times an ACT/365 year, as a denominator for daily interest. */
+    private static final long DAILY_DIVISOR = 10_000L * 365;
+    
+    public static Rate ofBasisPoints(int basisPoints) {
+        return new Rate(basisPoints);
+    }
+    
+    /** Converts a percentage exactly; finer than a basis point is rejected. */
+    @JsonCreator
+    public static Rate ofPercent(BigDecimal percent) {
+        try {
+            return new Rate(percent.movePointRight(2).setScale(0).intValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Not a whole number of basis points: " + percent.toPlainString());
+        }
+    }
+    
+    @JsonValue
+    public BigDecimal toPercent() {
+        return BigDecimal.valueOf(basisPoints, 2);
+    }
+    
+    /** This rate as a monthly fraction, for the closed-form instalment. */
+    public double monthlyFraction() {
+        return basisPoints / (double) MONTHLY_DIVISOR;
+    }
+    
+    /** One month's interest on {@code balanceMinor}, rounded half up to a whole minor unit. */
+    public long monthlyInterest(long balanceMinor) {
+        return Math.floorDiv(Math.multiplyExact(balanceMinor, 2L * basisPoints) + MONTHLY_DIVISOR, 2 * MONTHLY_DIVISOR);
+    }
+    
+    /** One day's interest on {@code balanceMinor}, ACT/365, rounded half up to a whole minor unit. */
+    public long dailyInterest(long balanceMinor) {
+        return dailyInterest(basisPoints, balanceMinor);
+    }
+    
+    /** As {@link #dailyInterest(long)}, for callers holding raw basis points in primitive arrays. */
+    public static long dailyInterest(int basisPoints, long balanceMinor) {
+        return Math.floorDiv(Math.multiplyExact(balanceMinor, 2L * basisPoints) + DAILY_DIVISOR, 2 * DAILY_DIVISOR);
+    }
+    
+    @Override
+    public String toString() {
+        return toPercent().toPlainString() + "%";
+    }
+}
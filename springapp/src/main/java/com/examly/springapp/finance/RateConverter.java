@@ -0,0 +1,19 @@
+package com.examly.springapp.finance;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/** Stores {@link Rate} as an INT count of basis points. */
+@Converter(autoApply = true)
+public class RateConverter implements AttributeConverter<Rate, Integer> {
+    
+    @Override
+    public Integer convertToDatabaseColumn(Rate rate) {
+        return rate == null ? null : rate.basisPoints();
+    }
+    
+    @Override
+    public Rate convertToEntityAttribute(Integer basisPoints) {
+        return basisPoints == null ? null : Rate.ofBasisPoints(basisPoints);
+    }
+}
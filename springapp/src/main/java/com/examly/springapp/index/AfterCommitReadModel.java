@@ -0,0 +1,100 @@
+package com.examly.springapp.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Holds an in-memory read model that writes keep current, each change
+ * applied once its transaction commits, so a rolled-back write never shows.
+ * A build loads a fresh model from the database while the changes that
+ * commit meanwhile are held; they are then replayed onto it in commit
+ * order and the model swapped in, so none is lost. A replayed change may
+ * find the build already saw it, so changes must be safe to apply twice.
+ */
+public final class AfterCommitReadModel<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(AfterCommitReadModel.class);
+
+    private final String name;
+    private final Object buildLock = new Object();
+    private volatile T current;
+    /** Changes committed while a build runs; null when no build is running. Guarded by {@code this}. */
+    private List<Consumer<T>> held;
+
+    /** {@code name} says which model a failed change left behind in the logs. */
+    public AfterCommitReadModel(String name) {
+        this.name = name;
+    }
+
+    /** The model, or null until the first build has finished. */
+    public T get() {
+        return current;
+    }
+
+    /**
+     * Loads a model with {@code loader}, replays the changes committed
+     * meanwhile and swaps it in. Builds run one at a time; if the loader
+     * fails the previous model stays.
+     */
+    public T rebuild(Supplier<T> loader) {
+        synchronized (buildLock) {
+            synchronized (this) {
+                held = new ArrayList<>();
+            }
+            T built;
+            try {
+                built = loader.get();
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    held = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                held.forEach(change -> change.accept(built));
+                held = null;
+                current = built;
+            }
+            return built;
+        }
+    }
+
+    /** Applies {@code change} once the current transaction commits, or at once outside one. */
+    public void afterCommit(Consumer<T> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(Consumer<T> change) {
+        synchronized (this) {
+            if (held != null) {
+                held.add(change);
+                return;
+            }
+        }
+        T model = current;
+        if (model != null) {
+            try {
+                change.accept(model);
+            } catch (RuntimeException e) {
+                // The write itself has committed; a failed change only leaves the read model behind.
+                logger.warn("Could not apply a change to the {}", name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.examly.springapp.index;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory credit score index: parallel {@code double[]} scores and
+ * {@code long[]} ids kept sorted by (score, id). Threshold counts are two
+ * binary searches and top-N is an array copy, so neither touches the
+ * database. Writes shift the arrays and are O(n); that is fine for the
+ * customer and guarantor write rates this serves.
+ */
+public final class CreditScoreIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private double[] scores = new double[16];
+    private long[] ids = new long[16];
+    private int size;
+
+    /** Replaces the contents with entries already sorted by (score, id). */
+    public void load(double[] sortedScores, long[] sortedIds, int count) {
+        lock.writeLock().lock();
+        try {
+            scores = Arrays.copyOf(sortedScores, Math.max(count, 16));
+            ids = Arrays.copyOf(sortedIds, Math.max(count, 16));
+            size = count;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the contents with (id, score) rows streamed in (score, id)
+     * order, as produced by an ORDER BY over the database index.
+     */
+    public int load(Iterator<Object[]> sortedRows) {
+        double[] loadedScores = new double[1024];
+        long[] loadedIds = new long[1024];
+        int count = 0;
+        while (sortedRows.hasNext()) {
+            Object[] row = sortedRows.next();
+            if (count == loadedIds.length) {
+                loadedScores = Arrays.copyOf(loadedScores, count * 2);
+                loadedIds = Arrays.copyOf(loadedIds, count * 2);
+            }
+            loadedIds[count] = ((Number) row[0]).longValue();
+            loadedScores[count] = ((Number) row[1]).doubleValue();
+            count++;
+        }
+        load(loadedScores, loadedIds, count);
+        return count;
+    }
+
+    /** Indexes {@code id} at {@code score}, or drops it when the score is null. */
+    public void put(long id, Double score) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            if (score == null) {
+                return;
+            }
+            if (size == scores.length) {
+                scores = Arrays.copyOf(scores, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            int at = insertionPoint(score, id);
+            System.arraycopy(scores, at, scores, at + 1, size - at);
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            scores[at] = score;
+            ids[at] = id;
+            size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Number of entries with {@code min <= score <= max}. */
+    public int count(double min, double max) {
+        lock.readLock().lock();
+        try {
+            return Math.max(0, firstAbove(max) - firstAtLeast(min));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Ids of the {@code n} highest scores, best first (ties by higher id first). */
+    public long[] topIds(int n) {
+        lock.readLock().lock();
+        try {
+            int count = Math.min(n, size);
+            long[] top = new long[count];
+            for (int i = 0; i < count; i++) {
+                top[i] = ids[size - 1 - i];
+            }
+            return top;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(long id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                System.arraycopy(scores, i + 1, scores, i, size - i - 1);
+                System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+                size--;
+                return;
+            }
+        }
+    }
+
+    private int firstAtLeast(double score) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (scores[mid] < score) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int firstAbove(double score) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (scores[mid] <= score) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int insertionPoint(double score, long id) {
+        int low = firstAtLeast(score);
+        int high = firstAbove(score);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ids[mid] < id) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
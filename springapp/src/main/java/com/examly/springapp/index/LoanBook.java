@@ -0,0 +1,585 @@
+package com.examly.springapp.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Columnar read model of the loan book. Every field the analytics need is
+ * a primitive array indexed by row, rows sorted by loan id: amounts, rates,
+ * tenures, status codes, a reference into a loan type dictionary and one
+ * into a customer score table. A loan costs 41 bytes here against several
+ * hundred as an entity, and moving a customer to another score band is one
+ * store however many loans they hold.
+ * <p>
+ * {@link #aggregate} is a fork-join scan over row ranges; each range sums
+ * into its own small per-group arrays, which are merged on the way back up.
+ * Amount percentiles come from log-linear histograms with 32 sub-buckets per
+ * power of two, so they are within about 3% of the exact value. Writes take
+ * the write lock and are versioned: a row older than the one held is
+ * ignored, so late or repeated updates never roll a loan back. Deleted
+ * loans stay as tombstones until a quarter of the rows are dead, then the
+ * arrays are compacted.
+ */
+public final class LoanBook {
+
+    public static final long NO_AMOUNT = Long.MIN_VALUE;
+    public static final int NO_VALUE = Integer.MIN_VALUE;
+    public static final byte NO_STATUS = -1;
+    public static final int MAX_GROUPS = 1024;
+
+    private static final byte DELETED = -2;
+    private static final long DELETED_VERSION = Long.MAX_VALUE;
+    private static final int ANY = Integer.MIN_VALUE;
+    private static final int LEAF_ROWS = 1 << 16;
+    private static final int COMPACT_AFTER = 1024;
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HISTOGRAM_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    public enum Dimension {
+        STATUS,
+        LOAN_TYPE,
+        SCORE_BAND
+    }
+
+    /** One loan as written to the book. Loaders reuse a single instance; {@link #put} copies it. */
+    public static final class Row {
+        public long id;
+        public long version;
+        public long amountMinor = NO_AMOUNT;
+        public int rateBps = NO_VALUE;
+        public int tenureMonths = NO_VALUE;
+        public byte status = NO_STATUS;
+        /** 0 for none. */
+        public long loanTypeId;
+        /** 0 for none. */
+        public long customerId;
+        /** NaN when unknown, in which case a customer already in the book keeps its score. */
+        public double customerScore = Double.NaN;
+    }
+
+    /**
+     * Groups by {@code groupBy}, score bands being {@code bandWidth} wide;
+     * null filters match everything. {@code percentiles} are fractions in
+     * (0, 1], or null for none.
+     */
+    public record Query(Dimension groupBy, double bandWidth, Byte status, Long loanTypeId, double[] percentiles) {
+    }
+
+    /**
+     * One group's totals. {@code key} is the status code, the loan type id
+     * or the score band index (band {@code k} covers {@code [k * bandWidth,
+     * (k + 1) * bandWidth)}), and null for loans without one. Rates are
+     * weighted by amount; percentiles are null when no loan has an amount.
+     */
+    public record Group(Long key, long loans, long amountMinor, Double weightedRateBps, Double averageTenureMonths,
+                        long[] amountPercentiles) {
+    }
+
+    public record Result(long loans, List<Group> groups) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] ids;
+    private long[] versions;
+    private long[] amounts;
+    private int[] rates;
+    private int[] tenures;
+    private byte[] statuses;
+    private int[] typeRefs;
+    private int[] customerRefs;
+    private int size;
+    private int deleted;
+
+    private final LongIntHashMap typeRefsById = new LongIntHashMap(16);
+    private long[] typeIds = new long[16];
+    private int typeCount = 1;
+
+    private final LongIntHashMap customerRefsById;
+    private double[] customerScores;
+    private int customerCount;
+
+    public LoanBook(int expectedLoans) {
+        int capacity = Math.max(16, expectedLoans);
+        ids = new long[capacity];
+        versions = new long[capacity];
+        amounts = new long[capacity];
+        rates = new int[capacity];
+        tenures = new int[capacity];
+        statuses = new byte[capacity];
+        typeRefs = new int[capacity];
+        customerRefs = new int[capacity];
+        int customers = Math.max(16, expectedLoans / 4);
+        customerRefsById = new LongIntHashMap(customers);
+        customerScores = new double[customers];
+    }
+
+    /** Stores the row unless the book already holds this or a later version of the loan. */
+    public boolean put(Row row) {
+        lock.writeLock().lock();
+        try {
+            int at = find(row.id);
+            if (at >= 0) {
+                if (versions[at] >= row.version) {
+                    return false;
+                }
+            } else {
+                at = insert(-at - 1, row.id);
+            }
+            versions[at] = row.version;
+            amounts[at] = row.amountMinor;
+            rates[at] = row.rateBps;
+            tenures[at] = row.tenureMonths;
+            statuses[at] = row.status;
+            typeRefs[at] = typeRef(row.loanTypeId);
+            customerRefs[at] = customerRef(row.customerId, row.customerScore);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Drops the loan; a tombstone keeps late writes for it from bringing it back. */
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            int at = find(id);
+            if (at < 0) {
+                at = insert(-at - 1, id);
+            } else if (statuses[at] == DELETED) {
+                return false;
+            }
+            versions[at] = DELETED_VERSION;
+            amounts[at] = NO_AMOUNT;
+            rates[at] = NO_VALUE;
+            tenures[at] = NO_VALUE;
+            statuses[at] = DELETED;
+            typeRefs[at] = 0;
+            customerRefs[at] = -1;
+            if (++deleted > COMPACT_AFTER && deleted * 4L > size) {
+                compact();
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Sets the score of a customer the book knows; NaN for none. False when no loan of theirs is held. */
+    public boolean setCustomerScore(long customerId, double score) {
+        lock.writeLock().lock();
+        try {
+            int ref = customerRefsById.get(customerId);
+            if (ref == LongIntHashMap.MISSING) {
+                return false;
+            }
+            customerScores[ref] = score;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean hasCustomer(long customerId) {
+        lock.readLock().lock();
+        try {
+            return customerRefsById.get(customerId) != LongIntHashMap.MISSING;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Number of loans held, tombstones excluded. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size - deleted;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Heap taken by the columns and dictionaries, in bytes. */
+    public long sizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long perRow = 3L * Long.BYTES + 4L * Integer.BYTES + Byte.BYTES;
+            return ids.length * perRow + customerScores.length * (long) Double.BYTES
+                    + customerRefsById.sizeInBytes() + typeIds.length * (long) Long.BYTES
+                    + typeRefsById.sizeInBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Scans every loan matching the filters on {@code pool}; writers wait until the scan is done. */
+    public Result aggregate(Query query, ForkJoinPool pool) {
+        lock.readLock().lock();
+        try {
+            Scan scan = new Scan(query);
+            Partial total = scan.empty || size == 0 ? null : pool.invoke(new ScanTask(scan, 0, size));
+            return scan.result(total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int find(long id) {
+        if (size == 0 || ids[size - 1] < id) {
+            // Loans arrive in id order almost always, so most writes append.
+            return -size - 1;
+        }
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    private int insert(int at, long id) {
+        if (size == ids.length) {
+            int capacity = size + (size >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            rates = Arrays.copyOf(rates, capacity);
+            tenures = Arrays.copyOf(tenures, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            typeRefs = Arrays.copyOf(typeRefs, capacity);
+            customerRefs = Arrays.copyOf(customerRefs, capacity);
+        }
+        int tail = size - at;
+        if (tail > 0) {
+            System.arraycopy(ids, at, ids, at + 1, tail);
+            System.arraycopy(versions, at, versions, at + 1, tail);
+            System.arraycopy(amounts, at, amounts, at + 1, tail);
+            System.arraycopy(rates, at, rates, at + 1, tail);
+            System.arraycopy(tenures, at, tenures, at + 1, tail);
+            System.arraycopy(statuses, at, statuses, at + 1, tail);
+            System.arraycopy(typeRefs, at, typeRefs, at + 1, tail);
+            System.arraycopy(customerRefs, at, customerRefs, at + 1, tail);
+        }
+        ids[at] = id;
+        size++;
+        return at;
+    }
+
+    private void compact() {
+        int kept = 0;
+        for (int row = 0; row < size; row++) {
+            if (statuses[row] == DELETED) {
+                continue;
+            }
+            ids[kept] = ids[row];
+            versions[kept] = versions[row];
+            amounts[kept] = amounts[row];
+            rates[kept] = rates[row];
+            tenures[kept] = tenures[row];
+            statuses[kept] = statuses[row];
+            typeRefs[kept] = typeRefs[row];
+            customerRefs[kept] = customerRefs[row];
+            kept++;
+        }
+        size = kept;
+        deleted = 0;
+    }
+
+    private int typeRef(long loanTypeId) {
+        if (loanTypeId == 0) {
+            return 0;
+        }
+        int ref = typeRefsById.get(loanTypeId);
+        if (ref == LongIntHashMap.MISSING) {
+            if (typeCount == typeIds.length) {
+                typeIds = Arrays.copyOf(typeIds, typeCount * 2);
+            }
+            ref = typeCount++;
+            typeIds[ref] = loanTypeId;
+            typeRefsById.put(loanTypeId, ref);
+        }
+        return ref;
+    }
+
+    private int customerRef(long customerId, double score) {
+        if (customerId == 0) {
+            return -1;
+        }
+        int ref = customerRefsById.get(customerId);
+        if (ref == LongIntHashMap.MISSING) {
+            if (customerCount == customerScores.length) {
+                customerScores = Arrays.copyOf(customerScores, customerCount * 2);
+            }
+            ref = customerCount++;
+            customerScores[ref] = score;
+            customerRefsById.put(customerId, ref);
+        } else if (!Double.isNaN(score)) {
+            customerScores[ref] = score;
+        }
+        return ref;
+    }
+
+    /** Histogram bucket of a non-negative amount: exact below 64, then 32 buckets per power of two. */
+    static int bucketOf(long amount) {
+        if (amount < 2 * SUB_BUCKETS) {
+            return (int) Math.max(0, amount);
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(amount) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((amount >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /** The middle of the amounts that fall into {@code bucket}. */
+    static long midpointOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        long low = (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+        return low + ((1L << shift) - 1) / 2;
+    }
+
+    /** The plan of one scan, with the column arrays as they were when the read lock was taken. */
+    private final class Scan {
+
+        final Dimension groupBy;
+        final double bandWidth;
+        final int statusFilter;
+        final int typeFilter;
+        final double[] percentiles;
+        final long[] amountColumn = amounts;
+        final int[] rateColumn = rates;
+        final int[] tenureColumn = tenures;
+        final byte[] statusColumn = statuses;
+        final int[] typeColumn = typeRefs;
+        final int[] customerColumn = customerRefs;
+        final double[] scores = customerScores;
+        final long minBand;
+        final int groups;
+        final boolean empty;
+        /** Score band group of every customer, worked out once per scan rather than once per loan. */
+        final short[] customerGroups;
+
+        Scan(Query query) {
+            groupBy = query.groupBy();
+            bandWidth = query.bandWidth();
+            statusFilter = query.status() == null ? ANY : query.status();
+            percentiles = query.percentiles();
+            int typeRef = query.loanTypeId() == null ? ANY : typeRefsById.get(query.loanTypeId());
+            typeFilter = typeRef;
+            empty = typeRef == LongIntHashMap.MISSING;
+            long lowest = 0;
+            int count;
+            switch (groupBy) {
+                case STATUS -> count = Byte.MAX_VALUE + 2;
+                case LOAN_TYPE -> count = typeCount;
+                default -> {
+                    if (!(bandWidth > 0)) {
+                        throw new IllegalArgumentException("bandWidth must be positive");
+                    }
+                    long highest = Long.MIN_VALUE;
+                    lowest = Long.MAX_VALUE;
+                    for (int ref = 0; ref < customerCount; ref++) {
+                        if (!Double.isNaN(scores[ref])) {
+                            long band = (long) Math.floor(scores[ref] / bandWidth);
+                            lowest = Math.min(lowest, band);
+                            highest = Math.max(highest, band);
+                        }
+                    }
+                    if (highest == Long.MIN_VALUE) {
+                        lowest = 0;
+                        count = 1;
+                    } else if (highest - lowest + 2 > MAX_GROUPS) {
+                        throw new IllegalArgumentException("A bandWidth of " + bandWidth + " gives more than "
+                                + MAX_GROUPS + " score bands");
+                    } else {
+                        count = (int) (highest - lowest) + 2;
+                    }
+                }
+            }
+            minBand = lowest;
+            groups = count;
+            if (groupBy == Dimension.SCORE_BAND) {
+                customerGroups = new short[customerCount];
+                for (int ref = 0; ref < customerCount; ref++) {
+                    customerGroups[ref] = Double.isNaN(scores[ref])
+                            ? 0 : (short) ((long) Math.floor(scores[ref] / bandWidth) - minBand + 1);
+                }
+            } else {
+                customerGroups = null;
+            }
+        }
+
+        /** Group 0 holds the loans without a value for the dimension. */
+        int groupOf(int row) {
+            switch (groupBy) {
+                case STATUS:
+                    return statusColumn[row] + 1;
+                case LOAN_TYPE:
+                    return typeColumn[row];
+                default:
+                    int ref = customerColumn[row];
+                    return ref < 0 ? 0 : customerGroups[ref];
+            }
+        }
+
+        Partial scan(int from, int to) {
+            Partial partial = new Partial(groups, percentiles != null);
+            for (int row = from; row < to; row++) {
+                int status = statusColumn[row];
+                if (status == DELETED || (statusFilter != ANY && status != statusFilter)
+                        || (typeFilter != ANY && typeColumn[row] != typeFilter)) {
+                    continue;
+                }
+                int group = groupOf(row);
+                partial.loans[group]++;
+                long amount = amountColumn[row];
+                if (amount != NO_AMOUNT) {
+                    partial.amounts[group] += amount;
+                    int rate = rateColumn[row];
+                    if (rate != NO_VALUE) {
+                        partial.rateWeights[group] += (double) amount * rate;
+                        partial.ratedAmounts[group] += amount;
+                    }
+                    if (partial.histograms != null) {
+                        partial.histogram(group)[bucketOf(amount)]++;
+                    }
+                }
+                int tenure = tenureColumn[row];
+                if (tenure != NO_VALUE) {
+                    partial.tenureSums[group] += tenure;
+                    partial.tenureLoans[group]++;
+                }
+            }
+            return partial;
+        }
+
+        Result result(Partial total) {
+            List<Group> out = new ArrayList<>();
+            long loans = 0;
+            for (int group = 0; total != null && group < groups; group++) {
+                if (total.loans[group] == 0) {
+                    continue;
+                }
+                loans += total.loans[group];
+                out.add(new Group(keyOf(group), total.loans[group], total.amounts[group],
+                        total.ratedAmounts[group] > 0 ? total.rateWeights[group] / total.ratedAmounts[group] : null,
+                        total.tenureLoans[group] > 0 ? (double) total.tenureSums[group] / total.tenureLoans[group] : null,
+                        percentiles == null ? null : percentilesOf(total.histograms[group])));
+            }
+            return new Result(loans, out);
+        }
+
+        private Long keyOf(int group) {
+            if (group == 0) {
+                return null;
+            }
+            return switch (groupBy) {
+                case STATUS -> (long) (group - 1);
+                case LOAN_TYPE -> typeIds[group];
+                case SCORE_BAND -> group - 1 + minBand;
+            };
+        }
+
+        private long[] percentilesOf(int[] histogram) {
+            if (histogram == null) {
+                return null;
+            }
+            long[] values = new long[percentiles.length];
+            long count = 0;
+            for (int bucket : histogram) {
+                count += bucket;
+            }
+            for (int i = 0; i < percentiles.length; i++) {
+                long rank = Math.max(1, (long) Math.ceil(percentiles[i] * count));
+                long seen = 0;
+                for (int bucket = 0; bucket < histogram.length; bucket++) {
+                    seen += histogram[bucket];
+                    if (seen >= rank) {
+                        values[i] = midpointOf(bucket);
+                        break;
+                    }
+                }
+            }
+            return values;
+        }
+    }
+
+    /** Per-group sums over one row range; histograms are only allocated for groups that have amounts. */
+    private static final class Partial {
+
+        final long[] loans;
+        final long[] amounts;
+        final double[] rateWeights;
+        final long[] ratedAmounts;
+        final long[] tenureSums;
+        final long[] tenureLoans;
+        final int[][] histograms;
+
+        Partial(int groups, boolean withHistograms) {
+            loans = new long[groups];
+            amounts = new long[groups];
+            rateWeights = new double[groups];
+            ratedAmounts = new long[groups];
+            tenureSums = new long[groups];
+            tenureLoans = new long[groups];
+            histograms = withHistograms ? new int[groups][] : null;
+        }
+
+        int[] histogram(int group) {
+            int[] histogram = histograms[group];
+            if (histogram == null) {
+                histogram = new int[HISTOGRAM_BUCKETS];
+                histograms[group] = histogram;
+            }
+            return histogram;
+        }
+
+        Partial merge(Partial other) {
+            for (int group = 0; group < loans.length; group++) {
+                loans[group] += other.loans[group];
+                amounts[group] += other.amounts[group];
+                rateWeights[group] += other.rateWeights[group];
+                ratedAmounts[group] += other.ratedAmounts[group];
+                tenureSums[group] += other.tenureSums[group];
+                tenureLoans[group] += other.tenureLoans[group];
+                if (histograms != null && other.histograms[group] != null) {
+                    if (histograms[group] == null) {
+                        histograms[group] = other.histograms[group];
+                    } else {
+                        int[] mine = histograms[group];
+                        int[] theirs = other.histograms[group];
+                        for (int bucket = 0; bucket < mine.length; bucket++) {
+                            mine[bucket] += theirs[bucket];
+                        }
+                    }
+                }
+            }
+            return this;
+        }
+    }
+
+    private static final class ScanTask extends RecursiveTask<Partial> {
+
+        private final Scan scan;
+        private final int from;
+        private final int to;
+
+        ScanTask(Scan scan, int from, int to) {
+            this.scan = scan;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= LEAF_ROWS) {
+                return scan.scan(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(scan, from, middle);
+            left.fork();
+            Partial right = new ScanTask(scan, middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+}
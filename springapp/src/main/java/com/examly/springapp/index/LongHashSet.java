@@ -0,0 +1,86 @@
+package com.examly.springapp.index;
+
+/**
+ * Open-addressing set of {@code long} keys in a single {@code long[]}, with
+ * linear probing and no per-entry objects; a few million ids cost 16 bytes
+ * each at most. Not thread-safe: build it, then share it read-only.
+ */
+public final class LongHashSet {
+
+    private static final long EMPTY = 0L;
+
+    private long[] slots;
+    private int mask;
+    private int size;
+    private boolean containsZero;
+
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        slots = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    public boolean add(long key) {
+        if (key == EMPTY) {
+            boolean added = !containsZero;
+            containsZero = true;
+            size += added ? 1 : 0;
+            return added;
+        }
+        int slot = slot(key);
+        while (slots[slot] != EMPTY) {
+            if (slots[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = key;
+        if (++size * 2 > slots.length) {
+            grow();
+        }
+        return true;
+    }
+
+    public boolean contains(long key) {
+        if (key == EMPTY) {
+            return containsZero;
+        }
+        int slot = slot(key);
+        while (slots[slot] != EMPTY) {
+            if (slots[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        // Fibonacci hashing spreads sequential ids across the table.
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    private void grow() {
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        mask = slots.length - 1;
+        for (long key : old) {
+            if (key != EMPTY) {
+                int slot = slot(key);
+                while (slots[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = key;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LongHashSet[size=" + size + ", capacity=" + slots.length + "]";
+    }
+}
@@ -0,0 +1,114 @@
+package com.examly.springapp.index;
+
+/**
+ * Open-addressing map from {@code long} keys to non-negative {@code int}
+ * values, in two flat arrays with linear probing. Entries are never
+ * removed, which keeps probing simple; it backs dictionaries that only
+ * grow, or that are rebuilt to shed keys. Not thread-safe: callers guard it.
+ */
+public final class LongIntHashMap {
+
+    public static final int MISSING = -1;
+
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int zeroValue = MISSING;
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /** The value for {@code key}, or {@link #MISSING}. */
+    public int get(long key) {
+        if (key == EMPTY) {
+            return zeroValue;
+        }
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    public void put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Values must not be negative: " + value);
+        }
+        if (key == EMPTY) {
+            size += zeroValue == MISSING ? 1 : 0;
+            zeroValue = value;
+            return;
+        }
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** An independent copy, which can grow without touching this map. */
+    public LongIntHashMap copy() {
+        LongIntHashMap copy = new LongIntHashMap(4);
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.mask = mask;
+        copy.size = size;
+        copy.zeroValue = zeroValue;
+        return copy;
+    }
+
+    /** Heap taken by the two tables, in bytes. */
+    public long sizeInBytes() {
+        return keys.length * (long) (Long.BYTES + Integer.BYTES);
+    }
+
+    private int slot(long key) {
+        // Fibonacci hashing spreads sequential ids across the table.
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LongIntHashMap[size=" + size + ", capacity=" + keys.length + "]";
+    }
+}
@@ -0,0 +1,606 @@
+package com.examly.springapp.index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trigram inverted index over a few short text fields per document, for
+ * ranked fuzzy lookups by partial name, phone number or address.
+ * <p>
+ * Every document gets a dense ordinal, and each trigram keeps a sorted
+ * {@code int[]} posting list of {@code ordinal << 2 | field} entries. A
+ * write gives the document a fresh, highest ordinal, so its entries are
+ * appended to the lists in order. The ordinal it replaces is marked dead
+ * and skipped by searches. Once more than a quarter of the ordinals are
+ * dead, a copy without them, and with an id map that has forgotten the
+ * removed ids, is built on a background thread. Writes carry on meanwhile
+ * and are replayed onto the copy before it is swapped in, so neither
+ * writers nor searches wait for the rebuild.
+ * <p>
+ * A search needs a field to contain at least a minimum share of the
+ * query's trigrams. Only the shortest lists are merged to find
+ * candidates. The longest lists are probed for each candidate with a
+ * galloping search, so common trigrams such as {@code "an "} cost little.
+ */
+public final class TrigramIndex {
+
+    public static final int MAX_FIELDS = 4;
+
+    /** How a field's text is cut into trigrams. */
+    public enum Analysis {
+        /** Words of letters and digits, lower-cased with accents removed, each padded with a space. */
+        WORDS,
+        /** The digits only, as one unpadded run, so any part of a phone number matches. */
+        DIGITS
+    }
+
+    /** One matching document: the field that matched best and how well. */
+    public record Hit(long id, int field, int matched, double similarity) {
+    }
+
+    private static final int FIELD_BITS = 2;
+    private static final int MAX_ORDINALS = Integer.MAX_VALUE >>> FIELD_BITS;
+    private static final int COMPACT_MIN_DEAD = 1024;
+
+    private static final Comparator<Hit> WORST_FIRST = Comparator.comparingInt(Hit::matched)
+            .thenComparingDouble(Hit::similarity)
+            .thenComparing(Comparator.comparingLong(Hit::id).reversed());
+
+    /** Shared by every index not given its own; compactions are rare and run one at a time. */
+    private static final ExecutorService BACKGROUND = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "trigram-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Analysis[] fields;
+    private final Executor compactor;
+    private State state;
+    /** Writes made while a compaction builds its copy, in order; null when none is running. */
+    private List<Change> changes;
+
+    /** A document written, with its trigrams per field, or removed, with none. */
+    private record Change(long id, long[][] trigrams) {
+    }
+
+    public TrigramIndex(int expectedDocuments, Analysis... fields) {
+        this(BACKGROUND, expectedDocuments, fields);
+    }
+
+    /** As {@link #TrigramIndex(int, Analysis...)}, but compacting on {@code compactor}. */
+    public TrigramIndex(Executor compactor, int expectedDocuments, Analysis... fields) {
+        if (fields.length == 0 || fields.length > MAX_FIELDS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_FIELDS + " fields are supported");
+        }
+        this.fields = fields.clone();
+        this.compactor = compactor;
+        this.state = new State(fields.length, Math.max(16, expectedDocuments));
+    }
+
+    /** Indexes {@code texts}, one per field, as the document {@code id}, replacing what it had. */
+    public void put(long id, String... texts) {
+        if (texts.length != fields.length) {
+            throw new IllegalArgumentException("Expected " + fields.length + " fields but got " + texts.length);
+        }
+        long[][] trigrams = new long[fields.length][];
+        for (int f = 0; f < fields.length; f++) {
+            trigrams[f] = trigrams(texts[f], fields[f], false);
+        }
+        write(new Change(id, trigrams));
+    }
+
+    public void remove(long id) {
+        write(new Change(id, null));
+    }
+
+    /**
+     * Up to {@code limit} documents with a field holding at least
+     * {@code minMatch} of the query's trigrams. They are ranked by trigrams
+     * matched, then by similarity to the field, then by id. The last query
+     * word is matched as a prefix, since it may still be being typed.
+     */
+    public List<Hit> search(String query, double minMatch, int limit) {
+        if (!(minMatch > 0 && minMatch <= 1)) {
+            throw new IllegalArgumentException("minMatch must be in (0, 1]: " + minMatch);
+        }
+        long[] wanted = queryTrigrams(query);
+        if (wanted.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        int needed = Math.max(1, (int) Math.ceil(minMatch * wanted.length - 1e-9));
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, WORST_FIRST);
+        lock.readLock().lock();
+        try {
+            State s = state;
+            int[][] lists = new int[wanted.length][];
+            int[] sizes = new int[wanted.length];
+            Integer[] order = new Integer[wanted.length];
+            for (int i = 0; i < wanted.length; i++) {
+                int list = s.trigramLists.get(wanted[i]);
+                lists[i] = list == LongIntHashMap.MISSING ? new int[0] : s.postings[list];
+                sizes[i] = list == LongIntHashMap.MISSING ? 0 : s.postingSizes[list];
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingInt(i -> sizes[i]));
+            // A field missing from every one of the merged lists can match at most needed - 1 trigrams.
+            int merged = wanted.length - needed + 1;
+            long mergedEntries = 0;
+            for (int i = 0; i < merged; i++) {
+                mergedEntries += sizes[order[i]];
+            }
+            if (merged < wanted.length && sizes[order[merged]] <= mergedEntries) {
+                // Merging one more list is no dearer than probing for each merged entry, and then
+                // only fields found in two merged lists are worth probing for.
+                merged++;
+            }
+            int[][] mergeLists = new int[merged][];
+            int[] mergeEnds = new int[merged];
+            int[] mergeAt = new int[merged];
+            // The entry each merged list is at, or MAX_VALUE once it is used up.
+            int[] heads = new int[merged];
+            for (int i = 0; i < merged; i++) {
+                mergeLists[i] = lists[order[i]];
+                mergeEnds[i] = sizes[order[i]];
+                heads[i] = mergeEnds[i] > 0 ? mergeLists[i][0] : Integer.MAX_VALUE;
+            }
+            int probed = wanted.length - merged;
+            int[][] probeLists = new int[probed][];
+            int[] probeEnds = new int[probed];
+            int[] probeAt = new int[probed];
+            for (int i = 0; i < probed; i++) {
+                probeLists[i] = lists[order[merged + i]];
+                probeEnds[i] = sizes[order[merged + i]];
+            }
+
+            int pendingOrdinal = -1;
+            int pendingField = 0;
+            int pendingMatched = 0;
+            double pendingSimilarity = 0;
+            while (true) {
+                int entry = Integer.MAX_VALUE;
+                for (int head : heads) {
+                    entry = Math.min(entry, head);
+                }
+                if (entry == Integer.MAX_VALUE) {
+                    break;
+                }
+                int matched = 0;
+                for (int i = 0; i < merged; i++) {
+                    if (heads[i] == entry) {
+                        matched++;
+                        int at = ++mergeAt[i];
+                        heads[i] = at < mergeEnds[i] ? mergeLists[i][at] : Integer.MAX_VALUE;
+                    }
+                }
+                for (int i = 0; i < probed && matched + probed - i >= needed; i++) {
+                    probeAt[i] = gallop(probeLists[i], probeAt[i], probeEnds[i], entry);
+                    if (probeAt[i] < probeEnds[i] && probeLists[i][probeAt[i]] == entry) {
+                        matched++;
+                    }
+                }
+                int ordinal = entry >>> FIELD_BITS;
+                if (matched < needed || s.isDead(ordinal)) {
+                    continue;
+                }
+                int field = entry & (1 << FIELD_BITS) - 1;
+                int length = s.lengths[ordinal * fields.length + field];
+                double similarity = matched / (double) (wanted.length + length - matched);
+                if (ordinal != pendingOrdinal) {
+                    offer(s, top, limit, pendingOrdinal, pendingField, pendingMatched, pendingSimilarity);
+                    pendingOrdinal = ordinal;
+                } else if (matched < pendingMatched
+                        || matched == pendingMatched && similarity <= pendingSimilarity) {
+                    continue;
+                }
+                pendingField = field;
+                pendingMatched = matched;
+                pendingSimilarity = similarity;
+            }
+            offer(s, top, limit, pendingOrdinal, pendingField, pendingMatched, pendingSimilarity);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(WORST_FIRST.reversed());
+        return hits;
+    }
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return state.ordinals - state.deadCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Approximate heap taken by the lists, documents and dictionaries, in bytes. */
+    public long sizeInBytes() {
+        lock.readLock().lock();
+        try {
+            State s = state;
+            long bytes = s.trigramLists.sizeInBytes() + s.idOrdinals.sizeInBytes()
+                    + (long) s.postingSizes.length * (Integer.BYTES + 16)
+                    + (long) s.ids.length * Long.BYTES + (long) s.lengths.length * Short.BYTES
+                    + (long) s.dead.length * Long.BYTES;
+            for (int i = 0; i < s.lists; i++) {
+                bytes += (long) s.postings[i].length * Integer.BYTES;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The distinct trigrams of {@code text}, sorted. With {@code prefix}
+     * the last word is left open at its end.
+     */
+    static long[] trigrams(String text, Analysis analysis, boolean prefix) {
+        if (text == null || text.isEmpty()) {
+            return new long[0];
+        }
+        long[] out = new long[16];
+        int count = 0;
+        if (analysis == Analysis.DIGITS) {
+            StringBuilder digits = new StringBuilder(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    digits.append(c);
+                }
+            }
+            for (int i = 0; i + 3 <= digits.length(); i++) {
+                out = add(out, count++, pack(digits.charAt(i), digits.charAt(i + 1), digits.charAt(i + 2)));
+            }
+        } else {
+            String folded = Normalizer.normalize(text, Normalizer.Form.NFD);
+            StringBuilder word = new StringBuilder();
+            List<String> words = new ArrayList<>();
+            for (int i = 0; i <= folded.length(); i++) {
+                char c = i < folded.length() ? folded.charAt(i) : ' ';
+                if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                    continue;
+                }
+                if (Character.isLetterOrDigit(c)) {
+                    word.append(Character.toLowerCase(c));
+                } else if (!word.isEmpty()) {
+                    words.add(word.toString());
+                    word.setLength(0);
+                }
+            }
+            for (int w = 0; w < words.size(); w++) {
+                String padded = " " + words.get(w) + (prefix && w == words.size() - 1 ? "" : " ");
+                for (int i = 0; i + 3 <= padded.length(); i++) {
+                    out = add(out, count++, pack(padded.charAt(i), padded.charAt(i + 1), padded.charAt(i + 2)));
+                }
+            }
+        }
+        Arrays.sort(out, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || out[distinct - 1] != out[i]) {
+                out[distinct++] = out[i];
+            }
+        }
+        return Arrays.copyOf(out, distinct);
+    }
+
+    /** Queries without letters are phone numbers: they keep only their digits. */
+    static long[] queryTrigrams(String query) {
+        if (query == null) {
+            return new long[0];
+        }
+        boolean letters = query.codePoints().anyMatch(Character::isLetter);
+        return trigrams(query, letters ? Analysis.WORDS : Analysis.DIGITS, true);
+    }
+
+    private static long pack(char a, char b, char c) {
+        return (long) a << 32 | (long) b << 16 | c;
+    }
+
+    private static long[] add(long[] out, int at, long trigram) {
+        if (at == out.length) {
+            out = Arrays.copyOf(out, at * 2);
+        }
+        out[at] = trigram;
+        return out;
+    }
+
+    /** First position at or after {@code from} whose entry is not below {@code entry}. */
+    private static int gallop(int[] list, int from, int end, int entry) {
+        int step = 1;
+        int low = from;
+        int high = from;
+        while (high < end && list[high] < entry) {
+            low = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        high = Math.min(high, end);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (list[mid] < entry) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    private static void offer(State s, PriorityQueue<Hit> top, int limit, int ordinal, int field, int matched,
+                              double similarity) {
+        if (ordinal < 0) {
+            return;
+        }
+        long id = s.ids[ordinal];
+        if (top.size() == limit) {
+            Hit worst = top.peek();
+            if (matched < worst.matched()
+                    || matched == worst.matched() && (similarity < worst.similarity()
+                    || similarity == worst.similarity() && id > worst.id())) {
+                return;
+            }
+            top.poll();
+        }
+        top.add(new Hit(id, field, matched, similarity));
+    }
+
+    /** Applies {@code change}, and starts a compaction once enough ordinals are dead. */
+    private void write(Change change) {
+        State snapshot = null;
+        lock.writeLock().lock();
+        try {
+            state.apply(change);
+            if (changes != null) {
+                changes.add(change);
+            } else if (state.worthCompacting()) {
+                changes = new ArrayList<>();
+                snapshot = state.snapshot();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (snapshot != null) {
+            State from = snapshot;
+            try {
+                compactor.execute(() -> compact(from));
+            } catch (RejectedExecutionException e) {
+                swapIn(null);
+            }
+        }
+    }
+
+    /**
+     * Builds the compacted copy without holding the lock, then replays the
+     * writes made meanwhile onto it and swaps it in. If the build fails the
+     * live state is kept and a later write tries again.
+     */
+    private void compact(State snapshot) {
+        State compacted = null;
+        try {
+            compacted = snapshot.compacted();
+        } finally {
+            swapIn(compacted);
+        }
+    }
+
+    private void swapIn(State compacted) {
+        lock.writeLock().lock();
+        try {
+            if (compacted != null) {
+                for (Change change : changes) {
+                    compacted.apply(change);
+                }
+                state = compacted;
+            }
+            changes = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The lists and documents. The live state is only touched under the
+     * index's lock. A snapshot shares arrays with it, but only reads the
+     * entries that existed when it was taken, which writers never change.
+     */
+    private static final class State {
+
+        final int fieldCount;
+        LongIntHashMap trigramLists;
+        int[][] postings;
+        int[] postingSizes;
+        int lists;
+
+        LongIntHashMap idOrdinals;
+        long[] ids;
+        /** Distinct trigrams in each field, at {@code ordinal * fieldCount + field}. */
+        short[] lengths;
+        long[] dead;
+        int ordinals;
+        int deadCount;
+
+        State(int fieldCount, int capacity) {
+            this.fieldCount = fieldCount;
+            trigramLists = new LongIntHashMap(1 << 14);
+            postings = new int[1 << 14][];
+            postingSizes = new int[1 << 14];
+            idOrdinals = new LongIntHashMap(capacity);
+            ids = new long[capacity];
+            lengths = new short[capacity * fieldCount];
+            dead = new long[(capacity + 63) >>> 6];
+        }
+
+        private State(int fieldCount) {
+            this.fieldCount = fieldCount;
+        }
+
+        void apply(Change change) {
+            kill(change.id());
+            if (change.trigrams() == null) {
+                return;
+            }
+            if (ordinals == MAX_ORDINALS) {
+                throw new IllegalStateException("The index is full");
+            }
+            int ordinal = ordinals++;
+            ensureDocumentCapacity(ordinals);
+            ids[ordinal] = change.id();
+            idOrdinals.put(change.id(), ordinal);
+            for (int f = 0; f < fieldCount; f++) {
+                long[] trigrams = change.trigrams()[f];
+                lengths[ordinal * fieldCount + f] = (short) Math.min(Short.MAX_VALUE, trigrams.length);
+                int entry = ordinal << FIELD_BITS | f;
+                for (long trigram : trigrams) {
+                    append(listOf(trigram), entry);
+                }
+            }
+        }
+
+        boolean isDead(int ordinal) {
+            return (dead[ordinal >>> 6] & 1L << ordinal) != 0;
+        }
+
+        boolean worthCompacting() {
+            return deadCount > COMPACT_MIN_DEAD && deadCount * 4 > ordinals;
+        }
+
+        /**
+         * What a compaction reads: the lists cut at their current sizes, a
+         * copy of the trigram dictionary and of the dead set. Later writes
+         * append beyond those sizes or grow new arrays, so they never touch
+         * what the snapshot reads.
+         */
+        State snapshot() {
+            State snapshot = new State(fieldCount);
+            snapshot.trigramLists = trigramLists.copy();
+            snapshot.postings = Arrays.copyOf(postings, lists);
+            snapshot.postingSizes = Arrays.copyOf(postingSizes, lists);
+            snapshot.lists = lists;
+            snapshot.ids = ids;
+            snapshot.lengths = lengths;
+            snapshot.dead = dead.clone();
+            snapshot.ordinals = ordinals;
+            snapshot.deadCount = deadCount;
+            return snapshot;
+        }
+
+        /**
+         * A copy without the dead ordinals. The live ones are renumbered in
+         * order, which keeps every posting list sorted, and the id map is
+         * rebuilt from them alone. List numbers are kept, so the trigram
+         * dictionary carries over as it is.
+         */
+        State compacted() {
+            int live = ordinals - deadCount;
+            int capacity = Math.max(16, live + (live >> 1));
+            State out = new State(fieldCount);
+            out.idOrdinals = new LongIntHashMap(capacity);
+            out.ids = new long[capacity];
+            out.lengths = new short[capacity * fieldCount];
+            out.dead = new long[(capacity + 63) >>> 6];
+            int[] renumbered = new int[ordinals];
+            for (int ordinal = 0; ordinal < ordinals; ordinal++) {
+                if (isDead(ordinal)) {
+                    renumbered[ordinal] = -1;
+                } else {
+                    int target = out.ordinals++;
+                    renumbered[ordinal] = target;
+                    out.ids[target] = ids[ordinal];
+                    System.arraycopy(lengths, ordinal * fieldCount, out.lengths, target * fieldCount, fieldCount);
+                    out.idOrdinals.put(ids[ordinal], target);
+                }
+            }
+            out.trigramLists = trigramLists;
+            out.lists = lists;
+            out.postings = new int[Math.max(16, lists + (lists >> 1))][];
+            out.postingSizes = new int[out.postings.length];
+            for (int list = 0; list < lists; list++) {
+                int[] entries = postings[list];
+                int size = postingSizes[list];
+                int kept = 0;
+                for (int i = 0; i < size; i++) {
+                    if (renumbered[entries[i] >>> FIELD_BITS] >= 0) {
+                        kept++;
+                    }
+                }
+                int[] filtered = new int[Math.max(4, kept + (kept >> 1))];
+                kept = 0;
+                for (int i = 0; i < size; i++) {
+                    int target = renumbered[entries[i] >>> FIELD_BITS];
+                    if (target >= 0) {
+                        filtered[kept++] = target << FIELD_BITS | entries[i] & (1 << FIELD_BITS) - 1;
+                    }
+                }
+                out.postings[list] = filtered;
+                out.postingSizes[list] = kept;
+            }
+            return out;
+        }
+
+        private int listOf(long trigram) {
+            int list = trigramLists.get(trigram);
+            if (list != LongIntHashMap.MISSING) {
+                return list;
+            }
+            if (lists == postings.length) {
+                postings = Arrays.copyOf(postings, lists * 2);
+                postingSizes = Arrays.copyOf(postingSizes, lists * 2);
+            }
+            postings[lists] = new int[4];
+            trigramLists.put(trigram, lists);
+            return lists++;
+        }
+
+        private void append(int list, int entry) {
+            int size = postingSizes[list];
+            int[] entries = postings[list];
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size + (size >> 1) + 1);
+                postings[list] = entries;
+            }
+            entries[size] = entry;
+            postingSizes[list] = size + 1;
+        }
+
+        /** Ordinals are never reused within a state, so the id map always names the id's own ordinal. */
+        private void kill(long id) {
+            int ordinal = idOrdinals.get(id);
+            if (ordinal != LongIntHashMap.MISSING && !isDead(ordinal)) {
+                dead[ordinal >>> 6] |= 1L << ordinal;
+                deadCount++;
+            }
+        }
+
+        private void ensureDocumentCapacity(int needed) {
+            if (needed <= ids.length) {
+                return;
+            }
+            int capacity = (int) Math.min(MAX_ORDINALS, Math.max(needed, ids.length + (long) (ids.length >> 1)));
+            ids = Arrays.copyOf(ids, capacity);
+            lengths = Arrays.copyOf(lengths, capacity * fieldCount);
+            dead = Arrays.copyOf(dead, (capacity + 63) >>> 6);
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.readLock().lock();
+        try {
+            return "TrigramIndex[documents=" + (state.ordinals - state.deadCount) + ", trigrams=" + state.lists + "]";
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.examly.springapp.ingest;
+
+/**
+ * Layouts of a bank settlement file. Every row carries the bank's
+ * transaction reference, the loan it pays (an id, optionally with a
+ * non-numeric prefix such as {@code LN-000123}), the amount with at most two
+ * decimals and optionally the value date.
+ */
+public enum StatementFormat {
+
+    /**
+     * {@code reference,loan,amount[,date]} with dates as {@code yyyy-MM-dd}.
+     * Fields are not quoted; a first line starting with {@code reference} is
+     * taken as a header.
+     */
+    CSV,
+
+    /**
+     * Columns 1-20 reference, 21-32 loan, 33-47 amount, 48-55 date as
+     * {@code yyyyMMdd}; fields are space padded and the date may be left off.
+     */
+    FIXED_WIDTH;
+
+    static final int FIXED_REFERENCE_END = 20;
+    static final int FIXED_LOAN_END = 32;
+    static final int FIXED_AMOUNT_END = 47;
+    static final int FIXED_DATE_END = 55;
+}
@@ -0,0 +1,288 @@
+package com.examly.springapp.ingest;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Reads settlement files by memory-mapping them a window at a time and
+ * parsing fields straight from the mapped bytes into one reused
+ * {@link StatementRow}: no line Strings, no per-field objects, and a heap
+ * footprint that does not grow with the file. Pages are faulted in by the
+ * OS as the scan reaches them, so a file larger than the heap, or larger
+ * than the 2 GB a single mapping can cover, reads the same way.
+ */
+public final class StatementParser {
+
+    /** Mapping window; lines are never split, so this also caps the length of one line. */
+    public static final int DEFAULT_WINDOW_BYTES = 64 * 1024 * 1024;
+
+    private static final int MAX_DIGITS = 18;
+    private static final byte[] CSV_HEADER = {'r', 'e', 'f', 'e', 'r', 'e', 'n', 'c', 'e'};
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    private final int windowBytes;
+
+    public StatementParser() {
+        this(DEFAULT_WINDOW_BYTES);
+    }
+
+    public StatementParser(int windowBytes) {
+        if (windowBytes < 1) {
+            throw new IllegalArgumentException("Mapping window must be positive");
+        }
+        this.windowBytes = windowBytes;
+    }
+
+    /**
+     * Hands every non-blank row of {@code file} to {@code handler}, in file
+     * order, and returns how many lines were read. Rows that do not parse
+     * are still handed over, with {@link StatementRow#error()} set.
+     */
+    public long parse(Path file, StatementFormat format, Consumer<StatementRow> handler) throws IOException {
+        StatementRow row = new StatementRow();
+        long line = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                int length = (int) Math.min(windowBytes, size - position);
+                boolean last = position + length == size;
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int start = 0;
+                for (int i = 0; i < length; i++) {
+                    if (window.get(i) == '\n') {
+                        line++;
+                        if (parseLine(window, start, i, format, line, row)) {
+                            handler.accept(row);
+                        }
+                        start = i + 1;
+                    }
+                }
+                if (last && start < length) {
+                    line++;
+                    if (parseLine(window, start, length, format, line, row)) {
+                        handler.accept(row);
+                    }
+                    start = length;
+                } else if (!last && start == 0) {
+                    throw new IOException("Line " + (line + 1) + " is longer than the "
+                            + windowBytes + "-byte mapping window");
+                }
+                // The next window starts at the first line this one did not finish.
+                position += start;
+            }
+        }
+        return line;
+    }
+
+    /** Fills {@code row} from bytes {@code [from, to)}; false for lines that carry no row. */
+    private static boolean parseLine(MappedByteBuffer buf, int from, int to, StatementFormat format,
+                                     long line, StatementRow row) {
+        if (to > from && buf.get(to - 1) == '\r') {
+            to--;
+        }
+        if (isBlank(buf, from, to)) {
+            return false;
+        }
+        row.reset(line);
+        if (format == StatementFormat.CSV) {
+            if (line == 1 && startsWith(buf, from, to, CSV_HEADER)) {
+                return false;
+            }
+            int referenceEnd = indexOf(buf, from, to, (byte) ',');
+            int loanEnd = indexOf(buf, referenceEnd + 1, to, (byte) ',');
+            int amountEnd = indexOf(buf, loanEnd + 1, to, (byte) ',');
+            if (loanEnd >= to) {
+                row.error = "Expected reference, loan and amount fields";
+                return true;
+            }
+            int dateEnd = amountEnd < to ? indexOf(buf, amountEnd + 1, to, (byte) ',') : to;
+            if (dateEnd < to) {
+                row.error = "Too many fields";
+                return true;
+            }
+            fill(buf, row, from, referenceEnd, referenceEnd + 1, loanEnd, loanEnd + 1, Math.min(amountEnd, to),
+                    amountEnd + 1, to, true);
+        } else {
+            if (to - from < StatementFormat.FIXED_AMOUNT_END) {
+                row.error = "Line is shorter than " + StatementFormat.FIXED_AMOUNT_END + " characters";
+                return true;
+            }
+            fill(buf, row, from, from + StatementFormat.FIXED_REFERENCE_END,
+                    from + StatementFormat.FIXED_REFERENCE_END, from + StatementFormat.FIXED_LOAN_END,
+                    from + StatementFormat.FIXED_LOAN_END, from + StatementFormat.FIXED_AMOUNT_END,
+                    from + StatementFormat.FIXED_AMOUNT_END, Math.min(to, from + StatementFormat.FIXED_DATE_END),
+                    false);
+        }
+        return true;
+    }
+
+    private static void fill(MappedByteBuffer buf, StatementRow row, int refFrom, int refTo, int loanFrom, int loanTo,
+                             int amountFrom, int amountTo, int dateFrom, int dateTo, boolean dashedDate) {
+        if (!parseReference(buf, refFrom, refTo, row)
+                || !parseAmount(buf, amountFrom, amountTo, row)
+                || dateFrom < dateTo && !parseDate(buf, dateFrom, dateTo, dashedDate, row)) {
+            return;
+        }
+        parseLoan(buf, loanFrom, loanTo, row);
+    }
+
+    private static boolean parseReference(MappedByteBuffer buf, int from, int to, StatementRow row) {
+        from = trimStart(buf, from, to);
+        to = trimEnd(buf, from, to);
+        if (to - from > StatementRow.MAX_REFERENCE_LENGTH) {
+            row.error = "Reference is longer than " + StatementRow.MAX_REFERENCE_LENGTH + " characters";
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            byte b = buf.get(i);
+            if (b < 0x20 || b > 0x7e) {
+                row.error = "Reference must be printable ASCII";
+                return false;
+            }
+            row.referenceBytes[i - from] = b;
+        }
+        row.referenceLength = to - from;
+        return true;
+    }
+
+    /** Takes the last run of digits, so {@code 123}, {@code LN-000123} and {@code LOAN123} all match loan 123. */
+    private static void parseLoan(MappedByteBuffer buf, int from, int to, StatementRow row) {
+        to = trimEnd(buf, from, to);
+        int start = to;
+        while (start > from && isDigit(buf.get(start - 1))) {
+            start--;
+        }
+        if (start == to || to - start > MAX_DIGITS) {
+            return;
+        }
+        long id = 0;
+        for (int i = start; i < to; i++) {
+            id = id * 10 + (buf.get(i) - '0');
+        }
+        row.loanId = id;
+        row.hasLoan = true;
+    }
+
+    private static boolean parseAmount(MappedByteBuffer buf, int from, int to, StatementRow row) {
+        from = trimStart(buf, from, to);
+        to = trimEnd(buf, from, to);
+        boolean negative = from < to && buf.get(from) == '-';
+        int i = negative || from < to && buf.get(from) == '+' ? from + 1 : from;
+        long minor = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (; i < to; i++) {
+            byte b = buf.get(i);
+            if (b == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (isDigit(b) && decimals < 2 && digits < MAX_DIGITS - 2) {
+                minor = minor * 10 + (b - '0');
+                digits++;
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else {
+                row.error = "Amount must be a number with at most two decimals";
+                return false;
+            }
+        }
+        if (digits == 0) {
+            row.error = "Amount is required";
+            return false;
+        }
+        for (int d = Math.max(decimals, 0); d < 2; d++) {
+            minor *= 10;
+        }
+        row.amountMinor = negative ? -minor : minor;
+        return true;
+    }
+
+    private static boolean parseDate(MappedByteBuffer buf, int from, int to, boolean dashed, StatementRow row) {
+        from = trimStart(buf, from, to);
+        to = trimEnd(buf, from, to);
+        if (from == to) {
+            return true;
+        }
+        int length = dashed ? 10 : 8;
+        int monthAt = dashed ? 5 : 4;
+        int dayAt = dashed ? 8 : 6;
+        if (to - from != length || dashed && (buf.get(from + 4) != '-' || buf.get(from + 7) != '-')) {
+            row.error = dashed ? "Date must be yyyy-MM-dd" : "Date must be yyyyMMdd";
+            return false;
+        }
+        int year = digits(buf, from, 4);
+        int month = digits(buf, from + monthAt, 2);
+        int day = digits(buf, from + dayAt, 2);
+        boolean leap = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+        if (year < 1 || month < 1 || month > 12 || day < 1
+                || day > DAYS_IN_MONTH[month - 1] + (month == 2 && leap ? 1 : 0)) {
+            row.error = "Date is not a valid calendar date";
+            return false;
+        }
+        row.year = year;
+        row.month = month;
+        row.day = day;
+        return true;
+    }
+
+    /** The value of {@code count} digits, or -1 if any of them is not a digit. */
+    private static int digits(MappedByteBuffer buf, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            byte b = buf.get(i);
+            if (!isDigit(b)) {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private static int indexOf(MappedByteBuffer buf, int from, int to, byte target) {
+        for (int i = from; i < to; i++) {
+            if (buf.get(i) == target) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private static boolean startsWith(MappedByteBuffer buf, int from, int to, byte[] lowerCasePrefix) {
+        if (to - from < lowerCasePrefix.length) {
+            return false;
+        }
+        for (int i = 0; i < lowerCasePrefix.length; i++) {
+            if ((buf.get(from + i) | 0x20) != lowerCasePrefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBlank(MappedByteBuffer buf, int from, int to) {
+        return trimStart(buf, from, to) == to;
+    }
+
+    private static int trimStart(MappedByteBuffer buf, int from, int to) {
+        while (from < to && (buf.get(from) == ' ' || buf.get(from) == '\t')) {
+            from++;
+        }
+        return from;
+    }
+
+    private static int trimEnd(MappedByteBuffer buf, int from, int to) {
+        while (to > from && (buf.get(to - 1) == ' ' || buf.get(to - 1) == '\t')) {
+            to--;
+        }
+        return to;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
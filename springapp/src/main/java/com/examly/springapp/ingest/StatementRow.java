@@ -0,0 +1,77 @@
+package com.examly.springapp.ingest;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * One parsed statement row. The parser reuses a single instance for the
+ * whole file, so a handler must copy out what it keeps; only
+ * {@link #reference()} and {@link #date()} allocate.
+ */
+public final class StatementRow {
+
+    public static final int MAX_REFERENCE_LENGTH = 64;
+
+    final byte[] referenceBytes = new byte[MAX_REFERENCE_LENGTH];
+    int referenceLength;
+    long line;
+    long loanId;
+    boolean hasLoan;
+    long amountMinor;
+    int year;
+    int month;
+    int day;
+    String error;
+
+    void reset(long line) {
+        this.line = line;
+        referenceLength = 0;
+        loanId = 0;
+        hasLoan = false;
+        amountMinor = 0;
+        year = 0;
+        month = 0;
+        day = 0;
+        error = null;
+    }
+
+    /** One-based line number in the file. */
+    public long line() {
+        return line;
+    }
+
+    /** Why the row could not be read, or null when it parsed. */
+    public String error() {
+        return error;
+    }
+
+    public boolean hasReference() {
+        return referenceLength > 0;
+    }
+
+    public String reference() {
+        return new String(referenceBytes, 0, referenceLength, StandardCharsets.US_ASCII);
+    }
+
+    /** False when the loan field holds no digits to match on. */
+    public boolean hasLoan() {
+        return hasLoan;
+    }
+
+    public long loanId() {
+        return loanId;
+    }
+
+    public long amountMinor() {
+        return amountMinor;
+    }
+
+    public boolean hasDate() {
+        return year != 0;
+    }
+
+    public Date date() {
+        return hasDate() ? Date.valueOf(LocalDate.of(year, month, day)) : null;
+    }
+}
@@ -0,0 +1,88 @@
+package com.examly.springapp.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import jakarta.persistence.*;
+
+/**
+ * One day's accrual run. {@code checkpointLoanId} is the highest loan id
+ * below which every loan has been accrued for the day, so an interrupted
+ * run resumes from there instead of rescanning the whole book.
+ */
+@Entity
+@Table(name = "accrual_runs")
+public class AccrualRun {
+    
+    public enum Status {
+        RUNNING,
+        COMPLETED
+    }
+    
+    @Id
+    private LocalDate accrualDate;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16, nullable = false)
+    private Status status;
+    
+    @Column(nullable = false)
+    private Long checkpointLoanId;
+    
+    @Column(nullable = false)
+    private Long loansAccrued;
+    
+    @Column(nullable = false)
+    private Instant startedAt;
+    
+    private Instant finishedAt;
+    
+    public AccrualRun() {}
+    
+    public LocalDate getAccrualDate() {
+        return accrualDate;
+    }
+    
+    public void setAccrualDate(LocalDate accrualDate) {
+        this.accrualDate = accrualDate;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    public Long getCheckpointLoanId() {
+        return checkpointLoanId;
+    }
+    
+    public void setCheckpointLoanId(Long checkpointLoanId) {
+        this.checkpointLoanId = checkpointLoanId;
+    }
+    
+    public Long getLoansAccrued() {
+        return loansAccrued;
+    }
+    
+    public void setLoansAccrued(Long loansAccrued) {
+        this.loansAccrued = loansAccrued;
+    }
+    
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+    
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+    
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
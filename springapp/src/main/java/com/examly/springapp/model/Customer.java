@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
-@Table(name = "customers")
+@Table(name = "customers",
+ uniqueConstraints = @UniqueConstraint(name = "uk_customers_email", columnNames = "email"),
+ indexes = @Index(name = "idx_customers_credit_score", columnList = "creditScore, customerId"))
 public class Customer {
     
     @Id
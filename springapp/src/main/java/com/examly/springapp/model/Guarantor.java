@@ -3,7 +3,8 @@ package com.examly.springapp.model;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "guarantors")
+@Table(name = "guarantors",
+        indexes = @Index(name = "idx_guarantors_credit_score", columnList = "creditScore, guarantorId"))
 public class Guarantor {
     
     @Id
@@ -0,0 +1,78 @@
+package com.examly.springapp.model;
+
+import java.time.Instant;
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expiresAt"))
+public class IdempotencyRecord {
+    
+    @Id
+    @Column(length = 320)
+    private String idempotencyKey;
+    
+    @Column(length = 64, nullable = false)
+    private String requestHash;
+    
+    private Integer responseStatus;
+    
+    @Lob
+    @Column(length = 16777215)
+    private byte[] responseBody;
+    
+    @Column(nullable = false)
+    private Instant createdAt;
+    
+    @Column(nullable = false)
+    private Instant expiresAt;
+    
+    public IdempotencyRecord() {}
+    
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+    
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+    
+    public String getRequestHash() {
+        return requestHash;
+    }
+    
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+    
+    public Integer getResponseStatus() {
+        return responseStatus;
+    }
+    
+    public void setResponseStatus(Integer responseStatus) {
+        this.responseStatus = responseStatus;
+    }
+    
+    public byte[] getResponseBody() {
+        return responseBody;
+    }
+    
+    public void setResponseBody(byte[] responseBody) {
+        this.responseBody = responseBody;
+    }
+    
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -1,20 +1,43 @@
 package com.examly.springapp.model;
 
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.finance.Rate;
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 @Entity
-@Table(name = "loans")
+@Table(name = "loans", indexes = {
+ @Index(name = "idx_loans_status", columnList = "status, loanId"),
+ @Index(name = "idx_loans_loan_type", columnList = "loan_type_id, loanId"),
+ @Index(name = "idx_loans_customer", columnList = "customer_id, loanId"),
+ @Index(name = "idx_loans_amount", columnList = "loan_amount_minor, loanId"),
+ @Index(name = "idx_loans_tenure", columnList = "tenureMonths, loanId"),
+ @Index(name = "idx_loans_status_amount", columnList = "status, loan_amount_minor, loanId"),
+ @Index(name = "idx_loans_loan_type_amount", columnList = "loan_type_id, loan_amount_minor, loanId")})
 public class Loan {
  
  @Id
  @GeneratedValue(strategy = GenerationType.IDENTITY)
  private Long loanId;
  
- private Double loanAmount;
- private Double interestRate;
+ @Column(name = "loan_amount_minor")
+ private Money loanAmount;
+ 
+ @Column(name = "interest_rate_bps")
+ private Rate interestRate;
+ 
  private Integer tenureMonths;
- private String status;
+ 
+ @Column(name = "instalment_minor")
+ private Money instalment;
+ 
+ @Enumerated(EnumType.STRING)
+ @Column(length = 16)
+ private LoanStatus status;
+ 
+ @Version
+ @Column(nullable = false)
+ private Long version;
  
  @ManyToOne
  @JoinColumn(name = "customer_id")
@@ -36,19 +59,19 @@ public class Loan {
  this.loanId = loanId;
  }
  
- public Double getLoanAmount() {
+ public Money getLoanAmount() {
  return loanAmount;
  }
  
- public void setLoanAmount(Double loanAmount) {
+ public void setLoanAmount(Money loanAmount) {
  this.loanAmount = loanAmount;
  }
  
- public Double getInterestRate() {
+ public Rate getInterestRate() {
  return interestRate;
  }
  
- public void setInterestRate(Double interestRate) {
+ public void setInterestRate(Rate interestRate) {
  this.interestRate = interestRate;
  }
  
@@ -60,14 +83,30 @@ public class Loan {
  this.tenureMonths = tenureMonths;
  }
  
- public String getStatus() {
+ public Money getInstalment() {
+ return instalment;
+ }
+ 
+ public void setInstalment(Money instalment) {
+ this.instalment = instalment;
+ }
+ 
+ public LoanStatus getStatus() {
  return status;
  }
  
- public void setStatus(String status) {
+ public void setStatus(LoanStatus status) {
  this.status = status;
  }
  
+ public Long getVersion() {
+ return version;
+ }
+ 
+ public void setVersion(Long version) {
+ this.version = version;
+ }
+ 
  public Customer getCustomer() {
  return customer;
  }
@@ -0,0 +1,50 @@
+package com.examly.springapp.model;
+
+import java.time.LocalDate;
+import com.examly.springapp.finance.Money;
+import jakarta.persistence.*;
+
+/**
+ * Interest accrued on a loan so far and the last day it covers. Kept out
+ * of the loans table so the nightly accrual writes never race the
+ * version-checked loan updates.
+ */
+@Entity
+@Table(name = "loan_accruals")
+public class LoanAccrual {
+    
+    @Id
+    private Long loanId;
+    
+    @Column(name = "accrued_interest_minor", nullable = false)
+    private Money accruedInterest;
+    
+    @Column(nullable = false)
+    private LocalDate accruedThrough;
+    
+    public LoanAccrual() {}
+    
+    public Long getLoanId() {
+        return loanId;
+    }
+    
+    public void setLoanId(Long loanId) {
+        this.loanId = loanId;
+    }
+    
+    public Money getAccruedInterest() {
+        return accruedInterest;
+    }
+    
+    public void setAccruedInterest(Money accruedInterest) {
+        this.accruedInterest = accruedInterest;
+    }
+    
+    public LocalDate getAccruedThrough() {
+        return accruedThrough;
+    }
+    
+    public void setAccruedThrough(LocalDate accruedThrough) {
+        this.accruedThrough = accruedThrough;
+    }
+}
@@ -0,0 +1,73 @@
+package com.examly.springapp.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Loan lifecycle. A loan is created {@link #PENDING} (applied), is then
+ * approved or rejected, and an approved loan is disbursed before it is
+ * finally closed or defaulted. Re-asserting the current status is always
+ * allowed so that full-replace updates of other fields keep working.
+ */
+public enum LoanStatus {
+    
+    PENDING,
+    APPROVED,
+    REJECTED,
+    DISBURSED,
+    CLOSED,
+    DEFAULTED;
+    
+    /** Accepted on input as a synonym for {@link #PENDING}. */
+    private static final String APPLIED = "APPLIED";
+    
+    public Set<LoanStatus> next() {
+        return switch (this) {
+            case PENDING -> EnumSet.of(APPROVED, REJECTED);
+            case APPROVED -> EnumSet.of(DISBURSED, REJECTED);
+            case DISBURSED -> EnumSet.of(CLOSED, DEFAULTED);
+            case DEFAULTED -> EnumSet.of(CLOSED);
+            case REJECTED, CLOSED -> EnumSet.noneOf(LoanStatus.class);
+        };
+    }
+    
+    public boolean canTransitionTo(LoanStatus target) {
+        return this == target || next().contains(target);
+    }
+    
+    /** Statuses from which {@code target} can be reached in one step. */
+    public static Set<LoanStatus> sourcesOf(LoanStatus target) {
+        Set<LoanStatus> sources = EnumSet.noneOf(LoanStatus.class);
+        for (LoanStatus status : values()) {
+            if (status.canTransitionTo(target)) {
+                sources.add(status);
+            }
+        }
+        return sources;
+    }
+    
+    public static Optional<LoanStatus> parse(String value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        String name = value.trim().toUpperCase(Locale.ROOT);
+        if (APPLIED.equals(name)) {
+            return Optional.of(PENDING);
+        }
+        for (LoanStatus status : values()) {
+            if (status.name().equals(name)) {
+                return Optional.of(status);
+            }
+        }
+        return Optional.empty();
+    }
+    
+    @JsonCreator
+    public static LoanStatus fromJson(String value) {
+        return parse(value).orElseThrow(() -> new IllegalArgumentException("Unknown loan status: " + value));
+    }
+}
@@ -1,9 +1,13 @@
 package com.examly.springapp.model;
 
+import com.examly.springapp.finance.Rate;
 import jakarta.persistence.*;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "loan_types")
+@Cacheable
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class LoanType {
  
  @Id
@@ -12,7 +16,9 @@ public class LoanType {
  
  private String typeName;
  private String description;
- private Double interestRate;
+ 
+ @Column(name = "interest_rate_bps")
+ private Rate interestRate;
  
  public LoanType() {}
  
@@ -41,11 +47,11 @@ public class LoanType {
  this.description = description;
  }
  
- public Double getInterestRate() {
+ public Rate getInterestRate() {
  return interestRate;
  }
  
- public void setInterestRate(Double interestRate) {
+ public void setInterestRate(Rate interestRate) {
  this.interestRate = interestRate;
  }
 }
\ No newline at end of file
@@ -0,0 +1,129 @@
+package com.examly.springapp.model;
+
+import java.time.Instant;
+import jakarta.persistence.*;
+
+/**
+ * A change to a loan, payment or customer, written in the same transaction
+ * as the change itself and delivered to the outbox sinks afterwards, in id
+ * order within one aggregate. {@code dispatchedAt} stays null until every
+ * sink has taken it.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_events_pending", columnList = "dispatchedAt, id"))
+public class OutboxEvent {
+    
+    public enum Type {
+        LOAN_CREATED("loan"),
+        LOAN_UPDATED("loan"),
+        LOAN_STATUS_CHANGED("loan"),
+        LOAN_DELETED("loan"),
+        PAYMENT_CREATED("payment"),
+        PAYMENT_UPDATED("payment"),
+        PAYMENT_DELETED("payment"),
+        CUSTOMER_CREATED("customer"),
+        CUSTOMER_UPDATED("customer"),
+        CUSTOMER_DELETED("customer");
+        
+        private final String aggregateType;
+        
+        Type(String aggregateType) {
+            this.aggregateType = aggregateType;
+        }
+        
+        public String getAggregateType() {
+            return aggregateType;
+        }
+    }
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(length = 16, nullable = false)
+    private String aggregateType;
+    
+    @Column(nullable = false)
+    private Long aggregateId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32, nullable = false)
+    private Type eventType;
+    
+    /** The entity as the REST API would render it after the change; only its id for deletes. */
+    @Lob
+    @Column(length = 16777215, nullable = false)
+    private String payload;
+    
+    @Column(nullable = false)
+    private Instant createdAt;
+    
+    private Instant dispatchedAt;
+    
+    public OutboxEvent() {}
+    
+    public OutboxEvent(Long id, Type eventType, Long aggregateId, String payload, Instant createdAt) {
+        this.id = id;
+        this.aggregateType = eventType.getAggregateType();
+        this.eventType = eventType;
+        this.aggregateId = aggregateId;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getAggregateType() {
+        return aggregateType;
+    }
+    
+    public void setAggregateType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+    
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+    
+    public void setAggregateId(Long aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+    
+    public Type getEventType() {
+        return eventType;
+    }
+    
+    public void setEventType(Type eventType) {
+        this.eventType = eventType;
+    }
+    
+    public String getPayload() {
+        return payload;
+    }
+    
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+    
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public Instant getDispatchedAt() {
+        return dispatchedAt;
+    }
+    
+    public void setDispatchedAt(Instant dispatchedAt) {
+        this.dispatchedAt = dispatchedAt;
+    }
+}
@@ -1,19 +1,36 @@
 package com.examly.springapp.model;
 
 import java.sql.Date;
+import com.examly.springapp.finance.Money;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_bank_reference", columnList = "bank_reference", unique = true),
+        @Index(name = "idx_payments_loan", columnList = "loan_id, paymentId")})
 public class Payment {
     
+    public static final String ID_SEQUENCE = "payment_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long paymentId;
     
-    private Double amount;
+    @Column(name = "amount_minor")
+    private Money amount;
+    
     private Date paymentDate;
     
+    /** Transaction reference from a reconciled bank statement; unique, so a statement row is never posted twice. */
+    @Column(name = "bank_reference", length = 64)
+    private String bankReference;
+    
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     @ManyToOne
     @JoinColumn(name = "loan_id")
     private Loan loan;
@@ -28,11 +45,11 @@ public class Payment {
         this.paymentId = paymentId;
     }
     
-    public Double getAmount() {
+    public Money getAmount() {
         return amount;
     }
     
-    public void setAmount(Double amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
     
@@ -44,6 +61,22 @@ public class Payment {
         this.paymentDate = paymentDate;
     }
     
+    public String getBankReference() {
+        return bankReference;
+    }
+    
+    public void setBankReference(String bankReference) {
+        this.bankReference = bankReference;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public Loan getLoan() {
         return loan;
     }
@@ -0,0 +1,78 @@
+package com.examly.springapp.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+import com.examly.springapp.finance.Money;
+import jakarta.persistence.*;
+
+/**
+ * Collections on one day for one loan type, split across a few slots by
+ * loan id so that concurrent payments on different loans rarely wait on the
+ * same row. Loan type 0 collects payments whose loan has no type. Written
+ * through {@link com.examly.springapp.service.PaymentRollupService}.
+ */
+@Entity
+@Table(name = "payment_daily_totals")
+@IdClass(PaymentDailyTotal.Key.class)
+public class PaymentDailyTotal {
+    
+    @Id
+    @Column(name = "bucket_date")
+    private LocalDate bucketDate;
+    
+    @Id
+    @Column(name = "loan_type_id")
+    private Long loanTypeId;
+    
+    @Id
+    private Integer slot;
+    
+    @Column(name = "amount_minor", nullable = false)
+    private Money amount;
+    
+    @Column(name = "payment_count", nullable = false)
+    private Long paymentCount;
+    
+    public PaymentDailyTotal() {}
+    
+    public LocalDate getBucketDate() {
+        return bucketDate;
+    }
+    
+    public Long getLoanTypeId() {
+        return loanTypeId;
+    }
+    
+    public Integer getSlot() {
+        return slot;
+    }
+    
+    public Money getAmount() {
+        return amount;
+    }
+    
+    public Long getPaymentCount() {
+        return paymentCount;
+    }
+    
+    public static class Key implements Serializable {
+        
+        private LocalDate bucketDate;
+        private Long loanTypeId;
+        private Integer slot;
+        
+        public Key() {}
+        
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && Objects.equals(bucketDate, other.bucketDate)
+                    && Objects.equals(loanTypeId, other.loanTypeId) && Objects.equals(slot, other.slot);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(bucketDate, loanTypeId, slot);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.examly.springapp.outbox;
+
+import com.examly.springapp.model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the most recent outbox events in memory, dropping the oldest beyond
+ * {@code outbox.sinks.in-memory.capacity}. A stand-in for a real broker in
+ * local runs and tests; redeliveries of an event already held are ignored.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sinks.in-memory.enabled", havingValue = "true")
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final int capacity;
+    private final Deque<OutboxEvent> events = new ArrayDeque<>();
+    private final Set<Long> held = new HashSet<>();
+
+    public InMemoryOutboxSink(@Value("${outbox.sinks.in-memory.capacity:10000}") int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("outbox.sinks.in-memory.capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public String name() {
+        return "in-memory";
+    }
+
+    @Override
+    public synchronized void deliver(List<OutboxEvent> batch) {
+        for (OutboxEvent event : batch) {
+            if (!held.add(event.getId())) {
+                continue;
+            }
+            if (events.size() == capacity) {
+                held.remove(events.removeFirst().getId());
+            }
+            events.addLast(event);
+        }
+    }
+
+    /** The held events, oldest first. */
+    public synchronized List<OutboxEvent> events() {
+        return new ArrayList<>(events);
+    }
+
+    public synchronized void clear() {
+        events.clear();
+        held.clear();
+    }
+}
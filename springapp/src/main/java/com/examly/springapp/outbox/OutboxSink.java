@@ -0,0 +1,23 @@
+package com.examly.springapp.outbox;
+
+import com.examly.springapp.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * A destination for outbox events. Every Spring bean implementing this is
+ * handed each batch in id order, but ids are only ordered within one
+ * aggregate: an event whose transaction committed late can arrive after
+ * events with higher ids. Delivery is at least once: a batch is only
+ * marked dispatched after every sink has returned, so a sink that throws,
+ * or a crash before the batch is marked, means the same events arrive
+ * again. Sinks should therefore be idempotent on {@link OutboxEvent#getId()},
+ * without assuming that a lower id than one already seen is a repeat.
+ */
+public interface OutboxSink {
+
+    /** Short name used to tag this sink's metrics. */
+    String name();
+
+    void deliver(List<OutboxEvent> events) throws Exception;
+}
@@ -0,0 +1,21 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.model.AccrualRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface AccrualRunRepo extends JpaRepository<AccrualRun, LocalDate> {
+    
+    @Modifying
+    @Query("UPDATE AccrualRun r SET r.checkpointLoanId = :checkpointLoanId, r.loansAccrued = :loansAccrued "
+            + "WHERE r.accrualDate = :accrualDate AND r.checkpointLoanId < :checkpointLoanId")
+    int saveCheckpoint(LocalDate accrualDate, long checkpointLoanId, long loansAccrued);
+    
+    Optional<AccrualRun> findFirstByStatusOrderByAccrualDateDesc(AccrualRun.Status status);
+}
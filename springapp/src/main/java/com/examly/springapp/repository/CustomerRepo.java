@@ -1,16 +1,42 @@
 package com.examly.springapp.repository;
 
 import com.examly.springapp.model.Customer;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface CustomerRepo extends JpaRepository<Customer, Long> {
  
  Optional<Customer> findByEmail(String email);
  
+ @Query("SELECT c.email FROM Customer c WHERE c.customerId = :id")
+ Optional<String> findEmailById(Long id);
+ 
  List<Customer> findByCreditScoreGreaterThanEqual(Double creditScore);
+ 
+ List<Customer> findByCustomerIdGreaterThanOrderByCustomerIdAsc(Long customerId, Pageable limit);
+ 
+ @Query("SELECT c FROM Customer c WHERE c.creditScore <= :max"
+ + " AND (c.creditScore > :afterScore OR (c.creditScore = :afterScore AND c.customerId > :afterId))"
+ + " ORDER BY c.creditScore, c.customerId")
+ List<Customer> findCreditScoreRange(double afterScore, long afterId, double max, Pageable limit);
+ 
+ long countByCreditScoreBetween(Double min, Double max);
+ 
+ List<Customer> findByCreditScoreNotNullOrderByCreditScoreDescCustomerIdDesc(Pageable limit);
+ 
+ @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+ @Query("SELECT c.customerId, c.creditScore FROM Customer c WHERE c.creditScore IS NOT NULL"
+ + " ORDER BY c.creditScore, c.customerId")
+ Stream<Object[]> streamCreditScores();
 }
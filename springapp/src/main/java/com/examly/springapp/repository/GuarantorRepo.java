@@ -1,10 +1,32 @@
 package com.examly.springapp.repository;
 
 import com.examly.springapp.model.Guarantor;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface GuarantorRepo extends JpaRepository<Guarantor, Long> {
     
+    @Query("SELECT g FROM Guarantor g WHERE g.creditScore <= :max"
+            + " AND (g.creditScore > :afterScore OR (g.creditScore = :afterScore AND g.guarantorId > :afterId))"
+            + " ORDER BY g.creditScore, g.guarantorId")
+    List<Guarantor> findCreditScoreRange(double afterScore, long afterId, double max, Pageable limit);
+    
+    long countByCreditScoreBetween(Double min, Double max);
+    
+    List<Guarantor> findByCreditScoreNotNullOrderByCreditScoreDescGuarantorIdDesc(Pageable limit);
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT g.guarantorId, g.creditScore FROM Guarantor g WHERE g.creditScore IS NOT NULL"
+            + " ORDER BY g.creditScore, g.guarantorId")
+    Stream<Object[]> streamCreditScores();
 }
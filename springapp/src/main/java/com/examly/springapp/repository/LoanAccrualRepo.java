@@ -0,0 +1,9 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.model.LoanAccrual;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LoanAccrualRepo extends JpaRepository<LoanAccrual, Long> {
+}
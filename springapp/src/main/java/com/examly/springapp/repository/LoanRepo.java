@@ -1,13 +1,75 @@
 package com.examly.springapp.repository;
 
 import com.examly.springapp.model.Loan;
+import com.examly.springapp.model.LoanStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface LoanRepo extends JpaRepository<Loan, Long> {
  
- List<Loan> findByStatus(String status);
+ @Override
+ @EntityGraph(attributePaths = {"customer", "loanType"})
+ List<Loan> findAll();
+ 
+ @EntityGraph(attributePaths = {"customer", "loanType"})
+ List<Loan> findByStatus(LoanStatus status);
+ 
+ @EntityGraph(attributePaths = {"customer", "loanType"})
+ List<Loan> findByStatusAndLoanIdGreaterThanOrderByLoanIdAsc(LoanStatus status, Long loanId, Pageable limit);
+ 
+ @Query("SELECT l.status, COUNT(l) FROM Loan l GROUP BY l.status")
+ List<Object[]> countByStatus();
+ 
+ @Query("SELECT l.status FROM Loan l WHERE l.loanId = :id")
+ Optional<LoanStatus> findStatusById(Long id);
+ 
+ @Modifying(clearAutomatically = true)
+ @Query("UPDATE Loan l SET l.status = :target, l.version = l.version + 1 WHERE l.loanId = :id AND l.status IN :sources")
+ int updateStatus(Long id, Collection<LoanStatus> sources, LoanStatus target);
+ 
+ @EntityGraph(attributePaths = {"customer", "loanType"})
+ List<Loan> findByLoanIdGreaterThanOrderByLoanIdAsc(Long loanId, Pageable limit);
+ 
+ @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+ @Query("SELECT l FROM Loan l LEFT JOIN FETCH l.customer LEFT JOIN FETCH l.loanType")
+ Stream<Loan> streamAll();
+ 
+ @Query("SELECT l.loanId FROM Loan l WHERE l.loanId IN :ids")
+ List<Long> findExistingIds(Collection<Long> ids);
+ 
+ @EntityGraph(attributePaths = {"customer", "loanType"})
+ List<Loan> findByLoanIdIn(Collection<Long> ids);
+ 
+ @EntityGraph(attributePaths = {"customer", "loanType"})
+ List<Loan> findByCustomerCustomerIdOrderByLoanIdAsc(Long customerId);
+ 
+ @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+ @Query("SELECT l FROM Loan l WHERE l.loanId = :id")
+ Optional<Loan> lockForPayment(Long id);
+ 
+ @Modifying
+ @Query("UPDATE Loan l SET l.version = l.version + 1 WHERE l.loanId IN :ids")
+ int bumpVersions(Collection<Long> ids);
+ 
+ @Query("SELECT l.loanId, l.loanAmount FROM Loan l WHERE l.loanId IN :ids")
+ List<Object[]> findLoanAmounts(Collection<Long> ids);
+ 
+ @Query(value = "SELECT COALESCE(SUM(loan_amount_minor), 0) FROM loans", nativeQuery = true)
+ long sumLoanAmountMinor();
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+package com.examly.springapp.repository;
+
+import com.examly.springapp.dto.CursorPage;
+import com.examly.springapp.dto.LoanSearchCriteria;
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.model.Customer;
+import com.examly.springapp.model.Loan;
+import com.examly.springapp.model.LoanStatus;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Loan search predicates. Each filter is its own specification so a search
+ * only carries the conditions it was given, which keeps the generated SQL
+ * to the shapes the loan indexes were designed for. Loan type and customer
+ * compare the foreign key columns and do not join.
+ */
+public final class LoanSpecifications {
+
+    private LoanSpecifications() {
+    }
+
+    public static Specification<Loan> matching(LoanSearchCriteria criteria) {
+        return Specification.where(statusIn(criteria.statuses()))
+                .and(hasLoanType(criteria.loanTypeId()))
+                .and(hasCustomer(criteria.customerId()))
+                .and(between("loanAmount", criteria.minAmount(), criteria.maxAmount()))
+                .and(between("tenureMonths", criteria.minTenureMonths(), criteria.maxTenureMonths()))
+                .and(customerScoreBetween(criteria.minCreditScore(), criteria.maxCreditScore()));
+    }
+
+    public static Specification<Loan> statusIn(Collection<LoanStatus> statuses) {
+        if (statuses == null || statuses.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> statuses.size() == 1
+                ? cb.equal(root.get("status"), statuses.iterator().next())
+                : root.get("status").in(statuses);
+    }
+
+    public static Specification<Loan> hasLoanType(Long loanTypeId) {
+        return loanTypeId == null ? null : (root, query, cb) -> cb.equal(root.get("loanType").get("loanTypeId"), loanTypeId);
+    }
+
+    public static Specification<Loan> hasCustomer(Long customerId) {
+        return customerId == null ? null : (root, query, cb) -> cb.equal(root.get("customer").get("customerId"), customerId);
+    }
+
+    public static <Y extends Comparable<? super Y>> Specification<Loan> between(String attribute, Y min, Y max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Path<Y> path = root.get(attribute);
+            if (min != null && max != null) {
+                return min.equals(max) ? cb.equal(path, min) : cb.between(path, min, max);
+            }
+            return min != null ? cb.greaterThanOrEqualTo(path, min) : cb.lessThanOrEqualTo(path, max);
+        };
+    }
+
+    public static Specification<Loan> customerScoreBetween(Double min, Double max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Join<Loan, Customer> customer = root.join("customer");
+            Path<Double> score = customer.get("creditScore");
+            if (min != null && max != null) {
+                return cb.between(score, min, max);
+            }
+            return min != null ? cb.greaterThanOrEqualTo(score, min) : cb.lessThanOrEqualTo(score, max);
+        };
+    }
+
+    /**
+     * Rows strictly after {@code key} in the search order. Missing sort
+     * values order lowest, as MySQL and H2 both sort NULL.
+     */
+    public static Specification<Loan> after(LoanSearchCriteria criteria, CursorPage.SeekKey key) {
+        if (key == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Path<Long> id = root.get("loanId");
+            Predicate idAfter = criteria.descending() ? cb.lessThan(id, key.id()) : cb.greaterThan(id, key.id());
+            return switch (criteria.sort()) {
+                case LOAN_ID -> idAfter;
+                case AMOUNT -> seek(cb, root.get("loanAmount"), key.value() == null ? null : Money.ofMinor(key.value()),
+                        idAfter, criteria.descending());
+                case TENURE -> seek(cb, root.get("tenureMonths"), key.value() == null ? null : key.value().intValue(),
+                        idAfter, criteria.descending());
+            };
+        };
+    }
+
+    /** The column the search sorts on before the id; null when it sorts on the id alone. */
+    public static Expression<?> sortColumn(LoanSearchCriteria criteria, Root<Loan> root) {
+        return switch (criteria.sort()) {
+            case LOAN_ID -> null;
+            case AMOUNT -> root.get("loanAmount");
+            case TENURE -> root.get("tenureMonths");
+        };
+    }
+
+    /** ORDER BY for the search: the sort column, then the id, in the same direction. */
+    public static List<Order> orderBy(LoanSearchCriteria criteria, Root<Loan> root, CriteriaBuilder cb) {
+        Path<Long> id = root.get("loanId");
+        Expression<?> column = sortColumn(criteria, root);
+        if (column == null) {
+            return List.of(criteria.descending() ? cb.desc(id) : cb.asc(id));
+        }
+        return criteria.descending() ? List.of(cb.desc(column), cb.desc(id)) : List.of(cb.asc(column), cb.asc(id));
+    }
+
+    private static <Y extends Comparable<? super Y>> Predicate seek(CriteriaBuilder cb, Path<Y> column, Y value,
+                                                                   Predicate idAfter, boolean descending) {
+        if (value == null) {
+            // Ascending, the NULL rows come first and every valued row follows; descending, they come last.
+            Predicate sameNull = cb.and(cb.isNull(column), idAfter);
+            return descending ? sameNull : cb.or(sameNull, cb.isNotNull(column));
+        }
+        Predicate beyond = descending ? cb.lessThan(column, value) : cb.greaterThan(column, value);
+        Predicate tie = cb.and(cb.equal(column, value), idAfter);
+        return descending ? cb.or(beyond, tie, cb.isNull(column)) : cb.or(beyond, tie);
+    }
+}
@@ -1,10 +1,56 @@
 package com.examly.springapp.repository;
 
 import com.examly.springapp.model.Payment;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface PaymentRepo extends JpaRepository<Payment, Long> {
     
+    @Override
+    @EntityGraph(attributePaths = {"loan.customer", "loan.loanType"})
+    List<Payment> findAll();
+    
+    @EntityGraph(attributePaths = {"loan.customer", "loan.loanType"})
+    List<Payment> findByPaymentIdGreaterThanOrderByPaymentIdAsc(Long paymentId, Pageable limit);
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p FROM Payment p LEFT JOIN FETCH p.loan l LEFT JOIN FETCH l.customer LEFT JOIN FETCH l.loanType")
+    Stream<Payment> streamAll();
+    
+    @Query(value = "SELECT COALESCE(SUM(amount_minor), 0) FROM payments", nativeQuery = true)
+    long sumAmountMinor();
+    
+    @Query("SELECT p.loan.loanId FROM Payment p WHERE p.paymentId = :id")
+    Optional<Long> findLoanIdById(Long id);
+    
+    @Query("SELECT p.paymentDate, l.loanId, t.loanTypeId, p.amount FROM Payment p LEFT JOIN p.loan l"
+            + " LEFT JOIN l.loanType t WHERE p.paymentId = :id")
+    List<Object[]> findRollupFieldsById(Long id);
+    
+    @Query(value = "SELECT COALESCE(SUM(amount_minor), 0) FROM payments WHERE loan_id = :loanId", nativeQuery = true)
+    long sumAmountMinorByLoanId(Long loanId);
+    
+    @Query(value = "SELECT loan_id, SUM(amount_minor) FROM payments WHERE loan_id IN (:loanIds) GROUP BY loan_id",
+            nativeQuery = true)
+    List<Object[]> sumAmountMinorByLoanIds(Collection<Long> loanIds);
+    
+    @Query("SELECT p.loan.loanId, p.paymentId, p.amount, p.paymentDate, p.bankReference FROM Payment p"
+            + " WHERE p.loan.loanId IN (:loanIds) ORDER BY p.loan.loanId, p.paymentId")
+    List<Object[]> findLinesByLoanIds(Collection<Long> loanIds);
+    
+    @Query("SELECT p.bankReference FROM Payment p WHERE p.bankReference IN (:references)")
+    List<String> findBankReferences(Collection<String> references);
 }
@@ -0,0 +1,237 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.dto.BulkPaymentResult;
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.model.Loan;
+import com.examly.springapp.model.OutboxEvent;
+import com.examly.springapp.model.Payment;
+import com.examly.springapp.repository.LoanRepo;
+import com.examly.springapp.repository.PaymentRepo;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inserts large payment uploads in fixed-size chunks. Each chunk is one
+ * transaction whose inserts are flushed together, so Hibernate can send them
+ * as JDBC batches; the persistence context is cleared between chunks.
+ * Rows that would pay a loan beyond its amount are rejected, and the chunk
+ * bumps the version of every loan it touches so it serialises against
+ * single payments posted at the same time. Every row gets a result, so a
+ * caller can tell exactly which rows were applied.
+ */
+@Service
+public class BulkPaymentService {
+    
+    @Autowired
+    private LoanRepo loanRepo;
+    
+    @Autowired
+    private PaymentRepo paymentRepo;
+    
+    @Autowired
+    private LoanWriteGuard loanWriteGuard;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Autowired
+    private PaymentRollupService paymentRollupService;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${payments.bulk.chunk-size:1000}")
+    private int chunkSize;
+    
+    /**
+     * Inserts the payments {@code payments} yields. A row that does not bind
+     * to a payment is rejected and the rest are still read. If the input
+     * cannot be read any further, the rows read so far are still inserted
+     * and the result says where reading stopped.
+     */
+    public BulkPaymentResult addPayments(Iterator<Payment> payments) {
+        List<BulkPaymentResult.Row> rows = new ArrayList<>();
+        Map<Integer, String> unreadable = new HashMap<>();
+        List<Payment> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+        String stoppedBy = null;
+        while (true) {
+            int position = index + chunk.size();
+            Payment payment;
+            try {
+                if (!payments.hasNext()) {
+                    break;
+                }
+            } catch (RuntimeException e) {
+                stoppedBy = "Could not read row " + position + ": " + e.getMessage();
+                break;
+            }
+            try {
+                payment = payments.next();
+            } catch (RuntimeJsonMappingException e) {
+                // Well-formed JSON that is not a payment; the reader skips past the row.
+                unreadable.put(position, "Unreadable payment: " + e.getMessage());
+                payment = null;
+            } catch (RuntimeException e) {
+                // Malformed JSON; there is no telling where the next row starts.
+                stoppedBy = "Could not read row " + position + ": " + e.getMessage();
+                break;
+            }
+            chunk.add(payment);
+            if (chunk.size() == chunkSize) {
+                rows.addAll(insertChunk(chunk, index));
+                index += chunk.size();
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            rows.addAll(insertChunk(chunk, index));
+            index += chunk.size();
+        }
+        unreadable.forEach((position, error) -> rows.set(position, BulkPaymentResult.Row.rejected(position, error)));
+        
+        int created = 0;
+        for (BulkPaymentResult.Row row : rows) {
+            if (row.status() == BulkPaymentResult.Status.CREATED) {
+                created++;
+            }
+        }
+        return new BulkPaymentResult(index, created, index - created, rows, stoppedBy);
+    }
+    
+    private List<BulkPaymentResult.Row> insertChunk(List<Payment> chunk, int firstIndex) {
+        Set<Long> loanIds = new HashSet<>();
+        for (Payment payment : chunk) {
+            Long loanId = loanIdOf(payment);
+            if (loanId != null) {
+                loanIds.add(loanId);
+            }
+        }
+        Set<Long> existingLoans = loanIds.isEmpty() ? Set.of() : new HashSet<>(loanRepo.findExistingIds(loanIds));
+        return insertChunk(chunk, firstIndex, existingLoans);
+    }
+    
+    /**
+     * Inserts one chunk in a single transaction, for callers that already
+     * know which of the chunk's loans exist; rows naming any other loan are
+     * rejected as not found.
+     */
+    List<BulkPaymentResult.Row> insertChunk(List<Payment> chunk, int firstIndex, Set<Long> existingLoans) {
+        BulkPaymentResult.Row[] rows = new BulkPaymentResult.Row[chunk.size()];
+        List<Payment> accepted = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            String error = validate(chunk.get(i), existingLoans);
+            if (error != null) {
+                rows[i] = BulkPaymentResult.Row.rejected(firstIndex + i, error);
+            } else {
+                accepted.add(chunk.get(i));
+            }
+        }
+        
+        Set<Long> acceptedLoans = new HashSet<>();
+        for (Payment payment : accepted) {
+            acceptedLoans.add(loanIdOf(payment));
+        }
+        try {
+            boolean[] overpaid = accepted.isEmpty() ? new boolean[0] : loanWriteGuard.execute(acceptedLoans, status -> {
+                loanRepo.bumpVersions(acceptedLoans);
+                // Loaded with their customer and type so the events below carry whole loans.
+                loanRepo.findByLoanIdIn(acceptedLoans);
+                Map<Long, Long> outstanding = outstandingBalances(acceptedLoans);
+                boolean[] over = new boolean[accepted.size()];
+                List<Payment> persisted = new ArrayList<>(accepted.size());
+                for (int i = 0; i < accepted.size(); i++) {
+                    Payment payment = accepted.get(i);
+                    Long loanId = loanIdOf(payment);
+                    Long left = outstanding.get(loanId);
+                    long amount = payment.getAmount().minorUnits();
+                    if (left != null && amount > left) {
+                        over[i] = true;
+                        continue;
+                    }
+                    if (left != null) {
+                        outstanding.put(loanId, left - amount);
+                    }
+                    payment.setPaymentId(null);
+                    payment.setVersion(null);
+                    payment.setLoan(entityManager.getReference(Loan.class, loanId));
+                    entityManager.persist(payment);
+                    persisted.add(payment);
+                }
+                paymentRollupService.paymentsAdded(persisted);
+                outboxService.appendAll(OutboxEvent.Type.PAYMENT_CREATED, persisted, Payment::getPaymentId);
+                entityManager.flush();
+                entityManager.clear();
+                return over;
+            });
+            int next = 0;
+            for (int i = 0; i < rows.length; i++) {
+                if (rows[i] == null) {
+                    Payment payment = accepted.get(next);
+                    rows[i] = overpaid[next]
+                            ? BulkPaymentResult.Row.rejected(firstIndex + i,
+                                    "Payment exceeds the outstanding balance of loan " + loanIdOf(payment))
+                            : BulkPaymentResult.Row.created(firstIndex + i, payment.getPaymentId());
+                    next++;
+                }
+            }
+        } catch (DataAccessException e) {
+            for (int i = 0; i < rows.length; i++) {
+                if (rows[i] == null) {
+                    rows[i] = BulkPaymentResult.Row.failed(firstIndex + i, e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        return Arrays.asList(rows);
+    }
+    
+    /** Remaining balance per loan in minor units; loans without an amount are left out and never capped. */
+    private Map<Long, Long> outstandingBalances(Set<Long> loanIds) {
+        Map<Long, Long> outstanding = new HashMap<>();
+        for (Object[] row : loanRepo.findLoanAmounts(loanIds)) {
+            if (row[1] != null) {
+                outstanding.put((Long) row[0], ((Money) row[1]).minorUnits());
+            }
+        }
+        for (Object[] row : paymentRepo.sumAmountMinorByLoanIds(loanIds)) {
+            long loanId = ((Number) row[0]).longValue();
+            outstanding.computeIfPresent(loanId, (id, left) -> left - ((Number) row[1]).longValue());
+        }
+        return outstanding;
+    }
+    
+    private static String validate(Payment payment, Set<Long> existingLoans) {
+        if (payment == null) {
+            return "Payment is missing";
+        }
+        if (payment.getAmount() == null || !payment.getAmount().isPositive()) {
+            return "Amount must be positive";
+        }
+        Long loanId = loanIdOf(payment);
+        if (loanId == null) {
+            return "Loan id is required";
+        }
+        if (!existingLoans.contains(loanId)) {
+            return "Loan not found: " + loanId;
+        }
+        return null;
+    }
+    
+    private static Long loanIdOf(Payment payment) {
+        return payment == null || payment.getLoan() == null ? null : payment.getLoan().getLoanId();
+    }
+}
@@ -0,0 +1,83 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.dto.CustomerOverview;
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.model.Loan;
+import com.examly.springapp.repository.CustomerRepo;
+import com.examly.springapp.repository.LoanRepo;
+import com.examly.springapp.repository.PaymentRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Builds the customer overview in a fixed number of statements: the
+ * customer, their loans with loan types joined in, and the payments of all
+ * those loans fetched by loan id in batches of {@link #IN_BATCH}. Both
+ * lookups run on the {@code loans.customer_id} and {@code payments.loan_id}
+ * indexes, and nothing is queried per loan; paid and outstanding amounts are
+ * summed from the fetched payments.
+ */
+@Service
+public class CustomerOverviewService {
+
+    /** Loan ids per payments query; keeps the IN list within what the database plans well. */
+    static final int IN_BATCH = 500;
+
+    @Autowired
+    private CustomerRepo customerRepo;
+
+    @Autowired
+    private LoanRepo loanRepo;
+
+    @Autowired
+    private PaymentRepo paymentRepo;
+
+    @Transactional(readOnly = true)
+    public Optional<CustomerOverview> getOverview(Long customerId) {
+        return customerRepo.findById(customerId).map(customer -> {
+            List<Loan> loans = loanRepo.findByCustomerCustomerIdOrderByLoanIdAsc(customerId);
+            Map<Long, List<CustomerOverview.PaymentLine>> payments = paymentsByLoan(loans);
+            List<CustomerOverview.LoanLine> lines = new ArrayList<>(loans.size());
+            long borrowed = 0;
+            long paid = 0;
+            long outstanding = 0;
+            for (Loan loan : loans) {
+                List<CustomerOverview.PaymentLine> loanPayments = payments.getOrDefault(loan.getLoanId(), List.of());
+                long loanPaid = 0;
+                for (CustomerOverview.PaymentLine payment : loanPayments) {
+                    loanPaid += payment.amount() == null ? 0 : payment.amount().minorUnits();
+                }
+                Money loanOutstanding = loan.getLoanAmount() == null ? null
+                        : Money.ofMinor(loan.getLoanAmount().minorUnits() - loanPaid);
+                lines.add(new CustomerOverview.LoanLine(loan, Money.ofMinor(loanPaid), loanOutstanding, loanPayments));
+                borrowed += loan.getLoanAmount() == null ? 0 : loan.getLoanAmount().minorUnits();
+                paid += loanPaid;
+                outstanding += loanOutstanding == null ? 0 : loanOutstanding.minorUnits();
+            }
+            return new CustomerOverview(customer, Money.ofMinor(borrowed), Money.ofMinor(paid),
+                    Money.ofMinor(outstanding), lines);
+        });
+    }
+
+    private Map<Long, List<CustomerOverview.PaymentLine>> paymentsByLoan(List<Loan> loans) {
+        Map<Long, List<CustomerOverview.PaymentLine>> payments = new HashMap<>();
+        List<Long> loanIds = loans.stream().map(Loan::getLoanId).toList();
+        for (int from = 0; from < loanIds.size(); from += IN_BATCH) {
+            List<Long> batch = loanIds.subList(from, Math.min(from + IN_BATCH, loanIds.size()));
+            for (Object[] row : paymentRepo.findLinesByLoanIds(batch)) {
+                payments.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                        .add(new CustomerOverview.PaymentLine((Long) row[1], (Money) row[2], (Date) row[3],
+                                (String) row[4]));
+            }
+        }
+        return payments;
+    }
+}
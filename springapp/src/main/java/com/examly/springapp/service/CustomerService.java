@@ -1,24 +1,69 @@
 package com.examly.springapp.service;
 
+import com.examly.springapp.dto.CursorPage;
+import com.examly.springapp.index.CreditScoreIndex;
 import com.examly.springapp.model.Customer;
+import com.examly.springapp.model.OutboxEvent;
 import com.examly.springapp.repository.CustomerRepo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class CustomerService {
  
+ public static final String BY_EMAIL_CACHE = "customerByEmail";
+ public static final String JSON_BY_EMAIL_CACHE = "customerJsonByEmail";
+ 
  @Autowired
  private CustomerRepo customerRepo;
  
+ @Autowired
+ private CacheManager cacheManager;
+ 
+ @Autowired
+ private ObjectMapper objectMapper;
+ 
+ @Autowired
+ private OutboxService outboxService;
+ 
+ @Autowired
+ private LoanBookService loanBookService;
+ 
+ @Autowired
+ private PersonSearchService personSearchService;
+ 
+ @Value("${creditscore.index.enabled:true}")
+ private boolean creditScoreIndexEnabled;
+ 
+ private final LiveCreditScoreIndex creditScores = new LiveCreditScoreIndex("customer");
+ 
+ @Transactional
  public Customer addCustomer(Customer customer) {
- return customerRepo.save(customer);
+ Customer saved = customerRepo.save(customer);
+ outboxService.append(OutboxEvent.Type.CUSTOMER_CREATED, saved.getCustomerId(), saved);
+ indexCreditScore(saved);
+ loanBookService.customerSaved(saved);
+ personSearchService.customerSaved(saved);
+ return saved;
  }
  
  public List<Customer> getAllCustomers() {
@@ -29,13 +74,29 @@ public class CustomerService {
  return customerRepo.findById(id);
  }
  
+ @Transactional
  public Customer updateCustomer(Long id, Customer customer) {
+ customerRepo.findEmailById(id).ifPresent(this::evictEmail);
  customer.setCustomerId(id);
- return customerRepo.save(customer);
+ Customer saved = customerRepo.save(customer);
+ outboxService.append(OutboxEvent.Type.CUSTOMER_UPDATED, id, saved);
+ evictEmail(saved.getEmail());
+ indexCreditScore(saved);
+ loanBookService.customerSaved(saved);
+ personSearchService.customerSaved(saved);
+ return saved;
  }
  
+ @Transactional
  public void deleteCustomer(Long id) {
+ customerRepo.findEmailById(id).ifPresent(this::evictEmail);
  customerRepo.deleteById(id);
+ outboxService.append(OutboxEvent.Type.CUSTOMER_DELETED, id, Map.of("customerId", id));
+ if (creditScoreIndexEnabled) {
+ creditScores.remove(id);
+ }
+ loanBookService.customerDeleted(id);
+ personSearchService.customerDeleted(id);
  }
  
  public Page<Customer> getCustomersWithPagination(int page, int size) {
@@ -43,11 +104,113 @@ public class CustomerService {
  return customerRepo.findAll(pageable);
  }
  
+ @Cacheable(value = BY_EMAIL_CACHE, unless = "#result == null")
  public Optional<Customer> getCustomerByEmail(String email) {
  return customerRepo.findByEmail(email);
  }
  
+ @Cacheable(value = JSON_BY_EMAIL_CACHE, unless = "#result == null")
+ public Optional<byte[]> getCustomerJsonByEmail(String email) {
+ return customerRepo.findByEmail(email).map(customer -> {
+ try {
+ return objectMapper.writeValueAsBytes(customer);
+ } catch (JsonProcessingException e) {
+ throw new IllegalStateException("Could not serialize customer " + customer.getCustomerId(), e);
+ }
+ });
+ }
+ 
  public List<Customer> getCustomersByCreditScore(Double creditScore) {
  return customerRepo.findByCreditScoreGreaterThanEqual(creditScore);
  }
+ 
+ public CursorPage<Customer> getCustomersAfter(String cursor, int size) {
+ CursorPage.checkSize(size);
+ List<Customer> rows = customerRepo.findByCustomerIdGreaterThanOrderByCustomerIdAsc(
+ CursorPage.decode(cursor), PageRequest.of(0, size + 1));
+ return CursorPage.of(rows, size, Customer::getCustomerId);
+ }
+ 
+ public CursorPage<Customer> getCustomersByCreditScoreRange(double min, double max, String cursor, int size) {
+ CursorPage.checkSize(size);
+ CursorPage.ScoreKey after = CursorPage.decodeScoreKey(cursor, min);
+ List<Customer> rows = customerRepo.findCreditScoreRange(
+ Math.max(after.score(), min), after.id(), max, PageRequest.of(0, size + 1));
+ return CursorPage.of(rows, size, Customer::getCreditScore, Customer::getCustomerId);
+ }
+ 
+ public long countCustomersByCreditScore(double min, double max) {
+ CreditScoreIndex index = creditScoreIndex();
+ if (index != null) {
+ return index.count(min, max);
+ }
+ return customerRepo.countByCreditScoreBetween(min, max);
+ }
+ 
+ public List<Customer> getTopCustomersByCreditScore(int n) {
+ CursorPage.checkSize(n);
+ CreditScoreIndex index = creditScoreIndex();
+ if (index == null) {
+ return customerRepo.findByCreditScoreNotNullOrderByCreditScoreDescCustomerIdDesc(PageRequest.of(0, n));
+ }
+ long[] ids = index.topIds(n);
+ List<Long> idList = new ArrayList<>(ids.length);
+ for (long id : ids) {
+ idList.add(id);
+ }
+ Map<Long, Customer> byId = customerRepo.findAllById(idList).stream()
+ .collect(Collectors.toMap(Customer::getCustomerId, Function.identity()));
+ List<Customer> top = new ArrayList<>(ids.length);
+ for (long id : ids) {
+ Customer customer = byId.get(id);
+ if (customer != null) {
+ top.add(customer);
+ }
+ }
+ return top;
+ }
+ 
+ @Transactional(readOnly = true)
+ public int rebuildCreditScoreIndex() {
+ return creditScores.rebuild(customerRepo::streamCreditScores);
+ }
+ 
+ /** The index, or null when it is disabled or not yet built and queries go to the database. */
+ private CreditScoreIndex creditScoreIndex() {
+ return creditScoreIndexEnabled ? creditScores.current() : null;
+ }
+ 
+ private void indexCreditScore(Customer customer) {
+ if (creditScoreIndexEnabled) {
+ creditScores.put(customer.getCustomerId(), customer.getCreditScore());
+ }
+ }
+ 
+ /**
+ * Evicts now and again once the transaction commits: a lookup between the
+ * first eviction and the commit still reads the old row and caches it.
+ */
+ private void evictEmail(String email) {
+ if (email == null) {
+ return;
+ }
+ evictEmailNow(email);
+ if (TransactionSynchronizationManager.isSynchronizationActive()) {
+ TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+ @Override
+ public void afterCommit() {
+ evictEmailNow(email);
+ }
+ });
+ }
+ }
+ 
+ private void evictEmailNow(String email) {
+ for (String name : new String[] {BY_EMAIL_CACHE, JSON_BY_EMAIL_CACHE}) {
+ Cache cache = cacheManager.getCache(name);
+ if (cache != null) {
+ cache.evict(email);
+ }
+ }
+ }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.dto.DashboardSummary;
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.repository.CustomerRepo;
+import com.examly.springapp.repository.GuarantorRepo;
+import com.examly.springapp.repository.LoanRepo;
+import com.examly.springapp.repository.LoanTypeRepo;
+import com.examly.springapp.repository.PaymentRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class DashboardService {
+    
+    public static final String SUMMARY_CACHE = "dashboardSummary";
+    
+    @Autowired
+    private CustomerRepo customerRepo;
+    
+    @Autowired
+    private LoanRepo loanRepo;
+    
+    @Autowired
+    private LoanTypeRepo loanTypeRepo;
+    
+    @Autowired
+    private GuarantorRepo guarantorRepo;
+    
+    @Autowired
+    private PaymentRepo paymentRepo;
+    
+    @Cacheable(SUMMARY_CACHE)
+    @Transactional(readOnly = true)
+    public DashboardSummary getSummary() {
+        return new DashboardSummary(
+                customerRepo.count(),
+                loanRepo.count(),
+                loanTypeRepo.count(),
+                guarantorRepo.count(),
+                paymentRepo.count(),
+                Money.ofMinor(loanRepo.sumLoanAmountMinor()),
+                Money.ofMinor(paymentRepo.sumAmountMinor()));
+    }
+    
+    /** Drops the cached summary once a change to the counts or totals has been seen. */
+    @CacheEvict(value = SUMMARY_CACHE, allEntries = true)
+    public void evictSummary() {
+    }
+}
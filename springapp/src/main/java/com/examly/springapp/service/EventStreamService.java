@@ -0,0 +1,366 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.model.OutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes committed outbox events to browsers over Server-Sent Events. Every
+ * instance tails the outbox table itself, {@code stream.poll-interval-ms}
+ * apart, so a client sees changes made through any instance, not only
+ * those its own dispatcher happened to pick up. Ids are taken when an
+ * event is inserted, not when it commits, so the tail remembers the ids it
+ * skipped over and looks for them again until they turn up or
+ * {@code stream.gap-timeout-ms} passes (a rolled-back write leaves a gap
+ * that never fills). Events are de-duplicated by id before they reach the
+ * replay buffer or any subscriber. A subscriber is an async-servlet
+ * {@link SseEmitter} plus a small queue: an idle connection holds no
+ * thread, and the tail only ever appends to queues, never writes to a
+ * socket. A few sender threads drain the queues of subscribers that have
+ * something to send. A queue that reaches {@code stream.subscriber.buffer-size}
+ * is handled by {@code stream.subscriber.overflow}: {@code RESYNC} drops
+ * what is queued and tells the client to reload, {@code DISCONNECT} closes
+ * the stream so the client reconnects. Reconnecting clients send
+ * Last-Event-ID and are replayed what this instance delivered after it,
+ * from the last {@code stream.replay-size} events, or told to reload when
+ * they have fallen further behind.
+ */
+@Service
+public class EventStreamService {
+
+    public enum Overflow {
+        RESYNC,
+        DISCONNECT
+    }
+
+    /** Sent instead of events the client missed; the client should reload its lists. */
+    public static final String RESYNC_EVENT = "RESYNC";
+
+    private static final String SELECT_EVENTS = "SELECT id, event_type, aggregate_id, payload, created_at "
+            + "FROM outbox_events ";
+    private static final String SELECT_AFTER = SELECT_EVENTS + "WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String MAX_ID = "SELECT COALESCE(MAX(id), 0) FROM outbox_events";
+    /** Ids remembered for de-duplication when the replay buffer is smaller than this. */
+    private static final int MIN_SEEN = 1024;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final Overflow overflow;
+    private final int replaySize;
+    private final int tailBatchSize;
+    private final long gapTimeoutMillis;
+    private final ArrayDeque<OutboxEvent> recent = new ArrayDeque<>();
+    private final Set<Long> seen;
+    /** Ids the tail skipped over, with when it first did; only touched by the tail. */
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+    private long highWater = -1;
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong subscriberIds = new AtomicLong();
+    private final ExecutorService senders;
+    private final Counter sent;
+    private final Counter dropped;
+
+    public EventStreamService(ObjectProvider<MeterRegistry> registry,
+                              @Value("${stream.subscriber.buffer-size:256}") int bufferSize,
+                              @Value("${stream.subscriber.overflow:resync}") String overflow,
+                              @Value("${stream.max-subscribers:10000}") int maxSubscribers,
+                              @Value("${stream.timeout-ms:1800000}") long timeoutMillis,
+                              @Value("${stream.replay-size:1000}") int replaySize,
+                              @Value("${stream.sender-threads:4}") int senderThreads,
+                              @Value("${stream.tail.batch-size:500}") int tailBatchSize,
+                              @Value("${stream.gap-timeout-ms:60000}") long gapTimeoutMillis) {
+        if (bufferSize < 1 || maxSubscribers < 1 || replaySize < 0 || senderThreads < 1 || tailBatchSize < 1
+                || gapTimeoutMillis < 0) {
+            throw new IllegalArgumentException("stream.* settings are out of range");
+        }
+        this.bufferSize = bufferSize;
+        this.overflow = Overflow.valueOf(overflow.trim().toUpperCase(Locale.ROOT));
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeoutMillis;
+        this.replaySize = replaySize;
+        this.tailBatchSize = tailBatchSize;
+        this.gapTimeoutMillis = gapTimeoutMillis;
+        int seenCapacity = Math.max(replaySize, MIN_SEEN);
+        this.seen = Collections.newSetFromMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > seenCapacity;
+            }
+        });
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, task -> {
+            Thread thread = new Thread(task, "event-stream-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        MeterRegistry meters = registry.getIfAvailable(SimpleMeterRegistry::new);
+        this.sent = Counter.builder("stream.events.sent").register(meters);
+        this.dropped = Counter.builder("stream.events.dropped").register(meters);
+        Gauge.builder("stream.subscribers", subscribers, Map::size).register(meters);
+    }
+
+    /**
+     * Opens a stream of the given event types, all of them when empty,
+     * starting after {@code lastEventId} when the client is reconnecting.
+     * Empty when the subscriber limit is reached.
+     */
+    public Optional<SseEmitter> subscribe(Set<OutboxEvent.Type> types, Long lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            return Optional.empty();
+        }
+        Set<OutboxEvent.Type> wanted = types.isEmpty() ? EnumSet.allOf(OutboxEvent.Type.class) : EnumSet.copyOf(types);
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(subscriberIds.incrementAndGet(), emitter, wanted);
+        emitter.onCompletion(() -> subscribers.remove(subscriber.id));
+        emitter.onTimeout(() -> subscribers.remove(subscriber.id));
+        emitter.onError(e -> subscribers.remove(subscriber.id));
+        synchronized (recent) {
+            // Registered under the replay lock, so no event falls between the replay and the live feed.
+            if (lastEventId != null) {
+                replay(subscriber, lastEventId);
+            }
+            subscribers.put(subscriber.id, subscriber);
+        }
+        schedule(subscriber);
+        return Optional.of(emitter);
+    }
+
+    /**
+     * Reads the events committed since the last poll, on this instance or
+     * any other, together with any that have turned up in earlier gaps, and
+     * pushes them to subscribers. The first poll only finds where the
+     * table ends; history before startup is not streamed.
+     */
+    @Scheduled(fixedDelayString = "${stream.poll-interval-ms:500}")
+    public void poll() {
+        if (highWater < 0) {
+            highWater = jdbcTemplate.queryForObject(MAX_ID, Long.class);
+            return;
+        }
+        List<OutboxEvent> events = new ArrayList<>();
+        if (!gaps.isEmpty()) {
+            List<OutboxEvent> late = jdbcTemplate.query(SELECT_EVENTS + "WHERE id IN ("
+                    + String.join(",", Collections.nCopies(gaps.size(), "?")) + ") ORDER BY id",
+                    OutboxDispatcher.EVENT, gaps.keySet().toArray());
+            for (OutboxEvent event : late) {
+                gaps.remove(event.getId());
+            }
+            events.addAll(late);
+            long expired = System.currentTimeMillis() - gapTimeoutMillis;
+            gaps.values().removeIf(since -> since < expired);
+        }
+        List<OutboxEvent> batch;
+        do {
+            batch = jdbcTemplate.query(SELECT_AFTER, OutboxDispatcher.EVENT, highWater, tailBatchSize);
+            long now = System.currentTimeMillis();
+            for (OutboxEvent event : batch) {
+                // Beyond a batch's worth of open gaps the rest are given up on straight away.
+                for (long id = highWater + 1; id < event.getId() && gaps.size() < tailBatchSize; id++) {
+                    gaps.put(id, now);
+                }
+                highWater = event.getId();
+            }
+            events.addAll(batch);
+        } while (batch.size() == tailBatchSize);
+        if (!events.isEmpty()) {
+            // Evicted before clients hear of the change, so the summary they reload is fresh.
+            dashboardService.evictSummary();
+            deliver(events);
+        }
+    }
+
+    /** Pushes events to matching subscribers, skipping any already pushed. */
+    public void deliver(List<OutboxEvent> events) {
+        synchronized (recent) {
+            for (OutboxEvent event : events) {
+                if (!seen.add(event.getId())) {
+                    continue;
+                }
+                if (replaySize > 0) {
+                    if (recent.size() == replaySize) {
+                        recent.removeFirst();
+                    }
+                    recent.addLast(event);
+                }
+                for (Subscriber subscriber : subscribers.values()) {
+                    if (subscriber.types.contains(event.getEventType())) {
+                        offer(subscriber, Message.of(event));
+                    }
+                }
+            }
+        }
+        for (Subscriber subscriber : subscribers.values()) {
+            schedule(subscriber);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /** Comments keep idle connections open through proxies and surface clients that have gone away. */
+    @Scheduled(fixedDelayString = "${stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers.values()) {
+            offer(subscriber, Message.HEARTBEAT);
+            schedule(subscriber);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+        subscribers.values().forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void replay(Subscriber subscriber, long lastEventId) {
+        List<OutboxEvent> missed = new ArrayList<>();
+        boolean found = false;
+        for (Iterator<OutboxEvent> it = recent.descendingIterator(); it.hasNext() && !found; ) {
+            OutboxEvent event = it.next();
+            found = event.getId() == lastEventId;
+            if (!found) {
+                missed.add(event);
+            }
+        }
+        if (!found) {
+            offer(subscriber, Message.RESYNC);
+            return;
+        }
+        for (int i = missed.size() - 1; i >= 0; i--) {
+            if (subscriber.types.contains(missed.get(i).getEventType())) {
+                offer(subscriber, Message.of(missed.get(i)));
+            }
+        }
+    }
+
+    private void offer(Subscriber subscriber, Message message) {
+        synchronized (subscriber) {
+            if (subscriber.queue.size() < bufferSize) {
+                subscriber.queue.addLast(message);
+                return;
+            }
+            dropped.increment(subscriber.queue.size() + 1);
+            subscriber.queue.clear();
+            if (overflow == Overflow.RESYNC) {
+                subscriber.queue.addLast(Message.RESYNC);
+            } else {
+                subscriber.closing = true;
+            }
+        }
+    }
+
+    /** Queues a drain of the subscriber's buffer unless one is already queued or running. */
+    private void schedule(Subscriber subscriber) {
+        synchronized (subscriber) {
+            if (subscriber.draining || (subscriber.queue.isEmpty() && !subscriber.closing)) {
+                return;
+            }
+            subscriber.draining = true;
+        }
+        senders.execute(() -> drain(subscriber));
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            Message message;
+            synchronized (subscriber) {
+                if (subscriber.closing) {
+                    subscribers.remove(subscriber.id);
+                    subscriber.draining = false;
+                    subscriber.emitter.complete();
+                    return;
+                }
+                message = subscriber.queue.pollFirst();
+                if (message == null) {
+                    subscriber.draining = false;
+                    return;
+                }
+            }
+            try {
+                subscriber.emitter.send(message.toSse());
+                if (message.event != null) {
+                    sent.increment();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the emitter already completed.
+                subscribers.remove(subscriber.id);
+                synchronized (subscriber) {
+                    subscriber.queue.clear();
+                    subscriber.draining = false;
+                }
+                return;
+            }
+        }
+    }
+
+    private record Message(OutboxEvent event, String name, String data) {
+
+        static final Message HEARTBEAT = new Message(null, null, null);
+        static final Message RESYNC = new Message(null, RESYNC_EVENT, "{}");
+
+        static Message of(OutboxEvent event) {
+            return new Message(event, event.getEventType().name(), event.getPayload());
+        }
+
+        SseEmitter.SseEventBuilder toSse() {
+            if (name == null) {
+                return SseEmitter.event().comment("");
+            }
+            SseEmitter.SseEventBuilder builder = SseEmitter.event().name(name).data(data);
+            return event == null ? builder : builder.id(String.valueOf(event.getId()));
+        }
+    }
+
+    private static final class Subscriber {
+
+        final long id;
+        final SseEmitter emitter;
+        final Set<OutboxEvent.Type> types;
+        final ArrayDeque<Message> queue = new ArrayDeque<>();
+        boolean draining;
+        boolean closing;
+
+        Subscriber(long id, SseEmitter emitter, Set<OutboxEvent.Type> types) {
+            this.id = id;
+            this.emitter = emitter;
+            this.types = types;
+        }
+    }
+}
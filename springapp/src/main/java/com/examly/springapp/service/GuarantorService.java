@@ -1,12 +1,21 @@
 package com.examly.springapp.service;
 
+import com.examly.springapp.dto.CursorPage;
+import com.examly.springapp.index.CreditScoreIndex;
 import com.examly.springapp.model.Guarantor;
 import com.examly.springapp.repository.GuarantorRepo;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class GuarantorService {
@@ -14,8 +23,19 @@ public class GuarantorService {
     @Autowired
     private GuarantorRepo guarantorRepo;
     
+    @Autowired
+    private PersonSearchService personSearchService;
+    
+    @Value("${creditscore.index.enabled:true}")
+    private boolean creditScoreIndexEnabled;
+    
+    private final LiveCreditScoreIndex creditScores = new LiveCreditScoreIndex("guarantor");
+    
     public Guarantor addGuarantor(Guarantor guarantor) {
-        return guarantorRepo.save(guarantor);
+        Guarantor saved = guarantorRepo.save(guarantor);
+        indexCreditScore(saved);
+        personSearchService.guarantorSaved(saved);
+        return saved;
     }
     
     public List<Guarantor> getAllGuarantors() {
@@ -28,10 +48,72 @@ public class GuarantorService {
     
     public Guarantor updateGuarantor(Long id, Guarantor guarantor) {
         guarantor.setGuarantorId(id);
-        return guarantorRepo.save(guarantor);
+        Guarantor saved = guarantorRepo.save(guarantor);
+        indexCreditScore(saved);
+        personSearchService.guarantorSaved(saved);
+        return saved;
     }
     
     public void deleteGuarantor(Long id) {
         guarantorRepo.deleteById(id);
+        if (creditScoreIndexEnabled) {
+            creditScores.remove(id);
+        }
+        personSearchService.guarantorDeleted(id);
+    }
+    
+    public CursorPage<Guarantor> getGuarantorsByCreditScoreRange(double min, double max, String cursor, int size) {
+        CursorPage.checkSize(size);
+        CursorPage.ScoreKey after = CursorPage.decodeScoreKey(cursor, min);
+        List<Guarantor> rows = guarantorRepo.findCreditScoreRange(
+                Math.max(after.score(), min), after.id(), max, PageRequest.of(0, size + 1));
+        return CursorPage.of(rows, size, Guarantor::getCreditScore, Guarantor::getGuarantorId);
+    }
+    
+    public long countGuarantorsByCreditScore(double min, double max) {
+        CreditScoreIndex index = creditScoreIndex();
+        if (index != null) {
+            return index.count(min, max);
+        }
+        return guarantorRepo.countByCreditScoreBetween(min, max);
+    }
+    
+    public List<Guarantor> getTopGuarantorsByCreditScore(int n) {
+        CursorPage.checkSize(n);
+        CreditScoreIndex index = creditScoreIndex();
+        if (index == null) {
+            return guarantorRepo.findByCreditScoreNotNullOrderByCreditScoreDescGuarantorIdDesc(PageRequest.of(0, n));
+        }
+        long[] ids = index.topIds(n);
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+        Map<Long, Guarantor> byId = guarantorRepo.findAllById(idList).stream()
+                .collect(Collectors.toMap(Guarantor::getGuarantorId, Function.identity()));
+        List<Guarantor> top = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Guarantor guarantor = byId.get(id);
+            if (guarantor != null) {
+                top.add(guarantor);
+            }
+        }
+        return top;
+    }
+    
+    @Transactional(readOnly = true)
+    public int rebuildCreditScoreIndex() {
+        return creditScores.rebuild(guarantorRepo::streamCreditScores);
+    }
+    
+    /** The index, or null when it is disabled or not yet built and queries go to the database. */
+    private CreditScoreIndex creditScoreIndex() {
+        return creditScoreIndexEnabled ? creditScores.current() : null;
+    }
+    
+    private void indexCreditScore(Guarantor guarantor) {
+        if (creditScoreIndexEnabled) {
+            creditScores.put(guarantor.getGuarantorId(), guarantor.getCreditScore());
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,259 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.exception.ConflictException;
+import com.examly.springapp.model.IdempotencyRecord;
+import com.examly.springapp.repository.IdempotencyRecordRepo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Makes POSTs safe to retry. The first request carrying an Idempotency-Key
+ * claims the key in the idempotency_keys table, runs the write and stores
+ * the response; later requests with the same key get that response
+ * replayed without reaching the write path. Duplicates arriving at this
+ * instance while the first is still running wait on its in-flight future,
+ * so they never touch the table; the table's primary key settles races
+ * between instances. The response is stored in the write's own transaction,
+ * so a key is never left pending over a write that committed: either both
+ * are kept or the pending row's lease runs out and the write is retried.
+ * Keys expire after {@code idempotency.ttl-hours}.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_MILLIS = 50;
+
+    @Autowired
+    private IdempotencyRecordRepo idempotencyRecordRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LoanWriteGuard loanWriteGuard;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate newTransaction;
+    private final Duration ttl;
+    private final Duration pendingLease;
+    private final long waitMillis;
+    private final Cache<String, CompletableFuture<StoredResponse>> responses;
+
+    private record StoredResponse(String requestHash, int status, byte[] body) {
+    }
+
+    private record Outcome(Object result, StoredResponse response) {
+    }
+
+    public IdempotencyService(PlatformTransactionManager transactionManager,
+                              @Value("${idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${idempotency.pending-lease-seconds:60}") long pendingLeaseSeconds,
+                              @Value("${idempotency.wait-ms:10000}") long waitMillis,
+                              @Value("${idempotency.cache.maximum-size:100000}") long maximumSize) {
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttl = Duration.ofHours(ttlHours);
+        this.pendingLease = Duration.ofSeconds(pendingLeaseSeconds);
+        this.waitMillis = waitMillis;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Runs {@code write} once per {@code scope} and {@code key}, answering
+     * with {@code status} and its result. Repeats of the same key replay the
+     * stored response; reusing a key for a different request is rejected.
+     */
+    public ResponseEntity<?> execute(String scope, String key, Object request, HttpStatus status, Supplier<?> write) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = scope + " " + key;
+        String requestHash = hash(request);
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> first = responses.asMap().putIfAbsent(id, mine);
+        if (first != null) {
+            return replay(await(first), requestHash);
+        }
+
+        boolean claimed = false;
+        try {
+            IdempotencyRecord record = claim(id, requestHash);
+            if (record.getResponseStatus() != null) {
+                StoredResponse stored = new StoredResponse(record.getRequestHash(), record.getResponseStatus(),
+                        record.getResponseBody());
+                mine.complete(stored);
+                return replay(stored, requestHash);
+            }
+            claimed = true;
+            Instant claimedAt = record.getCreatedAt();
+            // Writes that join this transaction leave their retries to it, so a retried write reruns in full.
+            Outcome outcome = loanWriteGuard.execute((Long) null, tx -> {
+                Object result = write.get();
+                StoredResponse response = new StoredResponse(requestHash, status.value(), toJson(result, key));
+                store(id, claimedAt, response);
+                return new Outcome(result, response);
+            });
+            mine.complete(outcome.response());
+            return new ResponseEntity<>(outcome.result(), status);
+        } catch (RuntimeException e) {
+            responses.asMap().remove(id, mine);
+            if (claimed) {
+                newTransaction.executeWithoutResult(tx ->
+                        idempotencyRecordRepo.findById(id).ifPresent(idempotencyRecordRepo::delete));
+            }
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public int purgeExpired() {
+        Integer purged = newTransaction.execute(tx -> idempotencyRecordRepo.deleteExpired(Instant.now()));
+        return purged == null ? 0 : purged;
+    }
+
+    /**
+     * Inserts a pending row for {@code id} and returns it, or returns the row
+     * whose response is already stored. A pending row left by a request that
+     * has outlived its lease is taken over; a live one is waited on.
+     */
+    private IdempotencyRecord claim(String id, String requestHash) {
+        long deadline = System.currentTimeMillis() + waitMillis;
+        while (true) {
+            // Millisecond precision survives the round trip, so store() can recognise its own claim.
+            Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+            Optional<IdempotencyRecord> existing = idempotencyRecordRepo.findById(id);
+            // Detach so the next poll reads the row again instead of the persistence context's copy.
+            existing.ifPresent(entityManager::detach);
+            if (existing.isPresent()) {
+                IdempotencyRecord record = existing.get();
+                if (record.getResponseStatus() != null && record.getExpiresAt().isAfter(now)) {
+                    return record;
+                }
+                boolean abandoned = record.getResponseStatus() == null
+                        && record.getCreatedAt().plus(pendingLease).isBefore(now);
+                if (record.getResponseStatus() == null && !abandoned) {
+                    if (System.currentTimeMillis() > deadline) {
+                        throw new ConflictException("A request with this " + HEADER + " is still in progress");
+                    }
+                    sleep();
+                    continue;
+                }
+                newTransaction.executeWithoutResult(tx -> idempotencyRecordRepo.delete(record));
+            }
+            IdempotencyRecord pending = new IdempotencyRecord();
+            pending.setIdempotencyKey(id);
+            pending.setRequestHash(requestHash);
+            pending.setCreatedAt(now);
+            pending.setExpiresAt(now.plus(ttl));
+            try {
+                newTransaction.executeWithoutResult(tx -> idempotencyRecordRepo.saveAndFlush(pending));
+                return pending;
+            } catch (DataIntegrityViolationException e) {
+                // Another instance claimed the key first; go round and wait for its response.
+            }
+        }
+    }
+
+    /**
+     * Completes the claim inside the write's transaction. If the lease ran
+     * out and another request took the key over meanwhile, the write is
+     * rolled back rather than applied twice.
+     */
+    private void store(String id, Instant claimedAt, StoredResponse response) {
+        IdempotencyRecord record = entityManager.find(IdempotencyRecord.class, id, LockModeType.PESSIMISTIC_WRITE);
+        if (record == null || !record.getCreatedAt().equals(claimedAt)) {
+            throw new ConflictException("The claim on this " + HEADER + " expired before the request finished");
+        }
+        record.setResponseStatus(response.status());
+        record.setResponseBody(response.body());
+    }
+
+    private byte[] toJson(Object result, String key) {
+        try {
+            return objectMapper.writeValueAsBytes(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store the response for " + HEADER + " " + key, e);
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> first) {
+        try {
+            return first.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ConflictException("A request with this " + HEADER + " is still in progress");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a duplicate request", e);
+        }
+    }
+
+    private static ResponseEntity<byte[]> replay(StoredResponse response, String requestHash) {
+        if (!response.requestHash().equals(requestHash)) {
+            throw new IllegalArgumentException(HEADER + " was already used for a different request");
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set(REPLAYED_HEADER, "true");
+        return new ResponseEntity<>(response.body(), headers, HttpStatus.valueOf(response.status()));
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not hash the request body", e);
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(POLL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a duplicate request", e);
+        }
+    }
+}
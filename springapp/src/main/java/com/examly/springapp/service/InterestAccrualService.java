@@ -0,0 +1,353 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.exception.ConflictException;
+import com.examly.springapp.finance.DailyAccrual;
+import com.examly.springapp.model.AccrualRun;
+import com.examly.springapp.model.LoanAccrual;
+import com.examly.springapp.model.LoanStatus;
+import com.examly.springapp.repository.AccrualRunRepo;
+import com.examly.springapp.repository.LoanAccrualRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Nightly interest accrual over every disbursed loan. The id space is cut
+ * into slices of {@code loans.accrual.chunk-size} ids which a fork-join
+ * pool works through in parallel; each slice is one keyed read, a pass of
+ * {@link DailyAccrual} over primitive buffers, and one batched write in a
+ * short transaction of its own. Loans already accrued through the run date
+ * are never selected, so a run is safe to repeat, and the run's checkpoint
+ * lets an interrupted run restart above the slices it had finished.
+ * <p>
+ * Budget: a 5M-loan book in {@code loans.accrual.time-budget-seconds}
+ * (15 minutes) on one node with the default four workers; runs over
+ * budget are logged as warnings.
+ */
+@Service
+public class InterestAccrualService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InterestAccrualService.class);
+
+    /** Finished slices between checkpoint writes. */
+    private static final int CHECKPOINT_EVERY = 16;
+    private static final long NOT_ACCRUED = Long.MIN_VALUE;
+
+    private static final String SELECT_SLICE = "SELECT l.loan_id, l.loan_amount_minor, l.interest_rate_bps, "
+            + "a.accrued_interest_minor, a.accrued_through, COALESCE(p.paid, 0) "
+            + "FROM loans l "
+            + "LEFT JOIN loan_accruals a ON a.loan_id = l.loan_id "
+            + "LEFT JOIN (SELECT loan_id, SUM(amount_minor) AS paid FROM payments "
+            + "WHERE loan_id >= ? AND loan_id < ? GROUP BY loan_id) p ON p.loan_id = l.loan_id "
+            + "WHERE l.loan_id >= ? AND l.loan_id < ? AND l.status = ? "
+            + "AND l.loan_amount_minor IS NOT NULL AND l.interest_rate_bps IS NOT NULL "
+            + "AND (a.accrued_through IS NULL OR a.accrued_through < ?)";
+    private static final String UPDATE_ACCRUAL = "UPDATE loan_accruals SET accrued_interest_minor = ?, "
+            + "accrued_through = ? WHERE loan_id = ? AND accrued_through = ?";
+    private static final String INSERT_ACCRUAL = "INSERT INTO loan_accruals "
+            + "(loan_id, accrued_interest_minor, accrued_through) VALUES (?, ?, ?)";
+    private static final String SELECT_BOUNDS = "SELECT MIN(loan_id), MAX(loan_id) FROM loans "
+            + "WHERE status = ? AND loan_id > ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AccrualRunRepo accrualRunRepo;
+
+    @Autowired
+    private LoanAccrualRepo loanAccrualRepo;
+
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int chunkSize;
+    private final int parallelism;
+    private final long timeBudgetSeconds;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public InterestAccrualService(PlatformTransactionManager transactionManager,
+                                  @Value("${loans.accrual.enabled:true}") boolean enabled,
+                                  @Value("${loans.accrual.chunk-size:1000}") int chunkSize,
+                                  @Value("${loans.accrual.parallelism:4}") int parallelism,
+                                  @Value("${loans.accrual.time-budget-seconds:900}") long timeBudgetSeconds) {
+        if (chunkSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("loans.accrual.chunk-size and parallelism must be positive");
+        }
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.timeBudgetSeconds = timeBudgetSeconds;
+    }
+
+    /** Accrues the day that has just ended. */
+    @Scheduled(cron = "${loans.accrual.cron:0 15 0 * * *}")
+    public void accrueYesterday() {
+        if (enabled) {
+            accrue(LocalDate.now().minusDays(1));
+        }
+    }
+
+    public Optional<AccrualRun> getRun(LocalDate date) {
+        return accrualRunRepo.findById(date);
+    }
+
+    public Optional<LoanAccrual> getLoanAccrual(Long loanId) {
+        return loanAccrualRepo.findById(loanId);
+    }
+
+    /**
+     * Accrues interest on every disbursed loan through {@code date}, catching
+     * up any days missed since a loan was last accrued. A completed run is
+     * returned as is; an interrupted one resumes from its checkpoint. Dates
+     * before the latest completed run are refused, since loans first
+     * accrued on such a date would be charged for days the book has
+     * already closed.
+     */
+    public AccrualRun accrue(LocalDate date) {
+        if (date.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("Cannot accrue interest for a future date: " + date);
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new ConflictException("An interest accrual run is already in progress");
+        }
+        try {
+            AccrualRun run = accrualRunRepo.findById(date).orElse(null);
+            if (run != null && run.getStatus() == AccrualRun.Status.COMPLETED) {
+                return run;
+            }
+            Optional<AccrualRun> latest = accrualRunRepo.findFirstByStatusOrderByAccrualDateDesc(
+                    AccrualRun.Status.COMPLETED);
+            if (latest.isPresent() && date.isBefore(latest.get().getAccrualDate())) {
+                throw new IllegalArgumentException("Interest has already been accrued through "
+                        + latest.get().getAccrualDate() + "; cannot accrue for " + date);
+            }
+            if (run == null) {
+                run = new AccrualRun();
+                run.setAccrualDate(date);
+                run.setStatus(AccrualRun.Status.RUNNING);
+                run.setCheckpointLoanId(0L);
+                run.setLoansAccrued(0L);
+                run.setStartedAt(Instant.now());
+                run = accrualRunRepo.save(run);
+            } else {
+                logger.info("Resuming interest accrual for {} above loan {}", date, run.getCheckpointLoanId());
+            }
+            long started = System.nanoTime();
+            long[] bounds = jdbcTemplate.queryForObject(SELECT_BOUNDS,
+                    (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)},
+                    LoanStatus.DISBURSED.name(), run.getCheckpointLoanId());
+            long loansAccrued = run.getLoansAccrued();
+            if (bounds[1] > 0) {
+                Progress progress = new Progress(date, bounds[0], bounds[1], loansAccrued);
+                ForkJoinPool pool = new ForkJoinPool(parallelism);
+                try {
+                    pool.invoke(new SliceTask(progress, 0, progress.slices));
+                } finally {
+                    pool.shutdown();
+                }
+                loansAccrued = progress.loansAccrued.get();
+                run.setCheckpointLoanId(bounds[1]);
+            }
+            run.setLoansAccrued(loansAccrued);
+            run.setStatus(AccrualRun.Status.COMPLETED);
+            run.setFinishedAt(Instant.now());
+            run = accrualRunRepo.save(run);
+
+            long seconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started);
+            if (seconds > timeBudgetSeconds) {
+                logger.warn("Interest accrual for {} took {}s, over its {}s budget", date, seconds, timeBudgetSeconds);
+            } else {
+                logger.info("Accrued interest for {} on {} loans in {}s", date, loansAccrued, seconds);
+            }
+            return run;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Reads one slice of loans not yet accrued through the run date, accrues
+     * them and writes them back. Returns the number of loans written.
+     */
+    private int accrueSlice(Progress progress, int slice, Chunk chunk) {
+        long fromId = progress.firstId + (long) slice * chunkSize;
+        long toId = Math.min(fromId + chunkSize, progress.lastId + 1);
+        long runDay = progress.date.toEpochDay();
+        chunk.count = 0;
+        jdbcTemplate.query(SELECT_SLICE, (RowCallbackHandler) rs -> {
+            int i = chunk.count++;
+            chunk.ids[i] = rs.getLong(1);
+            chunk.balances[i] = rs.getLong(2) - rs.getLong(6);
+            chunk.rates[i] = rs.getInt(3);
+            chunk.accrued[i] = rs.getLong(4);
+            LocalDate through = rs.getObject(5, LocalDate.class);
+            chunk.through[i] = through == null ? NOT_ACCRUED : through.toEpochDay();
+            chunk.days[i] = through == null ? 1 : (int) (runDay - chunk.through[i]);
+        }, fromId, toId, fromId, toId, LoanStatus.DISBURSED.name(), progress.date);
+        if (chunk.count == 0) {
+            return 0;
+        }
+        DailyAccrual.accrue(chunk.balances, chunk.rates, chunk.days, chunk.accrued, chunk.count);
+        transactionTemplate.executeWithoutResult(tx -> write(chunk, progress.date));
+        return chunk.count;
+    }
+
+    private void write(Chunk chunk, LocalDate date) {
+        int updates = 0;
+        for (int i = 0; i < chunk.count; i++) {
+            if (chunk.through[i] != NOT_ACCRUED) {
+                chunk.order[updates++] = i;
+            }
+        }
+        int inserts = chunk.count - updates;
+        for (int i = 0, next = updates; i < chunk.count; i++) {
+            if (chunk.through[i] == NOT_ACCRUED) {
+                chunk.order[next++] = i;
+            }
+        }
+        if (updates > 0) {
+            batch(UPDATE_ACCRUAL, chunk, 0, updates, (ps, i) -> {
+                ps.setLong(1, chunk.accrued[i]);
+                ps.setObject(2, date);
+                ps.setLong(3, chunk.ids[i]);
+                ps.setObject(4, LocalDate.ofEpochDay(chunk.through[i]));
+            });
+        }
+        if (inserts > 0) {
+            batch(INSERT_ACCRUAL, chunk, updates, inserts, (ps, i) -> {
+                ps.setLong(1, chunk.ids[i]);
+                ps.setLong(2, chunk.accrued[i]);
+                ps.setObject(3, date);
+            });
+        }
+    }
+
+    private interface RowSetter {
+        void set(PreparedStatement ps, int row) throws SQLException;
+    }
+
+    private void batch(String sql, Chunk chunk, int offset, int size, RowSetter setter) {
+        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                setter.set(ps, chunk.order[offset + i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return size;
+            }
+        });
+    }
+
+    /** Per-worker buffers for one slice; at most {@code chunkSize} loans fit in a slice of ids. */
+    private static final class Chunk {
+
+        final long[] ids;
+        final long[] balances;
+        final int[] rates;
+        final long[] accrued;
+        final long[] through;
+        final int[] days;
+        final int[] order;
+        int count;
+
+        Chunk(int capacity) {
+            ids = new long[capacity];
+            balances = new long[capacity];
+            rates = new int[capacity];
+            accrued = new long[capacity];
+            through = new long[capacity];
+            days = new int[capacity];
+            order = new int[capacity];
+        }
+    }
+
+    /** Tracks finished slices and moves the run's checkpoint over the contiguous finished prefix. */
+    private final class Progress {
+
+        final LocalDate date;
+        final long firstId;
+        final long lastId;
+        final int slices;
+        final int leafSlices;
+        final AtomicLong loansAccrued;
+        private final BitSet finished = new BitSet();
+        private int contiguous;
+
+        Progress(LocalDate date, long firstId, long lastId, long loansAccrued) {
+            this.date = date;
+            this.firstId = firstId;
+            this.lastId = lastId;
+            this.slices = (int) ((lastId - firstId) / chunkSize + 1);
+            this.leafSlices = Math.max(1, slices / (parallelism * 8));
+            this.loansAccrued = new AtomicLong(loansAccrued);
+        }
+
+        void finished(int slice) {
+            long checkpoint;
+            synchronized (this) {
+                finished.set(slice);
+                int before = contiguous;
+                while (finished.get(contiguous)) {
+                    contiguous++;
+                }
+                if (contiguous == before || (contiguous % CHECKPOINT_EVERY != 0 && contiguous != slices)) {
+                    return;
+                }
+                checkpoint = Math.min(firstId + (long) contiguous * chunkSize - 1, lastId);
+            }
+            transactionTemplate.executeWithoutResult(tx ->
+                    accrualRunRepo.saveCheckpoint(date, checkpoint, loansAccrued.get()));
+        }
+    }
+
+    /** Splits a range of slices until it is small enough for one worker to run in order. */
+    private final class SliceTask extends RecursiveAction {
+
+        private final Progress progress;
+        private final int from;
+        private final int to;
+
+        SliceTask(Progress progress, int from, int to) {
+            this.progress = progress;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= progress.leafSlices) {
+                Chunk chunk = new Chunk(chunkSize);
+                for (int slice = from; slice < to; slice++) {
+                    progress.loansAccrued.addAndGet(accrueSlice(progress, slice, chunk));
+                    progress.finished(slice);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SliceTask(progress, from, middle), new SliceTask(progress, middle, to));
+        }
+    }
+}
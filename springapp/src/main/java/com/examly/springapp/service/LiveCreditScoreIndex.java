@@ -0,0 +1,108 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.index.CreditScoreIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * A {@link CreditScoreIndex} that follows committed writes. Each change is
+ * applied once its transaction commits. A rebuild fills a fresh index from
+ * a database snapshot; changes that commit meanwhile are held and replayed
+ * onto it in commit order before it replaces the current one, the way
+ * {@link LoanBookService} and {@link PersonSearchService} do.
+ */
+final class LiveCreditScoreIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveCreditScoreIndex.class);
+
+    private final String name;
+    private final Object buildLock = new Object();
+    private volatile CreditScoreIndex index;
+    /** Changes committed while a rebuild runs; null when none is running. Guarded by {@code this}. */
+    private List<Consumer<CreditScoreIndex>> held;
+
+    LiveCreditScoreIndex(String name) {
+        this.name = name;
+    }
+
+    /** The index, or null until it has first been built. */
+    CreditScoreIndex current() {
+        return index;
+    }
+
+    void put(long id, Double score) {
+        afterCommit(target -> target.put(id, score));
+    }
+
+    void remove(long id) {
+        afterCommit(target -> target.remove(id));
+    }
+
+    /**
+     * Replaces the index with the (id, score) rows {@code sortedRows} streams
+     * in (score, id) order, plus the changes committed while they are read,
+     * and returns the number of rows read.
+     */
+    int rebuild(Supplier<Stream<Object[]>> sortedRows) {
+        synchronized (buildLock) {
+            synchronized (this) {
+                held = new ArrayList<>();
+            }
+            CreditScoreIndex built = new CreditScoreIndex();
+            int loaded;
+            try (Stream<Object[]> rows = sortedRows.get()) {
+                loaded = built.load(rows.iterator());
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    held = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                held.forEach(change -> change.accept(built));
+                held = null;
+                index = built;
+            }
+            return loaded;
+        }
+    }
+
+    private void afterCommit(Consumer<CreditScoreIndex> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(Consumer<CreditScoreIndex> change) {
+        CreditScoreIndex current;
+        synchronized (this) {
+            if (held != null) {
+                held.add(change);
+            }
+            current = index;
+        }
+        if (current != null) {
+            try {
+                change.accept(current);
+            } catch (RuntimeException e) {
+                // The write itself has committed; a failed update only leaves the index behind.
+                logger.warn("Could not apply a change to the {} credit score index", name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.dto.LoanBookSummary;
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.index.AfterCommitReadModel;
+import com.examly.springapp.index.LoanBook;
+import com.examly.springapp.model.Customer;
+import com.examly.springapp.model.Loan;
+import com.examly.springapp.model.LoanStatus;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Optional in-memory read model of the loan book for analytics, enabled
+ * with {@code analytics.loan-book.enabled}. It is built from the database
+ * at startup in keyset chunks and then kept current by the loan, customer
+ * and repricing writes, each applied once its transaction commits, so a
+ * rolled-back write never shows. Writes that commit while the book is
+ * being built are held and replayed onto it; the book's per-loan versions
+ * make the replay safe. Summaries are parallel scans of {@link LoanBook}
+ * on a pool of {@code analytics.loan-book.parallelism} workers and never
+ * touch the database.
+ */
+@Service
+public class LoanBookService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanBookService.class);
+
+    private static final int LOAD_CHUNK = 10_000;
+    private static final int REFRESH_CHUNK = 1_000;
+    private static final LoanStatus[] STATUSES = LoanStatus.values();
+
+    private static final String COLUMNS = "SELECT l.loan_id, l.version, l.loan_amount_minor, l.interest_rate_bps, "
+            + "l.tenure_months, l.status, l.loan_type_id, l.customer_id, c.credit_score "
+            + "FROM loans l LEFT JOIN customers c ON c.customer_id = l.customer_id ";
+    private static final String SELECT_CHUNK = COLUMNS + "WHERE l.loan_id > ? ORDER BY l.loan_id LIMIT ?";
+    private static final String COUNT_LOANS = "SELECT COUNT(*) FROM loans";
+    private static final String SELECT_SCORE = "SELECT credit_score FROM customers WHERE customer_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final boolean enabled;
+    private final ForkJoinPool pool;
+    private final AfterCommitReadModel<LoanBook> book = new AfterCommitReadModel<>("loan book");
+
+    public LoanBookService(@Value("${analytics.loan-book.enabled:false}") boolean enabled,
+                           @Value("${analytics.loan-book.parallelism:0}") int parallelism) {
+        if (parallelism < 0) {
+            throw new IllegalArgumentException("analytics.loan-book.parallelism must not be negative");
+        }
+        this.enabled = enabled;
+        this.pool = enabled
+                ? new ForkJoinPool(parallelism == 0 ? Runtime.getRuntime().availableProcessors() : parallelism)
+                : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Totals by {@code groupBy}, empty until the book has been built.
+     * {@code percentiles} are in (0, 100].
+     */
+    public Optional<LoanBookSummary> summarize(LoanBook.Dimension groupBy, double bandWidth, LoanStatus status,
+                                               Long loanTypeId, List<Double> percentiles) {
+        LoanBook current = book.get();
+        if (current == null) {
+            return Optional.empty();
+        }
+        double[] fractions = null;
+        if (!percentiles.isEmpty()) {
+            fractions = new double[percentiles.size()];
+            for (int i = 0; i < fractions.length; i++) {
+                double percentile = percentiles.get(i);
+                if (!(percentile > 0 && percentile <= 100)) {
+                    throw new IllegalArgumentException("Percentiles must be in (0, 100]: " + percentile);
+                }
+                fractions[i] = percentile / 100;
+            }
+        }
+        long started = System.nanoTime();
+        LoanBook.Result result = current.aggregate(new LoanBook.Query(groupBy, bandWidth,
+                status == null ? null : (byte) status.ordinal(), loanTypeId, fractions), pool);
+        long micros = (System.nanoTime() - started) / 1_000;
+
+        List<LoanBookSummary.Group> groups = new ArrayList<>(result.groups().size());
+        long amount = 0;
+        for (LoanBook.Group group : result.groups()) {
+            amount += group.amountMinor();
+            Long key = group.key();
+            Map<String, Money> amountPercentiles = null;
+            if (group.amountPercentiles() != null) {
+                amountPercentiles = new LinkedHashMap<>();
+                for (int i = 0; i < percentiles.size(); i++) {
+                    amountPercentiles.put(label(percentiles.get(i)), Money.ofMinor(group.amountPercentiles()[i]));
+                }
+            }
+            groups.add(new LoanBookSummary.Group(
+                    groupBy == LoanBook.Dimension.STATUS && key != null ? STATUSES[key.intValue()] : null,
+                    groupBy == LoanBook.Dimension.LOAN_TYPE ? key : null,
+                    groupBy == LoanBook.Dimension.SCORE_BAND && key != null ? key * bandWidth : null,
+                    groupBy == LoanBook.Dimension.SCORE_BAND && key != null ? (key + 1) * bandWidth : null,
+                    group.loans(), Money.ofMinor(group.amountMinor()),
+                    group.weightedRateBps() == null ? null : group.weightedRateBps() / 100,
+                    group.averageTenureMonths(), amountPercentiles));
+        }
+        return Optional.of(new LoanBookSummary(groupBy, result.loans(), Money.ofMinor(amount), micros, groups));
+    }
+
+    /** Builds the book from the database and returns the number of loans loaded. */
+    public int rebuild() {
+        if (!enabled) {
+            throw new IllegalStateException("The loan book read model is disabled");
+        }
+        long started = System.currentTimeMillis();
+        LoanBook built = book.rebuild(() -> {
+            Long expected = jdbcTemplate.queryForObject(COUNT_LOANS, Long.class);
+            LoanBook loaded = new LoanBook(
+                    (int) Math.min(Integer.MAX_VALUE - 8, (expected == null ? 0 : expected) * 9 / 8));
+            LoanBook.Row row = new LoanBook.Row();
+            long afterId = 0;
+            int read;
+            do {
+                int[] count = {0};
+                long[] last = {afterId};
+                jdbcTemplate.query(SELECT_CHUNK, (RowCallbackHandler) rs -> {
+                    loaded.put(read(rs, row));
+                    last[0] = row.id;
+                    count[0]++;
+                }, afterId, LOAD_CHUNK);
+                read = count[0];
+                afterId = last[0];
+            } while (read == LOAD_CHUNK);
+            return loaded;
+        });
+        logger.info("Loaded loan book: {} loans, {} MB, in {} ms", built.size(),
+                built.sizeInBytes() >> 20, System.currentTimeMillis() - started);
+        return built.size();
+    }
+
+    /** Records the loan as it stands once the current transaction commits. */
+    public void loanSaved(Loan loan) {
+        afterCommit(target -> {
+            LoanBook.Row row = rowOf(loan);
+            if (row.customerId != 0 && Double.isNaN(row.customerScore) && !target.hasCustomer(row.customerId)) {
+                // The loan only carried the customer's id; the score is in the database.
+                List<Double> scores = jdbcTemplate.queryForList(SELECT_SCORE, Double.class, row.customerId);
+                if (!scores.isEmpty() && scores.get(0) != null) {
+                    row.customerScore = scores.get(0);
+                }
+            }
+            target.put(row);
+        });
+    }
+
+    public void loanDeleted(Long id) {
+        afterCommit(target -> target.remove(id));
+    }
+
+    public void customerSaved(Customer customer) {
+        Long id = customer.getCustomerId();
+        Double score = customer.getCreditScore();
+        afterCommit(target -> target.setCustomerScore(id, score == null ? Double.NaN : score));
+    }
+
+    public void customerDeleted(Long id) {
+        afterCommit(target -> target.setCustomerScore(id, Double.NaN));
+    }
+
+    /** Re-reads loans changed by plain SQL once the current transaction, if any, commits. */
+    public void loansChanged(long[] ids, int count) {
+        if (!enabled || count == 0) {
+            return;
+        }
+        List<Long> changed = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            changed.add(ids[i]);
+        }
+        afterCommit(target -> {
+            LoanBook.Row row = new LoanBook.Row();
+            for (int from = 0; from < changed.size(); from += REFRESH_CHUNK) {
+                List<Long> chunk = changed.subList(from, Math.min(changed.size(), from + REFRESH_CHUNK));
+                String sql = COLUMNS + "WHERE l.loan_id IN (" + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+                jdbcTemplate.query(sql, (RowCallbackHandler) rs -> target.put(read(rs, row)), chunk.toArray());
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private void afterCommit(Consumer<LoanBook> change) {
+        if (enabled) {
+            book.afterCommit(change);
+        }
+    }
+
+    private static LoanBook.Row rowOf(Loan loan) {
+        LoanBook.Row row = new LoanBook.Row();
+        row.id = loan.getLoanId();
+        row.version = loan.getVersion() == null ? 0 : loan.getVersion();
+        row.amountMinor = loan.getLoanAmount() == null ? LoanBook.NO_AMOUNT : loan.getLoanAmount().minorUnits();
+        row.rateBps = loan.getInterestRate() == null ? LoanBook.NO_VALUE : loan.getInterestRate().basisPoints();
+        row.tenureMonths = loan.getTenureMonths() == null ? LoanBook.NO_VALUE : loan.getTenureMonths();
+        row.status = loan.getStatus() == null ? LoanBook.NO_STATUS : (byte) loan.getStatus().ordinal();
+        row.loanTypeId = loan.getLoanType() == null ? 0 : loan.getLoanType().getLoanTypeId();
+        Customer customer = loan.getCustomer();
+        row.customerId = customer == null ? 0 : customer.getCustomerId();
+        row.customerScore = customer == null || customer.getCreditScore() == null
+                ? Double.NaN : customer.getCreditScore();
+        return row;
+    }
+
+    private static LoanBook.Row read(ResultSet rs, LoanBook.Row row) throws SQLException {
+        row.id = rs.getLong(1);
+        row.version = rs.getLong(2);
+        long amount = rs.getLong(3);
+        row.amountMinor = rs.wasNull() ? LoanBook.NO_AMOUNT : amount;
+        int rate = rs.getInt(4);
+        row.rateBps = rs.wasNull() ? LoanBook.NO_VALUE : rate;
+        int tenure = rs.getInt(5);
+        row.tenureMonths = rs.wasNull() ? LoanBook.NO_VALUE : tenure;
+        String status = rs.getString(6);
+        row.status = status == null ? LoanBook.NO_STATUS : (byte) LoanStatus.valueOf(status).ordinal();
+        row.loanTypeId = rs.getLong(7);
+        row.customerId = rs.getLong(8);
+        double score = rs.getDouble(9);
+        row.customerScore = rs.wasNull() ? Double.NaN : score;
+        return row;
+    }
+
+    private static String label(double percentile) {
+        return percentile == Math.rint(percentile) ? "p" + (long) percentile : "p" + percentile;
+    }
+}
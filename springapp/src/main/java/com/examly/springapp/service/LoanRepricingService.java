@@ -0,0 +1,290 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.dto.RepricingStatus;
+import com.examly.springapp.finance.AmortizationCalculator;
+import com.examly.springapp.finance.Rate;
+import com.examly.springapp.model.Loan;
+import com.examly.springapp.model.LoanStatus;
+import com.examly.springapp.model.OutboxEvent;
+import com.examly.springapp.repository.LoanRepo;
+import com.examly.springapp.repository.LoanTypeRepo;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves every open loan of a loan type onto the type's new rate and
+ * recomputes its instalment over what is left of it: the outstanding
+ * balance (amount less payments) spread over the months not yet covered by
+ * payments at the old instalment. Loans are walked in id order, one chunk
+ * of {@code loans.repricing.chunk-size} at a time, each chunk read into
+ * primitive buffers and written back as one batched, version-checked
+ * UPDATE in its own short transaction, together with a LOAN_UPDATED
+ * outbox event for every loan it changed. Only loans whose rate still differs
+ * are selected, so a loan that lost a race with a concurrent edit is
+ * simply picked up again by the next pass, and an interrupted job can be
+ * started again without redoing finished loans. Jobs run one at a time on
+ * a background thread; a newer rate for the same type supersedes a job
+ * still in progress.
+ */
+@Service
+public class LoanRepricingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanRepricingService.class);
+
+    private static final int MAX_PASSES = 5;
+
+    /** Closed and rejected loans keep the rate they ended on. */
+    private static final String OPEN = "l.loan_type_id = ? AND l.status NOT IN ('"
+            + LoanStatus.CLOSED.name() + "', '" + LoanStatus.REJECTED.name() + "') "
+            + "AND (l.interest_rate_bps IS NULL OR l.interest_rate_bps <> ?)";
+    private static final String COUNT_PENDING = "SELECT COUNT(*) FROM loans l WHERE " + OPEN;
+    private static final String SELECT_CHUNK = "SELECT l.loan_id, l.loan_amount_minor, l.tenure_months, l.version, "
+            + "l.interest_rate_bps, l.instalment_minor, "
+            + "(SELECT COALESCE(SUM(p.amount_minor), 0) FROM payments p WHERE p.loan_id = l.loan_id) "
+            + "FROM loans l WHERE " + OPEN + " AND l.loan_id > ? ORDER BY l.loan_id LIMIT ?";
+    private static final String UPDATE_LOAN = "UPDATE loans SET interest_rate_bps = ?, instalment_minor = ?, "
+            + "version = version + 1 WHERE loan_id = ? AND version = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LoanRepo loanRepo;
+
+    @Autowired
+    private LoanTypeRepo loanTypeRepo;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private LoanBookService loanBookService;
+
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Map<Long, Job> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "loan-repricing");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LoanRepricingService(PlatformTransactionManager transactionManager,
+                                @Value("${loans.repricing.chunk-size:1000}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("loans.repricing.chunk-size must be positive");
+        }
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /** Queues repricing of the type's loans onto {@code rate}, superseding any job still running for it. */
+    public RepricingStatus start(Long loanTypeId, Rate rate) {
+        Job job = new Job(loanTypeId, rate);
+        Job previous = jobs.put(loanTypeId, job);
+        if (previous != null) {
+            previous.superseded = true;
+        }
+        executor.execute(() -> run(job));
+        return job.status();
+    }
+
+    /** Reprices the type's loans onto the rate it currently has, e.g. to finish an interrupted job. */
+    public Optional<RepricingStatus> start(Long loanTypeId) {
+        return loanTypeRepo.findById(loanTypeId).map(loanType -> {
+            if (loanType.getInterestRate() == null) {
+                throw new IllegalArgumentException("Loan type " + loanTypeId + " has no interest rate to reprice onto");
+            }
+            return start(loanTypeId, loanType.getInterestRate());
+        });
+    }
+
+    public Optional<RepricingStatus> getStatus(Long loanTypeId) {
+        return Optional.ofNullable(jobs.get(loanTypeId)).map(Job::status);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(Job job) {
+        if (job.superseded) {
+            job.finish(RepricingStatus.State.SUPERSEDED, null);
+            return;
+        }
+        job.state = RepricingStatus.State.RUNNING;
+        job.startedAt = Instant.now();
+        try {
+            job.total = pending(job);
+            Chunk chunk = new Chunk(chunkSize);
+            for (int pass = 1; pass <= MAX_PASSES && !job.superseded; pass++) {
+                long afterId = 0;
+                do {
+                    read(job, afterId, chunk);
+                    if (chunk.count > 0) {
+                        job.repriced.addAndGet(write(job, chunk));
+                        afterId = chunk.ids[chunk.count - 1];
+                    }
+                } while (chunk.count == chunkSize && !job.superseded);
+                if (job.superseded || pending(job) == 0) {
+                    break;
+                }
+            }
+            if (job.superseded) {
+                job.finish(RepricingStatus.State.SUPERSEDED, null);
+                return;
+            }
+            long left = pending(job);
+            if (left > 0) {
+                logger.warn("{} loans of type {} kept changing and were not repriced onto {}",
+                        left, job.loanTypeId, job.rate);
+            }
+            job.finish(RepricingStatus.State.COMPLETED, null);
+            logger.info("Repriced {} loans of type {} onto {}", job.repriced.get(), job.loanTypeId, job.rate);
+        } catch (RuntimeException e) {
+            logger.error("Repricing loans of type {} onto {} failed", job.loanTypeId, job.rate, e);
+            job.finish(RepricingStatus.State.FAILED, e.getMessage());
+        }
+    }
+
+    private long pending(Job job) {
+        Long count = jdbcTemplate.queryForObject(COUNT_PENDING, Long.class, job.loanTypeId, job.rate.basisPoints());
+        return count == null ? 0 : count;
+    }
+
+    private void read(Job job, long afterId, Chunk chunk) {
+        chunk.count = 0;
+        jdbcTemplate.query(SELECT_CHUNK, (RowCallbackHandler) rs -> {
+            int i = chunk.count++;
+            chunk.ids[i] = rs.getLong(1);
+            long amount = rs.getLong(2);
+            boolean hasAmount = !rs.wasNull();
+            int tenure = rs.getInt(3);
+            boolean hasTenure = !rs.wasNull() && tenure > 0;
+            chunk.versions[i] = rs.getLong(4);
+            int oldRate = rs.getInt(5);
+            boolean hasOldRate = !rs.wasNull();
+            long oldInstalment = rs.getLong(6);
+            if (rs.wasNull() || oldInstalment <= 0) {
+                oldInstalment = hasAmount && hasTenure && hasOldRate
+                        ? AmortizationCalculator.instalment(amount, Rate.ofBasisPoints(oldRate), tenure) : 0;
+            }
+            long paid = rs.getLong(7);
+            chunk.instalments[i] = hasAmount && hasTenure
+                    ? AmortizationCalculator.remainingInstalment(amount, paid, job.rate, tenure, oldInstalment) : 0;
+            chunk.hasInstalment[i] = chunk.instalments[i] > 0;
+        }, job.loanTypeId, job.rate.basisPoints(), afterId, chunkSize);
+    }
+
+    /**
+     * Writes one chunk and returns how many loans it repriced; rows changed
+     * since the read are skipped. The repriced loans' LOAN_UPDATED events
+     * commit with the update.
+     */
+    private int write(Job job, Chunk chunk) {
+        Integer repriced = transactionTemplate.execute(tx -> {
+            int[] counts = jdbcTemplate.batchUpdate(UPDATE_LOAN, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setInt(1, job.rate.basisPoints());
+                    if (chunk.hasInstalment[i]) {
+                        ps.setLong(2, chunk.instalments[i]);
+                    } else {
+                        ps.setNull(2, Types.BIGINT);
+                    }
+                    ps.setLong(3, chunk.ids[i]);
+                    ps.setLong(4, chunk.versions[i]);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return chunk.count;
+                }
+            });
+            int count = 0;
+            long[] changed = new long[chunk.count];
+            List<Long> changedIds = new ArrayList<>(chunk.count);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                    changed[count++] = chunk.ids[i];
+                    changedIds.add(chunk.ids[i]);
+                }
+            }
+            if (count > 0) {
+                outboxService.appendAll(OutboxEvent.Type.LOAN_UPDATED, loanRepo.findByLoanIdIn(changedIds),
+                        Loan::getLoanId);
+            }
+            loanBookService.loansChanged(changed, count);
+            return count;
+        });
+        return repriced == null ? 0 : repriced;
+    }
+
+    private static final class Chunk {
+
+        final long[] ids;
+        final long[] versions;
+        final long[] instalments;
+        final boolean[] hasInstalment;
+        int count;
+
+        Chunk(int capacity) {
+            ids = new long[capacity];
+            versions = new long[capacity];
+            instalments = new long[capacity];
+            hasInstalment = new boolean[capacity];
+        }
+    }
+
+    private static final class Job {
+
+        final Long loanTypeId;
+        final Rate rate;
+        final AtomicLong repriced = new AtomicLong();
+        volatile RepricingStatus.State state = RepricingStatus.State.QUEUED;
+        volatile boolean superseded;
+        volatile long total;
+        volatile Instant startedAt;
+        volatile Instant finishedAt;
+        volatile String error;
+
+        Job(Long loanTypeId, Rate rate) {
+            this.loanTypeId = loanTypeId;
+            this.rate = rate;
+        }
+
+        void finish(RepricingStatus.State state, String error) {
+            this.error = error;
+            this.finishedAt = Instant.now();
+            this.state = state;
+        }
+
+        RepricingStatus status() {
+            return new RepricingStatus(loanTypeId, rate, state, total, repriced.get(), startedAt, finishedAt, error);
+        }
+    }
+}
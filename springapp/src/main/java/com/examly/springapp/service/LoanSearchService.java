@@ -0,0 +1,93 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.dto.CursorPage;
+import com.examly.springapp.dto.LoanSearchCriteria;
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.model.Loan;
+import com.examly.springapp.repository.LoanRepo;
+import com.examly.springapp.repository.LoanSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Filtered, sorted keyset search over loans. A page is two statements: the
+ * first selects only the ids and sort values of the next {@code size + 1}
+ * matches, which the loan indexes answer without reading table rows, and
+ * the second loads those loans with their customer and type. Whether there
+ * is a next page, and where it starts, come from the first statement, so a
+ * loan deleted or edited in between cannot end the listing early or move
+ * the cursor. Neither statement counts the matches or skips rows with
+ * OFFSET, so deep pages cost the same as the first.
+ */
+@Service
+public class LoanSearchService {
+
+    @Autowired
+    private LoanRepo loanRepo;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public CursorPage<Loan> search(LoanSearchCriteria criteria, String cursor, int size) {
+        CursorPage.checkSize(size);
+        CursorPage.SeekKey after = CursorPage.decodeSeekKey(cursor, criteria.ordering());
+        Specification<Loan> spec = LoanSpecifications.matching(criteria)
+                .and(LoanSpecifications.after(criteria, after));
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Loan> root = query.from(Loan.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        Path<Long> id = root.get("loanId");
+        Expression<?> column = LoanSpecifications.sortColumn(criteria, root);
+        query.multiselect(id, column == null ? id : column).orderBy(LoanSpecifications.orderBy(criteria, root, cb));
+        List<Object[]> keys = entityManager.createQuery(query).setMaxResults(size + 1).getResultList();
+        boolean more = keys.size() > size;
+        if (more) {
+            keys = keys.subList(0, size);
+        }
+
+        List<Long> ids = keys.stream().map(key -> (Long) key[0]).toList();
+        Map<Long, Loan> byId = ids.isEmpty() ? Map.of() : loanRepo.findByLoanIdIn(ids).stream()
+                .collect(Collectors.toMap(Loan::getLoanId, Function.identity()));
+        List<Loan> rows = new ArrayList<>(ids.size());
+        for (Long loanId : ids) {
+            Loan loan = byId.get(loanId);
+            if (loan != null) {
+                rows.add(loan);
+            }
+        }
+        Object[] last = more ? keys.get(size - 1) : null;
+        String next = last == null ? null
+                : CursorPage.encode(criteria.ordering(), seekValue(last[1]), (Long) last[0]);
+        return new CursorPage<>(rows, size, next);
+    }
+
+    /** The sort value as the cursor carries it: minor units for amounts, the plain number otherwise. */
+    private static Long seekValue(Object value) {
+        if (value instanceof Money money) {
+            return money.minorUnits();
+        }
+        return value == null ? null : ((Number) value).longValue();
+    }
+}
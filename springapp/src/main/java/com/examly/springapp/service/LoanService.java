@@ -1,12 +1,32 @@
 package com.examly.springapp.service;
 
+import com.examly.springapp.dto.CursorPage;
+import com.examly.springapp.exception.ConflictException;
+import com.examly.springapp.finance.AmortizationCalculator;
+import com.examly.springapp.finance.AmortizationSchedule;
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.model.Customer;
 import com.examly.springapp.model.Loan;
+import com.examly.springapp.model.LoanStatus;
+import com.examly.springapp.model.LoanType;
+import com.examly.springapp.model.OutboxEvent;
 import com.examly.springapp.repository.LoanRepo;
+import com.examly.springapp.repository.PaymentRepo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 public class LoanService {
@@ -14,28 +34,191 @@ public class LoanService {
  @Autowired
  private LoanRepo loanRepo;
  
+ @Autowired
+ private PaymentRepo paymentRepo;
+ 
+ @Autowired
+ private NdjsonExporter ndjsonExporter;
+ 
+ @Autowired
+ private LoanWriteGuard loanWriteGuard;
+ 
+ @Autowired
+ private OutboxService outboxService;
+ 
+ @Autowired
+ private PaymentRollupService paymentRollupService;
+ 
+ @Autowired
+ private LoanBookService loanBookService;
+ 
+ @PersistenceContext
+ private EntityManager entityManager;
+ 
+ @Transactional
  public Loan addLoan(Loan loan) {
- return loanRepo.save(loan);
+ if (loan.getStatus() == null) {
+ loan.setStatus(LoanStatus.PENDING);
+ } else if (loan.getStatus() != LoanStatus.PENDING) {
+ throw new IllegalArgumentException("New loans must start as " + LoanStatus.PENDING);
+ }
+ loan.setInstalment(instalmentOf(loan, 0, null));
+ Loan saved = loanRepo.save(loan);
+ outboxService.append(OutboxEvent.Type.LOAN_CREATED, saved.getLoanId(), saved);
+ loanBookService.loanSaved(saved);
+ return saved;
  }
  
  public List<Loan> getAllLoans() {
  return loanRepo.findAll();
  }
  
+ @Transactional(readOnly = true)
+ public long exportLoans(OutputStream out) throws IOException {
+ try (Stream<Loan> loans = loanRepo.streamAll()) {
+ return ndjsonExporter.write(loans, Loan.class, out);
+ }
+ }
+ 
  public Optional<Loan> getLoanById(Long id) {
  return loanRepo.findById(id);
  }
  
- public Loan updateLoan(Long id, Loan loan) {
- loan.setLoanId(id);
- return loanRepo.save(loan);
+ public Optional<Loan> updateLoan(Long id, Loan loan) {
+ return loanWriteGuard.execute(id, status -> loanRepo.findById(id).map(existing -> {
+ if (loan.getVersion() != null && !loan.getVersion().equals(existing.getVersion())) {
+ throw new ConflictException("Loan " + id + " was modified concurrently (version "
+ + loan.getVersion() + ", now " + existing.getVersion() + ")");
+ }
+ LoanStatus previousStatus = existing.getStatus();
+ if (loan.getStatus() != null) {
+ if (existing.getStatus() != null) {
+ checkTransition(id, existing.getStatus(), loan.getStatus());
+ }
+ existing.setStatus(loan.getStatus());
+ }
+ long paid = paymentRepo.sumAmountMinorByLoanId(id);
+ if (loan.getLoanAmount() != null && loan.getLoanAmount().minorUnits() < paid) {
+ throw new ConflictException("Loan " + id + " has already been paid beyond " + loan.getLoanAmount());
+ }
+ // The instalment in force, possibly repriced, stands until the terms themselves change.
+ boolean termsChanged = !Objects.equals(existing.getLoanAmount(), loan.getLoanAmount())
+ || !Objects.equals(existing.getInterestRate(), loan.getInterestRate())
+ || !Objects.equals(existing.getTenureMonths(), loan.getTenureMonths());
+ Money current = existing.getInstalment();
+ existing.setLoanAmount(loan.getLoanAmount());
+ existing.setInterestRate(loan.getInterestRate());
+ existing.setTenureMonths(loan.getTenureMonths());
+ if (termsChanged || current == null) {
+ existing.setInstalment(instalmentOf(existing, paid, current));
+ }
+ existing.setCustomer(find(Customer.class, loan.getCustomer() == null ? null : loan.getCustomer().getCustomerId()));
+ Long previousLoanTypeId = existing.getLoanType() == null ? null : existing.getLoanType().getLoanTypeId();
+ existing.setLoanType(find(LoanType.class, loan.getLoanType() == null ? null : loan.getLoanType().getLoanTypeId()));
+ Loan saved = loanRepo.save(existing);
+ paymentRollupService.loanTypeChanged(id, previousLoanTypeId,
+ saved.getLoanType() == null ? null : saved.getLoanType().getLoanTypeId());
+ outboxService.append(saved.getStatus() != previousStatus ? OutboxEvent.Type.LOAN_STATUS_CHANGED
+ : OutboxEvent.Type.LOAN_UPDATED, id, saved);
+ loanBookService.loanSaved(saved);
+ return saved;
+ }));
  }
  
+ @Transactional
  public void deleteLoan(Long id) {
  loanRepo.deleteById(id);
+ outboxService.append(OutboxEvent.Type.LOAN_DELETED, id, Map.of("loanId", id));
+ loanBookService.loanDeleted(id);
  }
  
- public List<Loan> getLoansByStatus(String status) {
+ @Transactional
+ public Optional<Loan> updateStatus(Long id, LoanStatus target) {
+ if (loanRepo.updateStatus(id, LoanStatus.sourcesOf(target), target) == 0) {
+ Optional<LoanStatus> current = loanRepo.findStatusById(id);
+ if (current.isEmpty()) {
+ return Optional.empty();
+ }
+ checkTransition(id, current.get(), target);
+ return loanRepo.findById(id);
+ }
+ Optional<Loan> updated = loanRepo.findById(id);
+ updated.ifPresent(loan -> {
+ outboxService.append(OutboxEvent.Type.LOAN_STATUS_CHANGED, id, loan);
+ loanBookService.loanSaved(loan);
+ });
+ return updated;
+ }
+ 
+ public List<Loan> getLoansByStatus(LoanStatus status) {
  return loanRepo.findByStatus(status);
  }
+ 
+ public CursorPage<Loan> getLoansByStatusAfter(LoanStatus status, String cursor, int size) {
+ CursorPage.checkSize(size);
+ List<Loan> rows = loanRepo.findByStatusAndLoanIdGreaterThanOrderByLoanIdAsc(
+ status, CursorPage.decode(cursor), PageRequest.of(0, size + 1));
+ return CursorPage.of(rows, size, Loan::getLoanId);
+ }
+ 
+ public Map<LoanStatus, Long> getStatusCounts() {
+ Map<LoanStatus, Long> counts = new EnumMap<>(LoanStatus.class);
+ for (LoanStatus status : LoanStatus.values()) {
+ counts.put(status, 0L);
+ }
+ for (Object[] row : loanRepo.countByStatus()) {
+ if (row[0] != null) {
+ counts.put((LoanStatus) row[0], ((Number) row[1]).longValue());
+ }
+ }
+ return counts;
+ }
+ 
+ private <T> T find(Class<T> type, Long id) {
+ if (id == null) {
+ return null;
+ }
+ T entity = entityManager.find(type, id);
+ if (entity == null) {
+ throw new IllegalArgumentException(type.getSimpleName() + " not found: " + id);
+ }
+ return entity;
+ }
+ 
+ private void checkTransition(Long id, LoanStatus current, LoanStatus target) {
+ if (!current.canTransitionTo(target)) {
+ throw new ConflictException("Loan " + id + " cannot move from " + current + " to " + target);
+ }
+ }
+ 
+ public Optional<AmortizationSchedule> getSchedule(Long id) {
+ return loanRepo.findById(id).map(loan -> {
+ if (loan.getLoanAmount() == null || loan.getInterestRate() == null || loan.getTenureMonths() == null) {
+ throw new IllegalArgumentException("Loan " + id + " has no amount, rate or tenure to amortize");
+ }
+ return AmortizationCalculator.schedule(loan.getLoanAmount(), loan.getInterestRate(), loan.getTenureMonths());
+ });
+ }
+ 
+ /**
+ * The EMI for what is left of the loan under its current terms, as the
+ * repricer works it out, or null while any term is missing or once nothing
+ * is outstanding.
+ */
+ static Money instalmentOf(Loan loan, long paidMinor, Money current) {
+ if (loan.getLoanAmount() == null || loan.getInterestRate() == null
+ || loan.getTenureMonths() == null || loan.getTenureMonths() <= 0) {
+ return null;
+ }
+ long instalment = AmortizationCalculator.remainingInstalment(loan.getLoanAmount().minorUnits(), paidMinor,
+ loan.getInterestRate(), loan.getTenureMonths(), current == null ? 0 : current.minorUnits());
+ return instalment > 0 ? Money.ofMinor(instalment) : null;
+ }
+ 
+ public CursorPage<Loan> getLoansAfter(String cursor, int size) {
+ CursorPage.checkSize(size);
+ List<Loan> rows = loanRepo.findByLoanIdGreaterThanOrderByLoanIdAsc(
+ CursorPage.decode(cursor), PageRequest.of(0, size + 1));
+ return CursorPage.of(rows, size, Loan::getLoanId);
+ }
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.dto.SimulationRequest;
+import com.examly.springapp.dto.SimulationResponse;
+import com.examly.springapp.finance.AmortizationCalculator;
+import com.examly.springapp.finance.AmortizationSchedule;
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.finance.Rate;
+import com.examly.springapp.repository.LoanRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Answers "what if" questions about a loan: prepayments, a different
+ * tenure or a different rate. Quotes depend only on the loan's amount,
+ * rate and tenure plus the scenario, so they are memoized under exactly
+ * that key in the bounded {@link #QUOTE_CACHE}; an agent revisiting the
+ * same options gets them without recomputing, and a loan whose terms
+ * change simply stops matching its old entries. Several scenarios in one
+ * request are evaluated in parallel.
+ */
+@Service
+public class LoanSimulationService {
+
+    public static final String QUOTE_CACHE = "loanQuotes";
+
+    static final int MAX_SCENARIOS = 32;
+    static final int MAX_TENURE_MONTHS = 1200;
+
+    @Autowired
+    private LoanRepo loanRepo;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    /** A loan's terms plus a normalized scenario; null for the loan's own schedule. */
+    private record QuoteKey(long principalMinor, Rate rate, int tenureMonths, SimulationRequest.Scenario scenario) {
+    }
+
+    public Optional<SimulationResponse> simulate(Long id, SimulationRequest request) {
+        List<SimulationRequest.Scenario> requested = request == null || request.scenarios() == null
+                ? List.of() : request.scenarios();
+        if (requested.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Scenarios cannot be null");
+        }
+        if (requested.stream().anyMatch(s -> s.prepayment() != null && s.prepayment().minorUnits() < 0)) {
+            throw new IllegalArgumentException("Prepayment cannot be negative");
+        }
+        List<SimulationRequest.Scenario> scenarios = requested.stream().map(SimulationRequest.Scenario::normalized).toList();
+        if (scenarios.size() > MAX_SCENARIOS) {
+            throw new IllegalArgumentException("At most " + MAX_SCENARIOS + " scenarios can be simulated at once");
+        }
+        boolean includeSchedules = request == null || request.includeSchedules() == null || request.includeSchedules();
+        return loanRepo.findById(id).map(loan -> {
+            if (loan.getLoanAmount() == null || loan.getInterestRate() == null || loan.getTenureMonths() == null) {
+                throw new IllegalArgumentException("Loan " + id + " has no amount, rate or tenure to simulate");
+            }
+            long principal = loan.getLoanAmount().minorUnits();
+            Rate rate = loan.getInterestRate();
+            int tenure = loan.getTenureMonths();
+            for (SimulationRequest.Scenario scenario : scenarios) {
+                check(scenario, tenure);
+            }
+            Cache quotes = cacheManager.getCache(QUOTE_CACHE);
+            SimulationResponse.Result baseline = quote(quotes, new QuoteKey(principal, rate, tenure, null), 0);
+            long baselineInterest = baseline.totalInterest().minorUnits();
+            List<SimulationResponse.Result> results = (scenarios.size() > 1 ? scenarios.parallelStream() : scenarios.stream())
+                    .map(scenario -> quote(quotes, new QuoteKey(principal, rate, tenure, scenario), baselineInterest))
+                    .map(result -> includeSchedules ? result : result.withoutSchedule())
+                    .toList();
+            return new SimulationResponse(id, includeSchedules ? baseline : baseline.withoutSchedule(), results);
+        });
+    }
+
+    private static SimulationResponse.Result quote(Cache quotes, QuoteKey key, long baselineInterest) {
+        return quotes == null ? evaluate(key, baselineInterest) : quotes.get(key, () -> evaluate(key, baselineInterest));
+    }
+
+    private static SimulationResponse.Result evaluate(QuoteKey key, long baselineInterest) {
+        SimulationRequest.Scenario scenario = key.scenario();
+        Rate rate = scenario != null && scenario.interestRate() != null ? scenario.interestRate() : key.rate();
+        int tenure = scenario != null && scenario.tenureMonths() != null ? scenario.tenureMonths() : key.tenureMonths();
+        AmortizationSchedule schedule = new AmortizationSchedule(tenure);
+        if (scenario != null && scenario.prepayment() != null) {
+            AmortizationCalculator.prepay(key.principalMinor(), rate, tenure, scenario.prepayment().minorUnits(),
+                    scenario.prepaymentMonth(), scenario.mode() == SimulationRequest.Mode.REDUCE_INSTALMENT, schedule);
+        } else {
+            AmortizationCalculator.fill(key.principalMinor(), rate, tenure, schedule);
+        }
+        long interest = schedule.getTotalInterest();
+        return new SimulationResponse.Result(scenario, schedule.getMonths(), Money.ofMinor(schedule.getInstalment()),
+                Money.ofMinor(interest), Money.ofMinor(scenario == null ? 0 : baselineInterest - interest), schedule);
+    }
+
+    private static void check(SimulationRequest.Scenario scenario, int loanTenure) {
+        int tenure = scenario.tenureMonths() != null ? scenario.tenureMonths() : loanTenure;
+        if (tenure < 1 || tenure > MAX_TENURE_MONTHS) {
+            throw new IllegalArgumentException("Tenure must be between 1 and " + MAX_TENURE_MONTHS + " months");
+        }
+        if (scenario.interestRate() != null && scenario.interestRate().basisPoints() < 0) {
+            throw new IllegalArgumentException("Interest rate cannot be negative");
+        }
+        if (scenario.prepayment() != null
+                && (scenario.prepaymentMonth() == null || scenario.prepaymentMonth() < 1 || scenario.prepaymentMonth() > tenure)) {
+            throw new IllegalArgumentException("Prepayment month must be between 1 and " + tenure);
+        }
+    }
+}
@@ -1,36 +1,65 @@
 package com.examly.springapp.service;
 
+import com.examly.springapp.finance.Rate;
 import com.examly.springapp.model.LoanType;
 import com.examly.springapp.repository.LoanTypeRepo;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 public class LoanTypeService {
  
+ public static final String ALL_CACHE = "loanTypes";
+ public static final String BY_ID_CACHE = "loanTypeById";
+ 
  @Autowired
  private LoanTypeRepo loanTypeRepo;
  
+ @Autowired
+ private LoanRepricingService loanRepricingService;
+ 
+ @Caching(
+ evict = @CacheEvict(value = ALL_CACHE, allEntries = true),
+ put = @CachePut(value = BY_ID_CACHE, key = "#result.loanTypeId"))
  public LoanType addLoanType(LoanType loanType) {
  return loanTypeRepo.save(loanType);
  }
  
+ @Cacheable(ALL_CACHE)
  public List<LoanType> getAllLoanTypes() {
  return loanTypeRepo.findAll();
  }
  
+ @Cacheable(BY_ID_CACHE)
  public Optional<LoanType> getLoanTypeById(Long id) {
  return loanTypeRepo.findById(id);
  }
  
+ @Caching(
+ evict = @CacheEvict(value = ALL_CACHE, allEntries = true),
+ put = @CachePut(value = BY_ID_CACHE, key = "#id"))
  public LoanType updateLoanType(Long id, LoanType loanType) {
+ Rate previousRate = loanTypeRepo.findById(id).map(LoanType::getInterestRate).orElse(null);
  loanType.setLoanTypeId(id);
- return loanTypeRepo.save(loanType);
+ LoanType saved = loanTypeRepo.save(loanType);
+ // Floating-rate loans follow their type; reprice them in the background once the new rate is stored.
+ if (saved.getInterestRate() != null && !Objects.equals(previousRate, saved.getInterestRate())) {
+ loanRepricingService.start(id, saved.getInterestRate());
+ }
+ return saved;
  }
  
+ @Caching(evict = {
+ @CacheEvict(value = ALL_CACHE, allEntries = true),
+ @CacheEvict(value = BY_ID_CACHE, key = "#id")})
  public void deleteLoanType(Long id) {
  loanTypeRepo.deleteById(id);
  }
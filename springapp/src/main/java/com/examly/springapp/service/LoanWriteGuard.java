@@ -0,0 +1,131 @@
+package com.examly.springapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs writes that touch a loan's balance in their own transaction and
+ * retries them a bounded number of times when the loan's {@code @Version}
+ * check fails or the database rolls them back as a deadlock or lock
+ * timeout victim. In {@code striped} mode the work also holds one of a fixed
+ * set of in-process locks chosen by loan id, so writers to the same loan
+ * queue up instead of racing, while other loans are mostly unaffected. The
+ * version check stays in place as the guard across application instances.
+ * Work that joins a transaction the caller already started is not retried
+ * here: the failed transaction is rollback-only, so the caller that began
+ * it has to retry it as a whole.
+ */
+@Component
+public class LoanWriteGuard {
+
+    public enum Mode {
+        OPTIMISTIC,
+        STRIPED
+    }
+
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock[] stripes;
+    private final int maxAttempts;
+    private volatile Mode mode;
+
+    public LoanWriteGuard(PlatformTransactionManager transactionManager,
+                          @Value("${loans.concurrency.mode:optimistic}") String mode,
+                          @Value("${loans.concurrency.max-attempts:5}") int maxAttempts,
+                          @Value("${loans.concurrency.stripes:64}") int stripes) {
+        if (maxAttempts < 1 || stripes < 1) {
+            throw new IllegalArgumentException("loans.concurrency.max-attempts and stripes must be positive");
+        }
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.maxAttempts = maxAttempts;
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public <T> T execute(Long loanId, TransactionCallback<T> work) {
+        return execute(loanId == null ? new long[0] : new long[] {loanId}, work);
+    }
+
+    public <T> T execute(Collection<Long> loanIds, TransactionCallback<T> work) {
+        long[] ids = new long[loanIds.size()];
+        int count = 0;
+        for (Long loanId : loanIds) {
+            if (loanId != null) {
+                ids[count++] = loanId;
+            }
+        }
+        return execute(Arrays.copyOf(ids, count), work);
+    }
+
+    private <T> T execute(long[] loanIds, TransactionCallback<T> work) {
+        if (mode != Mode.STRIPED || loanIds.length == 0) {
+            return retrying(work);
+        }
+        boolean[] held = new boolean[stripes.length];
+        for (long loanId : loanIds) {
+            held[Math.floorMod(Long.hashCode(loanId), stripes.length)] = true;
+        }
+        // Always lock in stripe order so multi-loan writes cannot deadlock.
+        int locked = 0;
+        try {
+            for (; locked < held.length; locked++) {
+                if (held[locked]) {
+                    stripes[locked].lock();
+                }
+            }
+            return retrying(work);
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                if (held[i]) {
+                    stripes[i].unlock();
+                }
+            }
+        }
+    }
+
+    private <T> T retrying(TransactionCallback<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transactionTemplate.execute(work);
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(work);
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                backOff(attempt);
+            }
+        }
+    }
+
+    private static void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 1L << Math.min(attempt + 1, 6)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying a loan update", e);
+        }
+    }
+}
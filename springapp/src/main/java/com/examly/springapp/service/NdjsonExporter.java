@@ -0,0 +1,48 @@
+package com.examly.springapp.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes a JPA result stream as newline-delimited JSON. The persistence
+ * context is cleared and the output flushed every {@value #CHUNK_SIZE} rows,
+ * so heap use stays flat regardless of table size.
+ */
+@Component
+public class NdjsonExporter {
+    
+    static final int CHUNK_SIZE = 500;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    public <T> long write(Stream<T> rows, Class<T> type, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(type);
+        long written = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                if (++written % CHUNK_SIZE == 0) {
+                    entityManager.clear();
+                    generator.flush();
+                }
+            }
+        }
+        return written;
+    }
+}
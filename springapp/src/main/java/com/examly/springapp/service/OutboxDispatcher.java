@@ -0,0 +1,260 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.model.OutboxEvent;
+import com.examly.springapp.outbox.OutboxSink;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the outbox table to every {@link OutboxSink}. A single background
+ * thread takes the oldest undispatched events, {@code batch-size} at a
+ * time and in id order, hands the batch to each sink and marks it
+ * dispatched in the same transaction. The batch's rows stay locked while
+ * the sinks run, so dispatchers on several instances take turns instead of
+ * delivering the same events at once; the transaction reads committed data
+ * only, so writers appending new events are never blocked by it. Ids are
+ * handed out when an event is inserted, not when its transaction commits,
+ * so an event whose writer commits late can be delivered after events with
+ * higher ids. Order is only guaranteed per aggregate: writes to one
+ * aggregate are serialized by its version check, so its events commit, and
+ * are delivered, in id order. A sink failure rolls the batch back to be
+ * retried with exponential backoff, which gives at-least-once delivery and
+ * keeps later events behind the failed one.
+ * Lag is published as {@code outbox.pending}, {@code outbox.lag} (age of
+ * the oldest undispatched event) and the {@code outbox.delivery.lag}
+ * timer, measured from append to delivery.
+ */
+@Service
+public class OutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final String SELECT_BATCH = "SELECT id, event_type, aggregate_id, payload, created_at "
+            + "FROM outbox_events WHERE dispatched_at IS NULL ORDER BY id LIMIT ? FOR UPDATE";
+    private static final String MARK_DISPATCHED = "UPDATE outbox_events SET dispatched_at = ? WHERE id = ?";
+    private static final String OLDEST_PENDING = "SELECT created_at FROM outbox_events "
+            + "WHERE dispatched_at IS NULL ORDER BY id LIMIT 1";
+    private static final String COUNT_PENDING = "SELECT COUNT(*) FROM outbox_events WHERE dispatched_at IS NULL";
+    private static final String PURGE_DISPATCHED = "DELETE FROM outbox_events WHERE dispatched_at < ?";
+
+    static final RowMapper<OutboxEvent> EVENT = (rs, rowNum) -> new OutboxEvent(rs.getLong(1),
+            OutboxEvent.Type.valueOf(rs.getString(2)), rs.getLong(3), rs.getString(4),
+            rs.getTimestamp(5).toInstant());
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<OutboxSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final long maxBackoffMillis;
+    private final Duration retention;
+    private final Semaphore wakeUps = new Semaphore(0);
+    private final Counter dispatched;
+    private final Timer deliveryLag;
+    private final Map<String, SinkMeters> sinkMeters;
+    private volatile long pending;
+    private volatile Instant oldestPending;
+    private volatile boolean running;
+    private Thread thread;
+
+    private record SinkMeters(Timer deliveries, Counter failures) {
+    }
+
+    public OutboxDispatcher(ObjectProvider<OutboxSink> sinks,
+                            ObjectProvider<MeterRegistry> registry,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${outbox.dispatcher.enabled:true}") boolean enabled,
+                            @Value("${outbox.dispatcher.batch-size:500}") int batchSize,
+                            @Value("${outbox.dispatcher.poll-interval-ms:1000}") long pollIntervalMillis,
+                            @Value("${outbox.dispatcher.max-backoff-ms:60000}") long maxBackoffMillis,
+                            @Value("${outbox.retention-hours:72}") long retentionHours) {
+        if (batchSize < 1 || pollIntervalMillis < 1 || maxBackoffMillis < pollIntervalMillis) {
+            throw new IllegalArgumentException("outbox.dispatcher.* settings are out of range");
+        }
+        this.sinks = sinks.orderedStream().toList();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.retention = Duration.ofHours(retentionHours);
+
+        MeterRegistry meters = registry.getIfAvailable(SimpleMeterRegistry::new);
+        this.dispatched = Counter.builder("outbox.dispatched").register(meters);
+        this.deliveryLag = Timer.builder("outbox.delivery.lag")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meters);
+        this.sinkMeters = this.sinks.stream().collect(Collectors.toMap(OutboxSink::name, sink -> new SinkMeters(
+                Timer.builder("outbox.delivery").tag("sink", sink.name()).register(meters),
+                Counter.builder("outbox.delivery.failures").tag("sink", sink.name()).register(meters))));
+        Gauge.builder("outbox.pending", this, dispatcher -> dispatcher.pending).register(meters);
+        Gauge.builder("outbox.lag", this, OutboxDispatcher::lagSeconds).baseUnit("seconds").register(meters);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "outbox-dispatcher");
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("Outbox dispatcher started with sinks {}", sinkMeters.keySet());
+    }
+
+    @PreDestroy
+    synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /** Called after a transaction that appended events commits; cheap enough to call on every commit. */
+    public void wakeUp() {
+        if (wakeUps.availablePermits() == 0) {
+            wakeUps.release();
+        }
+    }
+
+    /** Delivers the oldest batch of undispatched events and returns its size. */
+    public int dispatchOnce() {
+        try {
+            return dispatchBatch();
+        } finally {
+            refreshLag();
+        }
+    }
+
+    private int dispatchBatch() {
+        Integer delivered = transactionTemplate.execute(tx -> {
+            List<OutboxEvent> batch = jdbcTemplate.query(SELECT_BATCH, EVENT, batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            for (OutboxSink sink : sinks) {
+                deliver(sink, batch);
+            }
+            Instant now = Instant.now();
+            Timestamp dispatchedAt = Timestamp.from(now);
+            jdbcTemplate.batchUpdate(MARK_DISPATCHED, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setTimestamp(1, dispatchedAt);
+                    ps.setLong(2, batch.get(i).getId());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batch.size();
+                }
+            });
+            for (OutboxEvent event : batch) {
+                deliveryLag.record(Duration.between(event.getCreatedAt(), now));
+            }
+            return batch.size();
+        });
+        int count = delivered == null ? 0 : delivered;
+        dispatched.increment(count);
+        return count;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.purge-interval-ms:3600000}")
+    public int purgeDispatched() {
+        Integer purged = transactionTemplate.execute(tx ->
+                jdbcTemplate.update(PURGE_DISPATCHED, Timestamp.from(Instant.now().minus(retention))));
+        return purged == null ? 0 : purged;
+    }
+
+    public long getPending() {
+        return pending;
+    }
+
+    private void deliver(OutboxSink sink, List<OutboxEvent> batch) {
+        SinkMeters meters = sinkMeters.get(sink.name());
+        long start = System.nanoTime();
+        try {
+            sink.deliver(batch);
+        } catch (Exception e) {
+            meters.failures().increment();
+            throw new IllegalStateException("Outbox sink " + sink.name() + " failed on events "
+                    + batch.get(0).getId() + ".." + batch.get(batch.size() - 1).getId(), e);
+        } finally {
+            meters.deliveries().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void refreshLag() {
+        List<Timestamp> oldest = jdbcTemplate.queryForList(OLDEST_PENDING, Timestamp.class);
+        oldestPending = oldest.isEmpty() ? null : oldest.get(0).toInstant();
+        Long count = oldest.isEmpty() ? Long.valueOf(0) : jdbcTemplate.queryForObject(COUNT_PENDING, Long.class);
+        pending = count == null ? 0 : count;
+    }
+
+    private double lagSeconds() {
+        Instant oldest = oldestPending;
+        return oldest == null ? 0 : Math.max(0, Duration.between(oldest, Instant.now()).toMillis() / 1000.0);
+    }
+
+    private void run() {
+        long backoff = 0;
+        while (running) {
+            try {
+                int dispatched = dispatchOnce();
+                backoff = 0;
+                if (dispatched == batchSize) {
+                    continue;
+                }
+            } catch (RuntimeException e) {
+                backoff = Math.min(Math.max(backoff * 2, pollIntervalMillis), maxBackoffMillis);
+                logger.warn("Outbox dispatch failed, retrying in {} ms", backoff, e);
+            }
+            try {
+                if (backoff > 0) {
+                    // New commits do not cut a backoff short; the sink needs time to recover.
+                    Thread.sleep(backoff);
+                } else if (wakeUps.tryAcquire(pollIntervalMillis, TimeUnit.MILLISECONDS)) {
+                    wakeUps.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
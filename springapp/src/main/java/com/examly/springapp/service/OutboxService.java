@@ -0,0 +1,94 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.model.OutboxEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Appends events to the outbox table. Appending requires a transaction
+ * already in progress, so an event commits or rolls back with the write it
+ * describes; rows are inserted through the transaction's own connection,
+ * several at a time where a write changes many rows. Once the transaction
+ * commits the dispatcher is woken, so events usually go out straight away
+ * instead of on its next poll.
+ */
+@Service
+public class OutboxService {
+
+    private static final String INSERT_EVENT = "INSERT INTO outbox_events "
+            + "(aggregate_type, aggregate_id, event_type, payload, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(OutboxEvent.Type type, Long aggregateId, Object payload) {
+        appendAll(type, List.of(payload), entity -> aggregateId);
+    }
+
+    /** Appends one event of {@code type} per entity, in list order. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> void appendAll(OutboxEvent.Type type, List<T> entities, Function<T, Long> idOf) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(entities.size());
+        List<String> payloads = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            ids.add(idOf.apply(entity));
+            payloads.add(serialize(entity));
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_EVENT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, type.getAggregateType());
+                ps.setLong(2, ids.get(i));
+                ps.setString(3, type.name());
+                ps.setString(4, payloads.get(i));
+                ps.setTimestamp(5, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ids.size();
+            }
+        });
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxDispatcher.wakeUp();
+            }
+        });
+    }
+
+    private String serialize(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox payload " + payload, e);
+        }
+    }
+}
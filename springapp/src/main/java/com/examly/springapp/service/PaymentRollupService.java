@@ -0,0 +1,288 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.dto.PaymentTimeseries;
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.model.Loan;
+import com.examly.springapp.model.Payment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps {@code payment_daily_totals}, the collections per day and loan type,
+ * in step with the payments table and answers time series from it. Every
+ * payment write adjusts its day's row in the same transaction, so the
+ * rollup is exact at every commit and a series costs one indexed range scan
+ * over the days asked for, however many payments they hold. Each day and
+ * type is split into {@link #SLOTS} rows by loan id, so concurrent payments
+ * only wait on each other's rollup row when their loans share a slot. Each
+ * adjustment is a single upsert, and one transaction's adjustments are
+ * applied in key order, which keeps lock waits short. On MySQL the gap
+ * locks taken by inserting a new day's rows can still deadlock two
+ * writers; the loser is rolled back and retried whole by
+ * {@link LoanWriteGuard}. {@link #rebuild()} recomputes the
+ * table from the payments for backfills, and runs by itself on startup
+ * when the table is empty but payments exist.
+ */
+@Service
+public class PaymentRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentRollupService.class);
+
+    static final int SLOTS = 16;
+    static final long MAX_DAYS = 3660;
+
+    private static final String UPSERT_TOTAL = "INSERT INTO payment_daily_totals "
+            + "(bucket_date, loan_type_id, slot, amount_minor, payment_count) VALUES (?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE amount_minor = amount_minor + VALUES(amount_minor), "
+            + "payment_count = payment_count + VALUES(payment_count)";
+    /** H2 has no ON DUPLICATE KEY outside its MySQL mode; the standard MERGE does the same. */
+    private static final String MERGE_TOTAL = "MERGE INTO payment_daily_totals t USING (VALUES (CAST(? AS DATE), "
+            + "CAST(? AS BIGINT), CAST(? AS INT), CAST(? AS BIGINT), CAST(? AS BIGINT))) "
+            + "AS s (bucket_date, loan_type_id, slot, amount_minor, payment_count) "
+            + "ON t.bucket_date = s.bucket_date AND t.loan_type_id = s.loan_type_id AND t.slot = s.slot "
+            + "WHEN MATCHED THEN UPDATE SET amount_minor = t.amount_minor + s.amount_minor, "
+            + "payment_count = t.payment_count + s.payment_count "
+            + "WHEN NOT MATCHED THEN INSERT (bucket_date, loan_type_id, slot, amount_minor, payment_count) "
+            + "VALUES (s.bucket_date, s.loan_type_id, s.slot, s.amount_minor, s.payment_count)";
+    private static final String SELECT_RANGE = "SELECT bucket_date, loan_type_id, SUM(amount_minor), "
+            + "SUM(payment_count) FROM payment_daily_totals WHERE bucket_date BETWEEN ? AND ? "
+            + "GROUP BY bucket_date, loan_type_id ORDER BY bucket_date, loan_type_id";
+    private static final String SELECT_LOAN_DAYS = "SELECT payment_date, SUM(amount_minor), COUNT(*) FROM payments "
+            + "WHERE loan_id = ? AND payment_date IS NOT NULL AND amount_minor IS NOT NULL GROUP BY payment_date";
+    private static final String DELETE_ALL = "DELETE FROM payment_daily_totals";
+    private static final String REBUILD = "INSERT INTO payment_daily_totals "
+            + "(bucket_date, loan_type_id, slot, amount_minor, payment_count) "
+            + "SELECT p.payment_date, COALESCE(l.loan_type_id, 0), MOD(COALESCE(p.loan_id, 0), " + SLOTS + "), "
+            + "SUM(p.amount_minor), COUNT(*) FROM payments p LEFT JOIN loans l ON l.loan_id = p.loan_id "
+            + "WHERE p.payment_date IS NOT NULL AND p.amount_minor IS NOT NULL "
+            + "GROUP BY p.payment_date, COALESCE(l.loan_type_id, 0), MOD(COALESCE(p.loan_id, 0), " + SLOTS + ")";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate rebuildTransaction;
+    private final boolean rebuildIfEmpty;
+    private volatile String upsertTotal;
+
+    /**
+     * What one payment contributes to the rollup: a day, a loan type (0 for
+     * none) and a slot. Null from {@link #of} for payments off the timeline.
+     */
+    public record Entry(LocalDate day, long loanTypeId, int slot, long amountMinor) {
+
+        public static Entry of(Payment payment) {
+            if (payment.getPaymentDate() == null || payment.getAmount() == null) {
+                return null;
+            }
+            Loan loan = payment.getLoan();
+            Long loanTypeId = loan == null || loan.getLoanType() == null ? null : loan.getLoanType().getLoanTypeId();
+            return of(payment.getPaymentDate(), loan == null ? null : loan.getLoanId(), loanTypeId,
+                    payment.getAmount());
+        }
+
+        public static Entry of(Date paymentDate, Long loanId, Long loanTypeId, Money amount) {
+            if (paymentDate == null || amount == null) {
+                return null;
+            }
+            return new Entry(paymentDate.toLocalDate(), loanTypeId == null ? 0 : loanTypeId, slotOf(loanId),
+                    amount.minorUnits());
+        }
+    }
+
+    private record Key(LocalDate day, long loanTypeId, int slot) implements Comparable<Key> {
+
+        @Override
+        public int compareTo(Key other) {
+            int byDay = day.compareTo(other.day);
+            if (byDay != 0) {
+                return byDay;
+            }
+            int byType = Long.compare(loanTypeId, other.loanTypeId);
+            return byType != 0 ? byType : Integer.compare(slot, other.slot);
+        }
+    }
+
+    public PaymentRollupService(PlatformTransactionManager transactionManager,
+                                @Value("${payments.timeseries.rebuild-if-empty:true}") boolean rebuildIfEmpty) {
+        // Serializable, so payments committed while the rebuild reads are waited for rather than lost.
+        this.rebuildTransaction = new TransactionTemplate(transactionManager);
+        this.rebuildTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+        this.rebuildIfEmpty = rebuildIfEmpty;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void paymentAdded(Payment payment) {
+        apply(List.of(), single(Entry.of(payment)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void paymentsAdded(List<Payment> payments) {
+        List<Entry> added = new ArrayList<>(payments.size());
+        for (Payment payment : payments) {
+            Entry entry = Entry.of(payment);
+            if (entry != null) {
+                added.add(entry);
+            }
+        }
+        apply(List.of(), added);
+    }
+
+    /** {@code before} is the payment's entry as it was read, taken before the update changed it. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void paymentChanged(Entry before, Payment after) {
+        apply(single(before), single(Entry.of(after)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void paymentRemoved(Entry before) {
+        apply(single(before), List.of());
+    }
+
+    /** Moves a loan's dated payments from one loan type to another. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void loanTypeChanged(Long loanId, Long fromLoanTypeId, Long toLoanTypeId) {
+        long from = fromLoanTypeId == null ? 0 : fromLoanTypeId;
+        long to = toLoanTypeId == null ? 0 : toLoanTypeId;
+        if (from == to) {
+            return;
+        }
+        int slot = slotOf(loanId);
+        Map<Key, long[]> deltas = new TreeMap<>();
+        jdbcTemplate.query(SELECT_LOAN_DAYS, (RowCallbackHandler) rs -> {
+            LocalDate day = rs.getDate(1).toLocalDate();
+            long amount = rs.getLong(2);
+            long count = rs.getLong(3);
+            add(deltas, new Key(day, from, slot), -amount, -count);
+            add(deltas, new Key(day, to, slot), amount, count);
+        }, loanId);
+        write(deltas);
+    }
+
+    public PaymentTimeseries getTimeseries(LocalDate from, LocalDate to, PaymentTimeseries.Granularity granularity) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_DAYS) {
+            throw new IllegalArgumentException("At most " + MAX_DAYS + " days can be requested at once");
+        }
+        Map<LocalDate, Map<Long, long[]>> buckets = new TreeMap<>();
+        jdbcTemplate.query(SELECT_RANGE, (RowCallbackHandler) rs -> {
+            LocalDate bucket = granularity.bucketOf(rs.getDate(1).toLocalDate());
+            long[] totals = buckets.computeIfAbsent(bucket, b -> new TreeMap<>())
+                    .computeIfAbsent(rs.getLong(2), t -> new long[2]);
+            totals[0] += rs.getLong(3);
+            totals[1] += rs.getLong(4);
+        }, Date.valueOf(from), Date.valueOf(to));
+        List<PaymentTimeseries.Point> points = new ArrayList<>();
+        buckets.forEach((bucket, types) -> types.forEach((loanTypeId, totals) -> {
+            if (totals[1] != 0) {
+                points.add(new PaymentTimeseries.Point(bucket, loanTypeId == 0 ? null : loanTypeId,
+                        Money.ofMinor(totals[0]), totals[1]));
+            }
+        }));
+        return new PaymentTimeseries(from, to, granularity, points);
+    }
+
+    /** Recomputes the whole rollup from the payments table and returns the number of rows written. */
+    public int rebuild() {
+        long started = System.currentTimeMillis();
+        Integer rows = rebuildTransaction.execute(tx -> {
+            jdbcTemplate.update(DELETE_ALL);
+            return jdbcTemplate.update(REBUILD);
+        });
+        int written = rows == null ? 0 : rows;
+        logger.info("Rebuilt payment rollup: {} rows in {} ms", written, System.currentTimeMillis() - started);
+        return written;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (!rebuildIfEmpty) {
+            return;
+        }
+        boolean empty = jdbcTemplate.queryForList("SELECT 1 FROM payment_daily_totals LIMIT 1").isEmpty();
+        if (empty && !jdbcTemplate.queryForList("SELECT 1 FROM payments LIMIT 1").isEmpty()) {
+            rebuild();
+        }
+    }
+
+    private void apply(List<Entry> removed, List<Entry> added) {
+        Map<Key, long[]> deltas = new TreeMap<>();
+        for (Entry entry : removed) {
+            add(deltas, new Key(entry.day(), entry.loanTypeId(), entry.slot()), -entry.amountMinor(), -1);
+        }
+        for (Entry entry : added) {
+            add(deltas, new Key(entry.day(), entry.loanTypeId(), entry.slot()), entry.amountMinor(), 1);
+        }
+        write(deltas);
+    }
+
+    private void write(Map<Key, long[]> deltas) {
+        String upsert = upsertTotal();
+        deltas.forEach((key, delta) -> {
+            if (delta[0] == 0 && delta[1] == 0) {
+                return;
+            }
+            Object[] args = {Date.valueOf(key.day()), key.loanTypeId(), key.slot(), delta[0], delta[1]};
+            try {
+                jdbcTemplate.update(upsert, args);
+            } catch (DuplicateKeyException e) {
+                // H2's MERGE can lose the race to insert a new row; the row exists now, so merge into it.
+                jdbcTemplate.update(upsert, args);
+            }
+        });
+    }
+
+    private String upsertTotal() {
+        String sql = upsertTotal;
+        if (sql == null) {
+            try {
+                String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                        DatabaseMetaData::getDatabaseProductName);
+                sql = "H2".equals(product) ? MERGE_TOTAL : UPSERT_TOTAL;
+            } catch (MetaDataAccessException e) {
+                throw new IllegalStateException("Could not tell which database holds the payment rollup", e);
+            }
+            upsertTotal = sql;
+        }
+        return sql;
+    }
+
+    private static void add(Map<Key, long[]> deltas, Key key, long amount, long count) {
+        long[] delta = deltas.computeIfAbsent(key, k -> new long[2]);
+        delta[0] += amount;
+        delta[1] += count;
+    }
+
+    private static List<Entry> single(Entry entry) {
+        return entry == null ? List.of() : List.of(entry);
+    }
+
+    private static int slotOf(Long loanId) {
+        return loanId == null ? 0 : (int) Math.floorMod(loanId, (long) SLOTS);
+    }
+}
@@ -1,12 +1,27 @@
 package com.examly.springapp.service;
 
+import com.examly.springapp.dto.CursorPage;
+import com.examly.springapp.exception.ConflictException;
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.model.Loan;
+import com.examly.springapp.model.OutboxEvent;
 import com.examly.springapp.model.Payment;
+import com.examly.springapp.repository.LoanRepo;
 import com.examly.springapp.repository.PaymentRepo;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 public class PaymentService {
@@ -14,24 +29,129 @@ public class PaymentService {
     @Autowired
     private PaymentRepo paymentRepo;
     
+    @Autowired
+    private LoanRepo loanRepo;
+    
+    @Autowired
+    private NdjsonExporter ndjsonExporter;
+    
+    @Autowired
+    private LoanWriteGuard loanWriteGuard;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Autowired
+    private PaymentRollupService paymentRollupService;
+    
     public Payment addPayment(Payment payment) {
-        return paymentRepo.save(payment);
+        checkAmount(payment);
+        Long loanId = loanIdOf(payment);
+        return loanWriteGuard.execute(loanId, status -> {
+            payment.setPaymentId(null);
+            payment.setVersion(null);
+            if (loanId != null) {
+                payment.setLoan(lockWithHeadroom(loanId, payment.getAmount().minorUnits()));
+            }
+            Payment saved = paymentRepo.save(payment);
+            paymentRollupService.paymentAdded(saved);
+            outboxService.append(OutboxEvent.Type.PAYMENT_CREATED, saved.getPaymentId(), saved);
+            return saved;
+        });
     }
     
     public List<Payment> getAllPayments() {
         return paymentRepo.findAll();
     }
     
+    @Transactional(readOnly = true)
+    public long exportPayments(OutputStream out) throws IOException {
+        try (Stream<Payment> payments = paymentRepo.streamAll()) {
+            return ndjsonExporter.write(payments, Payment.class, out);
+        }
+    }
+    
     public Optional<Payment> getPaymentById(Long id) {
         return paymentRepo.findById(id);
     }
     
-    public Payment updatePayment(Long id, Payment payment) {
-        payment.setPaymentId(id);
-        return paymentRepo.save(payment);
+    public Optional<Payment> updatePayment(Long id, Payment payment) {
+        checkAmount(payment);
+        Long loanId = loanIdOf(payment);
+        List<Long> loanIds = new ArrayList<>(2);
+        loanIds.add(loanId);
+        paymentRepo.findLoanIdById(id).ifPresent(loanIds::add);
+        return loanWriteGuard.execute(loanIds, status -> paymentRepo.findById(id).map(existing -> {
+            if (payment.getVersion() != null && !payment.getVersion().equals(existing.getVersion())) {
+                throw new ConflictException("Payment " + id + " was modified concurrently (version "
+                        + payment.getVersion() + ", now " + existing.getVersion() + ")");
+            }
+            PaymentRollupService.Entry before = PaymentRollupService.Entry.of(existing);
+            Loan previousLoan = existing.getLoan();
+            if (loanId == null) {
+                existing.setLoan(null);
+            } else {
+                boolean sameLoan = previousLoan != null && loanId.equals(previousLoan.getLoanId());
+                long credit = sameLoan && existing.getAmount() != null ? existing.getAmount().minorUnits() : 0;
+                existing.setLoan(lockWithHeadroom(loanId, payment.getAmount().minorUnits() - credit));
+            }
+            existing.setAmount(payment.getAmount());
+            existing.setPaymentDate(payment.getPaymentDate());
+            Payment saved = paymentRepo.save(existing);
+            paymentRollupService.paymentChanged(before, saved);
+            outboxService.append(OutboxEvent.Type.PAYMENT_UPDATED, id, saved);
+            return saved;
+        }));
     }
     
+    @Transactional
     public void deletePayment(Long id) {
+        List<Object[]> fields = paymentRepo.findRollupFieldsById(id);
+        Object[] row = fields.isEmpty() ? null : fields.get(0);
+        Long loanId = row == null ? null : (Long) row[1];
         paymentRepo.deleteById(id);
+        if (row != null) {
+            paymentRollupService.paymentRemoved(
+                    PaymentRollupService.Entry.of((Date) row[0], loanId, (Long) row[2], (Money) row[3]));
+        }
+        Map<String, Long> deleted = new LinkedHashMap<>();
+        deleted.put("paymentId", id);
+        deleted.put("loanId", loanId);
+        outboxService.append(OutboxEvent.Type.PAYMENT_DELETED, id, deleted);
+    }
+    
+    public CursorPage<Payment> getPaymentsAfter(String cursor, int size) {
+        CursorPage.checkSize(size);
+        List<Payment> rows = paymentRepo.findByPaymentIdGreaterThanOrderByPaymentIdAsc(
+                CursorPage.decode(cursor), PageRequest.of(0, size + 1));
+        return CursorPage.of(rows, size, Payment::getPaymentId);
+    }
+    
+    /**
+     * Loads the loan with a forced version bump, so that concurrent payments
+     * against it conflict at commit, and checks that {@code increaseMinor}
+     * more still fits within the loan amount.
+     */
+    private Loan lockWithHeadroom(Long loanId, long increaseMinor) {
+        Loan loan = loanRepo.lockForPayment(loanId)
+                .orElseThrow(() -> new IllegalArgumentException("Loan not found: " + loanId));
+        if (loan.getLoanAmount() != null && increaseMinor > 0) {
+            long outstanding = loan.getLoanAmount().minorUnits() - paymentRepo.sumAmountMinorByLoanId(loanId);
+            if (increaseMinor > outstanding) {
+                throw new ConflictException("Payment of " + Money.format(increaseMinor)
+                        + " exceeds the outstanding balance of " + Money.format(outstanding) + " on loan " + loanId);
+            }
+        }
+        return loan;
+    }
+    
+    private static void checkAmount(Payment payment) {
+        if (payment.getAmount() == null || !payment.getAmount().isPositive()) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+    }
+    
+    private static Long loanIdOf(Payment payment) {
+        return payment.getLoan() == null ? null : payment.getLoan().getLoanId();
     }
 }
\ No newline at end of file
@@ -0,0 +1,194 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.dto.CursorPage;
+import com.examly.springapp.dto.PersonSearchResults;
+import com.examly.springapp.index.AfterCommitReadModel;
+import com.examly.springapp.index.TrigramIndex;
+import com.examly.springapp.model.Customer;
+import com.examly.springapp.model.Guarantor;
+import com.examly.springapp.repository.CustomerRepo;
+import com.examly.springapp.repository.GuarantorRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ranked fuzzy search over customer and guarantor names, phone numbers and
+ * addresses, enabled with {@code search.people.enabled}. Each has its own
+ * {@link TrigramIndex}, built from the database at startup in keyset
+ * chunks and then kept current by the writes, each applied once its
+ * transaction commits. Every change carries the whole indexed text, so
+ * the changes that commit while an index is being built are held and
+ * replayed onto it in commit order. Searches only read the index; the
+ * matching rows are then loaded by id.
+ */
+@Service
+public class PersonSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersonSearchService.class);
+
+    private static final int LOAD_CHUNK = 10_000;
+    private static final String[] FIELDS = {"name", "phoneNumber", "address"};
+    private static final TrigramIndex.Analysis[] ANALYSIS = {
+            TrigramIndex.Analysis.WORDS, TrigramIndex.Analysis.DIGITS, TrigramIndex.Analysis.WORDS};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CustomerRepo customerRepo;
+
+    @Autowired
+    private GuarantorRepo guarantorRepo;
+
+    private final boolean enabled;
+    private final double minMatch;
+    private final Shelf customers = new Shelf("customers", "customer_id", "customer_name");
+    private final Shelf guarantors = new Shelf("guarantors", "guarantor_id", "guarantor_name");
+
+    public PersonSearchService(@Value("${search.people.enabled:false}") boolean enabled,
+                               @Value("${search.people.min-match:0.6}") double minMatch) {
+        if (!(minMatch > 0 && minMatch <= 1)) {
+            throw new IllegalArgumentException("search.people.min-match must be in (0, 1]");
+        }
+        this.enabled = enabled;
+        this.minMatch = minMatch;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Customers ranked by how well {@code query} matches them, empty until the index has been built. */
+    public Optional<PersonSearchResults<Customer>> searchCustomers(String query, int limit) {
+        return search(customers, customerRepo, Customer::getCustomerId, query, limit);
+    }
+
+    /** Guarantors ranked by how well {@code query} matches them, empty until the index has been built. */
+    public Optional<PersonSearchResults<Guarantor>> searchGuarantors(String query, int limit) {
+        return search(guarantors, guarantorRepo, Guarantor::getGuarantorId, query, limit);
+    }
+
+    /** Builds the customer index from the database and returns the number of customers indexed. */
+    public int rebuildCustomers() {
+        return rebuild(customers);
+    }
+
+    /** Builds the guarantor index from the database and returns the number of guarantors indexed. */
+    public int rebuildGuarantors() {
+        return rebuild(guarantors);
+    }
+
+    public void customerSaved(Customer customer) {
+        Long id = customer.getCustomerId();
+        String[] texts = {customer.getCustomerName(), customer.getPhoneNumber(), customer.getAddress()};
+        afterCommit(customers, index -> index.put(id, texts));
+    }
+
+    public void customerDeleted(Long id) {
+        afterCommit(customers, index -> index.remove(id));
+    }
+
+    public void guarantorSaved(Guarantor guarantor) {
+        Long id = guarantor.getGuarantorId();
+        String[] texts = {guarantor.getGuarantorName(), guarantor.getPhoneNumber(), guarantor.getAddress()};
+        afterCommit(guarantors, index -> index.put(id, texts));
+    }
+
+    public void guarantorDeleted(Long id) {
+        afterCommit(guarantors, index -> index.remove(id));
+    }
+
+    private <T> Optional<PersonSearchResults<T>> search(Shelf shelf, JpaRepository<T, Long> repo,
+                                                        Function<T, Long> idOf, String query, int limit) {
+        CursorPage.checkSize(limit);
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search text must not be blank");
+        }
+        TrigramIndex index = shelf.index.get();
+        if (index == null) {
+            return Optional.empty();
+        }
+        long started = System.nanoTime();
+        List<TrigramIndex.Hit> hits = index.search(query, minMatch, limit);
+        long micros = (System.nanoTime() - started) / 1_000;
+
+        List<Long> ids = new ArrayList<>(hits.size());
+        for (TrigramIndex.Hit hit : hits) {
+            ids.add(hit.id());
+        }
+        Map<Long, T> byId = repo.findAllById(ids).stream()
+                .collect(Collectors.toMap(idOf, Function.identity()));
+        List<PersonSearchResults.Hit<T>> found = new ArrayList<>(hits.size());
+        for (TrigramIndex.Hit hit : hits) {
+            T person = byId.get(hit.id());
+            if (person != null) {
+                found.add(new PersonSearchResults.Hit<>(person, FIELDS[hit.field()], hit.similarity()));
+            }
+        }
+        return Optional.of(new PersonSearchResults<>(query, micros, found));
+    }
+
+    private int rebuild(Shelf shelf) {
+        if (!enabled) {
+            throw new IllegalStateException("Person search is disabled");
+        }
+        long started = System.currentTimeMillis();
+        TrigramIndex built = shelf.index.rebuild(() -> {
+            Long expected = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + shelf.table, Long.class);
+            TrigramIndex loaded = new TrigramIndex(
+                    (int) Math.min(Integer.MAX_VALUE >>> 3, expected == null ? 0 : expected), ANALYSIS);
+            long afterId = 0;
+            int read;
+            do {
+                int[] count = {0};
+                long[] last = {afterId};
+                jdbcTemplate.query(shelf.selectChunk, (RowCallbackHandler) rs -> {
+                    last[0] = rs.getLong(1);
+                    loaded.put(last[0], rs.getString(2), rs.getString(3), rs.getString(4));
+                    count[0]++;
+                }, afterId, LOAD_CHUNK);
+                read = count[0];
+                afterId = last[0];
+            } while (read == LOAD_CHUNK);
+            return loaded;
+        });
+        logger.info("Loaded {} search index: {} rows, {} MB, in {} ms", shelf.table, built.size(),
+                built.sizeInBytes() >> 20, System.currentTimeMillis() - started);
+        return built.size();
+    }
+
+    private void afterCommit(Shelf shelf, Consumer<TrigramIndex> change) {
+        if (enabled) {
+            shelf.index.afterCommit(change);
+        }
+    }
+
+    /** One table's index and how to load it. */
+    private static final class Shelf {
+
+        final String table;
+        final String selectChunk;
+        final AfterCommitReadModel<TrigramIndex> index;
+
+        Shelf(String table, String idColumn, String nameColumn) {
+            this.table = table;
+            this.index = new AfterCommitReadModel<>(table + " search index");
+            this.selectChunk = "SELECT " + idColumn + ", " + nameColumn + ", phone_number, address FROM " + table
+                    + " WHERE " + idColumn + " > ? ORDER BY " + idColumn + " LIMIT ?";
+        }
+    }
+}
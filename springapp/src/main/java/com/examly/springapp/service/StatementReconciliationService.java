@@ -0,0 +1,234 @@
+package com.examly.springapp.service;
+
+import com.examly.springapp.dto.BulkPaymentResult;
+import com.examly.springapp.dto.ReconciliationReport;
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.index.LongHashSet;
+import com.examly.springapp.ingest.StatementFormat;
+import com.examly.springapp.ingest.StatementParser;
+import com.examly.springapp.ingest.StatementRow;
+import com.examly.springapp.model.Loan;
+import com.examly.springapp.model.Payment;
+import com.examly.springapp.repository.PaymentRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Posts the rows of a bank settlement file as payments and reports the rows
+ * it could not post. The file is memory-mapped and parsed without per-line
+ * objects by {@link StatementParser}; rows are matched against a primitive
+ * hash set of every loan id, built once per file, so unmatched rows never
+ * reach the database. Matched rows go through
+ * {@link BulkPaymentService}'s chunked insert, with the same overpayment and
+ * concurrency rules as an upload. Each posted row keeps its bank reference
+ * under a unique index, and every chunk checks its references against the
+ * table first, so a reference repeated later in the file, or a whole file
+ * sent twice, is reported as duplicate instead of posted again. Heap use is
+ * bounded by the loan count, the chunk size and the exception cap, not by
+ * the size of the file. Rows without a value date are posted as of today.
+ */
+@Service
+public class StatementReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementReconciliationService.class);
+
+    private static final String SELECT_LOAN_IDS = "SELECT loan_id FROM loans";
+    private static final int ID_FETCH_SIZE = 10_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PaymentRepo paymentRepo;
+
+    @Autowired
+    private BulkPaymentService bulkPaymentService;
+
+    private final StatementParser parser;
+    private final int chunkSize;
+    private final int maxExceptions;
+
+    public StatementReconciliationService(@Value("${payments.reconciliation.chunk-size:1000}") int chunkSize,
+                                          @Value("${payments.reconciliation.max-exceptions:1000}") int maxExceptions,
+                                          @Value("${payments.reconciliation.window-mb:64}") int windowMegabytes) {
+        if (chunkSize < 1 || maxExceptions < 0 || windowMegabytes < 1 || windowMegabytes > 1024) {
+            throw new IllegalArgumentException("payments.reconciliation.* settings are out of range");
+        }
+        this.chunkSize = chunkSize;
+        this.maxExceptions = maxExceptions;
+        this.parser = new StatementParser(windowMegabytes * 1024 * 1024);
+    }
+
+    public ReconciliationReport reconcile(Path file, StatementFormat format) {
+        long started = System.currentTimeMillis();
+        LongHashSet loans = loadLoanIds();
+        Run run = new Run(Date.valueOf(LocalDate.now()));
+        long lines;
+        try {
+            lines = parser.parse(file, format, row -> accept(run, loans, row));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the statement file", e);
+        }
+        flush(run);
+        long elapsed = System.currentTimeMillis() - started;
+        logger.info("Reconciled {} rows from {} in {} ms: {} posted, {} unmatched, {} duplicate, {} rejected, "
+                        + "{} invalid, {} failed", run.rows, file.getFileName(), elapsed, run.posted, run.unmatched,
+                run.duplicates, run.rejected, run.invalid, run.failed);
+        return new ReconciliationReport(format, lines, run.rows, run.posted, run.unmatched, run.duplicates,
+                run.rejected, run.invalid, run.failed, run.exceptions, run.truncated, elapsed);
+    }
+
+    /** Every loan id, streamed from the database into primitive slots. */
+    private LongHashSet loadLoanIds() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM loans", Long.class);
+        LongHashSet ids = new LongHashSet(count == null ? 0 : (int) Math.min(count, Integer.MAX_VALUE / 4));
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_LOAN_IDS, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(ID_FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> ids.add(rs.getLong(1)));
+        return ids;
+    }
+
+    private void accept(Run run, LongHashSet loans, StatementRow row) {
+        run.rows++;
+        if (row.error() != null) {
+            run.invalid++;
+            run.exception(row.line(), ReconciliationReport.Kind.INVALID, row.hasReference() ? row.reference() : null,
+                    row.hasLoan() ? row.loanId() : null, null, row.error());
+            return;
+        }
+        Money amount = Money.ofMinor(row.amountMinor());
+        if (!row.hasReference()) {
+            run.invalid++;
+            run.exception(row.line(), ReconciliationReport.Kind.INVALID, null, row.hasLoan() ? row.loanId() : null,
+                    amount, "Reference is required");
+            return;
+        }
+        if (!row.hasLoan() || !loans.contains(row.loanId())) {
+            run.unmatched++;
+            run.exception(row.line(), ReconciliationReport.Kind.UNMATCHED, row.reference(),
+                    row.hasLoan() ? row.loanId() : null, amount, "No loan matches this row");
+            return;
+        }
+        String reference = row.reference();
+        if (run.chunkReferences.contains(reference)) {
+            duplicate(run, row.line(), reference, row.loanId(), amount);
+            return;
+        }
+        Loan loan = new Loan();
+        loan.setLoanId(row.loanId());
+        Payment payment = new Payment();
+        payment.setLoan(loan);
+        payment.setAmount(amount);
+        payment.setPaymentDate(row.hasDate() ? row.date() : run.today);
+        payment.setBankReference(reference);
+        run.chunkReferences.add(reference);
+        run.chunk.add(payment);
+        run.chunkLines.add(row.line());
+        if (run.chunk.size() == chunkSize) {
+            flush(run);
+        }
+    }
+
+    /** Drops rows whose reference is already posted, then inserts the rest as one chunk. */
+    private void flush(Run run) {
+        if (run.chunk.isEmpty()) {
+            return;
+        }
+        Set<String> posted = new HashSet<>(paymentRepo.findBankReferences(run.chunkReferences));
+        List<Payment> fresh = new ArrayList<>(run.chunk.size());
+        List<Long> freshLines = new ArrayList<>(run.chunk.size());
+        Set<Long> loanIds = new HashSet<>();
+        for (int i = 0; i < run.chunk.size(); i++) {
+            Payment payment = run.chunk.get(i);
+            if (posted.contains(payment.getBankReference())) {
+                duplicate(run, run.chunkLines.get(i), payment.getBankReference(), payment.getLoan().getLoanId(),
+                        payment.getAmount());
+            } else {
+                fresh.add(payment);
+                freshLines.add(run.chunkLines.get(i));
+                loanIds.add(payment.getLoan().getLoanId());
+            }
+        }
+        // Read before the insert: the chunk path re-points each payment at a managed loan reference.
+        List<Long> freshLoanIds = fresh.stream().map(payment -> payment.getLoan().getLoanId()).toList();
+        List<BulkPaymentResult.Row> results = fresh.isEmpty() ? List.of()
+                : bulkPaymentService.insertChunk(fresh, 0, loanIds);
+        for (BulkPaymentResult.Row result : results) {
+            Payment payment = fresh.get(result.index());
+            long line = freshLines.get(result.index());
+            switch (result.status()) {
+                case CREATED -> run.posted++;
+                case REJECTED -> {
+                    run.rejected++;
+                    run.exception(line, ReconciliationReport.Kind.REJECTED, payment.getBankReference(),
+                            freshLoanIds.get(result.index()), payment.getAmount(), result.error());
+                }
+                case FAILED -> {
+                    run.failed++;
+                    run.exception(line, ReconciliationReport.Kind.FAILED, payment.getBankReference(),
+                            freshLoanIds.get(result.index()), payment.getAmount(), result.error());
+                }
+            }
+        }
+        run.chunk.clear();
+        run.chunkLines.clear();
+        run.chunkReferences.clear();
+    }
+
+    private static void duplicate(Run run, long line, String reference, Long loanId, Money amount) {
+        run.duplicates++;
+        run.exception(line, ReconciliationReport.Kind.DUPLICATE, reference, loanId, amount,
+                "Bank reference was already posted");
+    }
+
+    /** Counters and the pending chunk for one file. */
+    private final class Run {
+
+        final Date today;
+        final List<Payment> chunk = new ArrayList<>(chunkSize);
+        final List<Long> chunkLines = new ArrayList<>(chunkSize);
+        final Set<String> chunkReferences = new HashSet<>();
+        final List<ReconciliationReport.Row> exceptions = new ArrayList<>();
+        long rows;
+        long posted;
+        long unmatched;
+        long duplicates;
+        long rejected;
+        long invalid;
+        long failed;
+        boolean truncated;
+
+        Run(Date today) {
+            this.today = today;
+        }
+
+        void exception(long line, ReconciliationReport.Kind kind, String reference, Long loanId, Money amount,
+                       String detail) {
+            if (exceptions.size() < maxExceptions) {
+                exceptions.add(new ReconciliationReport.Row(line, kind, reference, loanId, amount, detail));
+            } else {
+                truncated = true;
+            }
+        }
+    }
+}
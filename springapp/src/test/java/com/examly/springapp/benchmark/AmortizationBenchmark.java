@@ -0,0 +1,76 @@
+package com.examly.springapp.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.examly.springapp.finance.AmortizationCalculator;
+import com.examly.springapp.finance.AmortizationSchedule;
+import com.examly.springapp.finance.Rate;
+
+/**
+ * Schedule generation throughput for 360-month loans. Target for
+ * whole-portfolio recomputation: at least 50,000 schedules per second on
+ * one core (a 100k-loan book in about two seconds), with the portfolio
+ * benchmark showing ~0 B/op under -prof gc.
+ *
+ * mvn -Pbench verify -Dbench.include=AmortizationBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AmortizationBenchmark {
+
+    private static final int PORTFOLIO_SIZE = 10_000;
+
+    @Param("360")
+    private int tenureMonths;
+
+    private static final Rate RATE = Rate.ofBasisPoints(750);
+
+    private long[] amounts;
+    private Rate[] rates;
+    private AmortizationSchedule reused;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        amounts = new long[PORTFOLIO_SIZE];
+        rates = new Rate[PORTFOLIO_SIZE];
+        for (int i = 0; i < PORTFOLIO_SIZE; i++) {
+            amounts[i] = (50_000 + random.nextInt(950_000)) * 100L;
+            rates[i] = Rate.ofBasisPoints(600 + random.nextInt(600));
+        }
+        reused = new AmortizationSchedule(tenureMonths);
+    }
+
+    @Benchmark
+    public long singleSchedule() {
+        return AmortizationCalculator.fill(50_000_000, RATE, tenureMonths, reused).getTotalInterest();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PORTFOLIO_SIZE)
+    public long wholePortfolio() {
+        long totalInterest = 0;
+        for (int i = 0; i < PORTFOLIO_SIZE; i++) {
+            totalInterest += AmortizationCalculator.fill(amounts[i], rates[i], tenureMonths, reused).getTotalInterest();
+        }
+        return totalInterest;
+    }
+}
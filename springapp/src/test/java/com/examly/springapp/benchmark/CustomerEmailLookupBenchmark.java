@@ -0,0 +1,55 @@
+package com.examly.springapp.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Concurrent GET /api/customers/email/{email} from 32 threads; SampleTime
+ * mode reports p50/p99/p99.9. Compare a build before the email cache with
+ * the current one, and this build with
+ * customers.email-lookup.serve-cached-bytes on and off
+ * (-Dbench.baseUrl, -Dbench.email):
+ *
+ * mvn -Pbench verify -Dbench.include=CustomerEmailLookupBenchmark
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(32)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerEmailLookupBenchmark {
+
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() {
+        client = HttpClient.newHttpClient();
+        String baseUrl = System.getProperty("bench.baseUrl", "http://localhost:8080");
+        String email = System.getProperty("bench.email", "john.updated@example.com");
+        request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/customers/email/" + email)).GET().build();
+    }
+
+    @Benchmark
+    public int lookupByEmail() throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray()).body().length;
+    }
+}
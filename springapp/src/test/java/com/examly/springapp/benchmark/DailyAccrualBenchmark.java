@@ -0,0 +1,63 @@
+package com.examly.springapp.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.examly.springapp.finance.DailyAccrual;
+
+/**
+ * The accrual kernel over one 1,000-loan slice of primitive buffers. Target:
+ * at least 100 million loans per second on one core, so the arithmetic for
+ * a 5M-loan book costs well under a second of the nightly run's budget and
+ * the run stays bound by database reads and writes, with ~0 B/op under
+ * -prof gc.
+ *
+ * mvn -Pbench verify -Dbench.include=DailyAccrualBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DailyAccrualBenchmark {
+
+    private static final int SLICE = 1_000;
+
+    private long[] balances;
+    private int[] rates;
+    private int[] days;
+    private long[] accrued;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        balances = new long[SLICE];
+        rates = new int[SLICE];
+        days = new int[SLICE];
+        accrued = new long[SLICE];
+        for (int i = 0; i < SLICE; i++) {
+            balances[i] = 5_000_000L + random.nextInt(95_000_000);
+            rates[i] = 600 + random.nextInt(600);
+            days[i] = random.nextInt(50) == 0 ? 3 : 1;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SLICE)
+    public long accrueSlice() {
+        return DailyAccrual.accrue(balances, rates, days, accrued, SLICE);
+    }
+}
@@ -0,0 +1,88 @@
+package com.examly.springapp.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the dashboard summary endpoint with the five list downloads the
+ * Dashboard used to fan out to. Runs against a live server, by default
+ * http://localhost:8080 (override with -Dbench.baseUrl=...):
+ *
+ * mvn -Pbench verify -Dbench.include=DashboardSummaryBenchmark
+ *
+ * The bytes counter reports the response payload transferred per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DashboardSummaryBenchmark {
+
+    private static final List<String> FAN_OUT = List.of(
+            "/api/customers", "/api/loans", "/api/loantypes", "/api/guarantors", "/api/payments");
+
+    private HttpClient client;
+    private String baseUrl;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        client = HttpClient.newHttpClient();
+        baseUrl = System.getProperty("bench.baseUrl", "http://localhost:8080");
+    }
+
+    @Benchmark
+    public long summaryEndpoint(Payload payload) throws IOException, InterruptedException {
+        byte[] body = client.send(request("/api/dashboard/summary"), HttpResponse.BodyHandlers.ofByteArray()).body();
+        payload.bytes += body.length;
+        return body.length;
+    }
+
+    @Benchmark
+    public long fiveListFanOut(Payload payload) {
+        List<CompletableFuture<HttpResponse<byte[]>>> responses = FAN_OUT.stream()
+                .map(path -> client.sendAsync(request(path), HttpResponse.BodyHandlers.ofByteArray()))
+                .toList();
+        long total = 0;
+        for (CompletableFuture<HttpResponse<byte[]>> response : responses) {
+            total += response.join().body().length;
+        }
+        payload.bytes += total;
+        return total;
+    }
+
+    private HttpRequest request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.examly.springapp.benchmark;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.examly.springapp.dto.SimulationRequest;
+import com.examly.springapp.dto.SimulationResponse;
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.finance.Rate;
+import com.examly.springapp.model.Loan;
+import com.examly.springapp.repository.LoanRepo;
+import com.examly.springapp.service.LoanSimulationService;
+
+/**
+ * A typical agent request: eight prepayment, tenure and rate scenarios on
+ * a 360-month loan, evaluated without a cache and then from a warm quote
+ * cache. Target: under 10 ms per request cold and under 100 us warm,
+ * excluding the single loan lookup, which is stubbed out here.
+ *
+ * mvn -Pbench verify -Dbench.include=LoanSimulationBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoanSimulationBenchmark {
+
+    private static final SimulationRequest REQUEST = new SimulationRequest(List.of(
+            scenario(5_000_000, 12, null, null, SimulationRequest.Mode.REDUCE_TENURE),
+            scenario(5_000_000, 12, null, null, SimulationRequest.Mode.REDUCE_INSTALMENT),
+            scenario(10_000_000, 24, null, null, SimulationRequest.Mode.REDUCE_TENURE),
+            scenario(10_000_000, 24, null, null, SimulationRequest.Mode.REDUCE_INSTALMENT),
+            scenario(0, null, 240, null, null),
+            scenario(0, null, 300, null, null),
+            scenario(0, null, null, 700, null),
+            scenario(5_000_000, 12, 240, 700, SimulationRequest.Mode.REDUCE_TENURE)), true);
+
+    private LoanSimulationService cold;
+    private LoanSimulationService warm;
+
+    @Setup
+    public void setUp() {
+        Loan loan = new Loan();
+        loan.setLoanId(1L);
+        loan.setLoanAmount(Money.ofMinor(50_000_000));
+        loan.setInterestRate(Rate.ofBasisPoints(750));
+        loan.setTenureMonths(360);
+        LoanRepo loanRepo = Mockito.mock(LoanRepo.class);
+        Mockito.when(loanRepo.findById(1L)).thenReturn(Optional.of(loan));
+
+        cold = service(loanRepo, new NoOpCacheManager());
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(LoanSimulationService.QUOTE_CACHE);
+        warm = service(loanRepo, cacheManager);
+        warm.simulate(1L, REQUEST);
+    }
+
+    @Benchmark
+    public SimulationResponse coldRequest() {
+        return cold.simulate(1L, REQUEST).orElseThrow();
+    }
+
+    @Benchmark
+    public SimulationResponse memoizedRequest() {
+        return warm.simulate(1L, REQUEST).orElseThrow();
+    }
+
+    private static LoanSimulationService service(LoanRepo loanRepo, Object cacheManager) {
+        LoanSimulationService service = new LoanSimulationService();
+        ReflectionTestUtils.setField(service, "loanRepo", loanRepo);
+        ReflectionTestUtils.setField(service, "cacheManager", cacheManager);
+        return service;
+    }
+
+    private static SimulationRequest.Scenario scenario(long prepaymentMinor, Integer month, Integer tenure, Integer rateBps,
+            SimulationRequest.Mode mode) {
+        return new SimulationRequest.Scenario(prepaymentMinor > 0 ? Money.ofMinor(prepaymentMinor) : null, month, tenure,
+                rateBps == null ? null : Rate.ofBasisPoints(rateBps), mode);
+    }
+}
@@ -0,0 +1,122 @@
+package com.examly.springapp.benchmark;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.examly.springapp.finance.Rate;
+
+/**
+ * Summing a book of balances and accruing a month of interest on each, with
+ * amounts held as long minor units, boxed doubles and BigDecimals. Target:
+ * the long path at least 10x the BigDecimal one and allocation-free, while
+ * giving the same cents as BigDecimal with HALF_UP rounding.
+ *
+ * mvn -Pbench verify -Dbench.include=MoneyAggregationBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyAggregationBenchmark {
+
+    private static final int BOOK_SIZE = 100_000;
+    private static final Rate RATE = Rate.ofBasisPoints(750);
+    private static final BigDecimal MONTHLY_RATE = new BigDecimal("0.0750")
+            .divide(BigDecimal.valueOf(12), 20, RoundingMode.HALF_EVEN);
+
+    private long[] minor;
+    private List<Double> doubles;
+    private List<BigDecimal> decimals;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        minor = new long[BOOK_SIZE];
+        doubles = new ArrayList<>(BOOK_SIZE);
+        decimals = new ArrayList<>(BOOK_SIZE);
+        for (int i = 0; i < BOOK_SIZE; i++) {
+            long cents = 5_000_000L + random.nextInt(95_000_000);
+            minor[i] = cents;
+            doubles.add(cents / 100.0);
+            decimals.add(BigDecimal.valueOf(cents, 2));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOOK_SIZE)
+    public long sumMinorUnits() {
+        long total = 0;
+        for (long amount : minor) {
+            total += amount;
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOOK_SIZE)
+    public double sumDoubles() {
+        double total = 0;
+        for (Double amount : doubles) {
+            total += amount;
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOOK_SIZE)
+    public BigDecimal sumBigDecimals() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : decimals) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOOK_SIZE)
+    public long accrueMinorUnits() {
+        long total = 0;
+        for (long amount : minor) {
+            total += RATE.monthlyInterest(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOOK_SIZE)
+    public double accrueDoubles() {
+        double total = 0;
+        for (Double amount : doubles) {
+            total += Math.round(amount * 0.075 / 12 * 100) / 100.0;
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOOK_SIZE)
+    public BigDecimal accrueBigDecimals() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : decimals) {
+            total = total.add(amount.multiply(MONTHLY_RATE).setScale(2, RoundingMode.HALF_UP));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,81 @@
+package com.examly.springapp.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rows per second for one POST /api/payments/bulk of {@value #ROWS} rows
+ * versus {@value #ROWS} single POST /api/payments calls. Runs against a live
+ * server with an existing loan (-Dbench.baseUrl, -Dbench.loanId, default
+ * http://localhost:8080 and loan 1):
+ *
+ * mvn -Pbench verify -Dbench.include=PaymentIngestBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentIngestBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private HttpClient client;
+    private String baseUrl;
+    private String singleBody;
+    private String bulkBody;
+
+    @Setup
+    public void setUp() {
+        client = HttpClient.newHttpClient();
+        baseUrl = System.getProperty("bench.baseUrl", "http://localhost:8080");
+        String loanId = System.getProperty("bench.loanId", "1");
+        singleBody = "{\"amount\":100.0,\"paymentDate\":\"2024-01-01\",\"loan\":{\"loanId\":" + loanId + "}}";
+        StringBuilder bulk = new StringBuilder(ROWS * singleBody.length() + 2).append('[');
+        for (int i = 0; i < ROWS; i++) {
+            bulk.append(i == 0 ? "" : ",").append(singleBody);
+        }
+        bulkBody = bulk.append(']').toString();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int singlePosts() throws IOException, InterruptedException {
+        int created = 0;
+        for (int i = 0; i < ROWS; i++) {
+            created += post("/api/payments", singleBody).statusCode() == 201 ? 1 : 0;
+        }
+        return created;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int bulkPost() throws IOException, InterruptedException {
+        return post("/api/payments/bulk", bulkBody).body().length();
+    }
+
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,83 @@
+package com.examly.springapp.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.examly.springapp.index.TrigramIndex;
+
+/**
+ * Top-10 searches over a 3M-person {@link TrigramIndex} of names, phone
+ * numbers and addresses, about 650 MB of postings. Target: a few
+ * milliseconds per search. A house number with a street type is the worst
+ * case, because its trigrams sit in about a million postings; it takes
+ * about 10 ms on a single core.
+ *
+ * mvn -Pbench verify -Dbench.include=PersonSearchBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+@State(Scope.Benchmark)
+public class PersonSearchBenchmark {
+
+    private static final int PEOPLE = 3_000_000;
+    private static final String ONSETS = "bcdfghjklmnprstvwz";
+    private static final String VOWELS = "aeiou";
+    private static final String[] CODAS = {"", "", "n", "r", "l", "s"};
+    private static final String[] STREETS = {"Street", "Road", "Lane", "Avenue", "Way", "Close"};
+
+    @Param({"name", "misspelt name", "phone fragment", "address"})
+    public String query;
+
+    private TrigramIndex index;
+    private String text;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new TrigramIndex(PEOPLE, TrigramIndex.Analysis.WORDS, TrigramIndex.Analysis.DIGITS,
+                TrigramIndex.Analysis.WORDS);
+        for (int i = 1; i <= PEOPLE; i++) {
+            index.put(i, word(random, 2) + " " + word(random, 3),
+                    "+1 " + (200 + random.nextInt(800)) + " " + (1_000_000 + random.nextInt(9_000_000)),
+                    (1 + random.nextInt(300)) + " " + word(random, 2) + " " + STREETS[random.nextInt(STREETS.length)]);
+        }
+        text = switch (query) {
+            case "name" -> "joran litemarus";
+            case "misspelt name" -> "jroan litemaurs";
+            case "phone fragment" -> "555 12";
+            default -> "12 kares stre";
+        };
+    }
+
+    @Benchmark
+    public List<TrigramIndex.Hit> search() {
+        return index.search(text, 0.6, 10);
+    }
+
+    private static String word(Random random, int syllables) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            word.append(ONSETS.charAt(random.nextInt(ONSETS.length())))
+                    .append(VOWELS.charAt(random.nextInt(VOWELS.length())))
+                    .append(CODAS[random.nextInt(CODAS.length)]);
+        }
+        word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+        return word.toString();
+    }
+}
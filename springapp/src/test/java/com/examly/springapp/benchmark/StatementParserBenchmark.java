@@ -0,0 +1,110 @@
+package com.examly.springapp.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.examly.springapp.index.LongHashSet;
+import com.examly.springapp.ingest.StatementFormat;
+import com.examly.springapp.ingest.StatementParser;
+
+/**
+ * Parsing a settlement file and matching each row against a loan-id index,
+ * memory-mapped into a reused row versus the usual BufferedReader, split
+ * and BigDecimal. Target: a 1 GB file (about 25M rows like these) parsed
+ * and matched on one core in under 10 seconds, leaving the minutes of the
+ * reconciliation budget to the database, with the heap unaffected by the
+ * file size.
+ *
+ * mvn -Pbench verify -Dbench.include=StatementParserBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class StatementParserBenchmark {
+
+    private static final int ROWS = 1_000_000;
+    private static final int LOANS = 500_000;
+
+    private final StatementParser parser = new StatementParser();
+    private Path file;
+    private LongHashSet loans;
+    private long matched;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        loans = new LongHashSet(LOANS);
+        for (long id = 1; id <= LOANS; id++) {
+            loans.add(id);
+        }
+        file = Files.createTempFile("statement-bench-", ".csv");
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        try (Writer out = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < ROWS; i++) {
+                out.write("BANKTX" + (10_000_000 + i) + ",LN-" + (1 + random.nextInt(LOANS + LOANS / 10)) + ","
+                        + BigDecimal.valueOf(1_000 + random.nextInt(5_000_000), 2) + ","
+                        + day.plusDays(random.nextInt(28)) + "\n");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long mappedParse() throws IOException {
+        matched = 0;
+        parser.parse(file, StatementFormat.CSV, row -> {
+            if (row.error() == null && row.hasLoan() && loans.contains(row.loanId())) {
+                matched += row.amountMinor();
+            }
+        });
+        return matched;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long readerSplitParse() throws IOException {
+        long total = 0;
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.split(",");
+                long loanId = Long.parseLong(fields[1].substring(fields[1].indexOf('-') + 1));
+                BigDecimal amount = new BigDecimal(fields[2]);
+                LocalDate.parse(fields[3]);
+                if (loans.contains(loanId)) {
+                    total += amount.movePointRight(2).longValueExact();
+                }
+            }
+        }
+        return total;
+    }
+}
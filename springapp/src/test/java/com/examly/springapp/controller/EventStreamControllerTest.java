@@ -0,0 +1,186 @@
+package com.examly.springapp.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.examly.springapp.model.OutboxEvent;
+import com.examly.springapp.service.DashboardService;
+import com.examly.springapp.service.EventStreamService;
+
+class EventStreamControllerTest {
+
+    @Test
+    void streamsMatchingEventsAndReplaysAfterLastEventId() throws Exception {
+        EventStreamService service = service(16, "resync");
+        MockMvc mvc = mvc(service);
+
+        MvcResult payments = open(mvc, get("/api/stream/events").param("types", "payment_created"));
+        service.deliver(List.of(event(1, OutboxEvent.Type.LOAN_STATUS_CHANGED, "{\"loanId\":7}"),
+                event(2, OutboxEvent.Type.PAYMENT_CREATED, "{\"paymentId\":3}")));
+        String body = awaitBody(payments, b -> b.contains("id:2"));
+        assertTrue(body.contains("event:PAYMENT_CREATED\ndata:{\"paymentId\":3}"));
+        assertFalse(body.contains("LOAN_STATUS_CHANGED"));
+
+        MvcResult resumed = open(mvc, get("/api/stream/events").header("Last-Event-ID", "1"));
+        body = awaitBody(resumed, b -> b.contains("id:2"));
+        assertFalse(body.contains("id:1\n"));
+
+        MvcResult tooOld = open(mvc, get("/api/stream/events").header("Last-Event-ID", "99"));
+        awaitBody(tooOld, b -> b.contains("event:" + EventStreamService.RESYNC_EVENT));
+        assertEquals(3, service.getSubscriberCount());
+    }
+
+    @Test
+    void tailsTheOutboxAndPicksUpEventsThatCommitLate() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build());
+        jdbcTemplate.execute("CREATE TABLE outbox_events (id BIGINT PRIMARY KEY, aggregate_type VARCHAR(16), "
+                + "aggregate_id BIGINT, event_type VARCHAR(32), payload VARCHAR(255), created_at TIMESTAMP, "
+                + "dispatched_at TIMESTAMP)");
+        DashboardService dashboardService = mock(DashboardService.class);
+        EventStreamService service = service(16, "resync");
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "dashboardService", dashboardService);
+        service.poll();
+        MvcResult result = open(mvc(service), get("/api/stream/events"));
+
+        // Event 2 belongs to a transaction that has not committed yet.
+        insert(jdbcTemplate, 1);
+        insert(jdbcTemplate, 3);
+        service.poll();
+        awaitBody(result, b -> b.contains("id:3\n"));
+        insert(jdbcTemplate, 2);
+        service.poll();
+        service.deliver(List.of(event(3, OutboxEvent.Type.PAYMENT_CREATED, "{}")));
+        String body = awaitBody(result, b -> b.contains("id:2\n"));
+
+        assertEquals(1, body.split("id:3\n", -1).length - 1);
+        verify(dashboardService, times(2)).evictSummary();
+    }
+
+    @Test
+    void dropsRepeatedEvents() throws Exception {
+        EventStreamService service = service(16, "resync");
+        MvcResult result = open(mvc(service), get("/api/stream/events"));
+
+        service.deliver(List.of(event(1, OutboxEvent.Type.PAYMENT_CREATED, "{}"),
+                event(1, OutboxEvent.Type.PAYMENT_CREATED, "{}")));
+        service.deliver(List.of(event(1, OutboxEvent.Type.PAYMENT_CREATED, "{}"),
+                event(2, OutboxEvent.Type.PAYMENT_CREATED, "{}")));
+        String body = awaitBody(result, b -> b.contains("id:2\n"));
+
+        assertEquals(1, body.split("id:1\n", -1).length - 1);
+    }
+
+    @Test
+    void rejectsMalformedLastEventId() throws Exception {
+        mvc(service(16, "resync")).perform(get("/api/stream/events").header("Last-Event-ID", "abc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void overflowingSubscriberIsToldToResync() throws Exception {
+        EventStreamService service = service(2, "resync");
+        MvcResult result = open(mvc(service), get("/api/stream/events"));
+
+        service.deliver(List.of(event(1, OutboxEvent.Type.PAYMENT_CREATED, "{}"),
+                event(2, OutboxEvent.Type.PAYMENT_CREATED, "{}"),
+                event(3, OutboxEvent.Type.PAYMENT_CREATED, "{}")));
+        String body = awaitBody(result, b -> b.contains("event:" + EventStreamService.RESYNC_EVENT));
+
+        assertFalse(body.contains("id:1\n"));
+        assertFalse(body.contains("id:2\n"));
+        assertEquals(1, service.getSubscriberCount());
+    }
+
+    @Test
+    void overflowingSubscriberIsDisconnectedWhenConfigured() throws Exception {
+        EventStreamService service = service(2, "disconnect");
+        MvcResult result = open(mvc(service), get("/api/stream/events"));
+
+        service.deliver(List.of(event(1, OutboxEvent.Type.PAYMENT_CREATED, "{}"),
+                event(2, OutboxEvent.Type.PAYMENT_CREATED, "{}"),
+                event(3, OutboxEvent.Type.PAYMENT_CREATED, "{}")));
+        for (int i = 0; i < 100 && service.getSubscriberCount() > 0; i++) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(0, service.getSubscriberCount());
+        assertFalse(result.getResponse().getContentAsString().contains("id:"));
+    }
+
+    @Test
+    void refusesSubscribersOverTheLimit() throws Exception {
+        EventStreamService service = service(16, "resync", 1);
+        MockMvc mvc = mvc(service);
+
+        open(mvc, get("/api/stream/events"));
+        mvc.perform(get("/api/stream/events")).andExpect(status().isServiceUnavailable());
+    }
+
+    private static EventStreamService service(int bufferSize, String overflow) {
+        return service(bufferSize, overflow, 100);
+    }
+
+    private static EventStreamService service(int bufferSize, String overflow, int maxSubscribers) {
+        return new EventStreamService(new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class),
+                bufferSize, overflow, maxSubscribers, 60_000, 16, 1, 500, 60_000);
+    }
+
+    private static MockMvc mvc(EventStreamService service) {
+        EventStreamController controller = new EventStreamController();
+        ReflectionTestUtils.setField(controller, "eventStreamService", service);
+        return MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    private static MvcResult open(MockMvc mvc, RequestBuilder builder) throws Exception {
+        return mvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private static String awaitBody(MvcResult result, Predicate<String> done) throws Exception {
+        for (int i = 0; i < 100; i++) {
+            String body = result.getResponse().getContentAsString();
+            if (done.test(body)) {
+                return body;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Stream never matched: " + result.getResponse().getContentAsString());
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, long id) {
+        jdbcTemplate.update("INSERT INTO outbox_events (id, aggregate_type, aggregate_id, event_type, payload, "
+                + "created_at) VALUES (?, 'payment', 1, 'PAYMENT_CREATED', '{}', ?)", id, Timestamp.from(Instant.now()));
+    }
+
+    private static OutboxEvent event(long id, OutboxEvent.Type type, String payload) {
+        return new OutboxEvent(id, type, 1L, payload, Instant.now());
+    }
+}
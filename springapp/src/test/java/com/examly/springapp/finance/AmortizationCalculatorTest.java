@@ -0,0 +1,109 @@
+package com.examly.springapp.finance;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class AmortizationCalculatorTest {
+
+    private static final Rate SEVEN_AND_A_HALF = Rate.ofBasisPoints(750);
+
+    @Test
+    void instalmentMatchesClosedForm() {
+        assertEquals(402_797, AmortizationCalculator.instalment(50_000_000, SEVEN_AND_A_HALF, 240));
+        assertEquals(100_000, AmortizationCalculator.instalment(1_200_000, Rate.ofBasisPoints(0), 12));
+    }
+
+    @Test
+    void scheduleClosesAtZeroAndSumsExactlyToPrincipal() {
+        AmortizationSchedule schedule = AmortizationCalculator.schedule(Money.ofMinor(50_000_000), SEVEN_AND_A_HALF, 360);
+
+        long principalPaid = 0;
+        long interestPaid = 0;
+        long paid = 0;
+        for (int month = 0; month < schedule.getMonths(); month++) {
+            principalPaid += schedule.principalAt(month);
+            interestPaid += schedule.interestAt(month);
+            paid += schedule.paymentAt(month);
+        }
+        assertEquals(360, schedule.getMonths());
+        assertEquals(0, schedule.balanceAt(359));
+        assertEquals(50_000_000, principalPaid);
+        assertEquals(schedule.getTotalInterest(), interestPaid);
+        assertEquals(principalPaid + interestPaid, paid);
+    }
+
+    @Test
+    void fillReusesArraysForShorterTenures() {
+        AmortizationSchedule schedule = new AmortizationSchedule(360);
+        AmortizationCalculator.fill(50_000_000, SEVEN_AND_A_HALF, 360, schedule);
+
+        assertSame(schedule, AmortizationCalculator.fill(1_200_000, Rate.ofBasisPoints(0), 12, schedule));
+        assertEquals(12, schedule.getMonths());
+        assertEquals(0, schedule.balanceAt(11));
+    }
+
+    @Test
+    void prepaymentKeepingTheInstalmentClosesEarlyAndSavesInterest() {
+        AmortizationSchedule base = AmortizationCalculator.schedule(Money.ofMinor(50_000_000), SEVEN_AND_A_HALF, 240);
+        AmortizationSchedule prepaid = AmortizationCalculator.prepay(50_000_000, SEVEN_AND_A_HALF, 240,
+                10_000_000, 12, false, new AmortizationSchedule(240));
+
+        assertEquals(base.getInstalment(), prepaid.getInstalment());
+        assertEquals(base.paymentAt(11) + 10_000_000, prepaid.paymentAt(11));
+        assertTrue(prepaid.getMonths() < 240);
+        assertEquals(0, prepaid.balanceAt(prepaid.getMonths() - 1));
+        assertTrue(prepaid.getTotalInterest() < base.getTotalInterest());
+        assertEquals(50_000_000, principalPaid(prepaid));
+    }
+
+    @Test
+    void prepaymentKeepingTheTenureLowersTheInstalment() {
+        AmortizationSchedule base = AmortizationCalculator.schedule(Money.ofMinor(50_000_000), SEVEN_AND_A_HALF, 240);
+        AmortizationSchedule prepaid = AmortizationCalculator.prepay(50_000_000, SEVEN_AND_A_HALF, 240,
+                10_000_000, 12, true, new AmortizationSchedule(240));
+
+        assertEquals(240, prepaid.getMonths());
+        assertTrue(prepaid.getInstalment() < base.getInstalment());
+        assertEquals(prepaid.getInstalment(), prepaid.paymentAt(12));
+        assertEquals(0, prepaid.balanceAt(239));
+        assertEquals(50_000_000, principalPaid(prepaid));
+    }
+
+    @Test
+    void prepayingTheWholeBalanceEndsTheLoanThatMonth() {
+        AmortizationSchedule prepaid = AmortizationCalculator.prepay(1_200_000, SEVEN_AND_A_HALF, 12,
+                5_000_000, 3, false, new AmortizationSchedule(12));
+
+        assertEquals(3, prepaid.getMonths());
+        assertEquals(0, prepaid.balanceAt(2));
+        assertEquals(1_200_000, principalPaid(prepaid));
+    }
+
+    @Test
+    void remainingInstalmentSpreadsTheBalanceOverTheMonthsLeft() {
+        assertEquals(402_797, AmortizationCalculator.remainingInstalment(50_000_000, 0, SEVEN_AND_A_HALF, 240, 0));
+        assertEquals(AmortizationCalculator.instalment(50_000_000 - 12 * 402_797, SEVEN_AND_A_HALF, 228),
+                AmortizationCalculator.remainingInstalment(50_000_000, 12 * 402_797, SEVEN_AND_A_HALF, 240, 402_797));
+        assertEquals(1_000, AmortizationCalculator.remainingInstalment(1_200_000, 1_199_000, Rate.ofBasisPoints(0),
+                12, 100_000));
+        assertEquals(0, AmortizationCalculator.remainingInstalment(1_200_000, 1_200_000, SEVEN_AND_A_HALF, 12, 100_000));
+    }
+
+    @Test
+    void rejectsNonPositiveTenure() {
+        assertThrows(IllegalArgumentException.class,
+                () -> AmortizationCalculator.instalment(100_000, Rate.ofBasisPoints(500), 0));
+    }
+
+    private static long principalPaid(AmortizationSchedule schedule) {
+        long paid = 0;
+        for (int month = 0; month < schedule.getMonths(); month++) {
+            paid += schedule.principalAt(month);
+        }
+        return paid;
+    }
+}
@@ -0,0 +1,54 @@
+package com.examly.springapp.finance;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void tenthsAddUpExactly() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < 10; i++) {
+            total = total.plus(Money.parse("0.10"));
+        }
+        assertEquals(Money.parse("1.00"), total);
+    }
+
+    @Test
+    void formatsMinorUnits() {
+        assertEquals("500000.00", Money.format(50_000_000));
+        assertEquals("0.05", Money.format(5));
+        assertEquals("-12.30", Money.format(-1230));
+    }
+
+    @Test
+    void rejectsFractionsOfACent() {
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("1.005")));
+    }
+
+    @Test
+    void roundTripsThroughJsonAsADecimalNumber() throws Exception {
+        assertEquals("1234.50", objectMapper.writeValueAsString(Money.ofMinor(123_450)));
+        assertEquals(Money.ofMinor(123_450), objectMapper.readValue("1234.5", Money.class));
+        assertEquals(Money.ofMinor(500), objectMapper.readValue("5", Money.class));
+        assertEquals(Money.ofMinor(199), objectMapper.readValue("\"1.99\"", Money.class));
+    }
+
+    @Test
+    void rateConvertsPercentToBasisPointsAndRoundsInterestHalfUp() throws Exception {
+        Rate rate = objectMapper.readValue("7.25", Rate.class);
+        assertEquals(725, rate.basisPoints());
+        assertEquals("7.25", objectMapper.writeValueAsString(rate));
+        // 1,000.00 at 7.25% a year is 6.041666... a month
+        assertEquals(604, rate.monthlyInterest(100_000));
+        assertEquals(625, Rate.ofBasisPoints(750).monthlyInterest(100_000));
+    }
+}
@@ -0,0 +1,49 @@
+package com.examly.springapp.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class AfterCommitReadModelTest {
+
+    @Test
+    void replaysChangesMadeWhileABuildRuns() {
+        AfterCommitReadModel<List<String>> model = new AfterCommitReadModel<>("test model");
+        model.afterCommit(list -> list.add("before any build"));
+        assertNull(model.get());
+
+        List<String> built = model.rebuild(() -> {
+            List<String> loaded = new ArrayList<>(List.of("loaded"));
+            model.afterCommit(list -> list.add("during the build"));
+            assertEquals(List.of("loaded"), loaded);
+            return loaded;
+        });
+        model.afterCommit(list -> list.add("after the build"));
+
+        assertSame(built, model.get());
+        assertEquals(List.of("loaded", "during the build", "after the build"), built);
+    }
+
+    @Test
+    void keepsThePreviousModelWhenABuildFails() {
+        AfterCommitReadModel<List<String>> model = new AfterCommitReadModel<>("test model");
+        List<String> first = model.rebuild(ArrayList::new);
+
+        assertThrows(IllegalStateException.class, () -> model.rebuild(() -> {
+            throw new IllegalStateException("database down");
+        }));
+        model.afterCommit(list -> list.add("after the failure"));
+        model.afterCommit(list -> {
+            throw new IllegalArgumentException("a bad change is only logged");
+        });
+
+        assertSame(first, model.get());
+        assertEquals(List.of("after the failure"), first);
+    }
+}
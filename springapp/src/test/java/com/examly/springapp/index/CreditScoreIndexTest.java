@@ -0,0 +1,38 @@
+package com.examly.springapp.index;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CreditScoreIndexTest {
+
+    @Test
+    void countsInclusiveRanges() {
+        CreditScoreIndex index = new CreditScoreIndex();
+        index.load(List.of(new Object[] {1L, 600.0}, new Object[] {2L, 700.0}, new Object[] {3L, 700.0},
+                new Object[] {4L, 820.0}).iterator());
+
+        assertEquals(4, index.count(0, 1000));
+        assertEquals(2, index.count(700, 700));
+        assertEquals(3, index.count(650, 820));
+        assertEquals(0, index.count(900, 1000));
+    }
+
+    @Test
+    void putMovesAndRemovesEntries() {
+        CreditScoreIndex index = new CreditScoreIndex();
+        for (long id = 1; id <= 40; id++) {
+            index.put(id, (double) (id % 5) * 100);
+        }
+        index.put(7L, 950.0);
+        index.put(8L, null);
+        index.remove(9L);
+
+        assertEquals(38, index.size());
+        assertEquals(1, index.count(900, 1000));
+        assertArrayEquals(new long[] {7L, 39L, 34L}, index.topIds(3));
+    }
+}
@@ -0,0 +1,161 @@
+package com.examly.springapp.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+class LoanBookTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterAll
+    static void shutdown() {
+        POOL.shutdown();
+    }
+
+    @Test
+    void groupsByStatusTypeAndScoreBand() {
+        LoanBook book = new LoanBook(0);
+        book.put(row(1, 0, 100_000, 1000, 12, 0, 7, 1, 610));
+        book.put(row(2, 0, 300_000, 800, 24, 0, 7, 2, 720));
+        book.put(row(3, 0, 50_000, LoanBook.NO_VALUE, 6, 3, 0, 1, Double.NaN));
+        book.put(row(4, 0, LoanBook.NO_AMOUNT, 900, LoanBook.NO_VALUE, LoanBook.NO_STATUS, 9, 0, Double.NaN));
+
+        LoanBook.Result byStatus = book.aggregate(query(LoanBook.Dimension.STATUS, null, null), POOL);
+        assertEquals(4, byStatus.loans());
+        assertEquals(Arrays.asList(null, 0L, 3L), keys(byStatus));
+        LoanBook.Group pending = byStatus.groups().get(1);
+        assertEquals(2, pending.loans());
+        assertEquals(400_000, pending.amountMinor());
+        assertEquals((100_000 * 1000.0 + 300_000 * 800.0) / 400_000, pending.weightedRateBps(), 1e-9);
+        assertEquals(18.0, pending.averageTenureMonths(), 1e-9);
+        assertNull(byStatus.groups().get(0).weightedRateBps());
+        assertNull(byStatus.groups().get(2).weightedRateBps());
+
+        assertEquals(Arrays.asList(null, 7L, 9L), keys(book.aggregate(query(LoanBook.Dimension.LOAN_TYPE, null, null), POOL)));
+
+        // Customer 1 keeps the score given with loan 1; loan 3 only named them.
+        LoanBook.Result bands = book.aggregate(query(LoanBook.Dimension.SCORE_BAND, null, null), POOL);
+        assertEquals(Arrays.asList(null, 6L, 7L), keys(bands));
+        assertEquals(2, bands.groups().get(1).loans());
+
+        book.setCustomerScore(1, 750);
+        assertEquals(Arrays.asList(null, 7L), keys(book.aggregate(query(LoanBook.Dimension.SCORE_BAND, null, null), POOL)));
+        assertFalse(book.setCustomerScore(3, 500));
+
+        LoanBook.Result filtered = book.aggregate(query(LoanBook.Dimension.STATUS, (byte) 0, 7L), POOL);
+        assertEquals(2, filtered.loans());
+        assertEquals(0, book.aggregate(query(LoanBook.Dimension.STATUS, null, 42L), POOL).loans());
+    }
+
+    @Test
+    void ignoresStaleVersionsAndKeepsDeletedLoansDeleted() {
+        LoanBook book = new LoanBook(0);
+        assertTrue(book.put(row(5, 1, 100, 500, 12, 0, 0, 0, Double.NaN)));
+        assertFalse(book.put(row(5, 0, 999, 500, 12, 0, 0, 0, Double.NaN)));
+        assertTrue(book.put(row(3, 0, 10, 500, 12, 0, 0, 0, Double.NaN)));
+        assertTrue(book.put(row(5, 2, 200, 500, 12, 1, 0, 0, Double.NaN)));
+
+        assertTrue(book.remove(3));
+        assertFalse(book.put(row(3, 4, 10, 500, 12, 0, 0, 0, Double.NaN)));
+        assertTrue(book.remove(8));
+        assertFalse(book.put(row(8, 0, 10, 500, 12, 0, 0, 0, Double.NaN)));
+
+        LoanBook.Result result = book.aggregate(query(LoanBook.Dimension.STATUS, null, null), POOL);
+        assertEquals(1, book.size());
+        assertEquals(1, result.loans());
+        assertEquals(200, result.groups().get(0).amountMinor());
+    }
+
+    @Test
+    void parallelScanMatchesExactTotalsAndPercentiles() {
+        int loans = 300_000;
+        Random random = new Random(42);
+        LoanBook book = new LoanBook(loans);
+        long[] amounts = new long[loans];
+        long total = 0;
+        for (int i = 0; i < loans; i++) {
+            amounts[i] = 1_000 + (long) (random.nextDouble() * random.nextDouble() * 50_000_000);
+            total += amounts[i];
+            book.put(row(i + 1, 0, amounts[i], 700 + i % 300, 12 + i % 48, 3, 1 + i % 5, 1 + i % 1000,
+                    300 + (i % 1000) * 0.6));
+        }
+        for (int i = 0; i < loans; i += 3) {
+            book.remove(i + 1);
+            total -= amounts[i];
+        }
+
+        LoanBook.Result result = book.aggregate(new LoanBook.Query(LoanBook.Dimension.SCORE_BAND, 50, null, null,
+                new double[] {0.5, 0.99}), POOL);
+        assertEquals(book.size(), result.loans());
+        assertEquals(total, result.groups().stream().mapToLong(LoanBook.Group::amountMinor).sum());
+        assertEquals(12, result.groups().size());
+
+        long[] live = new long[book.size()];
+        int count = 0;
+        for (int i = 0; i < loans; i++) {
+            if (i % 3 != 0) {
+                live[count++] = amounts[i];
+            }
+        }
+        Arrays.sort(live);
+        LoanBook.Result all = book.aggregate(new LoanBook.Query(LoanBook.Dimension.STATUS, 0, null, null,
+                new double[] {0.5, 0.99}), POOL);
+        long[] percentiles = all.groups().get(0).amountPercentiles();
+        assertEquals(live[(int) Math.ceil(0.5 * count) - 1], percentiles[0], live[count / 2] * 0.04);
+        assertEquals(live[(int) Math.ceil(0.99 * count) - 1], percentiles[1], live[count * 99 / 100] * 0.04);
+    }
+
+    @Test
+    void rejectsBandWidthsGivingTooManyBands() {
+        LoanBook book = new LoanBook(0);
+        book.put(row(1, 0, 100, 500, 12, 0, 0, 1, 300));
+        book.put(row(2, 0, 100, 500, 12, 0, 0, 2, 900));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> book.aggregate(new LoanBook.Query(LoanBook.Dimension.SCORE_BAND, 0.1, null, null, null), POOL));
+        assertThrows(IllegalArgumentException.class,
+                () -> book.aggregate(new LoanBook.Query(LoanBook.Dimension.SCORE_BAND, 0, null, null, null), POOL));
+    }
+
+    @Test
+    void histogramBucketsStayWithinThreePercent() {
+        for (long amount : new long[] {0, 1, 63, 64, 65, 1_000, 123_456, 99_999_999_999L, Long.MAX_VALUE / 2}) {
+            long midpoint = LoanBook.midpointOf(LoanBook.bucketOf(amount));
+            assertTrue(Math.abs(midpoint - amount) <= amount / 32.0, amount + " -> " + midpoint);
+        }
+    }
+
+    private static LoanBook.Query query(LoanBook.Dimension groupBy, Byte status, Long loanTypeId) {
+        return new LoanBook.Query(groupBy, 100, status, loanTypeId, null);
+    }
+
+    private static List<Long> keys(LoanBook.Result result) {
+        return result.groups().stream().map(LoanBook.Group::key).toList();
+    }
+
+    private static LoanBook.Row row(long id, long version, long amount, int rate, int tenure, int status,
+                                    long loanTypeId, long customerId, double score) {
+        LoanBook.Row row = new LoanBook.Row();
+        row.id = id;
+        row.version = version;
+        row.amountMinor = amount;
+        row.rateBps = rate;
+        row.tenureMonths = tenure;
+        row.status = (byte) status;
+        row.loanTypeId = loanTypeId;
+        row.customerId = customerId;
+        row.customerScore = score;
+        return row;
+    }
+}
@@ -0,0 +1,159 @@
+package com.examly.springapp.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TrigramIndexTest {
+
+    private static final TrigramIndex.Analysis[] FIELDS = {
+            TrigramIndex.Analysis.WORDS, TrigramIndex.Analysis.DIGITS, TrigramIndex.Analysis.WORDS};
+
+    @Test
+    void ranksNamesPhonesAndAddresses() {
+        TrigramIndex index = new TrigramIndex(0, FIELDS);
+        index.put(1, "John Smith", "+1 (555) 123-4567", "12 Baker Street, London");
+        index.put(2, "Johnathan Smithers", "555 987 6543", "4 Mill Lane");
+        index.put(3, "José Álvarez", null, "Calle Mayor 5, Madrid");
+        index.put(4, "Mary Jones", "0207 946 0000", "221B Baker Street");
+
+        assertEquals(List.of(1L, 2L), ids(index.search("john smith", 0.6, 10)));
+        // The last word is a prefix that may still be being typed.
+        assertEquals(List.of(2L), ids(index.search("johnathan smi", 0.6, 10)));
+        assertEquals(List.of(3L), ids(index.search("jose alvarez", 0.6, 10)));
+        TrigramIndex.Hit phone = index.search("555-1234", 0.6, 10).get(0);
+        assertEquals(1, phone.id());
+        assertEquals(1, phone.field());
+        assertEquals(List.of(4L, 1L), ids(index.search("221 baker street", 0.6, 10)));
+        assertEquals(2, index.search("baker street", 0.6, 10).get(0).field());
+        // A transposition still shares most trigrams with the name.
+        assertEquals(1, index.search("jonh smith", 0.5, 10).get(0).id());
+        assertEquals(List.of(1L), ids(index.search("john smith", 0.6, 1)));
+        assertEquals(List.of(), index.search("x", 0.6, 10));
+        assertThrows(IllegalArgumentException.class, () -> index.search("john", 0, 10));
+    }
+
+    @Test
+    void followsUpdatesAndRemovals() {
+        TrigramIndex index = new TrigramIndex(0, FIELDS);
+        index.put(1, "Alice Walker", null, null);
+        index.put(2, "Bob Walker", null, null);
+        index.put(1, "Alice Hunter", null, null);
+        index.remove(2);
+
+        assertEquals(List.of(), index.search("walker", 0.6, 10));
+        assertEquals(List.of(1L), ids(index.search("alice hunter", 0.6, 10)));
+        assertEquals(1, index.size());
+        index.remove(1);
+        index.remove(1);
+        assertEquals(0, index.size());
+        assertThrows(IllegalArgumentException.class, () -> index.put(3, "Only a name"));
+    }
+
+    @Test
+    void matchesABruteForceScanThroughCompactions() {
+        String[] first = {"anna", "anne", "john", "joan", "maria", "mario", "peter", "petra", "li", "lee"};
+        String[] last = {"smith", "smyth", "jones", "johnson", "garcia", "garza", "nguyen", "ng", "brown", "browne"};
+        String[] streets = {"baker street", "bakery road", "mill lane", "miller way", "high street", "station road"};
+        Random random = new Random(7);
+        TrigramIndex index = new TrigramIndex(0, FIELDS);
+        Map<Long, String[]> live = new HashMap<>();
+        for (int step = 0; step < 40_000; step++) {
+            long id = 1 + random.nextInt(6_000);
+            if (random.nextInt(5) == 0) {
+                index.remove(id);
+                live.remove(id);
+            } else {
+                String[] texts = {
+                        first[random.nextInt(first.length)] + " " + last[random.nextInt(last.length)],
+                        random.nextInt(4) == 0 ? null : String.valueOf(5_550_000 + random.nextInt(10_000)),
+                        random.nextInt(200) + " " + streets[random.nextInt(streets.length)]};
+                index.put(id, texts);
+                live.put(id, texts);
+            }
+        }
+        assertEquals(live.size(), index.size());
+
+        for (String query : new String[] {"john smith", "joan smyth", "maria garc", "li ng", "5551",
+                "555 12", "baker st", "12 mill lane", "petra browne", "anne johnson 3 high street"}) {
+            for (double minMatch : new double[] {0.3, 0.6, 1.0}) {
+                List<TrigramIndex.Hit> expected = bruteForce(live, query, minMatch, 25);
+                List<TrigramIndex.Hit> actual = index.search(query, minMatch, 25);
+                assertEquals(expected, actual, query + " at " + minMatch);
+            }
+        }
+        assertTrue(index.sizeInBytes() > 0);
+    }
+
+    @Test
+    void keepsWritesMadeWhileACompactionRuns() {
+        List<Runnable> compactions = new ArrayList<>();
+        TrigramIndex index = new TrigramIndex(compactions::add, 0, FIELDS);
+        for (long id = 1; id <= 2_000; id++) {
+            index.put(id, "Person " + id, null, "Street " + id);
+        }
+        for (long id = 1; id <= 1_500; id++) {
+            index.remove(id);
+        }
+        assertEquals(1, compactions.size());
+        index.remove(1_600);
+        index.put(1_700, "Alice Hunter", null, null);
+        index.put(3_000, "Bob Walker", null, null);
+        long before = index.sizeInBytes();
+
+        compactions.get(0).run();
+
+        assertEquals(500, index.size());
+        assertEquals(List.of(1_700L), ids(index.search("alice hunter", 0.6, 10)));
+        assertEquals(List.of(3_000L), ids(index.search("bob walker", 0.6, 10)));
+        assertEquals(List.of(), index.search("person 1600", 1.0, 10));
+        assertEquals(List.of(1_999L), ids(index.search("person 1999", 1.0, 10)));
+        // The removed documents and their ids are gone from the compacted copy.
+        assertTrue(index.sizeInBytes() < before);
+        index.put(1, "Person 1 again", null, null);
+        assertEquals(List.of(1L), ids(index.search("person 1 again", 1.0, 10)));
+    }
+
+    private static List<TrigramIndex.Hit> bruteForce(Map<Long, String[]> live, String query, double minMatch,
+                                                     int limit) {
+        long[] wanted = TrigramIndex.queryTrigrams(query);
+        int needed = Math.max(1, (int) Math.ceil(minMatch * wanted.length - 1e-9));
+        List<TrigramIndex.Hit> hits = new ArrayList<>();
+        live.forEach((id, texts) -> {
+            TrigramIndex.Hit best = null;
+            for (int f = 0; f < FIELDS.length; f++) {
+                long[] field = TrigramIndex.trigrams(texts[f], FIELDS[f], false);
+                int matched = 0;
+                for (long trigram : wanted) {
+                    matched += Arrays.binarySearch(field, trigram) >= 0 ? 1 : 0;
+                }
+                double similarity = matched / (double) (wanted.length + field.length - matched);
+                if (matched >= needed && (best == null || matched > best.matched()
+                        || matched == best.matched() && similarity > best.similarity())) {
+                    best = new TrigramIndex.Hit(id, f, matched, similarity);
+                }
+            }
+            if (best != null) {
+                hits.add(best);
+            }
+        });
+        hits.sort(Comparator.comparingInt(TrigramIndex.Hit::matched).reversed()
+                .thenComparing(Comparator.comparingDouble(TrigramIndex.Hit::similarity).reversed())
+                .thenComparingLong(TrigramIndex.Hit::id));
+        return hits.subList(0, Math.min(limit, hits.size()));
+    }
+
+    private static List<Long> ids(List<TrigramIndex.Hit> hits) {
+        return hits.stream().map(TrigramIndex.Hit::id).toList();
+    }
+}
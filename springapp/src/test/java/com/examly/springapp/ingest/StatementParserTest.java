@@ -0,0 +1,105 @@
+package com.examly.springapp.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StatementParserTest {
+
+    /** What a handler would copy out of the reused row. */
+    private record Parsed(long line, String reference, Long loanId, long amountMinor, Date date, String error) {
+    }
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void parsesCsvRowsWithHeaderPrefixesAndCrLf() throws IOException {
+        Path file = write("reference,loan,amount,date\r\n"
+                + "TX-1,42,1250.5,2024-03-01\r\n"
+                + "\r\n"
+                + " TX-2 , LN-000043 , 99 \r\n"
+                + "TX-3,,10.00,2024-03-02\r\n"
+                + "TX-4,44,1.234,2024-03-02\r\n"
+                + "TX-5,45,10.00,2024-02-30\r\n"
+                + "TX-6,46");
+
+        List<Parsed> rows = new ArrayList<>();
+        long lines = new StatementParser().parse(file, StatementFormat.CSV, row -> rows.add(copy(row)));
+
+        assertEquals(8, lines);
+        assertEquals(List.of(
+                new Parsed(2, "TX-1", 42L, 125_050, Date.valueOf("2024-03-01"), null),
+                new Parsed(4, "TX-2", 43L, 9_900, null, null),
+                new Parsed(5, "TX-3", null, 1_000, Date.valueOf("2024-03-02"), null),
+                new Parsed(6, "TX-4", null, 0, null, "Amount must be a number with at most two decimals"),
+                new Parsed(7, "TX-5", null, 1_000, null, "Date is not a valid calendar date"),
+                new Parsed(8, null, null, 0, null, "Expected reference, loan and amount fields")), rows);
+    }
+
+    @Test
+    void parsesFixedWidthRows() throws IOException {
+        Path file = write(String.format("%-20s%12s%15s%s%n%-20s%12s%15s%n",
+                "BANK-REF-1", "LOAN7", "2500.75", "20240301",
+                "BANK-REF-2", "8", "-3"));
+
+        List<Parsed> rows = new ArrayList<>();
+        new StatementParser().parse(file, StatementFormat.FIXED_WIDTH, row -> rows.add(copy(row)));
+
+        assertEquals(List.of(
+                new Parsed(1, "BANK-REF-1", 7L, 250_075, Date.valueOf("2024-03-01"), null),
+                new Parsed(2, "BANK-REF-2", 8L, -300, null, null)), rows);
+    }
+
+    @Test
+    void carriesLinesAcrossMappingWindows() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 1; i <= 1_000; i++) {
+            csv.append("TX-").append(i).append(',').append(i).append(',').append(i).append(".01\n");
+        }
+        Path file = write(csv.toString());
+
+        List<Parsed> rows = new ArrayList<>();
+        long lines = new StatementParser(64).parse(file, StatementFormat.CSV, row -> rows.add(copy(row)));
+
+        assertEquals(1_000, lines);
+        assertEquals(1_000, rows.size());
+        for (int i = 1; i <= 1_000; i++) {
+            Parsed row = rows.get(i - 1);
+            assertEquals("TX-" + i, row.reference());
+            assertEquals(i, row.loanId());
+            assertEquals(i * 100L + 1, row.amountMinor());
+            assertNull(row.error());
+        }
+        assertFalse(rows.stream().anyMatch(row -> row.line() == 0));
+    }
+
+    @Test
+    void rejectsLinesLongerThanTheWindow() throws IOException {
+        Path file = write("TX-1,1,1.00\n" + "X".repeat(100) + ",1,1.00\n");
+
+        assertThrows(IOException.class, () -> new StatementParser(64).parse(file, StatementFormat.CSV, row -> { }));
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.write(dir.resolve("statement.csv"), content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static Parsed copy(StatementRow row) {
+        return new Parsed(row.line(), row.hasReference() ? row.reference() : null,
+                row.error() == null && row.hasLoan() ? row.loanId() : null,
+                row.amountMinor(), row.error() == null ? row.date() : null, row.error());
+    }
+}
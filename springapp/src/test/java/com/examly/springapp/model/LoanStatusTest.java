@@ -0,0 +1,38 @@
+package com.examly.springapp.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.EnumSet;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+class LoanStatusTest {
+
+    @Test
+    void followsLifecycle() {
+        assertTrue(LoanStatus.PENDING.canTransitionTo(LoanStatus.APPROVED));
+        assertTrue(LoanStatus.APPROVED.canTransitionTo(LoanStatus.DISBURSED));
+        assertTrue(LoanStatus.DISBURSED.canTransitionTo(LoanStatus.DEFAULTED));
+        assertTrue(LoanStatus.DISBURSED.canTransitionTo(LoanStatus.CLOSED));
+        assertTrue(LoanStatus.CLOSED.canTransitionTo(LoanStatus.CLOSED));
+
+        assertFalse(LoanStatus.PENDING.canTransitionTo(LoanStatus.DISBURSED));
+        assertFalse(LoanStatus.CLOSED.canTransitionTo(LoanStatus.APPROVED));
+        assertFalse(LoanStatus.REJECTED.canTransitionTo(LoanStatus.PENDING));
+    }
+
+    @Test
+    void sourcesOfIncludesTargetItself() {
+        assertEquals(EnumSet.of(LoanStatus.APPROVED, LoanStatus.DISBURSED), LoanStatus.sourcesOf(LoanStatus.DISBURSED));
+    }
+
+    @Test
+    void parsesAppliedAsPending() {
+        assertEquals(Optional.of(LoanStatus.PENDING), LoanStatus.parse("applied"));
+        assertEquals(Optional.of(LoanStatus.APPROVED), LoanStatus.parse("APPROVED"));
+        assertEquals(Optional.empty(), LoanStatus.parse("UNKNOWN"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.examly.springapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.examly.springapp.dto.BulkPaymentResult;
+import com.examly.springapp.dto.BulkPaymentResult.Status;
+import com.examly.springapp.model.Payment;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Feeds NDJSON uploads with bad rows through the same reader the endpoint
+ * uses and checks that every row read gets a result and that the payments
+ * stored are exactly the rows reported as created.
+ */
+@H2ServiceTest(properties = "payments.bulk.chunk-size=2")
+@Import(BulkPaymentService.class)
+class BulkPaymentServiceTest {
+
+    @Autowired
+    private BulkPaymentService bulkPaymentService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long loanId;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM outbox_events");
+        jdbcTemplate.update("DELETE FROM payment_daily_totals");
+        jdbcTemplate.update("DELETE FROM payments");
+        jdbcTemplate.update("DELETE FROM loans");
+        jdbcTemplate.update("INSERT INTO loans (loan_amount_minor, status, version) VALUES (100000, 'DISBURSED', 0)");
+        loanId = jdbcTemplate.queryForObject("SELECT MAX(loan_id) FROM loans", Long.class);
+    }
+
+    @Test
+    void rejectsRowsThatDoNotBindAndKeepsGoing() throws Exception {
+        BulkPaymentResult result = upload(payment(10) + "\n"
+                + "{\"amount\": \"ten\", \"loan\": {\"loanId\": " + loanId + "}}\n"
+                + payment(20) + "\n"
+                + "{\"amount\": 5.00}\n"
+                + payment(30) + "\n");
+
+        assertNull(result.stoppedBy());
+        assertEquals(5, result.received());
+        assertEquals(3, result.created());
+        assertEquals(2, result.rejected());
+        assertEquals(List.of(Status.CREATED, Status.REJECTED, Status.CREATED, Status.REJECTED, Status.CREATED),
+                result.rows().stream().map(BulkPaymentResult.Row::status).toList());
+        assertTrue(result.rows().get(1).error().startsWith("Unreadable payment"));
+        assertEquals("Loan id is required", result.rows().get(3).error());
+        assertEquals(6000, storedMinor());
+    }
+
+    @Test
+    void reportsWhereMalformedInputStoppedTheUpload() throws Exception {
+        BulkPaymentResult result = upload(payment(10) + "\n" + payment(20) + "\n" + payment(30) + "\n"
+                + "{\"amount\": 40.00, \"loan\": {\"loanId\": " + loanId + "\n"
+                + payment(50) + "\n");
+
+        assertNotNull(result.stoppedBy());
+        // The broken row is rejected and reading stops after it; the rows before it, including a
+        // chunk already committed, are all applied and reported.
+        assertTrue(result.stoppedBy().startsWith("Could not read row 4"), result.stoppedBy());
+        assertEquals(4, result.received());
+        assertEquals(3, result.created());
+        assertEquals(Status.REJECTED, result.rows().get(3).status());
+        assertEquals(6000, storedMinor());
+    }
+
+    private BulkPaymentResult upload(String body) throws Exception {
+        try (MappingIterator<Payment> payments = objectMapper.readerFor(Payment.class).readValues(body)) {
+            return bulkPaymentService.addPayments(payments);
+        }
+    }
+
+    private String payment(int amount) {
+        return "{\"amount\": " + amount + ".00, \"loan\": {\"loanId\": " + loanId + "}}";
+    }
+
+    private long storedMinor() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(amount_minor), 0) FROM payments", Long.class);
+    }
+}
@@ -0,0 +1,76 @@
+package com.examly.springapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.examly.springapp.model.Customer;
+
+/**
+ * Checks that a lookup by email racing an update cannot leave the old row
+ * in the cache once the update commits.
+ */
+@H2ServiceTest
+@Import({ CustomerService.class, CustomerEmailCacheTest.CachingConfig.class })
+class CustomerEmailCacheTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TestConfiguration
+    @EnableCaching
+    static class CachingConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(CustomerService.BY_EMAIL_CACHE, CustomerService.JSON_BY_EMAIL_CACHE);
+        }
+    }
+
+    @BeforeEach
+    void clean() {
+        jdbcTemplate.update("DELETE FROM customers");
+    }
+
+    @Test
+    void aLookupDuringAnUpdateDoesNotKeepTheOldRow() throws Exception {
+        Customer customer = customerService.addCustomer(customer("Ann Old"));
+        assertEquals("Ann Old", customerService.getCustomerByEmail("ann@example.com").orElseThrow().getCustomerName());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+            customerService.updateCustomer(customer.getCustomerId(), customer("Ann New"));
+            // Another request reads the committed, old row and caches it before this one commits.
+            String seen = CompletableFuture.supplyAsync(() ->
+                    customerService.getCustomerByEmail("ann@example.com").orElseThrow().getCustomerName()).join();
+            assertEquals("Ann Old", seen);
+        });
+
+        assertEquals("Ann New", customerService.getCustomerByEmail("ann@example.com").orElseThrow().getCustomerName());
+    }
+
+    private static Customer customer(String name) {
+        Customer customer = new Customer();
+        customer.setCustomerName(name);
+        customer.setEmail("ann@example.com");
+        return customer;
+    }
+}
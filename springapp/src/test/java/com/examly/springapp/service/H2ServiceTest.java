@@ -0,0 +1,40 @@
+package com.examly.springapp.service;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.annotation.AliasFor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * A {@link DataJpaTest} of services against an in-memory H2 database of its
+ * own, set up by the {@code h2test} profile. The services' shared
+ * collaborators come from {@link ServiceTestConfiguration}, so a test only
+ * imports the services it exercises. Tests run outside a test transaction,
+ * so the services commit, and run their after-commit work, as they do in
+ * production.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(ServiceTestConfiguration.class)
+public @interface H2ServiceTest {
+
+    /** Properties for this test on top of the {@code h2test} profile. */
+    @AliasFor(annotation = DataJpaTest.class)
+    String[] properties() default {};
+}
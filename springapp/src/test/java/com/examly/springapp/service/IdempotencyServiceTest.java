@@ -0,0 +1,146 @@
+package com.examly.springapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.examly.springapp.exception.ConflictException;
+import com.examly.springapp.repository.IdempotencyRecordRepo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@H2ServiceTest
+@Import(IdempotencyService.class)
+class IdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordRepo idempotencyRecordRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentDuplicatesRunTheWriteOnce() throws Exception {
+        AtomicInteger writes = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        Future<?>[] calls = new Future<?>[16];
+        for (int i = 0; i < calls.length; i++) {
+            calls[i] = pool.submit(() -> {
+                start.await();
+                return idempotencyService.execute("POST /test", "dup", Map.of("amount", 10), HttpStatus.CREATED, () -> {
+                    sleep(100);
+                    return Map.of("id", writes.incrementAndGet());
+                });
+            });
+        }
+        start.countDown();
+        byte[] expected = objectMapper.writeValueAsBytes(Map.of("id", 1));
+        for (Future<?> call : calls) {
+            ResponseEntity<?> response = (ResponseEntity<?>) call.get(30, TimeUnit.SECONDS);
+            assertEquals(HttpStatus.CREATED, response.getStatusCode());
+            Object body = response.getBody();
+            assertArrayEquals(expected, body instanceof byte[] bytes ? bytes : objectMapper.writeValueAsBytes(body));
+        }
+        pool.shutdown();
+
+        assertEquals(1, writes.get());
+        assertTrue(idempotencyRecordRepo.existsById("POST /test dup"));
+    }
+
+    @Test
+    void failedWriteReleasesTheKey() {
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("POST /test", "retry",
+                Map.of("amount", 5), HttpStatus.CREATED, () -> {
+                    throw new IllegalStateException("boom");
+                }));
+
+        ResponseEntity<?> retried = idempotencyService.execute("POST /test", "retry", Map.of("amount", 5),
+                HttpStatus.CREATED, () -> Map.of("id", 7));
+        assertEquals(Map.of("id", 7), retried.getBody());
+        assertTrue(idempotencyRecordRepo.existsById("POST /test retry"));
+    }
+
+    @Test
+    void rejectsKeyReuseWithDifferentBody() {
+        idempotencyService.execute("POST /test", "reuse", Map.of("amount", 1), HttpStatus.CREATED, () -> Map.of("id", 1));
+
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.execute("POST /test", "reuse",
+                Map.of("amount", 2), HttpStatus.CREATED, () -> Map.of("id", 2)));
+    }
+
+    @Test
+    void writeIsRolledBackWhenItsResponseCannotBeStored() {
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("POST /test", "unstorable",
+                Map.of("amount", 3), HttpStatus.CREATED, () -> {
+                    insertMarker("unstorable");
+                    return new Object();
+                }));
+
+        assertEquals(0, markers("unstorable"));
+        assertFalse(idempotencyRecordRepo.existsById("POST /test unstorable"));
+    }
+
+    @Test
+    void writeIsRolledBackWhenItsClaimWasTakenOver() {
+        TransactionTemplate other = new TransactionTemplate(transactionManager);
+        other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        assertThrows(ConflictException.class, () -> idempotencyService.execute("POST /test", "slow",
+                Map.of("amount", 4), HttpStatus.CREATED, () -> {
+                    insertMarker("slow");
+                    // Another instance decides the lease ran out and claims the key afresh.
+                    other.executeWithoutResult(tx -> jdbcTemplate.update(
+                            "UPDATE idempotency_keys SET created_at = ? WHERE idempotency_key = ?",
+                            Instant.now().plusSeconds(1), "POST /test slow"));
+                    return Map.of("id", 4);
+                }));
+
+        assertEquals(0, markers("slow"));
+    }
+
+    private void insertMarker(String name) {
+        jdbcTemplate.update("INSERT INTO loan_types (type_name, interest_rate_bps) VALUES (?, 100)", name);
+    }
+
+    private long markers(String name) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM loan_types WHERE type_name = ?", Long.class, name);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
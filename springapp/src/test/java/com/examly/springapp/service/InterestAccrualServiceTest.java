@@ -0,0 +1,148 @@
+package com.examly.springapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.model.AccrualRun;
+import com.examly.springapp.model.LoanAccrual;
+import com.examly.springapp.repository.AccrualRunRepo;
+import com.examly.springapp.repository.LoanAccrualRepo;
+
+/**
+ * Runs the accrual batch over a few thousand loans in small slices, so the
+ * fork-join split, the checkpointing and the batched writes all get
+ * exercised. Throughput is printed for comparison.
+ */
+@H2ServiceTest(properties = {
+        "loans.accrual.chunk-size=100",
+        "loans.accrual.parallelism=4"
+})
+@Import(InterestAccrualService.class)
+class InterestAccrualServiceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(InterestAccrualServiceTest.class);
+
+    private static final int DISBURSED = 5_000;
+    /** 1,000,000.00 at 7.30% accrues exactly 200.00 a day on ACT/365. */
+    private static final long AMOUNT_MINOR = 100_000_000;
+    private static final int RATE_BPS = 730;
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @Autowired
+    private InterestAccrualService interestAccrualService;
+
+    @Autowired
+    private LoanAccrualRepo loanAccrualRepo;
+
+    @Autowired
+    private AccrualRunRepo accrualRunRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long firstId;
+    private long lastId;
+    private long pendingId;
+    private long halfPaidId;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM loan_accruals");
+        jdbcTemplate.update("DELETE FROM accrual_runs");
+        jdbcTemplate.update("DELETE FROM payments");
+        jdbcTemplate.update("DELETE FROM loans");
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < DISBURSED; i++) {
+            rows.add(new Object[] {AMOUNT_MINOR, RATE_BPS, "DISBURSED"});
+        }
+        rows.add(new Object[] {AMOUNT_MINOR, RATE_BPS, "PENDING"});
+        jdbcTemplate.batchUpdate("INSERT INTO loans (loan_amount_minor, interest_rate_bps, tenure_months, status, "
+                + "version) VALUES (?, ?, 240, ?, 0)", rows);
+        firstId = jdbcTemplate.queryForObject("SELECT MIN(loan_id) FROM loans", Long.class);
+        pendingId = jdbcTemplate.queryForObject("SELECT MAX(loan_id) FROM loans", Long.class);
+        lastId = pendingId - 1;
+        halfPaidId = firstId + 7;
+        jdbcTemplate.update("INSERT INTO payments (payment_id, amount_minor, loan_id, version) VALUES (1, ?, ?, 0)",
+                AMOUNT_MINOR / 2, halfPaidId);
+    }
+
+    @Test
+    void accruesEachDisbursedLoanOnceADay() {
+        long started = System.nanoTime();
+        AccrualRun run = interestAccrualService.accrue(DAY);
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        logger.info("Accrued {} loans in {} ms", DISBURSED, millis);
+
+        assertEquals(AccrualRun.Status.COMPLETED, run.getStatus());
+        assertEquals(DISBURSED, run.getLoansAccrued());
+        assertEquals(lastId, run.getCheckpointLoanId());
+        assertEquals(Money.ofMinor(20_000), accrualOf(firstId).getAccruedInterest());
+        assertEquals(Money.ofMinor(10_000), accrualOf(halfPaidId).getAccruedInterest());
+        assertEquals(DAY, accrualOf(lastId).getAccruedThrough());
+        assertFalse(loanAccrualRepo.existsById(pendingId));
+        assertEquals(DISBURSED, loanAccrualRepo.count());
+
+        // Repeating the day, even after the run record is gone, changes nothing.
+        accrualRunRepo.deleteAll();
+        assertEquals(0, interestAccrualService.accrue(DAY).getLoansAccrued());
+        assertEquals(Money.ofMinor(20_000), accrualOf(firstId).getAccruedInterest());
+    }
+
+    @Test
+    void catchesUpMissedDays() {
+        interestAccrualService.accrue(DAY);
+        interestAccrualService.accrue(DAY.plusDays(3));
+
+        assertEquals(Money.ofMinor(80_000), accrualOf(firstId).getAccruedInterest());
+        assertEquals(DAY.plusDays(3), accrualOf(firstId).getAccruedThrough());
+    }
+
+    @Test
+    void refusesDatesBeforeTheLatestCompletedRun() {
+        interestAccrualService.accrue(DAY);
+
+        assertThrows(IllegalArgumentException.class, () -> interestAccrualService.accrue(DAY.minusDays(1)));
+        assertEquals(Money.ofMinor(20_000), accrualOf(firstId).getAccruedInterest());
+        assertEquals(DAY, accrualOf(firstId).getAccruedThrough());
+    }
+
+    @Test
+    void resumesAboveTheCheckpoint() {
+        long checkpoint = firstId + 2_499;
+        AccrualRun interrupted = new AccrualRun();
+        interrupted.setAccrualDate(DAY);
+        interrupted.setStatus(AccrualRun.Status.RUNNING);
+        interrupted.setCheckpointLoanId(checkpoint);
+        interrupted.setLoansAccrued(2_500L);
+        interrupted.setStartedAt(Instant.now());
+        accrualRunRepo.save(interrupted);
+
+        AccrualRun run = interestAccrualService.accrue(DAY);
+
+        assertEquals(AccrualRun.Status.COMPLETED, run.getStatus());
+        assertEquals(DISBURSED, run.getLoansAccrued());
+        assertFalse(loanAccrualRepo.existsById(checkpoint));
+        assertTrue(loanAccrualRepo.existsById(checkpoint + 1));
+        assertEquals(DISBURSED - 2_500, loanAccrualRepo.count());
+    }
+
+    private LoanAccrual accrualOf(long loanId) {
+        return loanAccrualRepo.findById(loanId).orElseThrow();
+    }
+}
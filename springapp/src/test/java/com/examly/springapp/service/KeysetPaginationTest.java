@@ -0,0 +1,135 @@
+package com.examly.springapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.ToLongFunction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.examly.springapp.dto.CursorPage;
+import com.examly.springapp.model.Customer;
+import com.examly.springapp.model.Loan;
+import com.examly.springapp.model.Payment;
+
+/**
+ * Walks the keyset listings of customers, loans and payments page by page
+ * and checks that every row is returned once, in id order, even when rows
+ * are inserted and deleted between pages.
+ */
+@H2ServiceTest
+@Import({ CustomerService.class, LoanService.class, PaymentService.class })
+class KeysetPaginationTest {
+
+    private static final int ROWS = 103;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM payments");
+        jdbcTemplate.update("DELETE FROM loans");
+        jdbcTemplate.update("DELETE FROM customers");
+        List<Object[]> customers = new ArrayList<>();
+        List<Object[]> loans = new ArrayList<>();
+        List<Object[]> payments = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            customers.add(new Object[] {"Customer " + i, "c" + i + "@example.com"});
+            loans.add(new Object[] {100_000L + i});
+            payments.add(new Object[] {1_000L + i, 500L + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO customers (customer_name, email) VALUES (?, ?)", customers);
+        jdbcTemplate.batchUpdate("INSERT INTO loans (loan_amount_minor, status, version) VALUES (?, 'PENDING', 0)",
+                loans);
+        jdbcTemplate.batchUpdate("INSERT INTO payments (payment_id, amount_minor, version) VALUES (?, ?, 0)",
+                payments);
+    }
+
+    @Test
+    void pagesVisitEveryRowOnceInIdOrder() {
+        assertEquals(ids("SELECT customer_id FROM customers ORDER BY customer_id"),
+                walk(customerService::getCustomersAfter, Customer::getCustomerId, 10));
+        assertEquals(ids("SELECT loan_id FROM loans ORDER BY loan_id"),
+                walk(loanService::getLoansAfter, Loan::getLoanId, 25));
+        assertEquals(ids("SELECT payment_id FROM payments ORDER BY payment_id"),
+                walk(paymentService::getPaymentsAfter, Payment::getPaymentId, ROWS));
+    }
+
+    @Test
+    void aCursorSurvivesWritesBetweenPages() {
+        CursorPage<Loan> first = loanService.getLoansAfter(null, 50);
+        Loan lastSeen = first.content().get(49);
+        // Deleting rows already returned, and the last one the cursor names, shifts nothing.
+        jdbcTemplate.update("DELETE FROM loans WHERE loan_id <= ?", lastSeen.getLoanId());
+        jdbcTemplate.update("INSERT INTO loans (loan_amount_minor, status, version) VALUES (1, 'PENDING', 0)");
+
+        List<Long> rest = new ArrayList<>();
+        String cursor = first.nextCursor();
+        do {
+            CursorPage<Loan> page = loanService.getLoansAfter(cursor, 20);
+            page.content().forEach(loan -> rest.add(loan.getLoanId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        assertEquals(ids("SELECT loan_id FROM loans ORDER BY loan_id"), rest);
+    }
+
+    @Test
+    void theLastPageHasNoCursor() {
+        CursorPage<Payment> all = paymentService.getPaymentsAfter(null, CursorPage.MAX_SIZE);
+        assertEquals(ROWS, all.content().size());
+        assertNull(all.nextCursor());
+        CursorPage<Payment> exact = paymentService.getPaymentsAfter(null, ROWS);
+        assertNull(exact.nextCursor());
+        assertEquals(0, paymentService.getPaymentsAfter(
+                CursorPage.encode(all.content().get(ROWS - 1).getPaymentId()), 10).content().size());
+    }
+
+    @Test
+    void rejectsBadSizesAndCursors() {
+        assertThrows(IllegalArgumentException.class, () -> loanService.getLoansAfter(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> loanService.getLoansAfter(null, CursorPage.MAX_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> customerService.getCustomersAfter("not a cursor", 10));
+        // A credit-score cursor is not an id cursor.
+        String scoreCursor = CursorPage.encode(700.0, 1);
+        assertThrows(IllegalArgumentException.class, () -> paymentService.getPaymentsAfter(scoreCursor, 10));
+    }
+
+    private static <T> List<Long> walk(BiFunction<String, Integer, CursorPage<T>> listing, ToLongFunction<T> idOf,
+                                       int size) {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<T> page = listing.apply(cursor, size);
+            page.content().forEach(row -> seen.add(idOf.applyAsLong(row)));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return seen;
+    }
+
+    private List<Long> ids(String sql) {
+        return jdbcTemplate.queryForList(sql, Long.class);
+    }
+}
@@ -0,0 +1,143 @@
+package com.examly.springapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Date;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import com.examly.springapp.dto.CustomerOverview;
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.finance.Rate;
+import com.examly.springapp.model.Customer;
+import com.examly.springapp.model.Loan;
+import com.examly.springapp.model.LoanStatus;
+import com.examly.springapp.model.LoanType;
+import com.examly.springapp.model.Payment;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ LoanService.class, PaymentService.class, CustomerOverviewService.class, ServiceTestConfiguration.class })
+class ListingStatementCountTest {
+
+    private static final int ROWS = 1000;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private CustomerOverviewService customerOverviewService;
+
+    @MockBean
+    private OutboxService outboxService;
+
+    private Statistics statistics;
+
+    private Long firstCustomerId;
+
+    @BeforeEach
+    void seed() {
+        LoanType[] loanTypes = new LoanType[5];
+        for (int i = 0; i < loanTypes.length; i++) {
+            LoanType loanType = new LoanType();
+            loanType.setTypeName("Type " + i);
+            loanType.setInterestRate(Rate.ofBasisPoints(700 + 100 * i));
+            loanTypes[i] = entityManager.persist(loanType);
+        }
+        Customer[] customers = new Customer[200];
+        for (int i = 0; i < customers.length; i++) {
+            Customer customer = new Customer();
+            customer.setCustomerName("Customer " + i);
+            customer.setEmail("customer" + i + "@example.com");
+            customer.setCreditScore(600.0 + i);
+            customers[i] = entityManager.persist(customer);
+        }
+        for (int i = 0; i < ROWS; i++) {
+            Loan loan = new Loan();
+            loan.setLoanAmount(Money.ofMinor(10_000_000 + 100 * i));
+            loan.setInterestRate(Rate.ofBasisPoints(750));
+            loan.setTenureMonths(240);
+            loan.setStatus(i % 2 == 0 ? LoanStatus.APPROVED : LoanStatus.PENDING);
+            loan.setCustomer(customers[i % customers.length]);
+            loan.setLoanType(loanTypes[i % loanTypes.length]);
+            entityManager.persist(loan);
+
+            Payment payment = new Payment();
+            payment.setAmount(Money.ofMinor(100_000));
+            payment.setPaymentDate(Date.valueOf("2024-01-01"));
+            payment.setLoan(loan);
+            entityManager.persist(payment);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        firstCustomerId = customers[0].getCustomerId();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getAllLoansRunsOneStatement() {
+        assertEquals(ROWS, loanService.getAllLoans().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getLoansByStatusRunsOneStatement() {
+        assertEquals(ROWS / 2, loanService.getLoansByStatus(LoanStatus.APPROVED).size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getStatusCountsRunsOneStatement() {
+        Map<LoanStatus, Long> counts = loanService.getStatusCounts();
+        assertEquals(ROWS / 2, counts.get(LoanStatus.APPROVED));
+        assertEquals(ROWS / 2, counts.get(LoanStatus.PENDING));
+        assertEquals(0L, counts.get(LoanStatus.DISBURSED));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getAllPaymentsRunsOneStatement() {
+        assertEquals(ROWS, paymentService.getAllPayments().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void customerOverviewRunsThreeStatements() {
+        CustomerOverview overview = customerOverviewService.getOverview(firstCustomerId).orElseThrow();
+
+        assertEquals(ROWS / 200, overview.loans().size());
+        for (CustomerOverview.LoanLine line : overview.loans()) {
+            assertEquals(1, line.payments().size());
+            assertEquals(Money.ofMinor(100_000), line.paid());
+            assertEquals(line.loan().getLoanAmount().minus(line.paid()), line.outstanding());
+        }
+        assertEquals(Money.ofMinor(100_000L * ROWS / 200), overview.totalPaid());
+        assertTrue(overview.totalOutstanding().isPositive());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,36 @@
+package com.examly.springapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class LiveCreditScoreIndexTest {
+
+    @Test
+    void replaysChangesCommittedDuringARebuild() {
+        LiveCreditScoreIndex scores = new LiveCreditScoreIndex("test");
+        scores.put(9, 900.0);
+        assertNull(scores.current());
+
+        List<Object[]> snapshot = List.of(new Object[] {1L, 500.0}, new Object[] {2L, 600.0}, new Object[] {3L, 700.0});
+        int loaded = scores.rebuild(() -> snapshot.stream().peek(row -> {
+            // Writes that commit while the snapshot is being read.
+            if (row[0].equals(2L)) {
+                scores.put(4, 800.0);
+                scores.put(1, 750.0);
+                scores.remove(3);
+            }
+        }));
+
+        assertEquals(3, loaded);
+        assertArrayEquals(new long[] {4, 1, 2}, scores.current().topIds(10));
+        assertEquals(1, scores.current().count(700, 760));
+
+        scores.put(2, null);
+        assertArrayEquals(new long[] {4, 1}, scores.current().topIds(10));
+    }
+}
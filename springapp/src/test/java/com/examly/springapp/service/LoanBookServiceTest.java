@@ -0,0 +1,128 @@
+package com.examly.springapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.examly.springapp.dto.LoanBookSummary;
+import com.examly.springapp.exception.ConflictException;
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.finance.Rate;
+import com.examly.springapp.index.LoanBook;
+import com.examly.springapp.model.Customer;
+import com.examly.springapp.model.Loan;
+import com.examly.springapp.model.LoanStatus;
+import com.examly.springapp.repository.CustomerRepo;
+
+/**
+ * Builds the loan book from the database, then writes through the loan
+ * service and checks that committed changes, and only those, reach it.
+ */
+@H2ServiceTest(properties = {
+        "analytics.loan-book.enabled=true",
+        "analytics.loan-book.parallelism=2"
+})
+@Import(LoanService.class)
+class LoanBookServiceTest {
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private LoanBookService loanBookService;
+
+    @Autowired
+    private CustomerRepo customerRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Customer fair;
+    private Customer good;
+
+    @BeforeEach
+    void clean() {
+        jdbcTemplate.update("DELETE FROM outbox_events");
+        jdbcTemplate.update("DELETE FROM loans");
+        jdbcTemplate.update("DELETE FROM customers");
+        fair = customerRepo.save(customer("fair@example.com", 610.0));
+        good = customerRepo.save(customer("good@example.com", 720.0));
+    }
+
+    @Test
+    void followsCommittedWrites() {
+        Long first = loanService.addLoan(loan(fair, 100_000)).getLoanId();
+        assertEquals(1, loanBookService.rebuild());
+
+        Long second = loanService.addLoan(loan(good, 300_000)).getLoanId();
+        Long third = loanService.addLoan(loan(fair, 50_000)).getLoanId();
+        loanService.updateStatus(second, LoanStatus.APPROVED);
+        loanService.deleteLoan(third);
+        // Refused before commit, so the book must not see it.
+        assertThrows(ConflictException.class, () -> loanService.updateStatus(first, LoanStatus.CLOSED));
+
+        Map<LoanStatus, Long> byStatus = summary(LoanBook.Dimension.STATUS).groups().stream()
+                .collect(Collectors.toMap(LoanBookSummary.Group::status, LoanBookSummary.Group::loans));
+        assertEquals(Map.of(LoanStatus.PENDING, 1L, LoanStatus.APPROVED, 1L), byStatus);
+
+        LoanBookSummary bands = summary(LoanBook.Dimension.SCORE_BAND);
+        assertEquals(2, bands.loans());
+        assertEquals(Money.ofMinor(400_000), bands.amount());
+        assertEquals(List.of(600.0, 700.0), bands.groups().stream().map(LoanBookSummary.Group::scoreFrom).toList());
+        assertEquals(100_000, bands.groups().get(0).amountPercentiles().get("p50").minorUnits(), 100_000 / 32.0);
+        assertEquals(7.5, bands.groups().get(0).weightedRatePercent(), 1e-9);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+            fair.setCreditScore(790.0);
+            loanBookService.customerSaved(customerRepo.save(fair));
+        });
+        assertEquals(List.of(700.0), summary(LoanBook.Dimension.SCORE_BAND).groups().stream()
+                .map(LoanBookSummary.Group::scoreFrom).toList());
+    }
+
+    @Test
+    void rejectsOutOfRangePercentiles() {
+        loanBookService.rebuild();
+        assertThrows(IllegalArgumentException.class, () -> loanBookService.summarize(LoanBook.Dimension.STATUS,
+                100, null, null, List.of(0.0)));
+        assertTrue(loanBookService.summarize(LoanBook.Dimension.STATUS, 100, null, null, List.of(50.0)).isPresent());
+    }
+
+    private LoanBookSummary summary(LoanBook.Dimension groupBy) {
+        return loanBookService.summarize(groupBy, 100, null, null, List.of(50.0)).orElseThrow();
+    }
+
+    private static Customer customer(String email, Double creditScore) {
+        Customer customer = new Customer();
+        customer.setCustomerName(email);
+        customer.setEmail(email);
+        customer.setCreditScore(creditScore);
+        return customer;
+    }
+
+    private static Loan loan(Customer customer, long amountMinor) {
+        Customer reference = new Customer();
+        reference.setCustomerId(customer.getCustomerId());
+        Loan loan = new Loan();
+        loan.setLoanAmount(Money.ofMinor(amountMinor));
+        loan.setInterestRate(Rate.ofBasisPoints(750));
+        loan.setTenureMonths(12);
+        loan.setCustomer(reference);
+        return loan;
+    }
+}
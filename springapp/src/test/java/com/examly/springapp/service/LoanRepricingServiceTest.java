@@ -0,0 +1,178 @@
+package com.examly.springapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.examly.springapp.dto.RepricingStatus;
+import com.examly.springapp.finance.AmortizationCalculator;
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.finance.Rate;
+import com.examly.springapp.model.Loan;
+
+/**
+ * Reprices a few thousand loans in small chunks and checks that open loans
+ * of the changed type, and only those, move to the new rate with a fresh
+ * instalment over what is left of them, and that each repriced loan gets
+ * one LOAN_UPDATED event.
+ */
+@H2ServiceTest(properties = {
+        "loans.repricing.chunk-size=250"
+})
+@Import({ LoanRepricingService.class, LoanService.class })
+class LoanRepricingServiceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanRepricingServiceTest.class);
+
+    private static final int LOANS = 3_000;
+    private static final long AMOUNT_MINOR = 50_000_000;
+    private static final Rate OLD_RATE = Rate.ofBasisPoints(750);
+    private static final Rate NEW_RATE = Rate.ofBasisPoints(825);
+
+    @Autowired
+    private LoanRepricingService loanRepricingService;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long floatingType;
+    private long otherType;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM outbox_events");
+        jdbcTemplate.update("DELETE FROM payments");
+        jdbcTemplate.update("DELETE FROM loans");
+        jdbcTemplate.update("DELETE FROM loan_types");
+        jdbcTemplate.update("INSERT INTO loan_types (type_name, interest_rate_bps) VALUES ('Floating', ?)",
+                NEW_RATE.basisPoints());
+        jdbcTemplate.update("INSERT INTO loan_types (type_name, interest_rate_bps) VALUES ('Fixed', ?)",
+                OLD_RATE.basisPoints());
+        floatingType = jdbcTemplate.queryForObject(
+                "SELECT loan_type_id FROM loan_types WHERE type_name = 'Floating'", Long.class);
+        otherType = jdbcTemplate.queryForObject(
+                "SELECT loan_type_id FROM loan_types WHERE type_name = 'Fixed'", Long.class);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < LOANS; i++) {
+            String status = i % 10 == 0 ? "CLOSED" : "DISBURSED";
+            rows.add(new Object[] {AMOUNT_MINOR, OLD_RATE.basisPoints(), i % 3 == 0 ? null : 240, status, floatingType});
+        }
+        rows.add(new Object[] {AMOUNT_MINOR, OLD_RATE.basisPoints(), 240, "DISBURSED", otherType});
+        jdbcTemplate.batchUpdate("INSERT INTO loans (loan_amount_minor, interest_rate_bps, tenure_months, status, "
+                + "loan_type_id, version) VALUES (?, ?, ?, ?, ?, 0)", rows);
+    }
+
+    @Test
+    void repricesOpenLoansOfTheTypeAndRecomputesInstalments() throws Exception {
+        long started = System.nanoTime();
+        loanRepricingService.start(floatingType, NEW_RATE);
+        RepricingStatus status = await(floatingType);
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        logger.info("Repriced {} loans in {} ms", status.repriced(), millis);
+
+        int open = LOANS - LOANS / 10;
+        assertEquals(RepricingStatus.State.COMPLETED, status.state());
+        assertEquals(open, status.total());
+        assertEquals(open, status.repriced());
+        assertEquals(open, count("interest_rate_bps = ? AND version = 1", NEW_RATE.basisPoints()));
+        assertEquals(LOANS / 10, count("status = 'CLOSED' AND interest_rate_bps = ? AND version = 0",
+                OLD_RATE.basisPoints()));
+        assertEquals(1, count("loan_type_id = " + otherType + " AND interest_rate_bps = ?", OLD_RATE.basisPoints()));
+        assertEquals(AmortizationCalculator.instalment(AMOUNT_MINOR, NEW_RATE, 240), jdbcTemplate.queryForObject(
+                "SELECT MAX(instalment_minor) FROM loans WHERE tenure_months = 240 AND interest_rate_bps = ?",
+                Long.class, NEW_RATE.basisPoints()));
+        assertNull(jdbcTemplate.queryForObject(
+                "SELECT MAX(instalment_minor) FROM loans WHERE tenure_months IS NULL", Long.class));
+        assertEquals(open, jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT aggregate_id) FROM outbox_events "
+                + "WHERE event_type = 'LOAN_UPDATED'", Long.class));
+    }
+
+    @Test
+    void spreadsTheOutstandingBalanceOverTheMonthsLeft() throws Exception {
+        long oldInstalment = AmortizationCalculator.instalment(AMOUNT_MINOR, OLD_RATE, 240);
+        jdbcTemplate.update("INSERT INTO loans (loan_amount_minor, interest_rate_bps, instalment_minor, tenure_months, "
+                + "status, loan_type_id, version) VALUES (?, ?, ?, 240, 'DISBURSED', ?, 0)",
+                AMOUNT_MINOR, OLD_RATE.basisPoints(), oldInstalment, floatingType);
+        long loanId = jdbcTemplate.queryForObject("SELECT MAX(loan_id) FROM loans", Long.class);
+        jdbcTemplate.update("INSERT INTO payments (payment_id, amount_minor, loan_id, version) VALUES (1, ?, ?, 0)",
+                12 * oldInstalment, loanId);
+
+        loanRepricingService.start(floatingType, NEW_RATE);
+        await(floatingType);
+
+        assertEquals(AmortizationCalculator.instalment(AMOUNT_MINOR - 12 * oldInstalment, NEW_RATE, 228),
+                jdbcTemplate.queryForObject("SELECT instalment_minor FROM loans WHERE loan_id = ?", Long.class, loanId));
+    }
+
+    @Test
+    void laterEditsKeepTheRepricedInstalment() throws Exception {
+        long oldInstalment = AmortizationCalculator.instalment(AMOUNT_MINOR, OLD_RATE, 240);
+        jdbcTemplate.update("INSERT INTO loans (loan_amount_minor, interest_rate_bps, instalment_minor, tenure_months, "
+                + "status, loan_type_id, version) VALUES (?, ?, ?, 240, 'DISBURSED', ?, 0)",
+                AMOUNT_MINOR, OLD_RATE.basisPoints(), oldInstalment, floatingType);
+        long loanId = jdbcTemplate.queryForObject("SELECT MAX(loan_id) FROM loans", Long.class);
+        jdbcTemplate.update("INSERT INTO payments (payment_id, amount_minor, loan_id, version) VALUES (1, ?, ?, 0)",
+                12 * oldInstalment, loanId);
+        loanRepricingService.start(floatingType, NEW_RATE);
+        await(floatingType);
+        long repriced = instalment(loanId);
+
+        Loan edit = new Loan();
+        edit.setLoanAmount(Money.ofMinor(AMOUNT_MINOR));
+        edit.setInterestRate(NEW_RATE);
+        edit.setTenureMonths(240);
+        loanService.updateLoan(loanId, edit).orElseThrow();
+        assertEquals(repriced, instalment(loanId));
+
+        // A new term re-spreads what is left in the same way the repricer does.
+        edit.setTenureMonths(300);
+        loanService.updateLoan(loanId, edit).orElseThrow();
+        assertEquals(AmortizationCalculator.remainingInstalment(AMOUNT_MINOR, 12 * oldInstalment, NEW_RATE, 300,
+                repriced), instalment(loanId));
+    }
+
+    @Test
+    void rerunningAfterCompletionFindsNothingLeft() throws Exception {
+        loanRepricingService.start(floatingType, NEW_RATE);
+        await(floatingType);
+
+        loanRepricingService.start(floatingType);
+        RepricingStatus again = await(floatingType);
+
+        assertEquals(RepricingStatus.State.COMPLETED, again.state());
+        assertEquals(0, again.total());
+        assertEquals(0, again.repriced());
+    }
+
+    private long instalment(long loanId) {
+        return jdbcTemplate.queryForObject("SELECT instalment_minor FROM loans WHERE loan_id = ?", Long.class, loanId);
+    }
+
+    private long count(String where, Object... args) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM loans WHERE " + where, Long.class, args);
+    }
+
+    private RepricingStatus await(long loanTypeId) throws InterruptedException {
+        for (int i = 0; i < 600; i++) {
+            RepricingStatus status = loanRepricingService.getStatus(loanTypeId).orElseThrow();
+            if (status.finishedAt() != null) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Repricing did not finish");
+    }
+}
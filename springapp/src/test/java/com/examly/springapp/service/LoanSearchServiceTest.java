@@ -0,0 +1,210 @@
+package com.examly.springapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.examly.springapp.dto.CursorPage;
+import com.examly.springapp.dto.LoanSearchCriteria;
+import com.examly.springapp.dto.LoanSearchCriteria.Sort;
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.model.Loan;
+import com.examly.springapp.model.LoanStatus;
+import com.examly.springapp.repository.LoanRepo;
+
+/**
+ * Pages through searches against the same filters applied in memory, and
+ * runs EXPLAIN on the id query each supported filter generates to check
+ * that H2 answers it from the index designed for it rather than a scan.
+ */
+@H2ServiceTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.examly.springapp.service.LoanSearchServiceTest$SqlRecorder"
+})
+@Import(LoanSearchService.class)
+class LoanSearchServiceTest {
+
+    private static final int LOANS = 2000;
+
+    /** The comment H2 puts under each table in a plan: the index it reads and the conditions it seeks on. */
+    private static final Pattern INDEX_LOOKUP = Pattern.compile("/\\* PUBLIC\\.\\w+: [^*]*\\*/");
+
+    @Autowired
+    private LoanSearchService loanSearchService;
+
+    @Autowired
+    private LoanRepo loanRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long firstLoanTypeId;
+    private Long firstCustomerId;
+
+    /** Keeps the SQL of the statements Hibernate prepares, in order. */
+    public static class SqlRecorder implements StatementInspector {
+
+        static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public synchronized String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM loans", Long.class) > 0) {
+            firstLoanTypeId = jdbcTemplate.queryForObject("SELECT MIN(loan_type_id) FROM loan_types", Long.class);
+            firstCustomerId = jdbcTemplate.queryForObject("SELECT MIN(customer_id) FROM customers", Long.class);
+            return;
+        }
+        LoanStatus[] statuses = LoanStatus.values();
+        for (int i = 0; i < 4; i++) {
+            jdbcTemplate.update("INSERT INTO loan_types (type_name, interest_rate_bps) VALUES (?, ?)", "Type " + i, 700);
+        }
+        for (int i = 0; i < 100; i++) {
+            jdbcTemplate.update("INSERT INTO customers (customer_name, email, credit_score) VALUES (?, ?, ?)",
+                    "Customer " + i, "c" + i + "@example.com", i % 10 == 0 ? null : 300.0 + 6 * i);
+        }
+        firstLoanTypeId = jdbcTemplate.queryForObject("SELECT MIN(loan_type_id) FROM loan_types", Long.class);
+        firstCustomerId = jdbcTemplate.queryForObject("SELECT MIN(customer_id) FROM customers", Long.class);
+        List<Object[]> rows = new ArrayList<>(LOANS);
+        for (int i = 0; i < LOANS; i++) {
+            rows.add(new Object[] {
+                    i % 50 == 0 ? null : 100_000L * (1 + (i * 7919L) % 500),
+                    i % 40 == 0 ? null : 6 * (1 + i % 60),
+                    statuses[i % statuses.length].name(),
+                    i % 25 == 0 ? null : firstLoanTypeId + i % 4,
+                    i % 30 == 0 ? null : firstCustomerId + i % 100});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO loans (loan_amount_minor, tenure_months, status, loan_type_id, "
+                + "customer_id, version) VALUES (?, ?, ?, ?, ?, 0)", rows);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void pagesMatchTheSameFiltersAppliedInMemory() {
+        List<Loan> all = loanRepo.findAll();
+        Money min = Money.ofMinor(10_000_000);
+        Money max = Money.ofMinor(30_000_000);
+
+        assertPages(criteria(List.of(), null, null, null, null, null, Sort.LOAN_ID, false), all, loan -> true,
+                Comparator.comparing(Loan::getLoanId));
+        assertPages(criteria(List.of(LoanStatus.APPROVED, LoanStatus.DISBURSED), null, min, max, null, null,
+                Sort.AMOUNT, true), all,
+                loan -> (loan.getStatus() == LoanStatus.APPROVED || loan.getStatus() == LoanStatus.DISBURSED)
+                        && inRange(loan.getLoanAmount(), min, max),
+                Comparator.comparing(Loan::getLoanAmount).thenComparing(Loan::getLoanId).reversed());
+        assertPages(criteria(List.of(), firstLoanTypeId, null, null, null, null, Sort.AMOUNT, false), all,
+                loan -> loan.getLoanType() != null && loan.getLoanType().getLoanTypeId().equals(firstLoanTypeId),
+                Comparator.comparing(Loan::getLoanAmount, Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .thenComparing(Loan::getLoanId));
+        assertPages(criteria(List.of(LoanStatus.PENDING), null, null, null, 650.0, 800.0, Sort.TENURE, true), all,
+                loan -> loan.getStatus() == LoanStatus.PENDING && loan.getCustomer() != null
+                        && loan.getCustomer().getCreditScore() != null
+                        && loan.getCustomer().getCreditScore() >= 650 && loan.getCustomer().getCreditScore() <= 800,
+                Comparator.comparing(Loan::getTenureMonths, Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .thenComparing(Loan::getLoanId).reversed());
+    }
+
+    @Test
+    void eachFilterIsAnsweredFromAnIndex() {
+        Money min = Money.ofMinor(10_000_000);
+        Money max = Money.ofMinor(11_000_000);
+        List<LoanStatus> pending = List.of(LoanStatus.PENDING);
+
+        assertIndexed(criteria(pending, null, null, null, null, null, Sort.LOAN_ID, false), "STATUS");
+        assertIndexed(criteria(List.of(), firstLoanTypeId, null, null, null, null, Sort.LOAN_ID, false),
+                "LOAN_TYPE_ID");
+        assertIndexed(new LoanSearchCriteria(List.of(), null, firstCustomerId, null, null, null, null, null, null,
+                Sort.LOAN_ID, false), "CUSTOMER_ID");
+        assertIndexed(criteria(List.of(), null, min, max, null, null, Sort.AMOUNT, false), "LOAN_AMOUNT_MINOR");
+        assertIndexed(new LoanSearchCriteria(List.of(), null, null, null, null, 12, 18, null, null,
+                Sort.TENURE, false), "TENURE_MONTHS");
+        assertIndexed(criteria(pending, null, min, max, null, null, Sort.AMOUNT, false),
+                "STATUS", "LOAN_AMOUNT_MINOR");
+        assertIndexed(criteria(List.of(), firstLoanTypeId, min, max, null, null, Sort.AMOUNT, true),
+                "LOAN_TYPE_ID", "LOAN_AMOUNT_MINOR");
+        assertIndexed(criteria(List.of(), null, null, null, 700.0, 710.0, Sort.LOAN_ID, false), "CREDIT_SCORE");
+        assertIndexed(criteria(List.of(), null, null, null, 700.0, 710.0, Sort.LOAN_ID, false), "CUSTOMER_ID");
+    }
+
+    @Test
+    void rejectsInvertedRangesAndForeignCursors() {
+        assertThrows(IllegalArgumentException.class, () -> criteria(List.of(), null, Money.ofMinor(2),
+                Money.ofMinor(1), null, null, Sort.AMOUNT, false));
+        LoanSearchCriteria byAmount = criteria(List.of(), null, null, null, null, null, Sort.AMOUNT, false);
+        String cursor = loanSearchService.search(byAmount, null, 5).nextCursor();
+        LoanSearchCriteria byTenure = criteria(List.of(), null, null, null, null, null, Sort.TENURE, false);
+        assertThrows(IllegalArgumentException.class, () -> loanSearchService.search(byTenure, cursor, 5));
+    }
+
+    private void assertPages(LoanSearchCriteria criteria, List<Loan> all, Predicate<Loan> filter,
+                             Comparator<Loan> order) {
+        List<Long> expected = all.stream().filter(filter).sorted(order).map(Loan::getLoanId).toList();
+        List<Long> actual = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<Loan> page = loanSearchService.search(criteria, cursor, 37);
+            page.content().forEach(loan -> actual.add(loan.getLoanId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Runs EXPLAIN on the id query the search sends and asserts that one of
+     * the index lookups in the plan is keyed on every one of {@code columns}.
+     */
+    private void assertIndexed(LoanSearchCriteria criteria, String... columns) {
+        SqlRecorder.STATEMENTS.clear();
+        loanSearchService.search(criteria, null, 20);
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + SqlRecorder.STATEMENTS.get(0), String.class);
+        assertFalse(plan.contains("tableScan"), plan);
+        boolean indexed = INDEX_LOOKUP.matcher(plan).results()
+                .map(MatchResult::group)
+                .anyMatch(lookup -> Arrays.stream(columns).allMatch(column -> lookup.contains(column + " ")));
+        assertTrue(indexed, "No index lookup on " + Arrays.toString(columns) + " in:\n" + plan);
+    }
+
+    private static boolean inRange(Money amount, Money min, Money max) {
+        return amount != null && amount.compareTo(min) >= 0 && amount.compareTo(max) <= 0;
+    }
+
+    private static LoanSearchCriteria criteria(List<LoanStatus> statuses, Long loanTypeId, Money minAmount,
+                                               Money maxAmount, Double minScore, Double maxScore, Sort sort,
+                                               boolean descending) {
+        return new LoanSearchCriteria(statuses, loanTypeId, null, minAmount, maxAmount, null, null, minScore,
+                maxScore, sort, descending);
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        CursorPage<Loan> page = loanSearchService.search(criteria(List.of(), null, null, null, null, null,
+                Sort.LOAN_ID, true), null, CursorPage.MAX_SIZE);
+        assertEquals(CursorPage.MAX_SIZE, page.content().size());
+        CursorPage<Loan> rest = loanSearchService.search(criteria(List.of(LoanStatus.CLOSED), null, null, null, null,
+                null, Sort.LOAN_ID, false), null, CursorPage.MAX_SIZE);
+        assertNull(rest.nextCursor());
+    }
+}
@@ -0,0 +1,98 @@
+package com.examly.springapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Exports more rows than one flush chunk and checks that the output is one
+ * JSON object per line covering every row.
+ */
+@H2ServiceTest
+@Import({ LoanService.class, PaymentService.class })
+class NdjsonExportTest {
+
+    private static final int ROWS = NdjsonExporter.CHUNK_SIZE * 2 + 7;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM payments");
+        jdbcTemplate.update("DELETE FROM loans");
+        List<Object[]> loans = new ArrayList<>();
+        List<Object[]> payments = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            loans.add(new Object[] {100_000L + i});
+            payments.add(new Object[] {1_000L + i, 500L + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO loans (loan_amount_minor, status, version) VALUES (?, 'PENDING', 0)",
+                loans);
+        jdbcTemplate.batchUpdate("INSERT INTO payments (payment_id, amount_minor, version) VALUES (?, ?, 0)",
+                payments);
+    }
+
+    @Test
+    void writesOneLoanPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(ROWS, loanService.exportLoans(out));
+
+        List<JsonNode> lines = lines(out);
+        assertEquals(ROWS, lines.size());
+        assertEquals(jdbcTemplate.queryForList("SELECT loan_id FROM loans ORDER BY loan_id", Long.class),
+                lines.stream().map(line -> line.get("loanId").asLong()).sorted().toList());
+        assertTrue(lines.stream().allMatch(line -> "PENDING".equals(line.get("status").asText())));
+    }
+
+    @Test
+    void writesOnePaymentPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(ROWS, paymentService.exportPayments(out));
+
+        List<JsonNode> lines = lines(out);
+        assertEquals(ROWS, lines.size());
+        assertEquals(jdbcTemplate.queryForList("SELECT payment_id FROM payments ORDER BY payment_id", Long.class),
+                lines.stream().map(line -> line.get("paymentId").asLong()).sorted().toList());
+    }
+
+    @Test
+    void writesNothingForAnEmptyTable() throws Exception {
+        jdbcTemplate.update("DELETE FROM payments");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(0, paymentService.exportPayments(out));
+        assertEquals(0, out.size());
+    }
+
+    private List<JsonNode> lines(ByteArrayOutputStream out) throws Exception {
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertTrue(text.endsWith("\n"));
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : text.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+}
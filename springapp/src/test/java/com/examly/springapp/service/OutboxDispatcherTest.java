@@ -0,0 +1,167 @@
+package com.examly.springapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.IllegalTransactionStateException;
+
+import com.examly.springapp.exception.ConflictException;
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.model.Loan;
+import com.examly.springapp.model.LoanStatus;
+import com.examly.springapp.model.OutboxEvent;
+import com.examly.springapp.model.Payment;
+import com.examly.springapp.outbox.InMemoryOutboxSink;
+import com.examly.springapp.outbox.OutboxSink;
+
+/**
+ * Writes through the loan and payment services and drains the outbox by
+ * hand, checking that events commit with their writes, come out in order
+ * and are delivered again after a sink fails.
+ */
+@H2ServiceTest(properties = {
+        "outbox.dispatcher.batch-size=3",
+        "outbox.sinks.in-memory.enabled=true"
+})
+@Import({ LoanService.class, PaymentService.class, InMemoryOutboxSink.class, OutboxDispatcherTest.FlakySinkConfig.class })
+class OutboxDispatcherTest {
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private InMemoryOutboxSink inMemoryOutboxSink;
+
+    @Autowired
+    private FlakySink flakySink;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TestConfiguration
+    static class FlakySinkConfig {
+
+        @Bean
+        FlakySink flakySink() {
+            return new FlakySink();
+        }
+    }
+
+    /** Fails as many times as asked, then records every event it is given. */
+    static class FlakySink implements OutboxSink {
+
+        final AtomicInteger failuresLeft = new AtomicInteger();
+        final List<Long> received = new ArrayList<>();
+
+        @Override
+        public String name() {
+            return "flaky";
+        }
+
+        @Override
+        public synchronized void deliver(List<OutboxEvent> events) {
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("sink unavailable");
+            }
+            events.forEach(event -> received.add(event.getId()));
+        }
+    }
+
+    @BeforeEach
+    void clean() {
+        jdbcTemplate.update("DELETE FROM outbox_events");
+        jdbcTemplate.update("DELETE FROM payments");
+        jdbcTemplate.update("DELETE FROM loans");
+        inMemoryOutboxSink.clear();
+        flakySink.received.clear();
+        flakySink.failuresLeft.set(0);
+    }
+
+    @Test
+    void writesAppendEventsThatAreDeliveredInOrder() {
+        Loan loan = loanService.addLoan(newLoan());
+        Long loanId = loan.getLoanId();
+        loanService.updateStatus(loanId, LoanStatus.APPROVED);
+        loanService.updateStatus(loanId, LoanStatus.DISBURSED);
+        Payment payment = paymentService.addPayment(newPayment(loanId, 40_000));
+        paymentService.deletePayment(payment.getPaymentId());
+
+        assertEquals(5, outboxDispatcher.dispatchOnce() + outboxDispatcher.dispatchOnce());
+        assertEquals(0, outboxDispatcher.dispatchOnce());
+        assertEquals(0, outboxDispatcher.getPending());
+
+        List<OutboxEvent> events = inMemoryOutboxSink.events();
+        assertEquals(List.of(OutboxEvent.Type.LOAN_CREATED, OutboxEvent.Type.LOAN_STATUS_CHANGED,
+                OutboxEvent.Type.LOAN_STATUS_CHANGED, OutboxEvent.Type.PAYMENT_CREATED,
+                OutboxEvent.Type.PAYMENT_DELETED), events.stream().map(OutboxEvent::getEventType).toList());
+        assertEquals(events.stream().map(OutboxEvent::getId).sorted().toList(),
+                events.stream().map(OutboxEvent::getId).toList());
+        assertEquals(payment.getPaymentId(), events.get(3).getAggregateId());
+        assertEquals("payment", events.get(3).getAggregateType());
+        assertEquals(true, events.get(2).getPayload().contains("\"status\":\"DISBURSED\""));
+        assertEquals("{\"paymentId\":" + payment.getPaymentId() + ",\"loanId\":" + loanId + "}",
+                events.get(4).getPayload());
+    }
+
+    @Test
+    void refusedWritesAppendNothing() {
+        Long loanId = loanService.addLoan(newLoan()).getLoanId();
+
+        assertThrows(ConflictException.class, () -> paymentService.addPayment(newPayment(loanId, 200_000)));
+        assertThrows(IllegalTransactionStateException.class,
+                () -> outboxService.append(OutboxEvent.Type.LOAN_UPDATED, loanId, "{}"));
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events", Long.class));
+    }
+
+    @Test
+    void redeliversAfterASinkFailure() {
+        Long loanId = loanService.addLoan(newLoan()).getLoanId();
+        paymentService.addPayment(newPayment(loanId, 1_000));
+        flakySink.failuresLeft.set(1);
+
+        assertThrows(IllegalStateException.class, () -> outboxDispatcher.dispatchOnce());
+        assertEquals(2, outboxDispatcher.getPending());
+
+        assertEquals(2, outboxDispatcher.dispatchOnce());
+        assertEquals(0, outboxDispatcher.getPending());
+        assertEquals(2, flakySink.received.size());
+        assertEquals(flakySink.received, inMemoryOutboxSink.events().stream().map(OutboxEvent::getId).toList());
+    }
+
+    private static Loan newLoan() {
+        Loan loan = new Loan();
+        loan.setLoanAmount(Money.ofMinor(100_000));
+        loan.setTenureMonths(12);
+        return loan;
+    }
+
+    private static Payment newPayment(Long loanId, long amountMinor) {
+        Loan loan = new Loan();
+        loan.setLoanId(loanId);
+        Payment payment = new Payment();
+        payment.setLoan(loan);
+        payment.setAmount(Money.ofMinor(amountMinor));
+        return payment;
+    }
+}
@@ -0,0 +1,135 @@
+package com.examly.springapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.examly.springapp.exception.ConflictException;
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.model.Loan;
+import com.examly.springapp.model.LoanStatus;
+import com.examly.springapp.model.Payment;
+import com.examly.springapp.repository.LoanRepo;
+import com.examly.springapp.repository.PaymentRepo;
+
+/**
+ * Posts payments from many threads against a handful of hot loans, far more
+ * than the loans can absorb, and checks that no loan ends up overpaid in
+ * either concurrency mode. Throughput is printed for comparison.
+ */
+@H2ServiceTest(properties = {
+        "loans.concurrency.max-attempts=100"
+})
+@Import(PaymentService.class)
+class PaymentConcurrencyStressTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentConcurrencyStressTest.class);
+
+    private static final int THREADS = 8;
+    private static final int PAYMENTS_PER_THREAD = 250;
+    private static final int LOANS = 4;
+    private static final long LOAN_AMOUNT_MINOR = 30_000;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private LoanWriteGuard loanWriteGuard;
+
+    @Autowired
+    private LoanRepo loanRepo;
+
+    @Autowired
+    private PaymentRepo paymentRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest
+    @EnumSource(LoanWriteGuard.Mode.class)
+    void concurrentPaymentsNeverOverpay(LoanWriteGuard.Mode mode) throws Exception {
+        loanWriteGuard.setMode(mode);
+        jdbcTemplate.update("DELETE FROM outbox_events");
+        jdbcTemplate.update("DELETE FROM payment_daily_totals");
+        paymentRepo.deleteAll();
+        loanRepo.deleteAll();
+        long[] loanIds = new long[LOANS];
+        for (int i = 0; i < LOANS; i++) {
+            Loan loan = new Loan();
+            loan.setLoanAmount(Money.ofMinor(LOAN_AMOUNT_MINOR));
+            loan.setStatus(LoanStatus.DISBURSED);
+            loanIds[i] = loanRepo.save(loan).getLoanId();
+        }
+
+        Date today = Date.valueOf(LocalDate.now());
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        Future<?>[] workers = new Future<?>[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            workers[t] = pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < PAYMENTS_PER_THREAD; i++) {
+                    Loan loan = new Loan();
+                    loan.setLoanId(loanIds[ThreadLocalRandom.current().nextInt(LOANS)]);
+                    Payment payment = new Payment();
+                    payment.setAmount(Money.ofMinor(100));
+                    payment.setPaymentDate(today);
+                    payment.setLoan(loan);
+                    try {
+                        paymentService.addPayment(payment);
+                        accepted.incrementAndGet();
+                    } catch (ConflictException e) {
+                        refused.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        pool.shutdown();
+
+        int attempts = THREADS * PAYMENTS_PER_THREAD;
+        logger.info("{}: {} payment requests in {} ms, {} accepted, {} refused", mode, attempts, millis,
+                accepted.get(), refused.get());
+
+        assertEquals(attempts, accepted.get() + refused.get());
+        assertEquals(accepted.get(), paymentRepo.count());
+        // Retried and refused attempts leave no event behind; every stored payment has exactly one.
+        assertEquals(accepted.get(), count("SELECT COUNT(DISTINCT aggregate_id) FROM outbox_events "
+                + "WHERE event_type = 'PAYMENT_CREATED'"));
+        assertEquals(accepted.get(), count("SELECT COUNT(*) FROM outbox_events"));
+        for (long loanId : loanIds) {
+            assertEquals(LOAN_AMOUNT_MINOR, paymentRepo.sumAmountMinorByLoanId(loanId));
+        }
+        // The day's rollup rows took every accepted payment and nothing else.
+        assertEquals(accepted.get(), count("SELECT SUM(payment_count) FROM payment_daily_totals"));
+        assertEquals(LOANS * LOAN_AMOUNT_MINOR, count("SELECT SUM(amount_minor) FROM payment_daily_totals"));
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
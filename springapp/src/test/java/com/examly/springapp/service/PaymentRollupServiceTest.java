@@ -0,0 +1,148 @@
+package com.examly.springapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.examly.springapp.dto.PaymentTimeseries;
+import com.examly.springapp.dto.PaymentTimeseries.Granularity;
+import com.examly.springapp.dto.PaymentTimeseries.Point;
+import com.examly.springapp.finance.Money;
+import com.examly.springapp.finance.Rate;
+import com.examly.springapp.model.Loan;
+import com.examly.springapp.model.LoanStatus;
+import com.examly.springapp.model.LoanType;
+import com.examly.springapp.model.Payment;
+import com.examly.springapp.repository.LoanTypeRepo;
+
+/**
+ * Writes payments through the services and checks the rollup against the
+ * expected totals and against a rebuild from the payments table.
+ */
+@H2ServiceTest
+@Import({ LoanService.class, PaymentService.class })
+class PaymentRollupServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 3, 31);
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRollupService paymentRollupService;
+
+    @Autowired
+    private LoanTypeRepo loanTypeRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long home;
+    private Long car;
+
+    @BeforeEach
+    void clean() {
+        jdbcTemplate.update("DELETE FROM outbox_events");
+        jdbcTemplate.update("DELETE FROM payment_daily_totals");
+        jdbcTemplate.update("DELETE FROM payments");
+        jdbcTemplate.update("DELETE FROM loans");
+        jdbcTemplate.update("DELETE FROM loan_types");
+        home = loanTypeRepo.save(loanType("Home")).getLoanTypeId();
+        car = loanTypeRepo.save(loanType("Car")).getLoanTypeId();
+    }
+
+    @Test
+    void followsPaymentWritesAndMatchesARebuild() {
+        Loan homeLoan = loanService.addLoan(loan(home));
+        Long carLoanId = loanService.addLoan(loan(car)).getLoanId();
+        Long untypedLoanId = loanService.addLoan(loan(null)).getLoanId();
+
+        paymentService.addPayment(payment(homeLoan.getLoanId(), 100_00, "2024-01-01"));
+        Payment moved = paymentService.addPayment(payment(homeLoan.getLoanId(), 50_00, "2024-01-03"));
+        Payment deleted = paymentService.addPayment(payment(carLoanId, 70_00, "2024-01-08"));
+        paymentService.addPayment(payment(untypedLoanId, 30_00, "2024-02-01"));
+        paymentService.addPayment(payment(carLoanId, 5_00, null));
+
+        paymentService.updatePayment(moved.getPaymentId(), payment(carLoanId, 60_00, "2024-02-02"));
+        paymentService.deletePayment(deleted.getPaymentId());
+
+        assertEquals(List.of(
+                new Point(LocalDate.of(2024, 1, 1), home, Money.ofMinor(100_00), 1),
+                new Point(LocalDate.of(2024, 2, 1), null, Money.ofMinor(30_00), 1),
+                new Point(LocalDate.of(2024, 2, 2), car, Money.ofMinor(60_00), 1)), points(Granularity.DAY));
+        assertEquals(List.of(
+                new Point(LocalDate.of(2024, 1, 1), home, Money.ofMinor(100_00), 1),
+                new Point(LocalDate.of(2024, 1, 29), null, Money.ofMinor(30_00), 1),
+                new Point(LocalDate.of(2024, 1, 29), car, Money.ofMinor(60_00), 1)), points(Granularity.WEEK));
+
+        // Re-typing a loan moves its collections with it.
+        Loan retyped = loan(car);
+        retyped.setStatus(LoanStatus.PENDING);
+        loanService.updateLoan(homeLoan.getLoanId(), retyped);
+        List<Point> monthly = points(Granularity.MONTH);
+        assertEquals(List.of(
+                new Point(LocalDate.of(2024, 1, 1), car, Money.ofMinor(100_00), 1),
+                new Point(LocalDate.of(2024, 2, 1), null, Money.ofMinor(30_00), 1),
+                new Point(LocalDate.of(2024, 2, 1), car, Money.ofMinor(60_00), 1)), monthly);
+
+        paymentRollupService.rebuild();
+        assertEquals(monthly, points(Granularity.MONTH));
+    }
+
+    @Test
+    void rejectsBackwardsAndOversizedRanges() {
+        assertThrows(IllegalArgumentException.class,
+                () -> paymentRollupService.getTimeseries(TO, FROM, Granularity.DAY));
+        assertThrows(IllegalArgumentException.class,
+                () -> paymentRollupService.getTimeseries(FROM, FROM.plusYears(20), Granularity.MONTH));
+    }
+
+    private List<Point> points(Granularity granularity) {
+        PaymentTimeseries series = paymentRollupService.getTimeseries(FROM, TO, granularity);
+        return series.points();
+    }
+
+    private static LoanType loanType(String name) {
+        LoanType loanType = new LoanType();
+        loanType.setTypeName(name);
+        loanType.setInterestRate(Rate.ofBasisPoints(750));
+        return loanType;
+    }
+
+    private static Loan loan(Long loanTypeId) {
+        Loan loan = new Loan();
+        loan.setLoanAmount(Money.ofMinor(10_000_000));
+        loan.setInterestRate(Rate.ofBasisPoints(750));
+        loan.setTenureMonths(12);
+        loan.setStatus(LoanStatus.PENDING);
+        if (loanTypeId != null) {
+            LoanType loanType = new LoanType();
+            loanType.setLoanTypeId(loanTypeId);
+            loan.setLoanType(loanType);
+        }
+        return loan;
+    }
+
+    private static Payment payment(Long loanId, long amountMinor, String date) {
+        Loan loan = new Loan();
+        loan.setLoanId(loanId);
+        Payment payment = new Payment();
+        payment.setAmount(Money.ofMinor(amountMinor));
+        payment.setPaymentDate(date == null ? null : Date.valueOf(date));
+        payment.setLoan(loan);
+        return payment;
+    }
+}
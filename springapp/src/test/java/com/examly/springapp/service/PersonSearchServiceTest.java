@@ -0,0 +1,124 @@
+package com.examly.springapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.examly.springapp.dto.PersonSearchResults;
+import com.examly.springapp.model.Customer;
+import com.examly.springapp.model.Guarantor;
+import com.examly.springapp.repository.CustomerRepo;
+
+/**
+ * Builds the search indexes from the database, then writes through the
+ * customer and guarantor services and checks that committed changes, and
+ * only those, become searchable.
+ */
+@H2ServiceTest(properties = {
+        "search.people.enabled=true"
+})
+@Import({ CustomerService.class, GuarantorService.class })
+class PersonSearchServiceTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private GuarantorService guarantorService;
+
+    @Autowired
+    private PersonSearchService personSearchService;
+
+    @Autowired
+    private CustomerRepo customerRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void clean() {
+        jdbcTemplate.update("DELETE FROM customers");
+        jdbcTemplate.update("DELETE FROM guarantors");
+    }
+
+    @Test
+    void followsCommittedWrites() {
+        customerRepo.save(customer("José Álvarez", "jose@example.com", "+34 600 123 456", "Calle Mayor 5, Madrid"));
+        customerRepo.save(customer("John Smith", "john@example.com", "555-0101", "12 Baker Street"));
+        assertEquals(2, personSearchService.rebuildCustomers());
+
+        PersonSearchResults.Hit<Customer> jose = customers("jose alvarez").get(0);
+        assertEquals("José Álvarez", jose.person().getCustomerName());
+        assertEquals("name", jose.field());
+        assertEquals("phoneNumber", customers("600123").get(0).field());
+        assertEquals("address", customers("baker st").get(0).field());
+
+        Customer added = customerService.addCustomer(customer("Mary Jones", "mary@example.com", null, null));
+        assertEquals(List.of(added.getCustomerId()), ids(customers("mary jon")));
+        customerService.updateCustomer(added.getCustomerId(),
+                customer("Mary Hunter", "mary@example.com", null, null));
+        assertEquals(List.of(), customers("mary jones"));
+        assertEquals(List.of(added.getCustomerId()), ids(customers("mary hunter")));
+        customerService.deleteCustomer(added.getCustomerId());
+        assertEquals(List.of(), customers("mary hunter"));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+            customerService.addCustomer(customer("Rolled Back", "gone@example.com", null, null));
+            tx.setRollbackOnly();
+        });
+        assertEquals(List.of(), customers("rolled back"));
+    }
+
+    @Test
+    void searchesGuarantorsSeparately() {
+        personSearchService.rebuildCustomers();
+        assertTrue(personSearchService.searchGuarantors("anna", 10).isEmpty());
+        personSearchService.rebuildGuarantors();
+
+        Guarantor guarantor = new Guarantor();
+        guarantor.setGuarantorName("Anna Lee");
+        guarantor.setPhoneNumber("0207 946 0000");
+        Long id = guarantorService.addGuarantor(guarantor).getGuarantorId();
+        assertEquals(List.of(id), personSearchService.searchGuarantors("anna le", 10).orElseThrow().hits().stream()
+                .map(hit -> hit.person().getGuarantorId()).toList());
+        assertEquals(List.of(), customers("anna lee"));
+        guarantorService.deleteGuarantor(id);
+        assertEquals(List.of(), personSearchService.searchGuarantors("anna lee", 10).orElseThrow().hits());
+        assertThrows(IllegalArgumentException.class, () -> personSearchService.searchCustomers(" ", 10));
+    }
+
+    private List<PersonSearchResults.Hit<Customer>> customers(String query) {
+        return personSearchService.searchCustomers(query, 10).orElseThrow().hits();
+    }
+
+    private static List<Long> ids(List<PersonSearchResults.Hit<Customer>> hits) {
+        return hits.stream().map(hit -> hit.person().getCustomerId()).toList();
+    }
+
+    private static Customer customer(String name, String email, String phoneNumber, String address) {
+        Customer customer = new Customer();
+        customer.setCustomerName(name);
+        customer.setEmail(email);
+        customer.setPhoneNumber(phoneNumber);
+        customer.setAddress(address);
+        return customer;
+    }
+}
@@ -0,0 +1,18 @@
+package com.examly.springapp.service;
+
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * The collaborators the services reach on their write paths: Jackson, the
+ * loan write guard, the outbox, the collections rollup and the in-memory
+ * read models. The read models stay empty unless a test enables them.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({ LoanWriteGuard.class, OutboxService.class, OutboxDispatcher.class, PaymentRollupService.class,
+        LoanBookService.class, PersonSearchService.class, NdjsonExporter.class })
+public class ServiceTestConfiguration {
+}
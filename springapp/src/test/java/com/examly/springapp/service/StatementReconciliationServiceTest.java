@@ -0,0 +1,138 @@
+package com.examly.springapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.examly.springapp.dto.ReconciliationReport;
+import com.examly.springapp.ingest.StatementFormat;
+
+/**
+ * Reconciles generated settlement files against a few hundred loans with
+ * small chunks, so duplicates have to be caught both inside a chunk and
+ * against chunks already posted. Throughput is printed for comparison.
+ */
+@H2ServiceTest(properties = {
+        "payments.reconciliation.chunk-size=50",
+        "payments.reconciliation.max-exceptions=10"
+})
+@Import({ StatementReconciliationService.class, BulkPaymentService.class })
+class StatementReconciliationServiceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementReconciliationServiceTest.class);
+
+    private static final int LOANS = 300;
+    private static final long LOAN_AMOUNT_MINOR = 1_000_000;
+
+    @Autowired
+    private StatementReconciliationService statementReconciliationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path dir;
+
+    private long firstId;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM outbox_events");
+        jdbcTemplate.update("DELETE FROM payment_daily_totals");
+        jdbcTemplate.update("DELETE FROM payments");
+        jdbcTemplate.update("DELETE FROM loans");
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < LOANS; i++) {
+            rows.add(new Object[] {LOAN_AMOUNT_MINOR});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO loans (loan_amount_minor, interest_rate_bps, tenure_months, status, "
+                + "version) VALUES (?, 750, 12, 'DISBURSED', 0)", rows);
+        firstId = jdbcTemplate.queryForObject("SELECT MIN(loan_id) FROM loans", Long.class);
+    }
+
+    @Test
+    void postsMatchedRowsAndReportsTheRest() throws IOException {
+        Path file = dir.resolve("statement.csv");
+        try (Writer out = Files.newBufferedWriter(file)) {
+            out.write("reference,loan,amount,date\n");
+            for (int i = 0; i < LOANS; i++) {
+                out.write("TX-" + i + ",LN-" + (firstId + i) + ",100.00,2024-03-01\n");
+            }
+            out.write("TX-5,LN-" + firstId + ",100.00,2024-03-01\n");
+            out.write("TX-U,999999999,100.00,2024-03-01\n");
+            out.write("TX-O," + firstId + ",20000.00,2024-03-01\n");
+            out.write("TX-B," + firstId + ",abc,2024-03-01\n");
+            out.write("TX-R," + firstId + ",100.00,2024-03-01\nTX-R," + firstId + ",100.00,2024-03-01\n");
+        }
+
+        long started = System.nanoTime();
+        ReconciliationReport report = statementReconciliationService.reconcile(file, StatementFormat.CSV);
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        logger.info("Reconciled {} rows in {} ms", report.rows(), millis);
+
+        assertEquals(LOANS + 7, report.lines());
+        assertEquals(LOANS + 6, report.rows());
+        assertEquals(LOANS + 1, report.posted());
+        assertEquals(1, report.unmatched());
+        assertEquals(2, report.duplicates());
+        assertEquals(1, report.rejected());
+        assertEquals(1, report.invalid());
+        assertEquals(0, report.failed());
+        Map<String, ReconciliationReport.Kind> kinds = report.exceptions().stream()
+                .collect(Collectors.toMap(row -> row.reference() + "@" + row.line(), ReconciliationReport.Row::kind));
+        assertEquals(Map.of(
+                "TX-5@" + (LOANS + 2), ReconciliationReport.Kind.DUPLICATE,
+                "TX-U@" + (LOANS + 3), ReconciliationReport.Kind.UNMATCHED,
+                "TX-O@" + (LOANS + 4), ReconciliationReport.Kind.REJECTED,
+                "TX-B@" + (LOANS + 5), ReconciliationReport.Kind.INVALID,
+                "TX-R@" + (LOANS + 7), ReconciliationReport.Kind.DUPLICATE), kinds);
+        assertEquals(LOANS + 1, count("SELECT COUNT(*) FROM payments"));
+        assertEquals(20_000, count("SELECT SUM(amount_minor) FROM payments WHERE loan_id = " + firstId));
+        assertEquals(count("SELECT SUM(amount_minor) FROM payments"),
+                count("SELECT SUM(amount_minor) FROM payment_daily_totals"));
+
+        // Sending the same file again posts nothing.
+        ReconciliationReport again = statementReconciliationService.reconcile(file, StatementFormat.CSV);
+        assertEquals(0, again.posted());
+        assertEquals(LOANS + 3, again.duplicates());
+        assertTrue(again.truncated());
+        assertEquals(10, again.exceptions().size());
+        assertEquals(LOANS + 1, count("SELECT COUNT(*) FROM payments"));
+    }
+
+    @Test
+    void readsFixedWidthFiles() throws IOException {
+        Path file = Files.writeString(dir.resolve("statement.dat"), String.format("%-20s%12s%15s%s%n%-20s%12s%15s%n",
+                "BANK-1", firstId, "12.34", "20240301", "BANK-2", firstId + 1, "5"));
+
+        ReconciliationReport report = statementReconciliationService.reconcile(file, StatementFormat.FIXED_WIDTH);
+
+        assertEquals(2, report.posted());
+        assertFalse(report.truncated());
+        assertEquals(1_234, count("SELECT amount_minor FROM payments WHERE bank_reference = 'BANK-1'"));
+        assertEquals(1, count("SELECT COUNT(*) FROM payments WHERE bank_reference = 'BANK-2' "
+                + "AND payment_date = CURRENT_DATE"));
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}